@@ -0,0 +1,36 @@
+import java.util.List;
+
+/**
+ * An assignment strategy that books the room whose free run of nights fits the stay most tightly.
+ * Filling the smallest gap that still fits leaves the long runs of other rooms whole for long
+ * stays, instead of cutting every room's calendar into one- and two-night holes.
+ * Each room's gap is found with two binary searches in its reservation index.
+ */
+public class BestFitAssignment implements RoomAssignmentStrategy {
+
+    /**
+     * Chooses the free room with the shortest free run around the stay.
+     *
+     * @param freeRooms the rooms free for the whole stay, in the order they were added to the hotel
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return the best-fitting room, the earliest added on ties, or null if the list is empty
+     */
+    @Override
+    public Room choose(List<Room> freeRooms, int checkInDay, int checkOutDay) {
+        Room best = null;
+        long bestGap = Long.MAX_VALUE;
+        long stayLength = checkOutDay - checkInDay;
+        for (Room room : freeRooms) {
+            long gap = room.getFreeGap(checkInDay, checkOutDay);
+            if (gap < bestGap) {
+                best = room;
+                bestGap = gap;
+                if (gap <= stayLength) {
+                    break; // The stay fills the gap exactly, so nothing fits better
+                }
+            }
+        }
+        return best;
+    }
+}
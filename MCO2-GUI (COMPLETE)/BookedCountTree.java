@@ -0,0 +1,123 @@
+import java.util.Arrays;
+
+/**
+ * A segment tree of booked counts per epoch day.
+ * Booking a stay adds one to every night of the stay and cancelling it takes the one back, and
+ * the highest count over any range of nights is read back in O(log days). Nodes are only created
+ * for the parts of the calendar that have been booked, so the tree covers every possible epoch
+ * day without allocating for the empty ones. Pending additions are kept on the node that covers
+ * a whole range instead of being pushed down to its children.
+ * The tree is not thread-safe; the hotel only touches it while holding its own lock.
+ */
+public class BookedCountTree {
+    private static final int INITIAL_CAPACITY = 64; // Nodes allocated for the first booking
+
+    private int[] left = new int[INITIAL_CAPACITY]; // Index of each node's lower child, or 0 if it has none
+    private int[] right = new int[INITIAL_CAPACITY]; // Index of each node's upper child, or 0 if it has none
+    private int[] added = new int[INITIAL_CAPACITY]; // Count added to every day of each node's range
+    private int[] max = new int[INITIAL_CAPACITY]; // Highest count in each node's range, including its own additions
+    private int nodeCount = 1; // Node 0 is the root, which covers every epoch day
+
+    /**
+     * Adds a count to every night of a stay.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day, which is not counted
+     * @param delta the count to add, such as 1 for a booking or -1 for a cancellation
+     */
+    public void add(int checkInDay, int checkOutDay, int delta) {
+        if (checkOutDay > checkInDay) {
+            add(0, Integer.MIN_VALUE, Integer.MAX_VALUE, checkInDay, checkOutDay - 1, delta);
+        }
+    }
+
+    /**
+     * Gets the highest count on any night of a stay.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day, which is not counted
+     * @return the highest count, or 0 if the stay has no nights
+     */
+    public int max(int checkInDay, int checkOutDay) {
+        if (checkOutDay <= checkInDay) {
+            return 0;
+        }
+        return max(0, Integer.MIN_VALUE, Integer.MAX_VALUE, checkInDay, checkOutDay - 1);
+    }
+
+    /**
+     * Adds a count to the days of a range that fall in a node's range.
+     *
+     * @param node the node
+     * @param low the first day of the node's range
+     * @param high the last day of the node's range
+     * @param from the first day of the range to add to
+     * @param to the last day of the range to add to
+     * @param delta the count to add
+     */
+    private void add(int node, int low, int high, int from, int to, int delta) {
+        if (from <= low && high <= to) {
+            added[node] += delta; // The whole node is covered, so stop here
+            max[node] += delta;
+            return;
+        }
+        int mid = (int) (((long) low + high) >> 1);
+        if (from <= mid) {
+            if (left[node] == 0) {
+                int child = newNode(); // Allocate before indexing, since allocating may replace the arrays
+                left[node] = child;
+            }
+            add(left[node], low, mid, from, to, delta);
+        }
+        if (to > mid) {
+            if (right[node] == 0) {
+                int child = newNode(); // Allocate before indexing, since allocating may replace the arrays
+                right[node] = child;
+            }
+            add(right[node], mid + 1, high, from, to, delta);
+        }
+        // Missing children have never been booked, so their highest count is 0
+        max[node] = added[node] + Math.max(left[node] == 0 ? 0 : max[left[node]], right[node] == 0 ? 0 : max[right[node]]);
+    }
+
+    /**
+     * Gets the highest count on the days of a range that fall in a node's range.
+     *
+     * @param node the node
+     * @param low the first day of the node's range
+     * @param high the last day of the node's range
+     * @param from the first day of the range to read
+     * @param to the last day of the range to read
+     * @return the highest count in the overlap of the two ranges
+     */
+    private int max(int node, int low, int high, int from, int to) {
+        if (from <= low && high <= to) {
+            return max[node];
+        }
+        int mid = (int) (((long) low + high) >> 1);
+        int highest = Integer.MIN_VALUE;
+        if (from <= mid) {
+            highest = left[node] == 0 ? 0 : max(left[node], low, mid, from, to);
+        }
+        if (to > mid) {
+            highest = Math.max(highest, right[node] == 0 ? 0 : max(right[node], mid + 1, high, from, to));
+        }
+        return added[node] + highest;
+    }
+
+    /**
+     * Allocates an empty node, growing the arrays when they are full.
+     *
+     * @return the index of the new node
+     */
+    private int newNode() {
+        if (nodeCount == left.length) {
+            int capacity = nodeCount * 2;
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            added = Arrays.copyOf(added, capacity);
+            max = Arrays.copyOf(max, capacity);
+        }
+        return nodeCount++;
+    }
+}
@@ -0,0 +1,1008 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only binary journal of every change made to the hotels, with periodic snapshots.
+ * Changes are appended to an in-memory buffer while the changed hotel is locked, and a background
+ * thread writes and forces to disk everything that has piled up in one go (group commit), so
+ * concurrent bookings share the cost of each fsync. A snapshot stores the full state and starts a
+ * new journal holding only what changed while it was written, which keeps replay on startup short.
+ * The hotels are locked only while their state is copied, not while the snapshot is written.
+ *
+ * The journal file is a header (magic number, generation) followed by records framed as
+ * [length][payload][CRC32]. Snapshots are ColumnarSnapshot files named after their generation,
+ * and are memory-mapped on startup. A journal whose generation does not match the latest
+ * snapshot is already contained in it and is ignored.
+ */
+public class BookingJournal implements Closeable {
+    private static final int JOURNAL_MAGIC = 0x484A524E; // Marks a journal file
+    private static final int HEADER_SIZE = 12; // Magic number and generation
+    private static final long SNAPSHOT_THRESHOLD = 4L * 1024 * 1024; // Journal size that calls for a new snapshot
+    private static final String JOURNAL_NAME = "hotels.journal"; // Journal file
+    private static final String NEXT_JOURNAL_NAME = "hotels.journal.next"; // Journal being prepared by a snapshot
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("hotels-(\\d+)\\.snapshot"); // Snapshot file of a generation
+
+    // Record types
+    private static final byte CREATE_HOTEL = 1;
+    private static final byte REMOVE_HOTEL = 2;
+    private static final byte RENAME_HOTEL = 3;
+    private static final byte ADD_ROOM = 4;
+    private static final byte REMOVE_ROOM = 5;
+    private static final byte CANCEL = 7;
+    private static final byte UPDATE_RESERVATION = 8;
+    private static final byte ADD_MODIFIER = 9;
+    private static final byte REMOVE_MODIFIER = 10;
+    private static final byte BASE_PRICE = 11;
+    private static final byte BOOK_PRICED = 13;
+    private static final byte HOLD = 14;
+    private static final byte CANCEL_HOLD = 15;
+    private static final byte PLAN_HOLD = 16;
+    private static final byte ASSIGNED_THROUGH = 17;
+    private static final byte MOVE_RESERVATION = 18;
+
+    private final Path directory; // Directory holding the journal and snapshots
+    private FileChannel channel; // Open journal file, replaced when a snapshot starts a new one
+    private final Thread flusher; // Background thread doing the group commits
+    private final Object lock = new Object(); // Guards the buffers and counters below
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(); // Framed records not yet written
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(); // Payload of the record being appended
+    private final DataOutputStream record = new DataOutputStream(recordBytes); // Writer for the record payload
+    private final CRC32 crc = new CRC32(); // Checksum of the record being appended
+    private long generation; // Generation shared by the current snapshot and journal
+    private long appended; // Number of records appended
+    private long durable; // Number of records written and forced to disk
+    private long journalSize; // Size of the journal file once pending records are written
+    private boolean closed; // Whether the journal has been closed
+    private IOException failure; // First write error, after which nothing more is durable
+
+    /**
+     * Writes the fields of one record.
+     */
+    private interface RecordWriter {
+        /**
+         * Writes the fields of the record.
+         *
+         * @param out the stream to write to
+         * @throws IOException if writing fails
+         */
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Constructs a journal over an open journal file and starts its group commit thread.
+     *
+     * @param directory the directory holding the journal and snapshots
+     * @param channel the open journal file, positioned at its end
+     * @param generation the generation of the snapshot and journal
+     * @param journalSize the current size of the journal file
+     */
+    private BookingJournal(Path directory, FileChannel channel, long generation, long journalSize) {
+        this.directory = directory;
+        this.channel = channel;
+        this.generation = generation;
+        this.journalSize = journalSize;
+        this.flusher = new Thread(this::flushLoop, "booking-journal");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Opens the journal in a directory, restoring the saved hotels into the service.
+     * The latest snapshot is mapped first, then the journal records written after it are replayed.
+     * A record left half-written by a crash is dropped.
+     *
+     * @param directory the directory holding the snapshot and journal files
+     * @param service the service to restore the hotels into
+     * @return the opened journal
+     * @throws IOException if the files cannot be read or written
+     */
+    public static BookingJournal open(Path directory, HotelService service) throws IOException {
+        Files.createDirectories(directory);
+        Path journalFile = directory.resolve(JOURNAL_NAME);
+
+        Map<String, Hotel> hotels = new LinkedHashMap<>(); // Restored hotels keyed by lower-case name
+        long generation = latestSnapshot(directory);
+        if (generation > 0) {
+            ColumnarSnapshot snapshot = ColumnarSnapshot.map(snapshotFile(directory, generation));
+            for (Hotel hotel : snapshot.getHotels()) {
+                hotels.put(key(hotel.getName()), hotel);
+            }
+            deleteOlderSnapshots(directory, generation); // Left behind if a crash or a mapping kept them
+        }
+        recoverNextJournal(directory, generation);
+
+        FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long end = replay(channel, generation, hotels);
+        if (end < 0) {
+            // No journal for this generation yet, so start an empty one
+            channel.truncate(0);
+            writeHeader(channel, generation);
+            end = HEADER_SIZE;
+        } else {
+            channel.truncate(end); // Drop a torn record left by a crash
+        }
+        channel.force(true);
+        channel.position(end);
+
+        for (Hotel hotel : hotels.values()) {
+            service.restoreHotel(hotel);
+        }
+        return new BookingJournal(directory, channel, generation, end);
+    }
+
+    /**
+     * Records that a hotel was created.
+     *
+     * @param hotel the name of the hotel
+     */
+    public void createHotel(String hotel) {
+        append(CREATE_HOTEL, out -> out.writeUTF(hotel));
+    }
+
+    /**
+     * Records that a hotel was removed.
+     *
+     * @param hotel the name of the hotel
+     */
+    public void removeHotel(String hotel) {
+        append(REMOVE_HOTEL, out -> out.writeUTF(hotel));
+    }
+
+    /**
+     * Records that a hotel was renamed.
+     *
+     * @param oldName the previous name of the hotel
+     * @param newName the new name of the hotel
+     */
+    public void renameHotel(String oldName, String newName) {
+        append(RENAME_HOTEL, out -> {
+            out.writeUTF(oldName);
+            out.writeUTF(newName);
+        });
+    }
+
+    /**
+     * Records that a room was added to a hotel.
+     *
+     * @param hotel the name of the hotel
+     * @param room the name of the room
+     * @param roomType the type of the room
+     * @param basePrice the base price of the room
+     */
+    public void addRoom(String hotel, String room, String roomType, double basePrice) {
+        append(ADD_ROOM, out -> {
+            out.writeUTF(hotel);
+            out.writeUTF(room);
+            out.writeUTF(roomType);
+            out.writeDouble(basePrice);
+        });
+    }
+
+    /**
+     * Records that a room was removed from a hotel.
+     *
+     * @param hotel the name of the hotel
+     * @param room the name of the room
+     */
+    public void removeRoom(String hotel, String room) {
+        append(REMOVE_ROOM, out -> {
+            out.writeUTF(hotel);
+            out.writeUTF(room);
+        });
+    }
+
+    /**
+     * Records that a reservation was made, with its discount code and final price.
+     *
+     * @param hotel the name of the hotel
+     * @param reservation the reservation that was made
+     */
+    public void book(String hotel, Reservation reservation) {
+        append(BOOK_PRICED, out -> {
+            out.writeUTF(hotel);
+            out.writeInt(reservation.getId());
+            out.writeUTF(reservation.getRoom().getName());
+            out.writeUTF(reservation.getGuestName());
+            out.writeInt(reservation.getCheckInDay());
+            out.writeInt(reservation.getCheckOutDay());
+            writeDiscountCode(out, reservation);
+            out.writeDouble(reservation.getFinalPrice());
+        });
+    }
+
+    /**
+     * Records that a reservation was cancelled.
+     *
+     * @param hotel the name of the hotel
+     * @param reservationId the ID of the reservation
+     */
+    public void cancel(String hotel, int reservationId) {
+        append(CANCEL, out -> {
+            out.writeUTF(hotel);
+            out.writeInt(reservationId);
+        });
+    }
+
+    /**
+     * Records that a stay was sold against a room type without a room.
+     *
+     * @param hotel the name of the hotel
+     * @param hold the hold that was made
+     */
+    public void hold(String hotel, RoomTypeHold hold) {
+        append(HOLD, holdFields(hotel, hold));
+    }
+
+    /**
+     * Gets a writer for the fields of a hold record.
+     *
+     * @param hotel the name of the hotel
+     * @param hold the hold
+     * @return the writer
+     */
+    private static RecordWriter holdFields(String hotel, RoomTypeHold hold) {
+        return out -> {
+            out.writeUTF(hotel);
+            out.writeInt(hold.getId());
+            out.writeUTF(hold.getRoomType());
+            out.writeUTF(hold.getGuestName());
+            out.writeInt(hold.getCheckInDay());
+            out.writeInt(hold.getCheckOutDay());
+            out.writeDouble(hold.getPrice());
+            out.writeBoolean(hold.getDiscountCode() != null);
+            if (hold.getDiscountCode() != null) {
+                out.writeUTF(hold.getDiscountCode());
+            }
+            out.writeUTF(hold.getPlannedRoom() == null ? "" : hold.getPlannedRoom().getName());
+        };
+    }
+
+    /**
+     * Records that a hold was cancelled or replaced by a reservation.
+     *
+     * @param hotel the name of the hotel
+     * @param holdId the ID of the hold
+     */
+    public void cancelHold(String hotel, int holdId) {
+        append(CANCEL_HOLD, out -> {
+            out.writeUTF(hotel);
+            out.writeInt(holdId);
+        });
+    }
+
+    /**
+     * Records the room set aside for a hold.
+     *
+     * @param hotel the name of the hotel
+     * @param hold the hold whose planned room changed
+     */
+    public void planHold(String hotel, RoomTypeHold hold) {
+        append(PLAN_HOLD, out -> {
+            out.writeUTF(hotel);
+            out.writeInt(hold.getId());
+            out.writeUTF(hold.getPlannedRoom() == null ? "" : hold.getPlannedRoom().getName());
+        });
+    }
+
+    /**
+     * Records that the holds of a hotel were given rooms up to a check-in day.
+     *
+     * @param hotel the name of the hotel
+     * @param day the last check-in epoch day whose holds have rooms
+     */
+    public void assignedThrough(String hotel, int day) {
+        append(ASSIGNED_THROUGH, assignedThroughFields(hotel, day));
+    }
+
+    /**
+     * Gets a writer for the fields of an assigned-through record.
+     *
+     * @param hotel the name of the hotel
+     * @param day the last check-in epoch day whose holds have rooms
+     * @return the writer
+     */
+    private static RecordWriter assignedThroughFields(String hotel, int day) {
+        return out -> {
+            out.writeUTF(hotel);
+            out.writeInt(day);
+        };
+    }
+
+    /**
+     * Records that a reservation was moved to another room.
+     *
+     * @param hotel the name of the hotel
+     * @param reservation the reservation in its new room
+     */
+    public void moveReservation(String hotel, Reservation reservation) {
+        append(MOVE_RESERVATION, out -> {
+            out.writeUTF(hotel);
+            out.writeInt(reservation.getId());
+            out.writeUTF(reservation.getRoom().getName());
+        });
+    }
+
+    /**
+     * Records a new discount code or final price of a reservation.
+     *
+     * @param hotel the name of the hotel
+     * @param reservation the reservation that changed
+     */
+    public void updateReservation(String hotel, Reservation reservation) {
+        append(UPDATE_RESERVATION, out -> {
+            out.writeUTF(hotel);
+            out.writeInt(reservation.getId());
+            writeDiscountCode(out, reservation);
+            out.writeDouble(reservation.getFinalPrice());
+        });
+    }
+
+    /**
+     * Records that a date price modifier was added to a hotel.
+     *
+     * @param hotel the name of the hotel
+     * @param modifier the modifier that was added
+     */
+    public void addModifier(String hotel, DatePriceModifier modifier) {
+        append(ADD_MODIFIER, out -> {
+            out.writeUTF(hotel);
+            writeModifier(out, modifier);
+        });
+    }
+
+    /**
+     * Records that a date price modifier was removed from a hotel.
+     *
+     * @param hotel the name of the hotel
+     * @param modifier the modifier that was removed
+     */
+    public void removeModifier(String hotel, DatePriceModifier modifier) {
+        append(REMOVE_MODIFIER, out -> {
+            out.writeUTF(hotel);
+            writeModifier(out, modifier);
+        });
+    }
+
+    /**
+     * Records that the base price of every room in a hotel was changed.
+     *
+     * @param hotel the name of the hotel
+     * @param basePrice the new base price
+     */
+    public void updateBasePrice(String hotel, double basePrice) {
+        append(BASE_PRICE, out -> {
+            out.writeUTF(hotel);
+            out.writeDouble(basePrice);
+        });
+    }
+
+    /**
+     * Waits until every record appended so far has been forced to disk.
+     *
+     * @throws UncheckedIOException if the journal could not be written
+     */
+    public void sync() {
+        try {
+            awaitDurable();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save the change to the journal.", e);
+        }
+    }
+
+    /**
+     * Checks if the journal has grown enough that a new snapshot should be taken.
+     *
+     * @return true if a snapshot is due, false otherwise
+     */
+    public boolean needsSnapshot() {
+        synchronized (lock) {
+            return journalSize > SNAPSHOT_THRESHOLD;
+        }
+    }
+
+    /**
+     * Starts a snapshot by copying the state of the hotels and marking how far the journal has got.
+     * The caller must make sure the hotels cannot change while this runs, which takes only as long
+     * as copying them; finishSnapshot then writes the file while the hotels carry on.
+     *
+     * @param hotels every hotel in the system
+     * @return the started snapshot
+     */
+    public PendingSnapshot beginSnapshot(List<Hotel> hotels) {
+        List<ColumnarSnapshot.HotelState> states = ColumnarSnapshot.capture(hotels);
+        synchronized (lock) {
+            // The snapshot only holds rooms and reservations, so the holds are carried over into the new journal
+            ByteArrayOutputStream carried = new ByteArrayOutputStream();
+            for (Hotel hotel : hotels) {
+                if (hotel.getAssignedThroughDay() != Integer.MIN_VALUE) {
+                    frame(ASSIGNED_THROUGH, assignedThroughFields(hotel.getName(), hotel.getAssignedThroughDay()), carried);
+                }
+                for (RoomTypeHold hold : hotel.getHolds()) {
+                    frame(HOLD, holdFields(hotel.getName(), hold), carried);
+                }
+            }
+            return new PendingSnapshot(generation + 1, journalSize, states, carried.toByteArray());
+        }
+    }
+
+    /**
+     * Writes a started snapshot and starts a new journal, without holding any hotel.
+     * The new journal holds the carried-over holds and every record appended since the snapshot
+     * was started. It is written in full under a temporary name before the snapshot is renamed
+     * into place, so after a crash open finds either the old snapshot and journal or the new ones.
+     *
+     * @param snapshot the snapshot started by beginSnapshot
+     * @throws IOException if the snapshot or journal cannot be written
+     */
+    public void finishSnapshot(PendingSnapshot snapshot) throws IOException {
+        // Write under a temporary name and rename in one step so a crash never leaves half a snapshot
+        Path snapshotFile = snapshotFile(directory, snapshot.generation);
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        ColumnarSnapshot.write(temporary, snapshot.generation, snapshot.hotels);
+
+        synchronized (lock) {
+            // Wait until everything is on disk; appends wait for the lock, so the flusher then stays idle
+            while (durable < appended && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the journal.", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+
+            Path journalFile = directory.resolve(JOURNAL_NAME);
+            Path nextJournal = directory.resolve(NEXT_JOURNAL_NAME);
+            long size;
+            try (FileChannel next = FileChannel.open(nextJournal, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeHeader(next, snapshot.generation);
+                ByteBuffer carried = ByteBuffer.wrap(snapshot.carried);
+                while (carried.hasRemaining()) {
+                    next.write(carried);
+                }
+                long position = snapshot.journalEnd;
+                while (position < journalSize) {
+                    position += channel.transferTo(position, journalSize - position, next); // Records appended since the start
+                }
+                next.force(true);
+                size = next.size();
+            }
+            Files.move(temporary, snapshotFile, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(nextJournal, journalFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            channel.close();
+            channel = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(size);
+            generation = snapshot.generation;
+            journalSize = size;
+        }
+        // Older snapshots may still be mapped by hotels that have not loaded every reservation
+        deleteOlderSnapshots(directory, snapshot.generation);
+    }
+
+    /**
+     * Writes any pending records and closes the journal file.
+     *
+     * @throws IOException if the journal file cannot be closed
+     */
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll(); // Let the flusher write what is left and stop
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    /**
+     * Frames a record and adds it to the pending buffer for the next group commit.
+     *
+     * @param type the record type
+     * @param fields writes the fields of the record
+     */
+    private void append(byte type, RecordWriter fields) {
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("The journal is closed.");
+            }
+            journalSize += frame(type, fields, pending);
+            appended++;
+            lock.notifyAll(); // Wake the flusher
+        }
+    }
+
+    /**
+     * Frames a record as [length][payload][CRC32] into a buffer. Called while holding the lock.
+     *
+     * @param type the record type
+     * @param fields writes the fields of the record
+     * @param target the buffer to add the framed record to
+     * @return the size of the framed record
+     */
+    private int frame(byte type, RecordWriter fields, ByteArrayOutputStream target) {
+        try {
+            recordBytes.reset();
+            record.writeByte(type);
+            fields.write(record);
+
+            crc.reset();
+            crc.update(recordBytes.toByteArray());
+            DataOutputStream frame = new DataOutputStream(target);
+            frame.writeInt(recordBytes.size());
+            recordBytes.writeTo(frame);
+            frame.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Writing to memory does not fail
+        }
+        return recordBytes.size() + 8;
+    }
+
+    /**
+     * Waits until every record appended so far has been forced to disk.
+     *
+     * @throws IOException if the journal could not be written
+     */
+    private void awaitDurable() throws IOException {
+        synchronized (lock) {
+            long target = appended;
+            while (durable < target && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the journal.", e);
+                }
+            }
+            if (durable < target) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Writes pending records in batches until the journal is closed.
+     * Records appended while one batch is being forced to disk are written together in the next batch.
+     */
+    private void flushLoop() {
+        while (true) {
+            byte[] batch;
+            long batchEnd;
+            FileChannel target; // Only replaced by a snapshot once nothing is left to write
+            synchronized (lock) {
+                while (pending.size() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return; // Stop flushing if interrupted
+                    }
+                }
+                if (pending.size() == 0) {
+                    return; // Closed and nothing left to write
+                }
+                batch = pending.toByteArray();
+                pending.reset();
+                batchEnd = appended;
+                target = channel;
+            }
+
+            IOException error = null;
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch);
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                target.force(false); // One fsync for the whole batch
+            } catch (IOException e) {
+                error = e;
+            }
+
+            synchronized (lock) {
+                if (error == null) {
+                    durable = batchEnd;
+                } else if (failure == null) {
+                    failure = error;
+                }
+                lock.notifyAll(); // Release the threads waiting on this batch
+            }
+            if (error != null) {
+                return; // Later records cannot be made durable after a failed write
+            }
+        }
+    }
+
+    /**
+     * Replays the journal records of a generation into the restored hotels.
+     *
+     * @param channel the journal file
+     * @param generation the generation of the loaded snapshot
+     * @param hotels the restored hotels keyed by lower-case name
+     * @return the end of the last complete record, or -1 if the journal does not belong to the generation
+     * @throws IOException if the journal cannot be read
+     */
+    private static long replay(FileChannel channel, long generation, Map<String, Hotel> hotels) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            return -1; // New or empty journal
+        }
+        channel.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        if (in.readInt() != JOURNAL_MAGIC || in.readLong() != generation) {
+            return -1; // Journal from before the snapshot, already contained in it
+        }
+
+        CRC32 crc = new CRC32();
+        long position = HEADER_SIZE;
+        while (position + 8 <= size) {
+            int length = in.readInt();
+            if (length <= 0 || position + 8 + length > size) {
+                break; // Record was cut off by a crash
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            int checksum = in.readInt();
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break; // Record was only partly written
+            }
+            apply(payload, hotels);
+            position += 8 + length;
+        }
+        return position;
+    }
+
+    /**
+     * Applies one journal record to the restored hotels.
+     *
+     * @param payload the record type and fields
+     * @param hotels the restored hotels keyed by lower-case name
+     * @throws IOException if the record cannot be read
+     */
+    private static void apply(byte[] payload, Map<String, Hotel> hotels) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        if (type == CREATE_HOTEL) {
+            String name = in.readUTF();
+            hotels.put(key(name), new Hotel(name));
+            return;
+        }
+        if (type == RENAME_HOTEL) {
+            Hotel hotel = hotels.remove(key(in.readUTF()));
+            String newName = in.readUTF();
+            if (hotel != null) {
+                hotel.changeName(newName);
+                hotels.put(key(newName), hotel);
+            }
+            return;
+        }
+
+        Hotel hotel = hotels.get(key(in.readUTF()));
+        if (hotel == null) {
+            return; // Hotel was removed before this record
+        }
+        switch (type) {
+            case REMOVE_HOTEL:
+                hotels.remove(key(hotel.getName()));
+                break;
+            case ADD_ROOM: {
+                String room = in.readUTF();
+                String roomType = in.readUTF();
+                hotel.addRoom(room, in.readDouble(), roomType);
+                break;
+            }
+            case REMOVE_ROOM: {
+                Room room = hotel.getRoomInfo(in.readUTF());
+                if (room != null) {
+                    hotel.removeRoom(room);
+                }
+                break;
+            }
+            case BOOK_PRICED: {
+                int id = in.readInt();
+                String roomName = in.readUTF();
+                String guestName = in.readUTF();
+                int checkInDay = in.readInt();
+                int checkOutDay = in.readInt();
+                restoreReservation(hotel, id, roomName, guestName, checkInDay, checkOutDay, readDiscountCode(in), in.readDouble());
+                break;
+            }
+            case CANCEL: {
+                Reservation reservation = hotel.getReservationById(in.readInt());
+                if (reservation != null) {
+                    hotel.removeReservation(reservation);
+                }
+                break;
+            }
+            case UPDATE_RESERVATION: {
+                Reservation reservation = hotel.getReservationById(in.readInt());
+                String discountCode = readDiscountCode(in);
+                double finalPrice = in.readDouble();
+                if (reservation != null) {
+                    reservation.setDiscountCode(discountCode);
+                    reservation.setFinalPrice(finalPrice);
+                }
+                break;
+            }
+            case ADD_MODIFIER:
+                hotel.addDatePriceModifier(new DatePriceModifier(in.readInt(), in.readInt(), in.readDouble()));
+                break;
+            case REMOVE_MODIFIER: {
+                int startDay = in.readInt();
+                int endDay = in.readInt();
+                double modifier = in.readDouble();
+                DatePriceModifier existing = hotel.getDatePriceModifier(startDay);
+                if (existing != null && existing.getStartDay() == startDay && existing.getEndDay() == endDay && existing.getModifier() == modifier) {
+                    hotel.removeDatePriceModifier(existing);
+                }
+                break;
+            }
+            case BASE_PRICE:
+                hotel.updateBasePrice(in.readDouble());
+                break;
+            case HOLD: {
+                int id = in.readInt();
+                String roomType = in.readUTF();
+                RoomTypeHold hold = new RoomTypeHold(id, in.readUTF(), roomType, in.readInt(), in.readInt(), in.readDouble(), readDiscountCode(in));
+                hold.setPlannedRoom(hotel.getRoomInfo(in.readUTF())); // Null when no room was set aside
+                hotel.addHold(hold);
+                break;
+            }
+            case CANCEL_HOLD: {
+                RoomTypeHold hold = hotel.getHoldById(in.readInt());
+                if (hold != null) {
+                    hotel.cancelHold(hold);
+                }
+                break;
+            }
+            case PLAN_HOLD: {
+                RoomTypeHold hold = hotel.getHoldById(in.readInt());
+                Room room = hotel.getRoomInfo(in.readUTF());
+                if (hold != null) {
+                    hotel.restorePlannedRoom(hold, room);
+                }
+                break;
+            }
+            case ASSIGNED_THROUGH:
+                hotel.restoreAssignedThroughDay(in.readInt());
+                break;
+            case MOVE_RESERVATION: {
+                Reservation reservation = hotel.getReservationById(in.readInt());
+                Room room = hotel.getRoomInfo(in.readUTF());
+                if (reservation != null && room != null) {
+                    hotel.tryMoveReservation(reservation, room, () -> true); // Nothing else runs during a restore
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal record type " + type + ".");
+        }
+    }
+
+    /**
+     * Recreates a reservation with its original ID.
+     *
+     * @param hotel the hotel of the reservation
+     * @param id the ID of the reservation
+     * @param roomName the name of the booked room
+     * @param guestName the name of the guest
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param discountCode the discount code, or null if none was applied
+     * @param finalPrice the final price at booking time
+     * @return the restored reservation, or null if the room no longer exists
+     */
+    private static Reservation restoreReservation(Hotel hotel, int id, String roomName, String guestName, int checkInDay, int checkOutDay, String discountCode, double finalPrice) {
+        Room room = hotel.getRoomInfo(roomName);
+        if (room == null) {
+            return null; // Room was not saved, so the reservation cannot be placed
+        }
+        Reservation reservation = new Reservation(id, guestName, checkInDay, checkOutDay, room, hotel);
+        if (discountCode != null) {
+            reservation.storeDiscountCode(discountCode);
+        }
+        reservation.storeFinalPrice(finalPrice); // Before the earnings count it
+        hotel.addReservation(reservation);
+        return reservation;
+    }
+
+    /**
+     * Writes a date price modifier.
+     *
+     * @param out the stream to write to
+     * @param modifier the modifier to write
+     * @throws IOException if writing fails
+     */
+    private static void writeModifier(DataOutputStream out, DatePriceModifier modifier) throws IOException {
+        out.writeInt(modifier.getStartDay());
+        out.writeInt(modifier.getEndDay());
+        out.writeDouble(modifier.getModifier());
+    }
+
+    /**
+     * Writes the discount code of a reservation, which may be missing.
+     *
+     * @param out the stream to write to
+     * @param reservation the reservation whose code is written
+     * @throws IOException if writing fails
+     */
+    private static void writeDiscountCode(DataOutputStream out, Reservation reservation) throws IOException {
+        out.writeBoolean(reservation.hasDiscountCode());
+        if (reservation.hasDiscountCode()) {
+            out.writeUTF(reservation.getDiscountCode());
+        }
+    }
+
+    /**
+     * Reads a discount code written by writeDiscountCode.
+     *
+     * @param in the stream to read from
+     * @return the discount code, or null if none was set
+     * @throws IOException if reading fails
+     */
+    private static String readDiscountCode(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Finds the generation of the newest snapshot in a directory.
+     *
+     * @param directory the directory to search
+     * @return the newest generation, or 0 if there is no snapshot
+     * @throws IOException if the directory cannot be listed
+     */
+    private static long latestSnapshot(Path directory) throws IOException {
+        long latest = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher matcher = SNAPSHOT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    latest = Math.max(latest, Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Deletes the snapshots older than a generation, skipping any that cannot be deleted yet.
+     * A snapshot that is still mapped cannot be deleted on some systems and is retried next time.
+     *
+     * @param directory the directory holding the snapshots
+     * @param generation the generation to keep
+     */
+    private static void deleteOlderSnapshots(Path directory, long generation) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher matcher = SNAPSHOT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && Long.parseLong(matcher.group(1)) < generation) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        // Still in use; it is ignored on startup and deleted later
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Old snapshots are ignored on startup, so failing to delete them is harmless
+        }
+    }
+
+    /**
+     * Deals with a journal left behind by a snapshot that a crash interrupted.
+     * If the snapshot it belongs to was renamed into place, the journal is complete and replaces
+     * the old one; otherwise the snapshot never happened and the journal is deleted.
+     *
+     * @param directory the directory holding the journal and snapshots
+     * @param generation the generation of the latest snapshot
+     * @throws IOException if the journal cannot be moved or deleted
+     */
+    private static void recoverNextJournal(Path directory, long generation) throws IOException {
+        Path nextJournal = directory.resolve(NEXT_JOURNAL_NAME);
+        if (!Files.exists(nextJournal)) {
+            return;
+        }
+        long nextGeneration = -1;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(nextJournal))) {
+            if (in.readInt() == JOURNAL_MAGIC) {
+                nextGeneration = in.readLong();
+            }
+        } catch (EOFException e) {
+            // Cut off before its header was written
+        }
+        if (nextGeneration == generation) {
+            Files.move(nextJournal, directory.resolve(JOURNAL_NAME), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(nextJournal);
+        }
+    }
+
+    /**
+     * Gets the snapshot file of a generation.
+     *
+     * @param directory the directory holding the snapshots
+     * @param generation the generation of the snapshot
+     * @return the snapshot file
+     */
+    private static Path snapshotFile(Path directory, long generation) {
+        return directory.resolve("hotels-" + generation + ".snapshot");
+    }
+
+    /**
+     * Writes the journal header for a generation at the current position.
+     *
+     * @param channel the journal file
+     * @param generation the generation of the journal
+     * @throws IOException if writing fails
+     */
+    private static void writeHeader(FileChannel channel, long generation) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(JOURNAL_MAGIC).putLong(generation).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    /**
+     * Converts a hotel name to the case-folded key used while restoring.
+     *
+     * @param name the hotel name
+     * @return the lower-case form of the name
+     */
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A snapshot whose state has been copied but whose file has not been written yet.
+     */
+    public static final class PendingSnapshot {
+        private final long generation; // Generation of the snapshot
+        private final long journalEnd; // End of the journal when the state was copied
+        private final List<ColumnarSnapshot.HotelState> hotels; // Copied state of every hotel
+        private final byte[] carried; // Framed hold records that start the new journal
+
+        /**
+         * Constructs a started snapshot.
+         *
+         * @param generation the generation of the snapshot
+         * @param journalEnd the end of the journal when the state was copied
+         * @param hotels the copied state of every hotel
+         * @param carried the framed hold records that start the new journal
+         */
+        private PendingSnapshot(long generation, long journalEnd, List<ColumnarSnapshot.HotelState> hotels, byte[] carried) {
+            this.generation = generation;
+            this.journalEnd = journalEnd;
+            this.hotels = hotels;
+            this.carried = carried;
+        }
+    }
+}
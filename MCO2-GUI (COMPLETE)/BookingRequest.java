@@ -0,0 +1,100 @@
+import java.util.Date;
+
+/**
+ * Represents one room request in a batch booking, such as a single room of a group or tour block.
+ */
+public class BookingRequest {
+    private Hotel hotel; // Hotel to book in
+    private String guestName; // Name of the guest
+    private int checkInDay; // Check-in epoch day
+    private int checkOutDay; // Check-out epoch day
+    private String roomType; // Preferred room type, or null for any type
+    private String discountCode; // Discount code to apply, or null for none
+
+    /**
+     * Constructs a new booking request with the specified dates.
+     *
+     * @param hotel the hotel to book in
+     * @param guestName the name of the guest
+     * @param checkInDate the check-in date
+     * @param checkOutDate the check-out date
+     * @param roomType the preferred room type (Standard, Deluxe, Executive), or null for any type
+     * @param discountCode the discount code to apply, or null for none
+     */
+    public BookingRequest(Hotel hotel, String guestName, Date checkInDate, Date checkOutDate, String roomType, String discountCode) {
+        this(hotel, guestName, EpochDay.of(checkInDate), EpochDay.of(checkOutDate), roomType, discountCode); // Convert the dates to epoch days
+    }
+
+    /**
+     * Constructs a new booking request with the specified epoch days.
+     *
+     * @param hotel the hotel to book in
+     * @param guestName the name of the guest
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param roomType the preferred room type (Standard, Deluxe, Executive), or null for any type
+     * @param discountCode the discount code to apply, or null for none
+     */
+    public BookingRequest(Hotel hotel, String guestName, int checkInDay, int checkOutDay, String roomType, String discountCode) {
+        this.hotel = hotel;
+        this.guestName = guestName;
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
+        this.roomType = roomType;
+        this.discountCode = discountCode;
+    }
+
+    /**
+     * Gets the hotel to book in.
+     *
+     * @return the hotel
+     */
+    public Hotel getHotel() {
+        return hotel;
+    }
+
+    /**
+     * Gets the name of the guest.
+     *
+     * @return the guest name
+     */
+    public String getGuestName() {
+        return guestName;
+    }
+
+    /**
+     * Gets the check-in epoch day.
+     *
+     * @return the check-in epoch day
+     */
+    public int getCheckInDay() {
+        return checkInDay;
+    }
+
+    /**
+     * Gets the check-out epoch day.
+     *
+     * @return the check-out epoch day
+     */
+    public int getCheckOutDay() {
+        return checkOutDay;
+    }
+
+    /**
+     * Gets the preferred room type.
+     *
+     * @return the preferred room type, or null for any type
+     */
+    public String getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Gets the discount code to apply.
+     *
+     * @return the discount code, or null for none
+     */
+    public String getDiscountCode() {
+        return discountCode;
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Represents the outcome of one request in a batch booking.
+ */
+public class BookingResult {
+    private BookingRequest request; // The request this result answers
+    private Reservation reservation; // The reservation made, or null if the request was not booked
+    private String message; // Explanation of the outcome
+
+    /**
+     * Constructs a result for a request that was booked.
+     *
+     * @param request the request that was booked
+     * @param reservation the reservation made for the request
+     */
+    public BookingResult(BookingRequest request, Reservation reservation) {
+        this.request = request;
+        this.reservation = reservation;
+        this.message = "Booked room " + reservation.getRoom().getName() + ".";
+    }
+
+    /**
+     * Constructs a result for a request that was not booked.
+     *
+     * @param request the request that was not booked
+     * @param message the reason the request was not booked
+     */
+    public BookingResult(BookingRequest request, String message) {
+        this.request = request;
+        this.reservation = null;
+        this.message = message;
+    }
+
+    /**
+     * Checks if the request was booked.
+     *
+     * @return true if a reservation was made, false otherwise
+     */
+    public boolean isBooked() {
+        return reservation != null;
+    }
+
+    /**
+     * Gets the request this result answers.
+     *
+     * @return the booking request
+     */
+    public BookingRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Gets the reservation made for the request.
+     *
+     * @return the reservation, or null if the request was not booked
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    /**
+     * Gets the explanation of the outcome.
+     *
+     * @return the result message
+     */
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,597 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An embedded HTTP server that exposes a HotelService as a small JSON API.
+ * Every request runs on its own virtual thread when the JDK has them, and on a pooled platform
+ * thread otherwise, so a request waiting for the journal never holds up the others.
+ *
+ * Endpoints, with parameters in the query string or, for POST, a form-encoded body:
+ *   GET    /hotels          hotel names
+ *   GET    /availability    free rooms and free rooms per type for a stay: hotel, checkIn, checkOut
+ *   GET    /windows         earliest free stays of a room type: hotel, roomType, from, nights, optional count
+ *   GET    /quote           price of a stay: hotel, roomType, checkIn, checkOut, optional discountCode
+ *   POST   /bookings        book a stay: hotel, guestName, checkIn, checkOut, optional room and discountCode,
+ *                           or optional roomType instead of room to sell the type and assign the room later
+ *   DELETE /bookings        cancel a booking: hotel, id
+ *   POST   /assignments     give rooms to the type bookings checking in by a day: hotel, through
+ *   POST   /defragment      move future bookings so free nights join up: hotel, optional budgetMs
+ * Dates are written as yyyy-MM-dd. Failures answer with {"error": message}.
+ *
+ * Run with: java BookingServer [port] [data directory]
+ * Hotels are only saved when a data directory is given.
+ */
+public class BookingServer {
+    private static final long DEFRAGMENT_PERIOD_MILLIS = 10_000; // Time between background defragmenter runs
+    private static final long DEFRAGMENT_BUDGET_MILLIS = 20; // Time each background run may take per hotel
+    private static final int BACKLOG = 1024; // Connections the operating system queues before accepting
+
+    static {
+        // Send small responses at once instead of letting Nagle's algorithm hold them for the
+        // client's delayed ACK, which adds about 40 ms to every keep-alive request. The JDK server
+        // reads this setting once, so it only takes effect if no HttpServer was created before.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HotelService service; // Service that holds the hotels
+    private final HttpServer server; // The JDK HTTP server
+    private final ExecutorService executor; // Runs one task per request
+    private final boolean virtualThreads; // Whether requests run on virtual threads
+
+    /**
+     * Constructs a server over a service, bound to a port but not started yet.
+     *
+     * @param service the service holding the hotels
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public BookingServer(HotelService service, int port) throws IOException {
+        this.service = service;
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "booking-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        route("/hotels", Map.of("GET", this::hotels));
+        route("/availability", Map.of("GET", this::availability));
+        route("/windows", Map.of("GET", this::windows));
+        route("/quote", Map.of("GET", this::quote));
+        route("/bookings", Map.of("POST", this::book, "DELETE", this::cancel));
+        route("/assignments", Map.of("POST", this::assign));
+        route("/defragment", Map.of("POST", this::defragment));
+    }
+
+    /**
+     * Serves a path with one endpoint per HTTP method.
+     *
+     * @param path the path to serve
+     * @param endpoints the endpoints keyed by HTTP method
+     */
+    private void route(String path, Map<String, Endpoint> endpoints) {
+        server.createContext(path, exchange -> handle(exchange, endpoints));
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread per task, if the running JDK supports it.
+     * The factory method is looked up by reflection so the server still builds and runs on older JDKs.
+     *
+     * @return the executor, or null if virtual threads are not available
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null; // Older JDK, or virtual threads are a disabled preview feature
+        }
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waiting up to a given time for requests in progress to finish.
+     *
+     * @param delaySeconds the longest time to wait for requests in progress
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * Gets the port the server listens on, which is useful when it was bound to any free port.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Checks if requests run on virtual threads.
+     *
+     * @return true for virtual threads, false for pooled platform threads
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * The work behind one endpoint.
+     */
+    private interface Endpoint {
+        /**
+         * Answers a request.
+         *
+         * @param params the request parameters
+         * @return the response
+         */
+        Response answer(Map<String, String> params);
+    }
+
+    /**
+     * A status code and a JSON body.
+     */
+    private static class Response {
+        final int status; // HTTP status code
+        final String body; // JSON body
+
+        /**
+         * Constructs a response.
+         *
+         * @param status the HTTP status code
+         * @param body the JSON body
+         */
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        /**
+         * Creates an error response.
+         *
+         * @param status the HTTP status code
+         * @param message the error message
+         * @return the response
+         */
+        static Response error(int status, String message) {
+            return new Response(status, "{\"error\":" + json(message) + "}");
+        }
+    }
+
+    /**
+     * Picks the endpoint for the request method, reads the parameters, runs it and writes its response.
+     *
+     * @param exchange the request and response
+     * @param endpoints the endpoints of the path keyed by HTTP method
+     * @throws IOException if the response cannot be written
+     */
+    private void handle(HttpExchange exchange, Map<String, Endpoint> endpoints) throws IOException {
+        Response response;
+        String method = exchange.getRequestMethod();
+        try {
+            Endpoint endpoint = endpoints.get(method);
+            if (endpoint == null) {
+                response = Response.error(405, "Method not allowed.");
+            } else {
+                Map<String, String> params = new HashMap<>();
+                parseParams(exchange.getRequestURI().getRawQuery(), params);
+                if ("POST".equals(method)) {
+                    parseParams(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8), params);
+                }
+                response = endpoint.answer(params);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            response = Response.error(400, e.getMessage()); // Missing or malformed parameter
+        } catch (RuntimeException e) {
+            response = Response.error(500, "Internal error: " + e);
+        }
+
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Lists the hotel names.
+     *
+     * @param params the request parameters, unused
+     * @return the response
+     */
+    private Response hotels(Map<String, String> params) {
+        StringBuilder body = new StringBuilder("{\"hotels\":[");
+        List<String> names = service.getHotelNames();
+        for (int i = 0; i < names.size(); i++) {
+            body.append(i > 0 ? "," : "").append(json(names.get(i)));
+        }
+        return new Response(200, body.append("]}").toString());
+    }
+
+    /**
+     * Lists the rooms that are free for a stay.
+     *
+     * @param params hotel, checkIn and checkOut
+     * @return the response
+     */
+    private Response availability(Map<String, String> params) {
+        Hotel hotel = service.getHotelByName(required(params, "hotel"));
+        if (hotel == null) {
+            return Response.error(404, "Hotel not found.");
+        }
+        int checkInDay = day(params, "checkIn");
+        int checkOutDay = day(params, "checkOut");
+        ServiceResult<List<Room>> result = service.getAvailableRooms(hotel, checkInDay, checkOutDay);
+        if (!result.isSuccess()) {
+            return Response.error(422, result.getMessage());
+        }
+        StringBuilder body = new StringBuilder("{\"hotel\":").append(json(hotel.getName()))
+                .append(",\"checkIn\":").append(json(params.get("checkIn")))
+                .append(",\"checkOut\":").append(json(params.get("checkOut")))
+                .append(",\"rooms\":[");
+        List<Room> rooms = result.getValue();
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            body.append(i > 0 ? "," : "")
+                    .append("{\"name\":").append(json(room.getName()))
+                    .append(",\"type\":").append(json(room.getRoomType()))
+                    .append(",\"price\":").append(room.getBasePrice()).append('}');
+        }
+        body.append("],\"freeByType\":{");
+        for (int type = 0; type < Room.ROOM_TYPES.length; type++) {
+            String roomType = Room.ROOM_TYPES[type];
+            body.append(type > 0 ? "," : "").append(json(roomType)).append(':')
+                    .append(hotel.getFreeRoomCount(roomType, checkInDay, checkOutDay));
+        }
+        return new Response(200, body.append("}}").toString());
+    }
+
+    /**
+     * Prices a stay in the cheapest room of a type.
+     *
+     * @param params hotel, roomType, checkIn, checkOut and an optional discountCode
+     * @return the response
+     */
+    private Response quote(Map<String, String> params) {
+        Hotel hotel = service.getHotelByName(required(params, "hotel"));
+        if (hotel == null) {
+            return Response.error(404, "Hotel not found.");
+        }
+        String roomType = required(params, "roomType");
+        int checkInDay = day(params, "checkIn");
+        int checkOutDay = day(params, "checkOut");
+        String discountCode = params.get("discountCode");
+        ServiceResult<Double> result = service.quote(hotel, roomType, checkInDay, checkOutDay, discountCode);
+        if (!result.isSuccess()) {
+            return Response.error(422, result.getMessage());
+        }
+        return new Response(200, "{\"hotel\":" + json(hotel.getName())
+                + ",\"roomType\":" + json(roomType)
+                + ",\"checkIn\":" + json(params.get("checkIn"))
+                + ",\"checkOut\":" + json(params.get("checkOut"))
+                + ",\"nights\":" + (checkOutDay - checkInDay)
+                + ",\"discountCode\":" + json(discountCode)
+                + ",\"price\":" + result.getValue() + "}");
+    }
+
+    /**
+     * Books a stay.
+     *
+     * @param params hotel, guestName, checkIn, checkOut, and an optional room and discountCode
+     * @return the response
+     */
+    private Response book(Map<String, String> params) {
+        Hotel hotel = service.getHotelByName(required(params, "hotel"));
+        if (hotel == null) {
+            return Response.error(404, "Hotel not found.");
+        }
+        String roomType = params.get("roomType");
+        if (roomType != null && params.get("room") == null) {
+            ServiceResult<RoomTypeHold> held = service.holdRoomType(hotel, required(params, "guestName"), roomType,
+                    day(params, "checkIn"), day(params, "checkOut"), params.get("discountCode"));
+            if (!held.isSuccess()) {
+                return Response.error(409, held.getMessage());
+            }
+            return new Response(201, hold(hotel, held.getValue()));
+        }
+        ServiceResult<Reservation> result = service.book(hotel, required(params, "guestName"),
+                day(params, "checkIn"), day(params, "checkOut"), params.get("room"), params.get("discountCode"));
+        if (!result.isSuccess()) {
+            return Response.error(409, result.getMessage());
+        }
+        return new Response(201, reservation(hotel, result.getValue()));
+    }
+
+    /**
+     * Cancels a booking.
+     *
+     * @param params hotel and id
+     * @return the response
+     */
+    private Response cancel(Map<String, String> params) {
+        Hotel hotel = service.getHotelByName(required(params, "hotel"));
+        if (hotel == null) {
+            return Response.error(404, "Hotel not found.");
+        }
+        int id = Integer.parseInt(required(params, "id"));
+        if (hotel.getHoldById(id) != null) {
+            ServiceResult<RoomTypeHold> held = service.cancelHold(hotel, id);
+            if (held.isSuccess()) {
+                return new Response(200, hold(hotel, held.getValue()));
+            }
+        }
+        ServiceResult<Reservation> result = service.cancel(hotel, id);
+        if (!result.isSuccess()) {
+            return Response.error(404, result.getMessage());
+        }
+        return new Response(200, reservation(hotel, result.getValue()));
+    }
+
+    /**
+     * Gives rooms to the bookings sold by room type that check in on or before a day.
+     *
+     * @param params hotel and through
+     * @return the response
+     */
+    private Response assign(Map<String, String> params) {
+        Hotel hotel = service.getHotelByName(required(params, "hotel"));
+        if (hotel == null) {
+            return Response.error(404, "Hotel not found.");
+        }
+        ServiceResult<List<Reservation>> result = service.assignRooms(hotel, day(params, "through"));
+        if (!result.isSuccess()) {
+            return Response.error(422, result.getMessage());
+        }
+        StringBuilder body = new StringBuilder("{\"assigned\":[");
+        List<Reservation> assigned = result.getValue();
+        for (int i = 0; i < assigned.size(); i++) {
+            body.append(i > 0 ? "," : "").append(reservation(hotel, assigned.get(i)));
+        }
+        return new Response(200, body.append("]}").toString());
+    }
+
+    /**
+     * Finds the earliest days a room of a type is free for a number of nights.
+     *
+     * @param params hotel, roomType, from, nights and optional count, 1 by default
+     * @return the response
+     */
+    private Response windows(Map<String, String> params) {
+        Hotel hotel = service.getHotelByName(required(params, "hotel"));
+        if (hotel == null) {
+            return Response.error(404, "Hotel not found.");
+        }
+        String count = params.get("count");
+        ServiceResult<List<StayWindow>> result = service.findWindows(hotel, required(params, "roomType"), day(params, "from"),
+                Integer.parseInt(required(params, "nights")), count != null ? Integer.parseInt(count) : 1);
+        if (!result.isSuccess()) {
+            return Response.error(422, result.getMessage());
+        }
+        StringBuilder body = new StringBuilder("{\"windows\":[");
+        List<StayWindow> windows = result.getValue();
+        for (int i = 0; i < windows.size(); i++) {
+            StayWindow window = windows.get(i);
+            body.append(i > 0 ? "," : "")
+                    .append("{\"room\":").append(json(window.getRoom().getName()))
+                    .append(",\"checkIn\":").append(json(LocalDate.ofEpochDay(window.getCheckInDay()).toString()))
+                    .append(",\"checkOut\":").append(json(LocalDate.ofEpochDay(window.getCheckOutDay()).toString())).append('}');
+        }
+        return new Response(200, body.append("]}").toString());
+    }
+
+    /**
+     * Runs the calendar defragmenter of a hotel for a time budget.
+     *
+     * @param params hotel and optional budgetMs, 50 by default
+     * @return the response with this run's report and the total of every run
+     */
+    private Response defragment(Map<String, String> params) {
+        Hotel hotel = service.getHotelByName(required(params, "hotel"));
+        if (hotel == null) {
+            return Response.error(404, "Hotel not found.");
+        }
+        String budget = params.get("budgetMs");
+        ServiceResult<DefragmentReport> result = service.defragment(hotel, EpochDay.today(), budget != null ? Long.parseLong(budget) : 50);
+        if (!result.isSuccess()) {
+            return Response.error(422, result.getMessage());
+        }
+        return new Response(200, "{\"run\":" + report(result.getValue())
+                + ",\"total\":" + report(service.getDefragmentTotal(hotel).getValue()) + "}");
+    }
+
+    /**
+     * Writes a defragmenter report as JSON.
+     *
+     * @param report the report
+     * @return the JSON object
+     */
+    private static String report(DefragmentReport report) {
+        return "{\"examined\":" + report.getExamined()
+                + ",\"moved\":" + report.getMoved()
+                + ",\"busy\":" + report.getBusy()
+                + ",\"recoveredLongStays\":" + report.getRecoveredLongStays()
+                + ",\"passes\":" + report.getPasses() + "}";
+    }
+
+    /**
+     * Writes a booking sold by room type that has no room yet as JSON.
+     *
+     * @param hotel the hotel of the hold
+     * @param hold the hold
+     * @return the JSON object
+     */
+    private static String hold(Hotel hotel, RoomTypeHold hold) {
+        return "{\"id\":" + hold.getId()
+                + ",\"hotel\":" + json(hotel.getName())
+                + ",\"guestName\":" + json(hold.getGuestName())
+                + ",\"room\":null"
+                + ",\"roomType\":" + json(hold.getRoomType())
+                + ",\"checkIn\":" + json(LocalDate.ofEpochDay(hold.getCheckInDay()).toString())
+                + ",\"checkOut\":" + json(LocalDate.ofEpochDay(hold.getCheckOutDay()).toString())
+                + ",\"nights\":" + (hold.getCheckOutDay() - hold.getCheckInDay())
+                + ",\"discountCode\":" + json(hold.getDiscountCode())
+                + ",\"finalPrice\":" + hold.getPrice() + "}";
+    }
+
+    /**
+     * Writes a reservation as JSON.
+     *
+     * @param hotel the hotel of the reservation
+     * @param reservation the reservation
+     * @return the JSON object
+     */
+    private static String reservation(Hotel hotel, Reservation reservation) {
+        return "{\"id\":" + reservation.getId()
+                + ",\"hotel\":" + json(hotel.getName())
+                + ",\"guestName\":" + json(reservation.getGuestName())
+                + ",\"room\":" + json(reservation.getRoom().getName())
+                + ",\"roomType\":" + json(reservation.getRoom().getRoomType())
+                + ",\"checkIn\":" + json(LocalDate.ofEpochDay(reservation.getCheckInDay()).toString())
+                + ",\"checkOut\":" + json(LocalDate.ofEpochDay(reservation.getCheckOutDay()).toString())
+                + ",\"nights\":" + reservation.getNights()
+                + ",\"discountCode\":" + json(reservation.hasDiscountCode() ? reservation.getDiscountCode() : null)
+                + ",\"finalPrice\":" + reservation.getFinalPrice() + "}";
+    }
+
+    /**
+     * Adds the parameters of a URL-encoded query string or form body to a map.
+     *
+     * @param encoded the encoded parameters, or null for none
+     * @param params the map to add them to
+     */
+    private static void parseParams(String encoded, Map<String, String> params) {
+        if (encoded == null || encoded.isEmpty()) {
+            return; // No parameters
+        }
+        for (String pair : encoded.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            params.put(name, value);
+        }
+    }
+
+    /**
+     * Gets a parameter that must be present.
+     *
+     * @param params the request parameters
+     * @param name the name of the parameter
+     * @return the value of the parameter
+     * @throws IllegalArgumentException if the parameter is missing or blank
+     */
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Gets a date parameter as an epoch day.
+     *
+     * @param params the request parameters
+     * @param name the name of the parameter
+     * @return the epoch day
+     * @throws IllegalArgumentException if the parameter is missing
+     * @throws DateTimeParseException if the parameter is not a yyyy-MM-dd date
+     */
+    private static int day(Map<String, String> params, String name) {
+        return EpochDay.parse(required(params, name));
+    }
+
+    /**
+     * Writes a string as a JSON string literal.
+     *
+     * @param value the string, or null
+     * @return the quoted and escaped string, or null
+     */
+    private static String json(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c)); // Other control characters
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Starts the server over the saved hotels.
+     *
+     * @param args an optional port, 8080 by default, and an optional directory to save hotels in
+     * @throws IOException if the saved hotels cannot be loaded or the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        HotelService service = new HotelService();
+        if (args.length > 1) {
+            service.openJournal(Paths.get(args[1])); // Restore saved hotels and save every later change
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                service.closeJournal(); // Save a snapshot on exit
+                if (service.getLastSaveFailure() != null) {
+                    System.err.println("Could not save the hotels: " + service.getLastSaveFailure().getMessage());
+                }
+            }));
+        }
+
+        service.startDefragmenter(DEFRAGMENT_PERIOD_MILLIS, DEFRAGMENT_BUDGET_MILLIS); // Keep free nights joined up as bookings come and go
+
+        BookingServer bookingServer = new BookingServer(service, port);
+        bookingServer.start();
+        System.out.println("Listening on port " + bookingServer.getPort() + " with "
+                + (bookingServer.usesVirtualThreads() ? "virtual threads" : "platform threads") + ".");
+    }
+}
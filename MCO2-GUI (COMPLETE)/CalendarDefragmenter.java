@@ -0,0 +1,213 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves future reservations between rooms of the same type so the free nights of a hotel join
+ * into long runs that can still be sold as long stays.
+ * Cancellations leave holes in different rooms; two three-night holes in two rooms cannot take a
+ * week-long stay, but moving one booking between the rooms can turn them into one six-night run
+ * and, next to other free nights, into a week. A move is made when it joins free nights, measured
+ * by the sum of the squared lengths of the free runs it touches, and never loses a long stay.
+ * Since every move raises that sum and the free nights stay the same, moves cannot go round in
+ * circles.
+ * Each run works for a time budget and then stops where it was, and the next run carries on from
+ * there. Moves only try the hotel lock, so a run never makes a booking wait; it only holds the
+ * two rooms involved while one move is checked and made. Guests who have already arrived are
+ * never moved, and neither are guests moved into a room with a different price.
+ */
+public class CalendarDefragmenter {
+    public static final int DEFAULT_LONG_STAY = 7; // Nights in a long stay, a week by default
+    public static final int DEFAULT_HORIZON = 365; // Days ahead whose bookings are rearranged
+
+    private final Hotel hotel; // Hotel whose reservations are moved
+    private final int longStay; // Nights in a long stay
+    private final int horizon; // Days ahead whose bookings are rearranged
+    private List<Reservation> pass = new ArrayList<>(); // Reservations of the current pass
+    private int cursor; // Position in the pass of the next reservation to look at
+    private int movedThisPass; // Moves made since the current pass started
+    private DefragmentReport total = new DefragmentReport(0, 0, 0, 0, 0); // Everything all runs did
+
+    /**
+     * Constructs a defragmenter for week-long stays over the next year.
+     *
+     * @param hotel the hotel whose reservations are moved
+     */
+    public CalendarDefragmenter(Hotel hotel) {
+        this(hotel, DEFAULT_LONG_STAY, DEFAULT_HORIZON);
+    }
+
+    /**
+     * Constructs a defragmenter.
+     *
+     * @param hotel the hotel whose reservations are moved
+     * @param longStay the number of nights in a long stay
+     * @param horizon the number of days ahead whose bookings are rearranged
+     */
+    public CalendarDefragmenter(Hotel hotel, int longStay, int horizon) {
+        this.hotel = hotel;
+        this.longStay = longStay;
+        this.horizon = horizon;
+    }
+
+    /**
+     * Looks at reservations, moving those that are worth moving, until the time budget runs out
+     * or a whole pass moves nothing.
+     *
+     * @param today the current epoch day; only reservations checking in after it are moved
+     * @param budgetNanos the time the run may take, in nanoseconds
+     * @return what the run did
+     */
+    public synchronized DefragmentReport run(int today, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int windowEnd = today + horizon;
+        int examined = 0;
+        int moved = 0;
+        int busy = 0;
+        int recovered = 0;
+        int passes = 0;
+        List<Room> rooms = hotel.getRooms();
+
+        while (System.nanoTime() < deadline) {
+            if (cursor >= pass.size()) {
+                if (!pass.isEmpty()) {
+                    passes++;
+                }
+                boolean settled = !pass.isEmpty() && movedThisPass == 0;
+                pass = hotel.getReservations(); // Start the next pass over the current reservations
+                cursor = 0;
+                movedThisPass = 0;
+                if (settled || pass.isEmpty()) {
+                    break; // Nothing left worth moving until bookings change
+                }
+            }
+
+            Reservation reservation = pass.get(cursor++);
+            if (reservation.getCheckInDay() <= today || reservation.getCheckOutDay() > windowEnd) {
+                continue; // Already arrived, or too far ahead to matter yet
+            }
+            examined++;
+            Room source = reservation.getRoom();
+            Room best = null;
+            int bestLongStays = 0;
+            long bestSpread = 0;
+            for (Room target : rooms) {
+                if (target == source || !target.getRoomType().equals(source.getRoomType())
+                        || target.getBasePrice() != source.getBasePrice()) {
+                    continue; // Only same-type rooms at the same price
+                }
+                Gain gain = evaluate(reservation, source, target, today, windowEnd);
+                if (gain != null && (best == null || gain.longStays > bestLongStays
+                        || (gain.longStays == bestLongStays && gain.spread > bestSpread))) {
+                    best = target;
+                    bestLongStays = gain.longStays;
+                    bestSpread = gain.spread;
+                }
+            }
+            if (best == null) {
+                continue; // No room would join free nights
+            }
+
+            // Weigh the move again with both rooms locked, since bookings may have changed them
+            Room target = best;
+            int[] recoveredByMove = new int[1];
+            boolean[] worthIt = new boolean[1];
+            boolean done = hotel.tryMoveReservation(reservation, target, () -> {
+                Gain gain = evaluate(reservation, source, target, today, windowEnd);
+                worthIt[0] = gain != null;
+                recoveredByMove[0] = worthIt[0] ? gain.longStays : 0;
+                return worthIt[0];
+            });
+            if (done) {
+                moved++;
+                movedThisPass++;
+                recovered += recoveredByMove[0];
+            } else if (worthIt[0]) {
+                busy++; // Still worth it, so the hotel lock was busy or the rooms changed
+            }
+        }
+
+        DefragmentReport report = new DefragmentReport(examined, moved, busy, recovered, passes);
+        total = total.plus(report);
+        return report;
+    }
+
+    /**
+     * Gets what every run of this defragmenter did together.
+     *
+     * @return the combined report
+     */
+    public synchronized DefragmentReport getTotal() {
+        return total;
+    }
+
+    /**
+     * Weighs moving a reservation to another room.
+     * Only the free run the reservation leaves behind in its room and the free run it lands in
+     * change, so only those are measured, each cut to the days from today to the window end.
+     *
+     * @param reservation the reservation to move
+     * @param source the room of the reservation
+     * @param target the room to move it to
+     * @param today the current epoch day
+     * @param windowEnd the epoch day after the last day rearranged
+     * @return the gain of the move, or null if the target is not free or the move is not worth it
+     */
+    private Gain evaluate(Reservation reservation, Room source, Room target, int today, int windowEnd) {
+        int checkInDay = reservation.getCheckInDay();
+        int checkOutDay = reservation.getCheckOutDay();
+        if (!target.isAvailable(checkInDay, checkOutDay)) {
+            return null;
+        }
+
+        // Free nights on each side of the reservation in its own room, which join once it leaves
+        long sourceStart = Math.max(source.getPreviousCheckOut(checkInDay), today);
+        long sourceEnd = Math.min(source.getNextCheckIn(checkOutDay), windowEnd);
+        long before = checkInDay - sourceStart;
+        long after = sourceEnd - checkOutDay;
+        long joined = sourceEnd - sourceStart;
+
+        // Free run in the target that the reservation would split
+        long targetStart = Math.max(target.getPreviousCheckOut(checkInDay), today);
+        long targetEnd = Math.min(target.getNextCheckIn(checkInDay), windowEnd);
+        long split = targetEnd - targetStart;
+        long left = checkInDay - targetStart;
+        long right = targetEnd - checkOutDay;
+
+        long spread = joined * joined - before * before - after * after - (split * split - left * left - right * right);
+        int longStays = (int) (longStays(joined) - longStays(before) - longStays(after)
+                - longStays(split) + longStays(left) + longStays(right));
+        if (spread <= 0 || longStays < 0) {
+            return null; // Does not join free nights, or loses a long stay
+        }
+        return new Gain(spread, longStays);
+    }
+
+    /**
+     * Counts the long stays that fit one after another into a free run.
+     *
+     * @param nights the nights in the free run
+     * @return the number of long stays
+     */
+    private long longStays(long nights) {
+        return nights / longStay;
+    }
+
+    /**
+     * What a move would gain.
+     */
+    private static final class Gain {
+        private final long spread; // Rise in the sum of squared free run lengths
+        private final int longStays; // Long stays that fit after the move and did not before
+
+        /**
+         * Constructs a gain.
+         *
+         * @param spread the rise in the sum of squared free run lengths
+         * @param longStays the long stays recovered
+         */
+        private Gain(long spread, int longStays) {
+            this.spread = spread;
+            this.longStays = longStays;
+        }
+    }
+}
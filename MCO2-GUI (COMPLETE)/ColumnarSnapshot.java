@@ -0,0 +1,462 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A snapshot of every hotel stored as fixed-width columns and read through a memory-mapped file.
+ * Rooms and modifiers are small and are read eagerly, while reservations stay in the mapped file:
+ * loading a hotel fills its availability data straight from the day columns, and Reservation
+ * objects are only created when something asks for them.
+ *
+ * Layout: a header (magic number, version, generation, dictionary position, hotel count), then
+ * each hotel (name, rooms, modifiers, reservation columns), then the dictionary (discount code
+ * table and string table). Names are stored once in the string table and referenced by index.
+ * Earnings are not stored, since they are rebuilt from the reservations. Files are limited to
+ * 2 GB, the most a single mapping can cover and the most the int offsets can reach.
+ */
+public class ColumnarSnapshot {
+    private static final int MAGIC = 0x48434F4C; // Marks a columnar snapshot file
+    private static final int VERSION = 2; // Layout version, 2 since earnings are no longer stored
+    private static final int DICTIONARY_POSITION = 16; // Where the header stores the dictionary position
+
+    private final ByteBuffer buffer; // Mapped snapshot file
+    private final long generation; // Generation of the snapshot
+    private final String[] discountCodes; // Discount codes by ordinal, with null at ordinal 0 for no code
+    private final int stringCount; // Number of strings in the string table
+    private final int stringOffsets; // Position of the string offsets
+    private final int stringData; // Position of the string bytes
+    private final List<Hotel> hotels; // Hotels restored from the snapshot
+
+    /**
+     * Reads the header, dictionary, rooms and modifiers of a mapped snapshot.
+     *
+     * @param buffer the mapped snapshot file
+     * @throws IOException if the file is not a snapshot
+     */
+    private ColumnarSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a hotel snapshot.");
+        }
+        this.generation = buffer.getLong(8);
+        int position = (int) buffer.getLong(DICTIONARY_POSITION);
+
+        int codeCount = buffer.getInt(position);
+        int codes = position + 4;
+        position = codes + 4 * codeCount;
+        this.stringCount = buffer.getInt(position);
+        this.stringOffsets = position + 4;
+        this.stringData = stringOffsets + 4 * (stringCount + 1);
+
+        this.discountCodes = new String[codeCount + 1];
+        for (int i = 0; i < codeCount; i++) {
+            discountCodes[i + 1] = getString(buffer.getInt(codes + 4 * i));
+        }
+        this.hotels = readHotels();
+    }
+
+    /**
+     * Maps a snapshot file and restores its hotels.
+     *
+     * @param file the snapshot file
+     * @return the mapped snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static ColumnarSnapshot map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is larger than 2 GB.");
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ColumnarSnapshot(buffer);
+        }
+    }
+
+    /**
+     * Gets the generation of the snapshot.
+     *
+     * @return the generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the hotels restored from the snapshot.
+     *
+     * @return the hotels in snapshot order
+     */
+    public List<Hotel> getHotels() {
+        return hotels;
+    }
+
+    /**
+     * Gets a string from the string table.
+     *
+     * @param index the index of the string
+     * @return the string
+     */
+    public String getString(int index) {
+        int start = buffer.getInt(stringOffsets + 4 * index);
+        int end = buffer.getInt(stringOffsets + 4 * (index + 1));
+        byte[] bytes = new byte[end - start];
+        buffer.get(stringData + start, bytes); // Absolute read, safe to use from several threads
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets a discount code by its ordinal.
+     *
+     * @param ordinal the ordinal of the code
+     * @return the discount code, or null for ordinal 0
+     */
+    public String getDiscountCode(int ordinal) {
+        return discountCodes[ordinal];
+    }
+
+    /**
+     * Restores every hotel, leaving its reservations in the mapped file.
+     *
+     * @return the restored hotels
+     */
+    private List<Hotel> readHotels() {
+        int hotelCount = buffer.getInt(24);
+        List<Hotel> restored = new ArrayList<>(hotelCount);
+        int position = 28;
+        for (int h = 0; h < hotelCount; h++) {
+            Hotel hotel = new Hotel(getString(buffer.getInt(position)));
+            position += 4;
+
+            int roomCount = buffer.getInt(position);
+            position += 4;
+            for (int i = 0; i < roomCount; i++) {
+                hotel.addRoom(getString(buffer.getInt(position)), buffer.getDouble(position + 8), getString(buffer.getInt(position + 4)));
+                position += 16;
+            }
+
+            int modifierCount = buffer.getInt(position);
+            position += 4;
+            for (int i = 0; i < modifierCount; i++) {
+                hotel.addDatePriceModifier(new DatePriceModifier(buffer.getInt(position), buffer.getInt(position + 4), buffer.getDouble(position + 8)));
+                position += 16;
+            }
+
+            int reservationCount = buffer.getInt(position);
+            position += 4;
+            hotel.restoreReservations(new SnapshotReservations(this, buffer, position, reservationCount));
+            position += SnapshotReservations.columnsSize(reservationCount);
+            restored.add(hotel);
+        }
+        return restored;
+    }
+
+    /**
+     * Copies what a snapshot stores of each hotel, so the file can be written after the hotels
+     * are unlocked. Reservations still waiting in an older snapshot are copied from its columns
+     * without creating objects.
+     * The caller must make sure the hotels cannot change while they are copied.
+     *
+     * @param hotels the hotels to copy
+     * @return the copied state of each hotel, in order
+     */
+    public static List<HotelState> capture(List<Hotel> hotels) {
+        List<HotelState> states = new ArrayList<>(hotels.size());
+        for (Hotel hotel : hotels) {
+            states.add(new HotelState(hotel));
+        }
+        return states;
+    }
+
+    /**
+     * Writes a snapshot of hotels copied by capture. A file that cannot be finished is deleted.
+     *
+     * @param file the file to write
+     * @param generation the generation of the snapshot
+     * @param hotels the copied hotels to write
+     * @throws IOException if the file cannot be written or would be larger than 2 GB
+     */
+    public static void write(Path file, long generation, List<HotelState> hotels) throws IOException {
+        try {
+            writeFile(file, generation, hotels);
+        } catch (IOException e) {
+            Files.deleteIfExists(file); // Do not leave a partial snapshot of up to 2 GB behind
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the snapshot file.
+     *
+     * @param file the file to write
+     * @param generation the generation of the snapshot
+     * @param hotels the copied hotels to write
+     * @throws IOException if the file cannot be written or would be larger than 2 GB
+     */
+    private static void writeFile(Path file, long generation, List<HotelState> hotels) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            Dictionary dictionary = new Dictionary();
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeLong(0); // Dictionary position, filled in at the end
+            out.writeInt(hotels.size());
+            for (HotelState hotel : hotels) {
+                hotel.write(out, dictionary);
+            }
+            out.flush();
+
+            long dictionaryPosition = channel.position();
+            checkSize(dictionaryPosition);
+            dictionary.write(out);
+            out.flush();
+            checkSize(channel.position());
+
+            ByteBuffer position = ByteBuffer.allocate(8);
+            position.putLong(dictionaryPosition).flip();
+            channel.write(position, DICTIONARY_POSITION);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Rejects a snapshot that has grown past 2 GB, since positions inside it are read as ints.
+     *
+     * @param size the size written so far
+     * @throws IOException if the size is over 2 GB
+     */
+    private static void checkSize(long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot would be larger than 2 GB.");
+        }
+    }
+
+    /**
+     * What a snapshot stores of one hotel, copied while the hotel is locked and written afterwards.
+     * Reservations are kept as columns, so copying a large hotel is a few array fills.
+     */
+    public static class HotelState {
+        private final String name; // Name of the hotel
+        private final String[] roomNames; // Name of each room, in room order
+        private final String[] roomTypes; // Type of each room
+        private final double[] basePrices; // Base price of each room without adjustments
+        private final int[] modifierStarts; // Start day of each date price modifier
+        private final int[] modifierEnds; // End day of each date price modifier
+        private final double[] modifiers; // Multiplier of each date price modifier
+        private final int[] ids; // Reservation ID column
+        private final int[] roomColumn; // Room index column
+        private final int[] checkIns; // Check-in day column
+        private final int[] checkOuts; // Check-out day column
+        private final double[] prices; // Final price column
+        private final String[] codes; // Discount code column, with null for no code
+        private final String[] guests; // Guest name column
+
+        /**
+         * Copies the state of a locked hotel.
+         *
+         * @param hotel the hotel to copy
+         */
+        private HotelState(Hotel hotel) {
+            name = hotel.getName();
+
+            List<Room> rooms = hotel.getRooms();
+            Map<Room, Integer> roomIndexes = new IdentityHashMap<>();
+            roomNames = new String[rooms.size()];
+            roomTypes = new String[rooms.size()];
+            basePrices = new double[rooms.size()];
+            int restoredCount = 0;
+            for (Room room : rooms) {
+                int index = roomIndexes.size();
+                roomIndexes.put(room, index);
+                roomNames[index] = room.getName();
+                roomTypes[index] = room.getRoomType();
+                basePrices[index] = room.getBasePriceWithoutAdjustment();
+                int[] rows = room.getRestoredRows();
+                restoredCount += rows == null ? 0 : rows.length;
+            }
+
+            List<DatePriceModifier> modifierList = hotel.getDatePriceModifiers();
+            modifierStarts = new int[modifierList.size()];
+            modifierEnds = new int[modifierList.size()];
+            modifiers = new double[modifierList.size()];
+            for (int i = 0; i < modifiers.length; i++) {
+                modifierStarts[i] = modifierList.get(i).getStartDay();
+                modifierEnds[i] = modifierList.get(i).getEndDay();
+                modifiers[i] = modifierList.get(i).getModifier();
+            }
+
+            List<Reservation> loaded = hotel.getLoadedReservations();
+            int count = loaded.size() + restoredCount;
+            ids = new int[count];
+            roomColumn = new int[count];
+            checkIns = new int[count];
+            checkOuts = new int[count];
+            prices = new double[count];
+            codes = new String[count];
+            guests = new String[count];
+
+            int row = 0;
+            for (Reservation reservation : loaded) {
+                ids[row] = reservation.getId();
+                roomColumn[row] = roomIndexes.get(reservation.getRoom());
+                checkIns[row] = reservation.getCheckInDay();
+                checkOuts[row] = reservation.getCheckOutDay();
+                prices[row] = reservation.getFinalPrice();
+                codes[row] = reservation.hasDiscountCode() ? reservation.getDiscountCode() : null;
+                guests[row] = reservation.getGuestName();
+                row++;
+            }
+            for (Room room : rooms) {
+                int[] rows = room.getRestoredRows();
+                if (rows == null) {
+                    continue; // Every reservation of the room is already loaded
+                }
+                SnapshotReservations source = room.getRestoredSource();
+                for (int sourceRow : rows) {
+                    ids[row] = source.getId(sourceRow);
+                    roomColumn[row] = roomIndexes.get(room);
+                    checkIns[row] = source.getCheckInDay(sourceRow);
+                    checkOuts[row] = source.getCheckOutDay(sourceRow);
+                    prices[row] = source.getFinalPrice(sourceRow);
+                    codes[row] = source.getDiscountCode(sourceRow);
+                    guests[row] = source.getGuestName(sourceRow);
+                    row++;
+                }
+            }
+        }
+
+        /**
+         * Writes the hotel.
+         *
+         * @param out the stream to write to
+         * @param dictionary the strings and discount codes of the snapshot
+         * @throws IOException if writing fails
+         */
+        private void write(DataOutputStream out, Dictionary dictionary) throws IOException {
+            out.writeInt(dictionary.string(name));
+
+            out.writeInt(roomNames.length);
+            for (int i = 0; i < roomNames.length; i++) {
+                out.writeInt(dictionary.string(roomNames[i]));
+                out.writeInt(dictionary.string(roomTypes[i]));
+                out.writeDouble(basePrices[i]);
+            }
+
+            out.writeInt(modifiers.length);
+            for (int i = 0; i < modifiers.length; i++) {
+                out.writeInt(modifierStarts[i]);
+                out.writeInt(modifierEnds[i]);
+                out.writeDouble(modifiers[i]);
+            }
+
+            out.writeInt(ids.length);
+            for (int value : ids) {
+                out.writeInt(value);
+            }
+            for (int value : roomColumn) {
+                out.writeInt(value);
+            }
+            for (int value : checkIns) {
+                out.writeInt(value);
+            }
+            for (int value : checkOuts) {
+                out.writeInt(value);
+            }
+            for (double value : prices) {
+                out.writeDouble(value);
+            }
+            for (String code : codes) {
+                out.writeInt(code == null ? 0 : dictionary.discountCode(code));
+            }
+            for (String guest : guests) {
+                out.writeInt(dictionary.string(guest));
+            }
+        }
+    }
+
+    /**
+     * Collects the strings and discount codes of a snapshot while it is written.
+     */
+    private static class Dictionary {
+        private final Map<String, Integer> stringIndexes = new HashMap<>(); // Index of each string
+        private final List<String> strings = new ArrayList<>(); // Strings in index order
+        private final Map<String, Integer> codeOrdinals = new HashMap<>(); // Ordinal of each discount code
+        private final List<Integer> codes = new ArrayList<>(); // String index of each discount code
+
+        /**
+         * Gets the index of a string, adding it to the table if needed.
+         *
+         * @param value the string
+         * @return the index of the string
+         */
+        int string(String value) {
+            Integer index = stringIndexes.get(value);
+            if (index == null) {
+                index = strings.size();
+                stringIndexes.put(value, index);
+                strings.add(value);
+            }
+            return index;
+        }
+
+        /**
+         * Gets the ordinal of a discount code, adding it to the table if needed.
+         *
+         * @param code the discount code
+         * @return the ordinal of the code, starting at 1
+         */
+        int discountCode(String code) {
+            Integer ordinal = codeOrdinals.get(code);
+            if (ordinal == null) {
+                codes.add(string(code));
+                ordinal = codes.size();
+                codeOrdinals.put(code, ordinal);
+            }
+            return ordinal;
+        }
+
+        /**
+         * Writes the discount code table and the string table.
+         *
+         * @param out the stream to write to
+         * @throws IOException if writing fails
+         */
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(codes.size());
+            for (int code : codes) {
+                out.writeInt(code);
+            }
+
+            List<byte[]> encoded = new ArrayList<>(strings.size());
+            for (String value : strings) {
+                encoded.add(value.getBytes(StandardCharsets.UTF_8));
+            }
+            out.writeInt(strings.size());
+            long offset = 0;
+            out.writeInt(0);
+            for (byte[] bytes : encoded) {
+                offset += bytes.length;
+                checkSize(offset);
+                out.writeInt((int) offset); // End of each string, which is also the start of the next
+            }
+            for (byte[] bytes : encoded) {
+                out.write(bytes);
+            }
+        }
+    }
+}
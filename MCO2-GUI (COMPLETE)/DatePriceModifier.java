@@ -2,17 +2,18 @@ import java.util.Date;
 
 /**
  * Represents a price modifier for a specific date range.
+ * A modifier does not change once made, since hotels keep their modifiers sorted by their days.
  */
 public class DatePriceModifier {
-    
-    // Start date for the price modifier
-    private Date startDate; 
-    
-    // End date for the price modifier
-    private Date endDate; 
-    
+
+    // Start epoch day for the price modifier
+    private final int startDay;
+
+    // End epoch day for the price modifier, inclusive
+    private final int endDay;
+
     // The modifier to be applied for the date range
-    private double modifier; 
+    private final double modifier;
 
     /**
      * Constructs a new DatePriceModifier with the specified start date, end date, and modifier.
@@ -22,9 +23,20 @@ public class DatePriceModifier {
      * @param modifier the price modifier to apply within the date range
      */
     public DatePriceModifier(Date startDate, Date endDate, double modifier) {
-        this.startDate = startDate; // Initialize start date
-        this.endDate = endDate;     // Initialize end date
-        this.modifier = modifier;    // Initialize price modifier
+        this(EpochDay.of(startDate), EpochDay.of(endDate), modifier); // Convert the dates to epoch days
+    }
+
+    /**
+     * Constructs a new DatePriceModifier with the specified start day, end day, and modifier.
+     *
+     * @param startDay the starting epoch day for the modifier
+     * @param endDay the ending epoch day for the modifier, inclusive
+     * @param modifier the price modifier to apply within the day range
+     */
+    public DatePriceModifier(int startDay, int endDay, double modifier) {
+        this.startDay = startDay; // Initialize start day
+        this.endDay = endDay;     // Initialize end day
+        this.modifier = modifier;  // Initialize price modifier
     }
 
     /**
@@ -34,8 +46,18 @@ public class DatePriceModifier {
      * @return true if the date is within the range, false otherwise
      */
     public boolean isDateInRange(Date date) {
-        // Return true if the date is on or after the start date and on or before the end date
-        return !date.before(startDate) && !date.after(endDate);
+        return isDayInRange(EpochDay.of(date));
+    }
+
+    /**
+     * Checks if a given epoch day falls within the range of the start and end days.
+     *
+     * @param day the epoch day to check
+     * @return true if the day is within the range, false otherwise
+     */
+    public boolean isDayInRange(int day) {
+        // Return true if the day is on or after the start day and on or before the end day
+        return day >= startDay && day <= endDay;
     }
 
     /**
@@ -53,16 +75,16 @@ public class DatePriceModifier {
      * @return the start date
      */
     public Date getStartDate() {
-        return startDate; // Return the start date
+        return EpochDay.toDate(startDay); // Return the start date
     }
 
     /**
-     * Sets the start date of the modifier.
+     * Gets the start epoch day of the modifier.
      *
-     * @param startDate the start date to set
+     * @return the start epoch day
      */
-    public void setStartDate(Date startDate) {
-        this.startDate = startDate; // Update the start date
+    public int getStartDay() {
+        return startDay; // Return the start day
     }
 
     /**
@@ -71,15 +93,15 @@ public class DatePriceModifier {
      * @return the end date
      */
     public Date getEndDate() {
-        return endDate; // Return the end date
+        return EpochDay.toDate(endDay); // Return the end date
     }
 
     /**
-     * Sets the end date of the modifier.
+     * Gets the end epoch day of the modifier.
      *
-     * @param endDate the end date to set
+     * @return the end epoch day, inclusive
      */
-    public void setEndDate(Date endDate) {
-        this.endDate = endDate; // Update the end date
+    public int getEndDay() {
+        return endDay; // Return the end day
     }
 }
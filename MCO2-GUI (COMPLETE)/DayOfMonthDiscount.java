@@ -0,0 +1,60 @@
+/**
+ * A discount for stays with a night on certain days of the month, such as paydays.
+ * Instead of walking every night of the stay, it checks the chosen days of each month the stay
+ * touches against the stay's epoch days.
+ */
+public class DayOfMonthDiscount implements DiscountRule {
+    private final double factor; // Share of the price that is kept
+    private final int[] daysOfMonth; // Qualifying days of the month, from 1 to 31
+
+    /**
+     * Constructs a day-of-month discount.
+     *
+     * @param percentOff the percentage taken off, from 0 to 100
+     * @param daysOfMonth the qualifying days of the month
+     */
+    public DayOfMonthDiscount(double percentOff, int... daysOfMonth) {
+        this.factor = 1 - percentOff / 100; // Precompute the multiplier
+        this.daysOfMonth = daysOfMonth.clone();
+    }
+
+    /**
+     * Checks if a night of the stay falls on one of the qualifying days.
+     * The check-out day is not a night of the stay.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return true if the stay covers a qualifying day, false otherwise
+     */
+    @Override
+    public boolean appliesTo(int checkInDay, int checkOutDay) {
+        int month = EpochDay.monthIndex(checkInDay);
+        int monthStart = EpochDay.firstDayOfMonth(month);
+        while (monthStart < checkOutDay) {
+            int nextMonthStart = EpochDay.firstDayOfMonth(month + 1);
+            for (int dayOfMonth : daysOfMonth) {
+                int day = monthStart + dayOfMonth - 1;
+                if (day < nextMonthStart && day >= checkInDay && day < checkOutDay) {
+                    return true; // The day exists in this month and is a night of the stay
+                }
+            }
+            month++;
+            monthStart = nextMonthStart;
+        }
+        return false;
+    }
+
+    /**
+     * Applies the discount to the total price of a stay.
+     *
+     * @param totalPrice the total price before the discount
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param roomPrice the nightly price of the booked room
+     * @return the discounted price, or the total price if the stay misses every qualifying day
+     */
+    @Override
+    public double apply(double totalPrice, int checkInDay, int checkOutDay, double roomPrice) {
+        return appliesTo(checkInDay, checkOutDay) ? totalPrice * factor : totalPrice;
+    }
+}
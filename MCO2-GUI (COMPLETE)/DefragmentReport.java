@@ -0,0 +1,97 @@
+/**
+ * What one run of the calendar defragmenter did, or what all of its runs did together.
+ * A long stay is a stay of the defragmenter's long-stay length; the recovered count is how many
+ * more of them fit into the free nights of the rooms after the moves than before.
+ */
+public class DefragmentReport {
+    private final int examined; // Reservations looked at
+    private final int moved; // Reservations moved to another room
+    private final int busy; // Moves skipped because a booking held the hotel lock
+    private final int recoveredLongStays; // Long stays that can be sold now and could not before
+    private final int passes; // Times the defragmenter got through every reservation
+
+    /**
+     * Constructs a report.
+     *
+     * @param examined the number of reservations looked at
+     * @param moved the number of reservations moved
+     * @param busy the number of moves skipped because a booking held the hotel lock
+     * @param recoveredLongStays the number of long stays recovered by the moves
+     * @param passes the number of times every reservation was looked at
+     */
+    public DefragmentReport(int examined, int moved, int busy, int recoveredLongStays, int passes) {
+        this.examined = examined;
+        this.moved = moved;
+        this.busy = busy;
+        this.recoveredLongStays = recoveredLongStays;
+        this.passes = passes;
+    }
+
+    /**
+     * Gets the number of reservations looked at.
+     *
+     * @return the reservations examined
+     */
+    public int getExamined() {
+        return examined;
+    }
+
+    /**
+     * Gets the number of reservations moved to another room.
+     *
+     * @return the reservations moved
+     */
+    public int getMoved() {
+        return moved;
+    }
+
+    /**
+     * Gets the number of moves skipped because a booking held the hotel lock.
+     * They are tried again on a later pass.
+     *
+     * @return the moves skipped
+     */
+    public int getBusy() {
+        return busy;
+    }
+
+    /**
+     * Gets the number of long stays that can be sold now and could not be sold before.
+     *
+     * @return the long stays recovered
+     */
+    public int getRecoveredLongStays() {
+        return recoveredLongStays;
+    }
+
+    /**
+     * Gets the number of times the defragmenter got through every reservation.
+     *
+     * @return the finished passes
+     */
+    public int getPasses() {
+        return passes;
+    }
+
+    /**
+     * Adds two reports together.
+     *
+     * @param other the report to add
+     * @return the combined report
+     */
+    public DefragmentReport plus(DefragmentReport other) {
+        return new DefragmentReport(examined + other.examined, moved + other.moved, busy + other.busy,
+                recoveredLongStays + other.recoveredLongStays, passes + other.passes);
+    }
+
+    /**
+     * Describes the report in one line.
+     *
+     * @return the description
+     */
+    @Override
+    public String toString() {
+        return "Examined " + examined + " reservations, moved " + moved + ", skipped " + busy
+                + " while busy, recovered " + recoveredLongStays + " long stays.";
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * A discount that can be attached to a reservation with a discount code.
+ * Rules are built once when the discount codes are loaded and only do arithmetic on the
+ * stay's epoch days and prices, so applying one allocates nothing and prints nothing.
+ */
+public interface DiscountRule {
+
+    /**
+     * Checks if the rule gives a discount for a stay.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return true if the stay qualifies for the discount, false otherwise
+     */
+    boolean appliesTo(int checkInDay, int checkOutDay);
+
+    /**
+     * Applies the discount to the total price of a stay.
+     *
+     * @param totalPrice the total price before the discount
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param roomPrice the nightly price of the booked room
+     * @return the discounted price, or the total price if the stay does not qualify
+     */
+    double apply(double totalPrice, int checkInDay, int checkOutDay, double roomPrice);
+}
@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * The registry of discount codes accepted at booking, keyed by code.
+ * Codes are read from a properties file where each line names a rule and its arguments:
+ * <pre>
+ * I_WORK_HERE = percent 10
+ * STAY4_GET1 = free-nights 5 1
+ * PAYDAY = day-of-month 7 15 30
+ * </pre>
+ * Each rule is built once when the file is read, so looking up and applying a code afterwards
+ * does no I/O and allocates nothing.
+ */
+public class DiscountRules {
+    private static final String CONFIG_FILE = "discounts.properties"; // Codes file in the working directory or on the class path
+    private static final String BUILT_IN = // Codes used when no file is found
+            "I_WORK_HERE = percent 10\n" +
+            "STAY4_GET1 = free-nights 5 1\n" +
+            "PAYDAY = day-of-month 7 15 30\n";
+
+    private final Map<String, DiscountRule> rules; // Rules keyed by discount code
+
+    /**
+     * Holds the registry loaded on first use.
+     */
+    private static class DefaultHolder {
+        static final DiscountRules INSTANCE = loadDefault();
+    }
+
+    /**
+     * Constructs a registry from rules keyed by code.
+     *
+     * @param rules the rules keyed by discount code
+     */
+    public DiscountRules(Map<String, DiscountRule> rules) {
+        this.rules = Collections.unmodifiableMap(new HashMap<>(rules));
+    }
+
+    /**
+     * Gets the registry used by reservations, loaded from discounts.properties on first use.
+     *
+     * @return the default registry
+     */
+    public static DiscountRules getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Reads a registry from a properties file.
+     *
+     * @param file the file to read
+     * @return the registry
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a rule is not valid
+     */
+    public static DiscountRules load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Gets the rule of a discount code.
+     *
+     * @param code the discount code
+     * @return the rule, or null if the code is not known
+     */
+    public DiscountRule get(String code) {
+        return code == null ? null : rules.get(code);
+    }
+
+    /**
+     * Gets every known discount code.
+     *
+     * @return the discount codes
+     */
+    public Set<String> getCodes() {
+        return rules.keySet();
+    }
+
+    /**
+     * Loads the registry from the working directory, then the class path, then the built-in codes.
+     *
+     * @return the loaded registry
+     */
+    private static DiscountRules loadDefault() {
+        try {
+            Path file = Paths.get(CONFIG_FILE);
+            if (Files.isRegularFile(file)) {
+                return load(file);
+            }
+            try (InputStream in = DiscountRules.class.getResourceAsStream("/" + CONFIG_FILE)) {
+                if (in != null) {
+                    return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+                }
+            }
+            return parse(new StringReader(BUILT_IN));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + CONFIG_FILE + ".", e);
+        }
+    }
+
+    /**
+     * Builds the rules of a properties file.
+     *
+     * @param reader the properties to read
+     * @return the registry
+     * @throws IOException if the properties cannot be read
+     * @throws IllegalArgumentException if a rule is not valid
+     */
+    private static DiscountRules parse(Reader reader) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+        Map<String, DiscountRule> rules = new HashMap<>();
+        for (String code : properties.stringPropertyNames()) {
+            rules.put(code, compile(code, properties.getProperty(code)));
+        }
+        return new DiscountRules(rules);
+    }
+
+    /**
+     * Builds one rule from its definition.
+     *
+     * @param code the discount code, used in error messages
+     * @param definition the rule name followed by its arguments
+     * @return the rule
+     * @throws IllegalArgumentException if the definition is not valid
+     */
+    private static DiscountRule compile(String code, String definition) {
+        String[] parts = definition.trim().split("\\s+");
+        try {
+            switch (parts[0]) {
+                case "percent":
+                    requireArguments(code, parts, 2);
+                    return new PercentDiscount(Double.parseDouble(parts[1]));
+                case "free-nights":
+                    requireArguments(code, parts, 3);
+                    return new FreeNightDiscount(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                case "day-of-month": {
+                    if (parts.length < 3) {
+                        throw new IllegalArgumentException("Discount code " + code + " needs a percentage and at least one day.");
+                    }
+                    int[] days = new int[parts.length - 2];
+                    for (int i = 0; i < days.length; i++) {
+                        days[i] = Integer.parseInt(parts[i + 2]);
+                        if (days[i] < 1 || days[i] > 31) {
+                            throw new IllegalArgumentException("Discount code " + code + " has an invalid day of the month: " + days[i]);
+                        }
+                    }
+                    return new DayOfMonthDiscount(Double.parseDouble(parts[1]), days);
+                }
+                default:
+                    throw new IllegalArgumentException("Discount code " + code + " has an unknown rule: " + parts[0]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Discount code " + code + " has an invalid number: " + definition, e);
+        }
+    }
+
+    /**
+     * Checks that a rule has the expected number of parts.
+     *
+     * @param code the discount code, used in error messages
+     * @param parts the rule name and its arguments
+     * @param expected the expected number of parts
+     * @throws IllegalArgumentException if the number of parts differs
+     */
+    private static void requireArguments(String code, String[] parts, int expected) {
+        if (parts.length != expected) {
+            throw new IllegalArgumentException("Discount code " + code + " needs " + (expected - 1) + " argument(s) for " + parts[0] + ".");
+        }
+    }
+}
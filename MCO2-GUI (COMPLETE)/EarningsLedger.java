@@ -0,0 +1,230 @@
+/**
+ * Running earnings of one hotel, broken down by month and room type.
+ * Every booking adds its final price spread evenly over the nights of the stay, so each month
+ * gets the share of the nights actually stayed in it, and every cancellation or price change
+ * applies the same spread in reverse. Totals are kept in flat primitive arrays with one row
+ * per month and one column per room type, so reports are simple array reads.
+ * The ledger is not thread-safe; the hotel only touches it while holding its own lock.
+ */
+public class EarningsLedger {
+    private static final int TYPE_COUNT = Room.ROOM_TYPES.length; // One column per room type
+    private static final int INITIAL_MONTHS = 24; // Months allocated for the first booking
+
+    private int firstMonth; // Month index of the first row
+    private int monthCount; // Number of rows allocated
+    private double[] revenue = new double[0]; // Revenue per month and room type
+    private long[] roomNights = new long[0]; // Room-nights sold per month and room type
+    private double totalRevenue; // Revenue over all months
+    private long totalRoomNights; // Room-nights over all months
+
+    /**
+     * Records the price of a new stay.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param roomType the type of the booked room
+     * @param price the final price of the stay
+     */
+    public void addStay(int checkInDay, int checkOutDay, String roomType, double price) {
+        spread(checkInDay, checkOutDay, typeIndex(roomType), price, 1);
+    }
+
+    /**
+     * Takes a cancelled stay back out of the ledger.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param roomType the type of the booked room
+     * @param price the final price the stay was recorded with
+     */
+    public void removeStay(int checkInDay, int checkOutDay, String roomType, double price) {
+        spread(checkInDay, checkOutDay, typeIndex(roomType), -price, -1);
+    }
+
+    /**
+     * Records a change to the price of a stay already in the ledger.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param roomType the type of the booked room
+     * @param difference the new price minus the old one
+     */
+    public void adjustStay(int checkInDay, int checkOutDay, String roomType, double difference) {
+        spread(checkInDay, checkOutDay, typeIndex(roomType), difference, 0);
+    }
+
+    /**
+     * Gets the revenue of one month over all room types.
+     *
+     * @param monthIndex the month index, counted as year * 12 + (month - 1)
+     * @return the revenue of the month
+     */
+    public double getRevenue(int monthIndex) {
+        double sum = 0;
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            sum += read(revenue, monthIndex, type);
+        }
+        return sum;
+    }
+
+    /**
+     * Gets the revenue of one room type in one month.
+     *
+     * @param monthIndex the month index, counted as year * 12 + (month - 1)
+     * @param roomType the room type
+     * @return the revenue of the room type in the month
+     */
+    public double getRevenue(int monthIndex, String roomType) {
+        return read(revenue, monthIndex, typeIndex(roomType));
+    }
+
+    /**
+     * Gets the room-nights sold in one month over all room types.
+     *
+     * @param monthIndex the month index, counted as year * 12 + (month - 1)
+     * @return the room-nights of the month
+     */
+    public long getRoomNights(int monthIndex) {
+        long sum = 0;
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            sum += read(roomNights, monthIndex, type);
+        }
+        return sum;
+    }
+
+    /**
+     * Gets the room-nights of one room type sold in one month.
+     *
+     * @param monthIndex the month index, counted as year * 12 + (month - 1)
+     * @param roomType the room type
+     * @return the room-nights of the room type in the month
+     */
+    public long getRoomNights(int monthIndex, String roomType) {
+        return read(roomNights, monthIndex, typeIndex(roomType));
+    }
+
+    /**
+     * Gets the revenue over all months.
+     *
+     * @return the total revenue
+     */
+    public double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    /**
+     * Gets the room-nights sold over all months.
+     *
+     * @return the total room-nights
+     */
+    public long getTotalRoomNights() {
+        return totalRoomNights;
+    }
+
+    /**
+     * Gets the column of a room type.
+     *
+     * @param roomType the room type
+     * @return the column of the room type
+     * @throws IllegalArgumentException if the room type is unknown
+     */
+    private static int typeIndex(String roomType) {
+        int type = Room.typeIndex(roomType);
+        if (type < 0) {
+            throw new IllegalArgumentException("Unknown room type: " + roomType);
+        }
+        return type;
+    }
+
+    /**
+     * Adds an amount and a number of room-nights per night to every month a stay covers.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param type the column of the room type
+     * @param amount the amount to spread over the nights
+     * @param nightSign 1 to add the nights, -1 to remove them, 0 to leave them unchanged
+     */
+    private void spread(int checkInDay, int checkOutDay, int type, double amount, int nightSign) {
+        int nights = checkOutDay - checkInDay;
+        if (nights <= 0) {
+            return; // A stay without nights earns nothing
+        }
+        double perNight = amount / nights;
+        totalRevenue += amount;
+        totalRoomNights += (long) nightSign * nights;
+
+        // Walk the stay one month at a time
+        int day = checkInDay;
+        while (day < checkOutDay) {
+            int month = EpochDay.monthIndex(day);
+            int end = Math.min(EpochDay.firstDayOfMonth(month + 1), checkOutDay);
+            int cell = row(month) + type;
+            revenue[cell] += perNight * (end - day);
+            roomNights[cell] += (long) nightSign * (end - day);
+            day = end;
+        }
+    }
+
+    /**
+     * Reads one cell, treating months outside the allocated rows as empty.
+     *
+     * @param values the array to read
+     * @param monthIndex the month index
+     * @param type the column of the room type
+     * @return the value of the cell
+     */
+    private double read(double[] values, int monthIndex, int type) {
+        int row = monthIndex - firstMonth;
+        return row >= 0 && row < monthCount ? values[row * TYPE_COUNT + type] : 0;
+    }
+
+    /**
+     * Reads one cell, treating months outside the allocated rows as empty.
+     *
+     * @param values the array to read
+     * @param monthIndex the month index
+     * @param type the column of the room type
+     * @return the value of the cell
+     */
+    private long read(long[] values, int monthIndex, int type) {
+        int row = monthIndex - firstMonth;
+        return row >= 0 && row < monthCount ? values[row * TYPE_COUNT + type] : 0;
+    }
+
+    /**
+     * Gets the first cell of a month's row, growing the arrays to cover the month if needed.
+     *
+     * @param monthIndex the month index
+     * @return the position of the month's first cell
+     */
+    private int row(int monthIndex) {
+        if (monthCount == 0) {
+            firstMonth = monthIndex; // First booking decides where the rows start
+        }
+        if (monthIndex < firstMonth) {
+            int shift = Math.max(firstMonth - monthIndex, Math.max(monthCount, INITIAL_MONTHS)); // Grow by at least double
+            resize(shift, monthCount + shift);
+            firstMonth -= shift;
+        } else if (monthIndex >= firstMonth + monthCount) {
+            resize(0, Math.max(monthIndex - firstMonth + 1, Math.max(monthCount * 2, INITIAL_MONTHS)));
+        }
+        return (monthIndex - firstMonth) * TYPE_COUNT;
+    }
+
+    /**
+     * Reallocates the arrays, moving the existing rows down by the given number of rows.
+     *
+     * @param offset the number of empty rows to insert before the existing ones
+     * @param months the new number of rows
+     */
+    private void resize(int offset, int months) {
+        double[] grownRevenue = new double[months * TYPE_COUNT];
+        long[] grownRoomNights = new long[months * TYPE_COUNT];
+        System.arraycopy(revenue, 0, grownRevenue, offset * TYPE_COUNT, monthCount * TYPE_COUNT);
+        System.arraycopy(roomNights, 0, grownRoomNights, offset * TYPE_COUNT, monthCount * TYPE_COUNT);
+        revenue = grownRevenue;
+        roomNights = grownRoomNights;
+        monthCount = months;
+    }
+}
@@ -0,0 +1,135 @@
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.Date;
+
+/**
+ * Utility methods for converting between dates and epoch days.
+ * An epoch day is the number of days since 1970-01-01 in the system time zone.
+ */
+public final class EpochDay {
+    // Accepts dates such as 2024-05-15 or 2024-5-15 and rejects impossible dates such as 2024-02-30
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("uuuu-M-d").withResolverStyle(ResolverStyle.STRICT);
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private EpochDay() {
+    }
+
+    /**
+     * Converts a date to its epoch day in the system time zone.
+     *
+     * @param date the date to convert
+     * @return the epoch day of the date
+     */
+    public static int of(Date date) {
+        // Drop the time of day so that every moment of a calendar day maps to the same value
+        return (int) date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Converts a local date to its epoch day.
+     *
+     * @param date the local date to convert
+     * @return the epoch day of the date
+     */
+    public static int of(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    /**
+     * Gets the epoch day of the current date in the system time zone.
+     *
+     * @return today's epoch day
+     */
+    public static int today() {
+        return of(LocalDate.now());
+    }
+
+    /**
+     * Parses a date in the format "yyyy-MM-dd" into an epoch day.
+     *
+     * @param text the text to parse
+     * @return the epoch day of the parsed date
+     * @throws java.time.format.DateTimeParseException if the text is not a valid date
+     */
+    public static int parse(String text) {
+        return of(LocalDate.parse(text.trim(), DATE_FORMAT));
+    }
+
+    /**
+     * Gets the day of the month of an epoch day without creating any date objects.
+     * Uses the days-to-civil algorithm for the proleptic Gregorian calendar.
+     *
+     * @param epochDay the epoch day
+     * @return the day of the month, from 1 to 31
+     */
+    public static int dayOfMonth(int epochDay) {
+        int z = epochDay + 719468; // Shift the epoch to 0000-03-01
+        int era = (z >= 0 ? z : z - 146096) / 146097; // 400-year era
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100); // Counted from March 1
+        int monthIndex = (5 * dayOfYear + 2) / 153; // 0 is March, 11 is February
+        return dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+    }
+
+    /**
+     * Gets the month of an epoch day as a month index, counted as year * 12 + (month - 1).
+     * Uses the same days-to-civil algorithm as dayOfMonth, so no date objects are created.
+     *
+     * @param epochDay the epoch day
+     * @return the month index of the day
+     */
+    public static int monthIndex(int epochDay) {
+        int z = epochDay + 719468; // Shift the epoch to 0000-03-01
+        int era = (z >= 0 ? z : z - 146096) / 146097; // 400-year era
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100); // Counted from March 1
+        int monthIndex = (5 * dayOfYear + 2) / 153; // 0 is March, 11 is February
+        int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0); // January and February belong to the next year
+        return year * 12 + month - 1;
+    }
+
+    /**
+     * Gets the month index of a year and month.
+     *
+     * @param year the year
+     * @param month the month (1-12)
+     * @return the month index, counted as year * 12 + (month - 1)
+     */
+    public static int monthIndex(int year, int month) {
+        return year * 12 + month - 1;
+    }
+
+    /**
+     * Gets the epoch day of the first day of a month.
+     * Uses the civil-to-days algorithm, the inverse of monthIndex(int).
+     *
+     * @param monthIndex the month index, counted as year * 12 + (month - 1)
+     * @return the epoch day of the first day of the month
+     */
+    public static int firstDayOfMonth(int monthIndex) {
+        int month = Math.floorMod(monthIndex, 12) + 1;
+        int year = Math.floorDiv(monthIndex, 12) - (month <= 2 ? 1 : 0); // Years start in March
+        int era = (year >= 0 ? year : year - 399) / 400;
+        int yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5; // Counted from March 1
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Converts an epoch day back to a date at the start of that day in the system time zone.
+     *
+     * @param epochDay the epoch day to convert
+     * @return the date at midnight of the given epoch day
+     */
+    public static Date toDate(int epochDay) {
+        return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
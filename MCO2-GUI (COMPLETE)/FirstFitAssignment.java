@@ -0,0 +1,20 @@
+import java.util.List;
+
+/**
+ * An assignment strategy that books the first free room, in the order the rooms were added.
+ */
+public class FirstFitAssignment implements RoomAssignmentStrategy {
+
+    /**
+     * Chooses the first free room.
+     *
+     * @param freeRooms the rooms free for the whole stay, in the order they were added to the hotel
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return the first free room, or null if the list is empty
+     */
+    @Override
+    public Room choose(List<Room> freeRooms, int checkInDay, int checkOutDay) {
+        return freeRooms.isEmpty() ? null : freeRooms.get(0);
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * A discount that gives nights for free on long stays, such as "stay 4, get 1 free".
+ */
+public class FreeNightDiscount implements DiscountRule {
+    private final int minimumNights; // Nights a stay needs to qualify
+    private final int freeNights; // Nights taken off the price
+
+    /**
+     * Constructs a free night discount.
+     *
+     * @param minimumNights the nights a stay needs to qualify
+     * @param freeNights the nights taken off the price
+     */
+    public FreeNightDiscount(int minimumNights, int freeNights) {
+        this.minimumNights = minimumNights;
+        this.freeNights = freeNights;
+    }
+
+    /**
+     * Checks if the stay is long enough for the free nights.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return true if the stay has at least the minimum number of nights, false otherwise
+     */
+    @Override
+    public boolean appliesTo(int checkInDay, int checkOutDay) {
+        return checkOutDay - checkInDay >= minimumNights;
+    }
+
+    /**
+     * Takes the room price of the free nights off the total price.
+     *
+     * @param totalPrice the total price before the discount
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param roomPrice the nightly price of the booked room
+     * @return the discounted price, or the total price if the stay is too short
+     */
+    @Override
+    public double apply(double totalPrice, int checkInDay, int checkOutDay, double roomPrice) {
+        return appliesTo(checkInDay, checkOutDay) ? totalPrice - roomPrice * freeNights : totalPrice;
+    }
+}
@@ -1,16 +1,81 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Represents a hotel with rooms and reservations.
+ * Bookings are safe to make from several threads: the availability check and the insert
+ * happen while holding the selected room's lock, so bookings for different rooms only meet
+ * briefly on the hotel-wide lock that guards the shared lists and indexes.
+ * Locks are always taken room first, then hotel.
+ * When a journal is attached, each change is appended to it while the hotel lock is held, and
+ * the calling thread waits for the journal to reach the disk only after all locks are released.
+ * Reservations restored from a snapshot count towards availability straight away, but their
+ * objects are only created when the reservations themselves are asked for.
+ * Earnings are kept in a ledger that every booking, cancellation and price change updates, so
+ * they always match the final prices of the reservations the hotel holds.
+ * A stay can also be sold against a room type alone as a RoomTypeHold. Each pending hold has a
+ * room of its type set aside, which later bookings, moves and removals work around, and it is
+ * turned into a reservation in that room when assignHolds runs before arrival.
  */
 public class Hotel {
-    private String name; // Name of the hotel
+    private static final int QUOTE_CACHE_SIZE = 10_000; // Quotes kept per hotel
+    public static final int WINDOW_SEARCH_DAYS = 730; // Days ahead a window search looks by default, two years
+    private static final String BATCH_NOT_BOOKED = "Batch not booked because another request could not be booked."; // Reason given to the rest of an all-or-nothing batch
+    private static final Comparator<RoomTypeHold> CHECK_IN_ORDER =
+            Comparator.comparingInt(RoomTypeHold::getCheckInDay).thenComparingInt(RoomTypeHold::getId); // Order in which holds get rooms
+
+    private volatile String name; // Name of the hotel
     private List<Room> rooms; // List of rooms in the hotel
     private List<Reservation> reservations; // List of reservations made in the hotel
-    private double totalEarnings; // Total earnings from reservations
-    private List<DatePriceModifier> datePriceModifiers; // List of date-based price modifiers
+    private EarningsLedger earnings; // Earnings per month and room type, guarded by the hotel lock
+    private TreeMap<Integer, DatePriceModifier> datePriceModifiers; // Non-overlapping date-based price modifiers keyed by start day
+    private OccupancyBitmap occupancy; // Per-day bit sets of occupied rooms
+    private RoomTypeInventory inventory; // Room counts and booked counts per night of each room type
+    private volatile RateCalendar rateCalendar; // Nightly modifiers built from the date price modifiers
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); // Guards the lists, indexes and bitmap
+    private final Lock readLock = lock.readLock(); // Held while querying the shared state
+    private final Lock writeLock = lock.writeLock(); // Held while changing the shared state
+    private Map<String, Room> roomsByName; // Rooms keyed by lower-case room name
+    private Map<String, List<Reservation>> reservationsByGuest; // Reservations keyed by lower-case guest name
+    private Map<Integer, Reservation> reservationsById; // Reservations keyed by reservation ID
+    private volatile BookingJournal journal; // Journal that records every change, or null if changes are not saved
+    private volatile boolean restoredOutOfOrder; // Whether loaded snapshot reservations still need sorting into booking order
+    private volatile long[] restoredIds; // Snapshot reservation IDs, each with its room index in the low bits, sorted; null once all are loaded
+    private Room[] restoredRooms; // Rooms of the snapshot by room index
+    private final QuoteCache quoteCache = new QuoteCache(QUOTE_CACHE_SIZE); // Recent quotes, dropped when their prices change
+    private volatile RoomAssignmentStrategy assignmentStrategy = new BestFitAssignment(); // Picks the room for a booking among the free ones
+    private Map<Integer, RoomTypeHold> holds; // Stays sold by room type that still wait for a room, keyed by ID in booking order
+    private final int[] holdCounts = new int[Room.ROOM_TYPES.length]; // Pending holds of each room type
+    private int assignedThroughDay = Integer.MIN_VALUE; // Last check-in day whose holds have been given rooms
+
+    /**
+     * Receives the stays of a hotel one at a time.
+     */
+    public interface StayVisitor {
+        /**
+         * Receives one stay.
+         *
+         * @param checkInDay the check-in epoch day
+         * @param checkOutDay the check-out epoch day
+         * @param finalPrice the final price of the stay
+         * @param room the booked room
+         */
+        void visit(int checkInDay, int checkOutDay, double finalPrice, Room room);
+    }
 
     /**
      * Constructs a Hotel with the given name.
@@ -21,34 +86,98 @@ public class Hotel {
         this.name = name;
         this.rooms = new ArrayList<>(); // Initialize the list of rooms
         this.reservations = new ArrayList<>(); // Initialize the list of reservations
-        this.datePriceModifiers = new ArrayList<>(); // Initialize the list of date price modifiers
+        this.earnings = new EarningsLedger(); // Initialize earnings to zero
+        this.datePriceModifiers = new TreeMap<>(); // Initialize the map of date price modifiers
+        this.occupancy = new OccupancyBitmap(); // Initialize an empty occupancy bitmap
+        this.inventory = new RoomTypeInventory(); // Initialize an empty room type inventory
+        this.rateCalendar = new RateCalendar(); // Initialize a calendar without modifiers
+        this.roomsByName = new HashMap<>(); // Initialize the room name index
+        this.reservationsByGuest = new HashMap<>(); // Initialize the guest name index
+        this.reservationsById = new HashMap<>(); // Initialize the reservation ID index
+        this.holds = new LinkedHashMap<>(); // Initialize the map of pending holds
     }
 
     /**
      * Adds a date price modifier to the hotel.
+     * Modifiers may not overlap, so every day has at most one modifier.
      *
      * @param modifier the date price modifier to add
+     * @return true if the modifier was added, false if its end is before its start or it overlaps an existing modifier
      */
-    public void addDatePriceModifier(DatePriceModifier modifier) {
-        datePriceModifiers.add(modifier); // Add the modifier to the list
+    public boolean addDatePriceModifier(DatePriceModifier modifier) {
+        if (modifier.getEndDay() < modifier.getStartDay()) {
+            return false; // Empty date range
+        }
+        writeLock.lock();
+        try {
+            // Only the last modifier starting on or before the new end can reach into the new range
+            Map.Entry<Integer, DatePriceModifier> before = datePriceModifiers.floorEntry(modifier.getEndDay());
+            if (before != null && before.getValue().getEndDay() >= modifier.getStartDay()) {
+                return false; // Overlaps an existing modifier
+            }
+            datePriceModifiers.put(modifier.getStartDay(), modifier); // Add the modifier to the map
+            rateCalendar = new RateCalendar(new ArrayList<>(datePriceModifiers.values())); // Publish a rebuilt rate calendar
+            quoteCache.invalidateNights(modifier.getStartDay(), modifier.getEndDay()); // Only stays on the modified days change
+            if (journal != null) {
+                journal.addModifier(name, modifier);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        syncJournal();
+        return true;
     }
 
     /**
-     * Adds a reservation to the hotel's list of reservations.
+     * Adds a reservation to the hotel's list of reservations and to the reservation's room.
      *
      * @param reservation the reservation to be added
      */
     public void addReservation(Reservation reservation) {
-        reservations.add(reservation);
+        insertReservation(reservation);
+        syncJournal();
+    }
+
+    /**
+     * Adds a reservation to the hotel and its room without waiting for the journal.
+     *
+     * @param reservation the reservation to be added
+     */
+    private void insertReservation(Reservation reservation) {
+        Room room = reservation.getRoom();
+        synchronized (room) { // Room lock first, then the hotel lock
+            room.addReservation(reservation); // Register the stay with the room
+            writeLock.lock();
+            try {
+                reservations.add(reservation);
+                reservationsById.put(reservation.getId(), reservation); // Index the reservation by ID
+                reservationsByGuest.computeIfAbsent(nameKey(reservation.getGuestName()), k -> new ArrayList<>()).add(reservation); // Index by guest
+                occupancy.markStay(room.getSlot(), reservation.getCheckInDay(), reservation.getCheckOutDay());
+                inventory.addStay(room.getRoomType(), reservation.getCheckInDay(), reservation.getCheckOutDay());
+                earnings.addStay(reservation.getCheckInDay(), reservation.getCheckOutDay(), room.getRoomType(), reservation.getFinalPrice());
+                if (journal != null) {
+                    journal.book(name, reservation);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
     }
 
     /**
      * Retrieves the list of all reservations made in the hotel.
      *
-     * @return a list of reservations
+     * @return a read-only snapshot of the list of reservations
      */
     public List<Reservation> getReservations() {
-        return reservations;
+        materializeAll(); // Load reservations still waiting in the snapshot
+        readLock.lock();
+        try {
+            // Changes must go through addReservation and removeReservation
+            return Collections.unmodifiableList(new ArrayList<>(reservations));
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
@@ -57,16 +186,33 @@ public class Hotel {
      * @param modifier the date price modifier to remove
      */
     public void removeDatePriceModifier(DatePriceModifier modifier) {
-        datePriceModifiers.remove(modifier); // Remove the modifier from the list
+        writeLock.lock();
+        try {
+            if (datePriceModifiers.remove(modifier.getStartDay(), modifier)) { // Remove the modifier from the map
+                rateCalendar = new RateCalendar(new ArrayList<>(datePriceModifiers.values())); // Publish a rebuilt rate calendar
+                quoteCache.invalidateNights(modifier.getStartDay(), modifier.getEndDay()); // Only stays on those days change
+                if (journal != null) {
+                    journal.removeModifier(name, modifier);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        syncJournal();
     }
 
     /**
      * Gets the list of date price modifiers.
      *
-     * @return the list of date price modifiers
+     * @return a read-only snapshot of the date price modifiers, ordered by start day
      */
     public List<DatePriceModifier> getDatePriceModifiers() {
-        return datePriceModifiers; // Return the list of modifiers
+        readLock.lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(datePriceModifiers.values())); // Return a copy of the modifiers
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
@@ -76,12 +222,27 @@ public class Hotel {
      * @return the applicable date price modifier, or null if none found
      */
     public DatePriceModifier getDatePriceModifier(Date date) {
-        for (DatePriceModifier modifier : datePriceModifiers) {
-            if (modifier.isDateInRange(date)) { // Check if the modifier applies to the given date
-                return modifier; // Return the found modifier
+        return getDatePriceModifier(EpochDay.of(date));
+    }
+
+    /**
+     * Gets the date price modifier applicable for a given epoch day.
+     *
+     * @param day the epoch day to check
+     * @return the applicable date price modifier, or null if none found
+     */
+    public DatePriceModifier getDatePriceModifier(int day) {
+        readLock.lock();
+        try {
+            // Modifiers do not overlap, so only the last one starting on or before the day can cover it
+            Map.Entry<Integer, DatePriceModifier> entry = datePriceModifiers.floorEntry(day);
+            if (entry != null && entry.getValue().isDayInRange(day)) {
+                return entry.getValue(); // Return the found modifier
             }
+            return null; // Return null if no modifier is found for the given date
+        } finally {
+            readLock.unlock();
         }
-        return null; // Return null if no modifier is found for the given date
     }
 
     /**
@@ -91,12 +252,118 @@ public class Hotel {
      * @return the price modifier for the date, defaults to 1.0 if none found
      */
     public double getModifierForDate(Date date) {
-        for (DatePriceModifier modifier : datePriceModifiers) {
-            if (modifier.isDateInRange(date)) { // Check if the modifier applies to the given date
-                return modifier.getModifier(); // Return the modifier value
+        // Read the modifier from the rate calendar, which defaults to 1.0 (100%)
+        return rateCalendar.modifierOn(EpochDay.of(date));
+    }
+
+    /**
+     * Gets the sum of the price modifiers for every night of a stay.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day, which is not charged
+     * @return the sum of the nightly price modifiers
+     */
+    public double getModifierSum(int checkInDay, int checkOutDay) {
+        return rateCalendar.sumModifiers(checkInDay, checkOutDay); // Prefix-sum lookup over the stay
+    }
+
+    /**
+     * Prices a batch of stays for every room type without creating any reservations.
+     * The rate calendar is read once for the whole batch and each room type is priced from its
+     * cheapest room, so every quote is a prefix-sum lookup and a multiplication.
+     *
+     * @param checkInDays the check-in epoch day of each stay
+     * @param nights the number of nights of each stay
+     * @return the price of each stay in each room type
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public StayQuotes quote(int[] checkInDays, int[] nights) {
+        if (checkInDays.length != nights.length) {
+            throw new IllegalArgumentException("Every stay needs a check-in day and a number of nights.");
+        }
+        double[] nightlyPrices = getNightlyPrices();
+        RateCalendar calendar = rateCalendar; // One calendar for the whole batch
+        double[] prices = new double[checkInDays.length * nightlyPrices.length];
+        for (int i = 0; i < checkInDays.length; i++) {
+            double modifierSum = calendar.sumModifiers(checkInDays[i], checkInDays[i] + nights[i]);
+            for (int type = 0; type < nightlyPrices.length; type++) {
+                prices[i * nightlyPrices.length + type] = nightlyPrices[type] * modifierSum;
+            }
+        }
+        return new StayQuotes(prices);
+    }
+
+    /**
+     * Quotes one stay in a room type with a discount code, answering repeated quotes from the cache.
+     *
+     * @param roomType the room type (Standard, Deluxe, Executive)
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param discountCode the discount code, or null for none
+     * @return the price of the stay after the discount, or NaN if the hotel has no room of that type
+     * @throws IllegalArgumentException if the room type is unknown
+     */
+    public double getQuote(String roomType, int checkInDay, int checkOutDay, String discountCode) {
+        int type = Room.typeIndex(roomType);
+        if (type < 0) {
+            throw new IllegalArgumentException("Unknown room type: " + roomType);
+        }
+        double price = quoteCache.get(type, checkInDay, checkOutDay, discountCode);
+        if (!Double.isNaN(price)) {
+            return price; // Cache hit
+        }
+
+        long stamp = quoteCache.getStamp(); // Taken before reading any price
+        double nightlyPrice = getNightlyPrices()[type];
+        price = nightlyPrice * rateCalendar.sumModifiers(checkInDay, checkOutDay);
+        DiscountRule rule = DiscountRules.getDefault().get(discountCode);
+        if (rule != null) {
+            price = rule.apply(price, checkInDay, checkOutDay, nightlyPrice);
+        }
+        quoteCache.put(type, checkInDay, checkOutDay, discountCode, stamp, price);
+        return price;
+    }
+
+    /**
+     * Gets the cache behind getQuote, for its hit and miss counts.
+     *
+     * @return the quote cache
+     */
+    public QuoteCache getQuoteCache() {
+        return quoteCache;
+    }
+
+    /**
+     * Drops the cached quotes of a room's type after its price changed.
+     * Called by Room.setBasePrice.
+     *
+     * @param room the room whose price changed
+     */
+    void roomPriceChanged(Room room) {
+        quoteCache.invalidateRoomType(Room.typeIndex(room.getRoomType()));
+    }
+
+    /**
+     * Gets the nightly price of the cheapest room of each type.
+     *
+     * @return the prices in Room.ROOM_TYPES order, with NaN for types without rooms
+     */
+    private double[] getNightlyPrices() {
+        double[] nightlyPrices = new double[Room.ROOM_TYPES.length];
+        Arrays.fill(nightlyPrices, Double.NaN); // Types without rooms cannot be quoted
+        readLock.lock();
+        try {
+            for (Room room : rooms) {
+                int type = Room.typeIndex(room.getRoomType());
+                double price = room.getBasePrice(); // Includes the Deluxe and Executive increases
+                if (Double.isNaN(nightlyPrices[type]) || price < nightlyPrices[type]) {
+                    nightlyPrices[type] = price;
+                }
             }
+        } finally {
+            readLock.unlock();
         }
-        return 1.0; // Default modifier is 1.0 (100%)
+        return nightlyPrices;
     }
 
     /**
@@ -105,8 +372,9 @@ public class Hotel {
      * @param name the name of the room
      * @param basePrice the base price of the room
      * @param roomType the type of the room (Standard, Deluxe, Executive)
+     * @return the new room, or null if the room type is invalid
      */
-    public void addRoom(String name, double basePrice, String roomType) {
+    public Room addRoom(String name, double basePrice, String roomType) {
         Room room; // Variable to hold the new room
 
         // Create the room based on the specified room type
@@ -121,25 +389,70 @@ public class Hotel {
                 room = new ExecutiveRoom(name, basePrice); // Create an ExecutiveRoom
                 break;
             default:
-                System.out.println("Invalid room type."); // Error message for invalid type
-                return; // Exit if invalid type is provided
+                return null; // Invalid room type, so nothing is added
+        }
+        writeLock.lock();
+        try {
+            room.setSlot(occupancy.allocateSlot()); // Give the room a bit in the occupancy bitmap
+            inventory.addRoom(roomType); // Count the room towards its type
+            room.setHotel(this); // Let the room report price changes
+            rooms.add(room); // Add the created room to the hotel's room list
+            quoteCache.invalidateRoomType(Room.typeIndex(roomType)); // The room may be the cheapest of its type
+            roomsByName.putIfAbsent(nameKey(name), room); // Index the room by name, keeping the first room with that name
+            if (journal != null) {
+                journal.addRoom(this.name, name, roomType, basePrice);
+            }
+        } finally {
+            writeLock.unlock();
         }
-        rooms.add(room); // Add the created room to the hotel's room list
+        syncJournal();
+        return room;
     }
 
     /**
      * Removes a room from the hotel.
+     * A room with reservations is kept. Holds set aside in the room are given other rooms of its
+     * type, and the room is kept if one of them cannot be.
      *
      * @param room the room to remove
+     * @return true if the room was removed, false if it was kept or is not in the hotel
      */
-    public void removeRoom(Room room) {
-        // Check if the room is available for removal (no active reservations)
-        if (room.isAvailable(null)) {
-            rooms.remove(room); // Remove the room from the list
-
-        } else {
-            System.out.println("Cannot remove room. It has active reservations."); // Error message
+    public boolean removeRoom(Room room) {
+        boolean removed = false;
+        synchronized (room) { // Hold the room so no booking lands while it is being removed
+            // Check if the room is available for removal (no active reservations)
+            if (room.isAvailable(null)) {
+                writeLock.lock();
+                try {
+                    int type = Room.typeIndex(room.getRoomType());
+                    if (type >= 0 && holdCounts[type] > 0) {
+                        Map<RoomTypeHold, Room> plan = planHolds(type, null, new OccupancyBitmap(), room);
+                        if (plan == null) {
+                            return false; // A hold has no other room to go to
+                        }
+                        applyPlan(plan, null);
+                    }
+                    if (rooms.remove(room)) { // Remove the room from the list
+                        removed = true;
+                        occupancy.releaseSlot(room.getSlot()); // Free the room's bit for future rooms
+                        inventory.removeRoom(room.getRoomType()); // Stop counting the room towards its type
+                        room.setSlot(-1);
+                        room.setHotel(null);
+                        quoteCache.invalidateRoomType(Room.typeIndex(room.getRoomType())); // The room may have been the cheapest of its type
+                        unindexRoom(room); // Drop the room from the name index
+                        if (journal != null) {
+                            journal.removeRoom(name, room.getName());
+                        }
+                    }
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+        }
+        if (removed) {
+            syncJournal();
         }
+        return removed;
     }
 
     /**
@@ -150,13 +463,53 @@ public class Hotel {
      * @return the selected room, or null if no rooms are available
      */
     public Room selectRoomForBooking(Date checkInDate, Date checkOutDate) {
-        for (Room room : rooms) {
-            // Check if the room is available for the specified dates
-            if (room.isAvailable(checkInDate, checkOutDate)) {
-                return room; // Return the first available room found
+        return selectRoomForBooking(EpochDay.of(checkInDate), EpochDay.of(checkOutDate));
+    }
+
+    /**
+     * Selects an available room for booking based on the check-in and check-out epoch days.
+     * The free rooms are read from the occupancy bitmap, and the hotel's assignment strategy
+     * chooses between them after the hotel lock is released, since strategies may look at the
+     * rooms' own reservations and room locks are never taken while the hotel lock is held.
+     *
+     * @param checkInDay  the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return the selected room, or null if no rooms are available
+     */
+    public Room selectRoomForBooking(int checkInDay, int checkOutDay) {
+        List<Room> freeRooms = new ArrayList<>();
+        readLock.lock();
+        try {
+            BitSet free = occupancy.freeRooms(checkInDay, checkOutDay);
+            for (Room room : rooms) {
+                // Check if the room is free for the specified dates
+                if (free.get(room.getSlot())) {
+                    freeRooms.add(room);
+                }
             }
+        } finally {
+            readLock.unlock();
         }
-        return null; // No available rooms for the specified dates
+        return assignmentStrategy.choose(freeRooms, checkInDay, checkOutDay);
+    }
+
+    /**
+     * Sets the strategy that chooses which free room a booking gets.
+     * The strategy is a runtime setting and is not recorded in the journal.
+     *
+     * @param assignmentStrategy the strategy to use for later bookings
+     */
+    public void setAssignmentStrategy(RoomAssignmentStrategy assignmentStrategy) {
+        this.assignmentStrategy = assignmentStrategy;
+    }
+
+    /**
+     * Gets the strategy that chooses which free room a booking gets.
+     *
+     * @return the assignment strategy, best-fit unless it was changed
+     */
+    public RoomAssignmentStrategy getAssignmentStrategy() {
+        return assignmentStrategy;
     }
 
     /**
@@ -167,11 +520,13 @@ public class Hotel {
      * @return the reservation, or null if not found
      */
     public Reservation findReservationByDates(Date checkInDate, Date checkOutDate) {
-        for (Room room : rooms) {
+        int checkInDay = EpochDay.of(checkInDate);
+        int checkOutDay = EpochDay.of(checkOutDate);
+        for (Room room : getRooms()) {
             // Check each reservation in the room for matching dates
             for (Reservation reservation : room.getReservations()) {
-                if (reservation.getCheckInDate().equals(checkInDate) && 
-                    reservation.getCheckOutDate().equals(checkOutDate)) {
+                if (reservation.getCheckInDay() == checkInDay && 
+                    reservation.getCheckOutDay() == checkOutDay) {
                     return reservation; // Return the found reservation
                 }
             }
@@ -185,7 +540,16 @@ public class Hotel {
      * @param newName the new name of the hotel
      */
     public void changeName(String newName) {
-        this.name = newName; // Update the hotel's name
+        writeLock.lock();
+        try {
+            if (journal != null) {
+                journal.renameHotel(name, newName);
+            }
+            this.name = newName; // Update the hotel's name
+        } finally {
+            writeLock.unlock();
+        }
+        syncJournal();
     }
 
     /**
@@ -196,8 +560,8 @@ public class Hotel {
     public String getHighLevelInfo() {
         // Compile and return high-level information about the hotel
         return "Hotel Name: " + name + 
-               "\nTotal Rooms: " + rooms.size() + 
-               "\nTotal Earnings: PHP " + totalEarnings;
+               "\nTotal Rooms: " + getTotalRooms() + 
+               "\nTotal Earnings: PHP " + getMonthlyEarnings();
     }
 
     /**
@@ -207,34 +571,33 @@ public class Hotel {
      */
     public String getLowLevelInfo() {
         StringBuilder info = new StringBuilder(); // StringBuilder for efficient string concatenation
-        info.append("Hotel Name: ").append(name).append("\n");
-        info.append("Total Rooms: ").append(rooms.size()).append("\n");
-
-        // Calculate total available and booked rooms
-        int totalAvailable = 0;
-        int totalBooked = 0;
-        Date today = new Date(); // Assuming today's date
+        materializeAll(); // The first reservation may still be waiting in the snapshot
+        readLock.lock();
+        try {
+            info.append("Hotel Name: ").append(name).append("\n");
+            info.append("Total Rooms: ").append(rooms.size()).append("\n");
 
-        for (Room room : rooms) {
-            // Count available and booked rooms based on today's date
-            totalAvailable += room.isAvailable(today) ? 1 : 0; // Increment available count
-            totalBooked += room.isAvailable(today) ? 0 : 1; // Increment booked count
-        }
+            // Calculate total available and booked rooms based on today's date
+            int totalAvailable = getTotalAvailableRooms(EpochDay.today()); // Assuming today's date
+            int totalBooked = rooms.size() - totalAvailable;
 
-        // Append availability information to the string
-        info.append("Total Available Rooms: ").append(totalAvailable).append("\n");
-        info.append("Total Booked Rooms: ").append(totalBooked).append("\n");
+            // Append availability information to the string
+            info.append("Total Available Rooms: ").append(totalAvailable).append("\n");
+            info.append("Total Booked Rooms: ").append(totalBooked).append("\n");
 
-        // Display information about the first room (if available)
-        if (!rooms.isEmpty()) {
-            Room firstRoom = rooms.get(0); // Get the first room
-            info.append("Room Info: ").append(firstRoom.getRoomInfo()).append("\n"); // Append room info
-        }
+            // Display information about the first room (if available)
+            if (!rooms.isEmpty()) {
+                Room firstRoom = rooms.get(0); // Get the first room
+                info.append("Room Info: ").append(firstRoom.getRoomInfo()).append("\n"); // Append room info
+            }
 
-        // Display information about the first reservation (if available)
-        if (!reservations.isEmpty()) {
-            Reservation firstReservation = reservations.get(0); // Get the first reservation
-            info.append("Reservation Info: ").append(firstReservation.getDetails()).append("\n"); // Append reservation info
+            // Display information about the first reservation (if available)
+            if (!reservations.isEmpty()) {
+                Reservation firstReservation = reservations.get(0); // Get the first reservation
+                info.append("Reservation Info: ").append(firstReservation.getDetails()).append("\n"); // Append reservation info
+            }
+        } finally {
+            readLock.unlock();
         }
 
         return info.toString(); // Return the low-level information as a string
@@ -246,18 +609,155 @@ public class Hotel {
      * @param newPrice the new base price
      */
     public void updateBasePrice(double newPrice) {
-        for (Room room : rooms) {
-            room.setBasePrice(newPrice); // Update each room's base price
+        writeLock.lock();
+        try {
+            for (Room room : rooms) {
+                room.setBasePrice(newPrice); // Update each room's base price
+            }
+            if (journal != null) {
+                journal.updateBasePrice(name, newPrice);
+            }
+        } finally {
+            writeLock.unlock();
         }
+        syncJournal();
     }
 
     /**
      * Removes a reservation from the hotel.
+     * The reservation's room is read again once its lock is held. If the reservation was moved
+     * meanwhile, that lock is let go before the new room is locked, so a cancel never holds two
+     * room locks and cannot meet a move that takes them in the hotel's room order.
      *
      * @param reservation the reservation to remove
+     * @return true if the reservation was removed, false if it has no room or does not belong to this hotel
+     */
+    public boolean removeReservation(Reservation reservation) {
+        while (true) {
+            Room room = reservation.getRoom();
+            if (room == null) {
+                return false; // Never booked into a room, so the hotel cannot hold it
+            }
+            synchronized (room) { // Room lock first, then the hotel lock
+                if (reservation.getRoom() != room) {
+                    continue; // Moved to another room before the lock was taken, so let go of it and look again
+                }
+                writeLock.lock();
+                try {
+                    if (!reservations.remove(reservation)) { // Remove the reservation from the list
+                        return false; // Reservation does not belong to this hotel
+                    }
+                    reservationsById.remove(reservation.getId()); // Drop the reservation from the ID index
+                    String guestKey = nameKey(reservation.getGuestName());
+                    List<Reservation> guestReservations = reservationsByGuest.get(guestKey);
+                    if (guestReservations != null) {
+                        guestReservations.remove(reservation); // Drop the reservation from the guest index
+                        if (guestReservations.isEmpty()) {
+                            reservationsByGuest.remove(guestKey);
+                        }
+                    }
+
+                    room.removeReservation(reservation); // Remove the stay from the room
+                    clearStay(room, reservation);
+                    inventory.removeStay(room.getRoomType(), reservation.getCheckInDay(), reservation.getCheckOutDay());
+                    earnings.removeStay(reservation.getCheckInDay(), reservation.getCheckOutDay(), room.getRoomType(), reservation.getFinalPrice());
+                    if (journal != null) {
+                        journal.cancel(name, reservation.getId());
+                    }
+                    reservation.release(); // The hotel no longer holds it, so its store row can go to a later booking
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+            syncJournal();
+            return true;
+        }
+    }
+
+    /**
+     * Clears the nights of a reservation that left a room from the occupancy bitmap.
+     * Called with the room and hotel locks held, after the reservation was taken out of the room.
+     * The days of the stay, its check-out day included, are then marked again from the room's own
+     * index, so a stay of the room that checks in or out on one of those days stays marked.
+     *
+     * @param room        the room the reservation left
+     * @param reservation the reservation that left
+     */
+    private void clearStay(Room room, Reservation reservation) {
+        int checkInDay = reservation.getCheckInDay();
+        int checkOutDay = reservation.getCheckOutDay();
+        occupancy.clearStay(room.getSlot(), checkInDay, checkOutDay);
+        occupancy.markDays(room.getSlot(), checkInDay, room.getBookedNights(checkInDay, checkOutDay + 1),
+                room.getBookedDays(checkInDay, checkOutDay + 1));
+    }
+
+    /**
+     * Moves a reservation to another room of the same type, keeping its ID, dates and price.
+     * Both rooms are locked in the hotel's room order, the same order assignHolds uses, and the
+     * check runs while they are held, so neither room can change before the move. The hotel lock
+     * is only tried: when a booking holds it the move is skipped rather than making the booking
+     * wait, and the caller may try again later. A move onto nights set aside for a hold gives the
+     * hold another room, and is skipped if no other room is free for it.
+     *
+     * @param reservation the reservation to move
+     * @param target      the room to move it to
+     * @param check       checked once both rooms are locked; the move is skipped if it returns false
+     * @return true if the reservation was moved, false otherwise
      */
-    public void removeReservation(Reservation reservation) {
-        reservations.remove(reservation); // Remove the reservation from the list
+    public boolean tryMoveReservation(Reservation reservation, Room target, BooleanSupplier check) {
+        Room source = reservation.getRoom();
+        if (source == null || source == target || !source.getRoomType().equals(target.getRoomType())) {
+            return false; // Nothing to move, or a different room type
+        }
+        int sourcePosition;
+        int targetPosition;
+        readLock.lock();
+        try {
+            sourcePosition = rooms.indexOf(source);
+            targetPosition = rooms.indexOf(target);
+        } finally {
+            readLock.unlock();
+        }
+        if (sourcePosition < 0 || targetPosition < 0) {
+            return false; // One of the rooms is not in this hotel
+        }
+
+        boolean moved = false;
+        Room first = sourcePosition < targetPosition ? source : target;
+        Room second = first == source ? target : source;
+        synchronized (first) {
+            synchronized (second) {
+                int checkInDay = reservation.getCheckInDay();
+                int checkOutDay = reservation.getCheckOutDay();
+                if (reservation.getRoom() != source || !target.isAvailable(checkInDay, checkOutDay) || !check.getAsBoolean()) {
+                    return false; // Moved or cancelled meanwhile, the target filled up, or no longer worth it
+                }
+                if (!writeLock.tryLock()) {
+                    return false; // A booking is writing, so do not make it wait
+                }
+                try {
+                    if (reservationsById.get(reservation.getId()) != reservation || !rooms.contains(target)
+                            || !planHoldsAround(target, checkInDay, checkOutDay)) {
+                        return false; // Not a reservation of this hotel, the target was removed, or a hold needs the nights
+                    }
+                    source.removeReservation(reservation);
+                    clearStay(source, reservation);
+                    reservation.setRoom(target);
+                    target.addReservation(reservation);
+                    occupancy.markStay(target.getSlot(), checkInDay, checkOutDay);
+                    if (journal != null) {
+                        journal.moveReservation(name, reservation);
+                    }
+                    moved = true; // Type counts and earnings stay the same, since the type and price do
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+        }
+        if (moved) {
+            syncJournal(); // Wait for the journal once the locks are released
+        }
+        return moved;
     }
 
     /**
@@ -270,12 +770,21 @@ public class Hotel {
      * @return the reservation, or null if the room is not available
      */
     public Reservation simulateBooking(String guestName, Date checkInDate, Date checkOutDate, Room selectedRoom, Hotel hotel) {
-        // Check if the selected room is available for the given dates
-        if (selectedRoom != null && selectedRoom.isAvailable(checkInDate, checkOutDate)) {
-            // Create a new reservation and add it to the list
-            Reservation reservation = new Reservation(guestName, checkInDate, checkOutDate, selectedRoom, hotel);
-            reservations.add(reservation); // Add the reservation to the list
-            totalEarnings += reservation.getTotalPrice(); // Update total earnings
+        return simulateBooking(guestName, EpochDay.of(checkInDate), EpochDay.of(checkOutDate), selectedRoom, hotel);
+    }
+
+    /**
+     * Simulates booking a room for a guest using check-in and check-out epoch days.
+     *
+     * @param guestName    the name of the guest
+     * @param checkInDay   the check-in epoch day
+     * @param checkOutDay  the check-out epoch day
+     * @param selectedRoom the room selected for booking
+     * @return the reservation, or null if the room is not available
+     */
+    public Reservation simulateBooking(String guestName, int checkInDay, int checkOutDay, Room selectedRoom, Hotel hotel) {
+        Reservation reservation = bookRoom(guestName, checkInDay, checkOutDay, selectedRoom);
+        if (reservation != null) {
             return reservation; // Return the created reservation
         } else {
             System.out.println("Selected room is not available for the given dates. We apologize."); // Error message
@@ -284,114 +793,1468 @@ public class Hotel {
     }
 
     /**
-     * Gets the names of all available rooms on a specific date.
+     * Books a room for a guest if it is free for every night of the stay.
+     * The availability check and the insert happen atomically under the room's lock.
      *
-     * @param date the date to check availability
-     * @return a list of available room names
+     * @param guestName    the name of the guest
+     * @param checkInDay   the check-in epoch day
+     * @param checkOutDay  the check-out epoch day
+     * @param room         the room to book
+     * @return the reservation, or null if the room is not available
      */
-    public List<String> getAvailableRoomNames(Date date) {
-        List<String> availableRooms = new ArrayList<>(); // List to store names of available rooms
-        for (Room room : rooms) {
-            if (room.isAvailable(date)) { // Check if the room is available on the given date
-                availableRooms.add(room.getName()); // Add the room name to the list
+    public Reservation bookRoom(String guestName, int checkInDay, int checkOutDay, Room room) {
+        return bookRoom(guestName, checkInDay, checkOutDay, room, null);
+    }
+
+    /**
+     * Books a room for a guest with a discount code if it is free for every night of the stay.
+     * The discount is applied before the reservation is added, so the journal records the booking
+     * once with its code and final price.
+     *
+     * @param guestName    the name of the guest
+     * @param checkInDay   the check-in epoch day
+     * @param checkOutDay  the check-out epoch day
+     * @param room         the room to book
+     * @param discountCode the discount code, or null or blank for none
+     * @return the reservation, or null if the room is not available
+     */
+    public Reservation bookRoom(String guestName, int checkInDay, int checkOutDay, Room room, String discountCode) {
+        Reservation reservation = null;
+        if (room != null) {
+            synchronized (room) { // Check and reserve atomically so two guests cannot get the same nights
+                // Check if the room is available for the given days
+                if (room.isAvailable(checkInDay, checkOutDay)) {
+                    writeLock.lock();
+                    try {
+                        // Holds of the room's type must still get a room afterwards
+                        if (admitsBooking(room, checkInDay, checkOutDay)) {
+                            reservation = createReservation(guestName, checkInDay, checkOutDay, room, discountCode);
+                        }
+                    } finally {
+                        writeLock.unlock();
+                    }
+                }
             }
         }
-        return availableRooms; // Return the list of available room names
+
+        if (reservation != null) {
+            syncJournal(); // Wait for the journal once the locks are released
+        }
+        return reservation;
     }
 
     /**
-     * Gets the total number of available rooms on a specific date.
+     * Creates a priced reservation and adds it to the hotel, the room and the earnings.
+     * Called with the room and hotel locks held, once the stay has been checked.
      *
-     * @param date the date to check availability
-     * @return the total number of available rooms
+     * @param guestName    the name of the guest
+     * @param checkInDay   the check-in epoch day
+     * @param checkOutDay  the check-out epoch day
+     * @param room         the room to book
+     * @param discountCode the discount code, or null or blank for none
+     * @return the reservation
      */
-    public int getTotalAvailableRooms(Date date) {
-        int count = 0; // Initialize count of available rooms
-        for (Room room : rooms) {
-            if (room.isAvailable(date)) { // Check if the room is available on the given date
-                count++; // Increment the count
+    private Reservation createReservation(String guestName, int checkInDay, int checkOutDay, Room room, String discountCode) {
+        Reservation reservation = new Reservation(guestName, checkInDay, checkOutDay, room, this);
+        priceReservation(reservation, discountCode); // Price the stay before the ledger records it
+        insertReservation(reservation); // Add the reservation to the hotel, the room and the earnings
+        return reservation;
+    }
+
+    /**
+     * Checks if a booking for a fixed room still leaves a room for every hold of the room's type.
+     * Without holds of the type nothing changes. Otherwise the stay must fit the type's booked-count
+     * tree, and the holds set aside in the room on those nights are given other rooms.
+     * Called with the room and hotel locks held.
+     *
+     * @param room        the room to book
+     * @param checkInDay  the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return true if the booking can be made, false otherwise
+     */
+    private boolean admitsBooking(Room room, int checkInDay, int checkOutDay) {
+        int type = Room.typeIndex(room.getRoomType());
+        if (type >= 0 && holdCounts[type] > 0 && inventory.getFreeCount(room.getRoomType(), checkInDay, checkOutDay) <= 0) {
+            return false; // Every room of the type is promised on some night of the stay
+        }
+        return planHoldsAround(room, checkInDay, checkOutDay);
+    }
+
+    /**
+     * Sets aside rooms for the holds of a room's type around a stay about to be placed in the room.
+     * Called with the room and hotel locks held.
+     *
+     * @param room        the room the stay goes to
+     * @param checkInDay  the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return true if every hold of the type still has a room, false otherwise
+     */
+    private boolean planHoldsAround(Room room, int checkInDay, int checkOutDay) {
+        int type = Room.typeIndex(room.getRoomType());
+        if (type < 0 || holdCounts[type] == 0) {
+            return true; // No holds to protect
+        }
+        OccupancyBitmap claimed = new OccupancyBitmap(); // Nights of the stay, not booked yet
+        claimed.markStay(room.getSlot(), checkInDay, checkOutDay);
+        Map<RoomTypeHold, Room> plan = planHolds(type, null, claimed, null);
+        if (plan == null) {
+            return false;
+        }
+        applyPlan(plan, null);
+        return true;
+    }
+
+    /**
+     * Sells a stay against a room type without choosing the room.
+     * The hold is accepted if the type's booked-count tree leaves a room free on every night and
+     * planHolds finds a room of the type to set aside for it. The room is only kept until
+     * assignHolds runs: bookings, moves and removals may give the hold another room meanwhile.
+     *
+     * @param guestName    the name of the guest
+     * @param roomType     the room type (Standard, Deluxe, Executive)
+     * @param checkInDay   the check-in epoch day, after the assignment horizon
+     * @param checkOutDay  the check-out epoch day
+     * @param discountCode the discount code to price the stay with, or null
+     * @return the hold, or null if no room of the type can be promised for the stay
+     */
+    public RoomTypeHold holdRoomType(String guestName, String roomType, int checkInDay, int checkOutDay, String discountCode) {
+        int type = Room.typeIndex(roomType);
+        if (type < 0 || checkOutDay <= checkInDay) {
+            return null; // Unknown room type or empty stay
+        }
+        double price = getQuote(roomType, checkInDay, checkOutDay, discountCode); // Priced from the cheapest room of the type
+        RoomTypeHold hold = null;
+        writeLock.lock();
+        try {
+            if (checkInDay > assignedThroughDay && inventory.getFreeCount(roomType, checkInDay, checkOutDay) > 0) {
+                RoomTypeHold candidate = new RoomTypeHold(Reservation.nextId(), guestName, roomType, checkInDay, checkOutDay, price, discountCode);
+                Map<RoomTypeHold, Room> plan = planHolds(type, candidate, new OccupancyBitmap(), null);
+                if (plan != null) {
+                    applyPlan(plan, candidate);
+                    hold = candidate;
+                    insertHold(hold);
+                    if (journal != null) {
+                        journal.hold(name, hold); // Recorded with the room set aside
+                    }
+                }
             }
+        } finally {
+            writeLock.unlock();
         }
-        return count; // Return the total number of available rooms
+
+        if (hold != null) {
+            syncJournal(); // Wait for the journal once the lock is released
+        }
+        return hold;
     }
 
     /**
-     * Gets the names of all available rooms between the check-in and check-out dates.
+     * Cancels a hold, which gives its nights back to the room type.
      *
-     * @param checkInDate  the check-in date
-     * @param checkOutDate the check-out date
-     * @return a list of available room names
+     * @param hold the hold to cancel
+     * @return true if the hold was cancelled, false if it is not pending in this hotel
      */
-    public List<String> getAvailableRoomNames(Date checkInDate, Date checkOutDate) {
-        List<String> availableRoomNames = new ArrayList<>(); // List to store names of available rooms
-        for (Room room : rooms) {
-            if (room.isAvailable(checkInDate, checkOutDate)) { // Check if the room is available for the date range
-                availableRoomNames.add(room.getName()); // Add the room name to the list
+    public boolean cancelHold(RoomTypeHold hold) {
+        writeLock.lock();
+        try {
+            if (holds.get(hold.getId()) != hold) {
+                return false; // Already assigned or cancelled, or from another hotel
+            }
+            releaseHold(hold);
+            if (journal != null) {
+                journal.cancelHold(name, hold.getId());
             }
+        } finally {
+            writeLock.unlock();
         }
-        return availableRoomNames; // Return the list of available room names
+        syncJournal();
+        return true;
     }
 
     /**
-     * Gets the total number of booked rooms on a specific date.
+     * Adds a hold without checking the inventory, such as one restored from the journal.
      *
-     * @param date the date to check
-     * @return the total number of booked rooms
+     * @param hold the hold to add
      */
-    public int getTotalBookedRooms(Date date) {
-        return rooms.size() - getTotalAvailableRooms(date); // Total booked rooms is total rooms minus available rooms
+    public void addHold(RoomTypeHold hold) {
+        Reservation.reserveId(hold.getId()); // New bookings must not reuse the hold's ID
+        writeLock.lock();
+        try {
+            insertHold(hold);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
-     * Gets the name of the hotel.
+     * Gives rooms to every hold that checks in on or before a day and turns them into reservations.
+     * Each hold gets the room set aside for it. Every room of the hotel is locked first, since rooms
+     * are locked before the hotel.
      *
-     * @return the name of the hotel
+     * @param throughDay the last check-in epoch day whose holds get rooms
+     * @return the reservations made, in check-in order for each room type
      */
-    public String getName() {
-        return name; // Return the hotel's name
+    public List<Reservation> assignHolds(int throughDay) {
+        List<Reservation> assigned = new ArrayList<>();
+        boolean done = false;
+        while (!done) {
+            List<Room> roomList = getRooms();
+            done = withRoomsLocked(roomList, 0, () -> assignHoldsLocked(roomList, throughDay, assigned));
+        }
+        syncJournal();
+        return assigned;
     }
 
     /**
-     * Gets the total number of rooms in the hotel.
+     * Locks rooms one after another, in list order, and runs an action while holding all of them.
      *
-     * @return the total number of rooms
+     * @param roomList the rooms to lock
+     * @param from     the position of the next room to lock
+     * @param action   the action to run
+     * @return the result of the action
      */
-    public int getTotalRooms() {
-        return rooms.size(); // Return the size of the rooms list
+    private static boolean withRoomsLocked(List<Room> roomList, int from, BooleanSupplier action) {
+        if (from == roomList.size()) {
+            return action.getAsBoolean();
+        }
+        synchronized (roomList.get(from)) {
+            return withRoomsLocked(roomList, from + 1, action);
+        }
     }
 
     /**
-     * Gets the monthly earnings of the hotel.
+     * Assigns the due holds while every room in the list is locked.
      *
-     * @return the monthly earnings
+     * @param roomList   the locked rooms
+     * @param throughDay the last check-in epoch day whose holds get rooms
+     * @param assigned   receives the reservations made
+     * @return true if the holds were assigned, false if the rooms changed before the hotel was locked
      */
-    public double getMonthlyEarnings() {
-        // Simplified monthly earnings calculation
-        return totalEarnings; // Return total earnings
+    private boolean assignHoldsLocked(List<Room> roomList, int throughDay, List<Reservation> assigned) {
+        writeLock.lock();
+        try {
+            if (!rooms.equals(roomList)) {
+                return false; // A room was added or removed, so lock the current rooms instead
+            }
+            for (int type = 0; type < holdCounts.length; type++) {
+                if (holdCounts[type] == 0) {
+                    continue;
+                }
+                Map<RoomTypeHold, Room> plan = planHolds(type, null, new OccupancyBitmap(), null);
+                if (plan != null) {
+                    applyPlan(plan, null); // Only a hold restored without a usable room gets a new one
+                }
+                for (RoomTypeHold hold : holdsOfType(type)) {
+                    if (hold.getCheckInDay() > throughDay) {
+                        break; // The rest check in later
+                    }
+                    Room room = hold.getPlannedRoom();
+                    if (room != null && room.isAvailable(hold.getCheckInDay(), hold.getCheckOutDay())) {
+                        assigned.add(convertHold(hold, room));
+                    } // Otherwise left waiting rather than double-booked
+                }
+            }
+            if (throughDay > assignedThroughDay) {
+                assignedThroughDay = throughDay;
+                if (journal != null) {
+                    journal.assignedThrough(name, throughDay);
+                }
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
-     * Gets information about a room by its name.
+     * Replaces a hold with a reservation in the given room, keeping its ID, price and discount code.
+     * Called with the room and hotel locks held.
      *
-     * @param roomName the name of the room
-     * @return the room, or null if not found
+     * @param hold the hold to convert
+     * @param room the room the hold gets
+     * @return the new reservation
      */
-    public Room getRoomInfo(String roomName) {
-        for (Room room : rooms) {
-            if (room.getName().equalsIgnoreCase(roomName)) { // Check if room name matches (case insensitive)
-                return room; // Return the found room
+    private Reservation convertHold(RoomTypeHold hold, Room room) {
+        releaseHold(hold);
+        if (journal != null) {
+            journal.cancelHold(name, hold.getId());
+        }
+        Reservation reservation = new Reservation(hold.getId(), hold.getGuestName(), hold.getCheckInDay(), hold.getCheckOutDay(), room, this);
+        reservation.storeFinalPrice(hold.getPrice());
+        if (hold.getDiscountCode() != null) {
+            reservation.storeDiscountCode(hold.getDiscountCode());
+        }
+        insertReservation(reservation); // Records the booking with its code and price in the journal
+        return reservation;
+    }
+
+    /**
+     * Chooses the room set aside for every pending hold of a type, around stays about to be booked.
+     * Every change to the holds or the rooms of a type comes through here. The rooms already set
+     * aside are kept while they are free, and a new hold takes the first room of its type left over.
+     * Otherwise every hold of the type, a new one included, is given a room again in check-in order,
+     * each taking the first room of its type that is free for the whole stay around the holds before
+     * it. Changes nothing; applyPlan records the result. Called with the hotel lock held.
+     *
+     * @param type        the index of the room type
+     * @param newHold     the hold being admitted, or null
+     * @param claimed     the nights of stays about to be booked, in any room
+     * @param removedRoom the room about to be removed, or null
+     * @return the holds whose room changes, mapped to their new rooms, or null if a hold would get no room
+     */
+    private Map<RoomTypeHold, Room> planHolds(int type, RoomTypeHold newHold, OccupancyBitmap claimed, Room removedRoom) {
+        List<RoomTypeHold> pending = holdsOfType(type);
+        Map<RoomTypeHold, Room> plan = new LinkedHashMap<>();
+
+        // Keep the rooms set aside if they are all still free
+        OccupancyBitmap held = new OccupancyBitmap(); // Nights set aside for the holds so far
+        boolean kept = true;
+        for (RoomTypeHold hold : pending) {
+            Room room = hold.getPlannedRoom();
+            if (room == null || room == removedRoom || room.getSlot() < 0
+                    || !freeSlots(claimed, held, hold.getCheckInDay(), hold.getCheckOutDay()).get(room.getSlot())) {
+                kept = false;
+                break;
+            }
+            held.markStay(room.getSlot(), hold.getCheckInDay(), hold.getCheckOutDay());
+        }
+        if (kept) {
+            if (newHold == null) {
+                return plan; // Nothing changes
+            }
+            Room room = firstFreeRoom(type, freeSlots(claimed, held, newHold.getCheckInDay(), newHold.getCheckOutDay()), removedRoom);
+            if (room != null) {
+                plan.put(newHold, room);
+                return plan;
+            }
+        }
+
+        // Otherwise give every hold a room again, in check-in order
+        if (newHold != null) {
+            pending.add(newHold);
+            pending.sort(CHECK_IN_ORDER);
+        }
+        held = new OccupancyBitmap();
+        for (RoomTypeHold hold : pending) {
+            Room room = firstFreeRoom(type, freeSlots(claimed, held, hold.getCheckInDay(), hold.getCheckOutDay()), removedRoom);
+            if (room == null) {
+                return null; // Every room of the type is taken on some night of the hold
+            }
+            held.markStay(room.getSlot(), hold.getCheckInDay(), hold.getCheckOutDay());
+            if (room != hold.getPlannedRoom()) {
+                plan.put(hold, room);
             }
         }
-        return null; // Return null if room with given name is not found
+        return plan;
     }
 
     /**
-     * Gets a list of all rooms in the hotel.
+     * Sets the rooms chosen by planHolds and records each change in the journal.
+     * A new hold is recorded with its room when it is added, so it is not recorded here.
      *
-     * @return the list of rooms
+     * @param plan    the holds whose room changes, mapped to their new rooms
+     * @param newHold the hold being admitted, or null
      */
-    public List<Room> getRooms() {
-        return rooms; // Return the list of rooms
+    private void applyPlan(Map<RoomTypeHold, Room> plan, RoomTypeHold newHold) {
+        for (Map.Entry<RoomTypeHold, Room> change : plan.entrySet()) {
+            change.getKey().setPlannedRoom(change.getValue());
+            if (change.getKey() != newHold && journal != null) {
+                journal.planHold(name, change.getKey());
+            }
+        }
+    }
+
+    /**
+     * Gets the room slots that are free for a whole stay in the occupancy bitmap and in two bitmaps
+     * of stays that are not booked.
+     *
+     * @param claimed     nights of stays about to be booked
+     * @param held        nights set aside for holds
+     * @param checkInDay  the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return a new bit set of the free room slots
+     */
+    private BitSet freeSlots(OccupancyBitmap claimed, OccupancyBitmap held, int checkInDay, int checkOutDay) {
+        BitSet free = occupancy.freeRooms(checkInDay, checkOutDay);
+        claimed.removeOccupied(free, checkInDay, checkOutDay);
+        held.removeOccupied(free, checkInDay, checkOutDay);
+        return free;
+    }
+
+    /**
+     * Finds the first room of a type, in the hotel's room order, whose slot is free.
+     *
+     * @param type        the index of the room type
+     * @param free        the free room slots
+     * @param removedRoom a room to pass over, or null
+     * @return the room, or null if no room of the type is free
+     */
+    private Room firstFreeRoom(int type, BitSet free, Room removedRoom) {
+        for (Room room : rooms) {
+            if (free.get(room.getSlot()) && room != removedRoom && Room.typeIndex(room.getRoomType()) == type) {
+                return room;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the pending holds of a room type in check-in order.
+     *
+     * @param type the index of the room type
+     * @return a new list of the holds
+     */
+    private List<RoomTypeHold> holdsOfType(int type) {
+        List<RoomTypeHold> pending = new ArrayList<>();
+        for (RoomTypeHold hold : holds.values()) {
+            if (Room.typeIndex(hold.getRoomType()) == type) {
+                pending.add(hold);
+            }
+        }
+        pending.sort(CHECK_IN_ORDER);
+        return pending;
+    }
+
+    /**
+     * Adds a hold to the pending holds, the type's booked counts and the earnings.
+     *
+     * @param hold the hold to add
+     */
+    private void insertHold(RoomTypeHold hold) {
+        holds.put(hold.getId(), hold);
+        holdCounts[Room.typeIndex(hold.getRoomType())]++;
+        inventory.addStay(hold.getRoomType(), hold.getCheckInDay(), hold.getCheckOutDay());
+        earnings.addStay(hold.getCheckInDay(), hold.getCheckOutDay(), hold.getRoomType(), hold.getPrice());
+    }
+
+    /**
+     * Takes a hold back out of the pending holds, the type's booked counts and the earnings.
+     *
+     * @param hold the hold to remove
+     */
+    private void releaseHold(RoomTypeHold hold) {
+        holds.remove(hold.getId());
+        holdCounts[Room.typeIndex(hold.getRoomType())]--;
+        inventory.removeStay(hold.getRoomType(), hold.getCheckInDay(), hold.getCheckOutDay());
+        earnings.removeStay(hold.getCheckInDay(), hold.getCheckOutDay(), hold.getRoomType(), hold.getPrice());
+    }
+
+    /**
+     * Sets the room set aside for a hold, restored from the journal.
+     *
+     * @param hold the hold
+     * @param room the planned room, or null
+     */
+    public void restorePlannedRoom(RoomTypeHold hold, Room room) {
+        writeLock.lock();
+        try {
+            hold.setPlannedRoom(room);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Sets the assignment horizon restored from the journal.
+     *
+     * @param day the last check-in epoch day whose holds have been given rooms
+     */
+    public void restoreAssignedThroughDay(int day) {
+        writeLock.lock();
+        try {
+            assignedThroughDay = day;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the assignment horizon. Holds can only be made for stays that check in after it.
+     *
+     * @return the last check-in epoch day whose holds have been given rooms, or Integer.MIN_VALUE if none have
+     */
+    public int getAssignedThroughDay() {
+        readLock.lock();
+        try {
+            return assignedThroughDay;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the holds that still wait for a room.
+     *
+     * @return a read-only snapshot of the pending holds, in booking order
+     */
+    public List<RoomTypeHold> getHolds() {
+        readLock.lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(holds.values()));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets a pending hold by its ID.
+     *
+     * @param id the ID of the hold
+     * @return the hold, or null if no hold with that ID is pending
+     */
+    public RoomTypeHold getHoldById(int id) {
+        readLock.lock();
+        try {
+            return holds.get(id);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Books a batch of room requests for this hotel.
+     * Rooms for the whole batch are chosen in one pass over the occupancy bitmap, keeping track of
+     * the nights already handed out to earlier requests of the same batch. A request gets a room of
+     * its preferred type when one is free, and any free room otherwise.
+     * The chosen rooms and then the hotel are locked and every stay is checked again before any is
+     * booked, so with all-or-nothing semantics a batch that cannot be booked leaves nothing behind,
+     * not even a journal record.
+     *
+     * @param requests     the requests to book, all for this hotel
+     * @param allOrNothing true to book nothing unless every request can be booked, false to book as many as possible
+     * @return one result per request, in the order of the requests
+     */
+    public List<BookingResult> bookBatch(List<BookingRequest> requests, boolean allOrNothing) {
+        List<BookingResult> results = bookBatch(requests, allOrNothing, () -> true);
+        syncJournal(); // Wait for the journal once the locks are released
+        return results;
+    }
+
+    /**
+     * Books a batch of room requests for this hotel, running a step once every stay has been
+     * checked and before any is booked, while the rooms and the hotel are still locked.
+     * A batch spanning several hotels uses the step to check the next hotel's part, so no part is
+     * booked unless all of them fit. Does not wait for the journal.
+     *
+     * @param requests     the requests to book, all for this hotel
+     * @param allOrNothing true to book nothing unless every request can be booked, false to book as many as possible
+     * @param whenChecked  the step to run; nothing is booked unless it returns true
+     * @return one result per request, in the order of the requests
+     */
+    List<BookingResult> bookBatch(List<BookingRequest> requests, boolean allOrNothing, BooleanSupplier whenChecked) {
+        BookingResult[] results = new BookingResult[requests.size()];
+        boolean done = false;
+        while (!done) {
+            Room[] plan = planBatch(requests); // Choose rooms for the whole batch up front
+            Arrays.fill(results, null);
+            boolean complete = true; // Whether every request has a room so far
+
+            for (int i = 0; i < requests.size(); i++) {
+                BookingRequest request = requests.get(i);
+                if (request.getHotel() != this) {
+                    results[i] = new BookingResult(request, "Request is for a different hotel.");
+                    complete = false;
+                } else if (request.getCheckOutDay() <= request.getCheckInDay()) {
+                    results[i] = new BookingResult(request, "Check-out date must be after the check-in date.");
+                    complete = false;
+                } else if (plan[i] == null) {
+                    results[i] = new BookingResult(request, "No rooms available for the selected dates.");
+                    complete = false;
+                }
+            }
+            if (allOrNothing && !complete) {
+                return rejectBatch(requests, results, BATCH_NOT_BOOKED);
+            }
+
+            // Lock the chosen rooms in the hotel's room order, the order assignHolds uses
+            BitSet planned = new BitSet();
+            for (int i = 0; i < plan.length; i++) {
+                if (results[i] == null && plan[i].getSlot() >= 0) { // A removed room has no slot and is caught once locked
+                    planned.set(plan[i].getSlot());
+                }
+            }
+            List<Room> roomList = new ArrayList<>();
+            readLock.lock();
+            try {
+                for (Room room : rooms) {
+                    if (planned.get(room.getSlot())) {
+                        roomList.add(room);
+                    }
+                }
+            } finally {
+                readLock.unlock();
+            }
+            done = withRoomsLocked(roomList, 0, () -> bookPlannedLocked(requests, plan, results, allOrNothing, whenChecked));
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Checks every planned stay of a batch again and books them, with the planned rooms locked.
+     *
+     * @param requests     the requests of the batch
+     * @param plan         the room chosen for each request
+     * @param results      the results so far, with null for requests still to be booked; filled in
+     * @param allOrNothing true to book nothing unless every request can be booked
+     * @param whenChecked  the step to run before anything is booked
+     * @return true if the batch was settled, false if a planned room was taken or removed before it was locked
+     */
+    private boolean bookPlannedLocked(List<BookingRequest> requests, Room[] plan, BookingResult[] results,
+                                      boolean allOrNothing, BooleanSupplier whenChecked) {
+        writeLock.lock();
+        try {
+            for (int i = 0; i < plan.length; i++) {
+                BookingRequest request = requests.get(i);
+                if (results[i] == null && (plan[i].getSlot() < 0 || !plan[i].isAvailable(request.getCheckInDay(), request.getCheckOutDay()))) {
+                    return false; // Another booking or a removal got there first, so plan again
+                }
+            }
+
+            if (!allOrNothing) {
+                if (!whenChecked.getAsBoolean()) {
+                    rejectBatch(requests, results, BATCH_NOT_BOOKED);
+                    return true;
+                }
+                for (int i = 0; i < plan.length; i++) {
+                    BookingRequest request = requests.get(i);
+                    if (results[i] != null) {
+                        continue; // Request was already rejected
+                    }
+                    // Each stay is checked against the holds after the ones before it are booked
+                    if (admitsBooking(plan[i], request.getCheckInDay(), request.getCheckOutDay())) {
+                        results[i] = new BookingResult(request, createReservation(request.getGuestName(), request.getCheckInDay(), request.getCheckOutDay(), plan[i], request.getDiscountCode()));
+                    } else {
+                        results[i] = new BookingResult(request, "No rooms available for the selected dates.");
+                    }
+                }
+                return true;
+            }
+
+            // Check the holds against all the stays at once, and let the caller check the rest, before booking any
+            Map<RoomTypeHold, Room> holdPlan = new LinkedHashMap<>();
+            for (int type = 0; type < holdCounts.length && holdPlan != null; type++) {
+                OccupancyBitmap claimed = new OccupancyBitmap(); // Nights the batch takes in rooms of the type
+                boolean booksType = false;
+                for (int i = 0; i < plan.length; i++) {
+                    if (Room.typeIndex(plan[i].getRoomType()) == type) {
+                        claimed.markStay(plan[i].getSlot(), requests.get(i).getCheckInDay(), requests.get(i).getCheckOutDay());
+                        booksType = true;
+                    }
+                }
+                if (booksType && holdCounts[type] > 0) {
+                    Map<RoomTypeHold, Room> typePlan = planHolds(type, null, claimed, null);
+                    if (typePlan == null) {
+                        holdPlan = null; // A hold would lose its room
+                    } else {
+                        holdPlan.putAll(typePlan);
+                    }
+                }
+            }
+            if (holdPlan == null || !whenChecked.getAsBoolean()) {
+                rejectBatch(requests, results, BATCH_NOT_BOOKED);
+                return true;
+            }
+            applyPlan(holdPlan, null);
+            for (int i = 0; i < plan.length; i++) {
+                BookingRequest request = requests.get(i);
+                results[i] = new BookingResult(request, createReservation(request.getGuestName(), request.getCheckInDay(), request.getCheckOutDay(), plan[i], request.getDiscountCode()));
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Chooses a room for every request of a batch without booking anything.
+     * The hotel lock is held only while reading the free rooms of each request; the assignment
+     * strategy then chooses among them outside the lock, like a single booking does.
+     *
+     * @param requests the requests to plan
+     * @return the chosen room for each request, or null where no room is free
+     */
+    private Room[] planBatch(List<BookingRequest> requests) {
+        Room[] plan = new Room[requests.size()];
+        RoomAssignmentStrategy strategy = assignmentStrategy; // Same strategy for the whole batch
+        List<Room> roomsInOrder; // Rooms of the hotel when the batch started, in the order they were added
+        readLock.lock();
+        try {
+            roomsInOrder = new ArrayList<>(rooms);
+        } finally {
+            readLock.unlock();
+        }
+
+        OccupancyBitmap claimed = new OccupancyBitmap(); // Nights handed out to earlier requests of this batch
+        for (int i = 0; i < requests.size(); i++) {
+            BookingRequest request = requests.get(i);
+            int checkInDay = request.getCheckInDay();
+            int checkOutDay = request.getCheckOutDay();
+            if (request.getHotel() != this || checkOutDay <= checkInDay) {
+                continue; // Invalid requests get no room
+            }
+
+            BitSet free;
+            readLock.lock();
+            try {
+                free = occupancy.freeRooms(checkInDay, checkOutDay);
+            } finally {
+                readLock.unlock();
+            }
+            claimed.removeOccupied(free, checkInDay, checkOutDay);
+
+            // Split the free rooms into those of the preferred type and the rest
+            List<Room> freeRooms = new ArrayList<>();
+            List<Room> freePreferred = new ArrayList<>();
+            for (Room room : roomsInOrder) {
+                if (!free.get(room.getSlot())) {
+                    continue; // Room is booked, or claimed by an earlier request of this batch
+                }
+                freeRooms.add(room);
+                if (room.getRoomType().equals(request.getRoomType())) {
+                    freePreferred.add(room);
+                }
+            }
+            Room room = strategy.choose(freePreferred, checkInDay, checkOutDay);
+            if (room == null) {
+                room = strategy.choose(freeRooms, checkInDay, checkOutDay); // Fall back to any free room
+            }
+            if (room != null) {
+                claimed.markStay(room.getSlot(), checkInDay, checkOutDay);
+                plan[i] = room;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Marks every request of a batch that was not already rejected as not booked.
+     *
+     * @param requests the requests of the batch
+     * @param results  the results so far, with null for requests that were not rejected
+     * @param message  the reason given to the remaining requests
+     * @return one result per request, in the order of the requests
+     */
+    private static List<BookingResult> rejectBatch(List<BookingRequest> requests, BookingResult[] results, String message) {
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = new BookingResult(requests.get(i), message);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Stores the discount code and discounted final price of a reservation that is not yet added
+     * to the hotel, so nothing is journaled until the reservation is inserted.
+     *
+     * @param reservation  the new reservation
+     * @param discountCode the discount code, or null or blank for none
+     */
+    private static void priceReservation(Reservation reservation, String discountCode) {
+        double finalPrice = reservation.getTotalPrice();
+        if (discountCode != null && !discountCode.trim().isEmpty()) {
+            reservation.storeDiscountCode(discountCode);
+            finalPrice = reservation.applyDiscount(finalPrice);
+        }
+        reservation.storeFinalPrice(finalPrice);
+    }
+
+    /**
+     * Gets the names of all available rooms on a specific date.
+     *
+     * @param date the date to check availability
+     * @return a list of available room names
+     */
+    public List<String> getAvailableRoomNames(Date date) {
+        List<String> availableRooms = new ArrayList<>(); // List to store names of available rooms
+        int day = EpochDay.of(date);
+        readLock.lock();
+        try {
+            BitSet free = occupancy.freeRoomsOn(day); // Rooms free on the given day
+            for (Room room : rooms) {
+                if (free.get(room.getSlot())) { // Check if the room is available on the given date
+                    availableRooms.add(room.getName()); // Add the room name to the list
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return availableRooms; // Return the list of available room names
+    }
+
+    /**
+     * Gets the total number of available rooms on a specific date.
+     *
+     * @param date the date to check availability
+     * @return the total number of available rooms
+     */
+    public int getTotalAvailableRooms(Date date) {
+        return getTotalAvailableRooms(EpochDay.of(date));
+    }
+
+    /**
+     * Gets the total number of available rooms on a specific epoch day.
+     *
+     * @param day the epoch day to check availability
+     * @return the total number of available rooms
+     */
+    public int getTotalAvailableRooms(int day) {
+        readLock.lock();
+        try {
+            // Count the free slots in the occupancy bitmap for the given day
+            return occupancy.freeRoomsOn(day).cardinality();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the names of all available rooms between the check-in and check-out dates.
+     *
+     * @param checkInDate  the check-in date
+     * @param checkOutDate the check-out date
+     * @return a list of available room names
+     */
+    public List<String> getAvailableRoomNames(Date checkInDate, Date checkOutDate) {
+        return getAvailableRoomNames(EpochDay.of(checkInDate), EpochDay.of(checkOutDate));
+    }
+
+    /**
+     * Gets the names of all available rooms between the check-in and check-out epoch days.
+     *
+     * @param checkInDay  the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return a list of available room names
+     */
+    public List<String> getAvailableRoomNames(int checkInDay, int checkOutDay) {
+        List<String> availableRoomNames = new ArrayList<>(); // List to store names of available rooms
+        readLock.lock();
+        try {
+            BitSet free = occupancy.freeRooms(checkInDay, checkOutDay);
+            for (Room room : rooms) {
+                if (free.get(room.getSlot())) { // Check if the room is available for the date range
+                    availableRoomNames.add(room.getName()); // Add the room name to the list
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return availableRoomNames; // Return the list of available room names
+    }
+
+    /**
+     * Finds the earliest stay of a number of nights in a room of a type, on or after a date.
+     *
+     * @param roomType the room type (Standard, Deluxe, Executive)
+     * @param fromDate the first date the stay may start on
+     * @param nights   the number of nights of the stay
+     * @return the earliest window within the next two years, or null if there is none
+     */
+    public StayWindow findEarliestWindow(String roomType, Date fromDate, int nights) {
+        List<StayWindow> windows = findEarliestWindows(roomType, EpochDay.of(fromDate), nights, 1, WINDOW_SEARCH_DAYS);
+        return windows.isEmpty() ? null : windows.get(0);
+    }
+
+    /**
+     * Finds the earliest check-in days on or after a day on which a room of a type is free for a
+     * number of nights, with one room for each day.
+     * Each room walks the gaps between its own reservations to its earliest free window, and a
+     * heap keyed by check-in day always advances the room whose window comes first, so the days
+     * come out in order without trying the calendar day by day. Days are distinct; of the rooms
+     * free from the same day, the first in the hotel's room order is given. While stays of the
+     * type are sold without a room, a window is only given in a room a booking could take: the
+     * type's booked counts must leave a room for it, and the holds set aside in the room on those
+     * nights must have another room to go to.
+     *
+     * @param roomType    the room type (Standard, Deluxe, Executive)
+     * @param fromDay     the first epoch day the stay may start on
+     * @param nights      the number of nights of the stay
+     * @param count       the most windows to return
+     * @param horizonDays the number of days from fromDay within which the stay must end
+     * @return the windows in check-in order, fewer than count if the horizon runs out first
+     */
+    public List<StayWindow> findEarliestWindows(String roomType, int fromDay, int nights, int count, int horizonDays) {
+        List<StayWindow> windows = new ArrayList<>();
+        int type = Room.typeIndex(roomType);
+        if (type < 0 || nights <= 0 || count <= 0) {
+            return windows; // Unknown room type or nothing to find
+        }
+        long lastCheckIn = (long) fromDay + horizonDays - nights; // Latest check-in that ends within the horizon
+
+        // One candidate per room of the type: its earliest free window from the current day
+        PriorityQueue<int[]> heap = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+        List<Room> roomList = getRooms();
+        for (int position = 0; position < roomList.size(); position++) {
+            Room room = roomList.get(position);
+            if (room.getRoomType().equals(roomType)) {
+                int day = room.getEarliestFreeDay(fromDay, nights);
+                if (day <= lastCheckIn) {
+                    heap.add(new int[] {day, position});
+                }
+            }
+        }
+
+        int lastDay = Integer.MIN_VALUE; // Check-in day of the last window found
+        while (!heap.isEmpty() && windows.size() < count) {
+            int[] candidate = heap.poll();
+            int day = candidate[0];
+            Room room = roomList.get(candidate[1]);
+            if (day != lastDay && holdsLeave(room, day, day + nights)) {
+                windows.add(new StayWindow(room, day, day + nights));
+                lastDay = day;
+            }
+            // Move the room on to its next window, which starts a day later at the earliest
+            if (day < lastCheckIn) {
+                int next = room.getEarliestFreeDay(day + 1, nights);
+                if (next <= lastCheckIn) {
+                    heap.add(new int[] {next, candidate[1]});
+                }
+            }
+        }
+        return windows;
+    }
+
+    /**
+     * Checks that a stay in a free room still leaves a room for every stay sold by the room's type
+     * alone, the same check a booking makes, without setting any room aside.
+     * Without such stays any free room will do.
+     *
+     * @param room        the free room
+     * @param checkInDay  the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return true if the room can be booked for the stay, false otherwise
+     */
+    private boolean holdsLeave(Room room, int checkInDay, int checkOutDay) {
+        int type = Room.typeIndex(room.getRoomType());
+        readLock.lock();
+        try {
+            if (holdCounts[type] == 0) {
+                return true; // No holds to protect
+            }
+            if (inventory.getFreeCount(room.getRoomType(), checkInDay, checkOutDay) <= 0) {
+                return false; // Every room of the type is promised on some night of the stay
+            }
+            OccupancyBitmap claimed = new OccupancyBitmap(); // Nights of the window
+            claimed.markStay(room.getSlot(), checkInDay, checkOutDay);
+            return planHolds(type, null, claimed, null) != null;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of rooms of a type that are free on every night of a stay.
+     * The count comes from the busiest night of the type's booked-count tree rather than from the
+     * rooms themselves, so it is the number of stays of the type that can still be sold for those
+     * nights if rooms may be reassigned; it can exceed the number of single rooms free for the whole stay.
+     *
+     * @param roomType    the room type
+     * @param checkInDay  the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return the number of free rooms of the type, or 0 for an unknown type
+     */
+    public int getFreeRoomCount(String roomType, int checkInDay, int checkOutDay) {
+        readLock.lock();
+        try {
+            return inventory.getFreeCount(roomType, checkInDay, checkOutDay);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Checks if a stay can be sold as a room type without choosing the room yet.
+     *
+     * @param roomType    the room type
+     * @param checkInDay  the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return true if a room of the type is free on every night of the stay, false otherwise
+     */
+    public boolean canSellRoomType(String roomType, int checkInDay, int checkOutDay) {
+        return checkOutDay > checkInDay && getFreeRoomCount(roomType, checkInDay, checkOutDay) > 0;
+    }
+
+    /**
+     * Gets the total number of booked rooms on a specific date.
+     *
+     * @param date the date to check
+     * @return the total number of booked rooms
+     */
+    public int getTotalBookedRooms(Date date) {
+        return getTotalRooms() - getTotalAvailableRooms(date); // Total booked rooms is total rooms minus available rooms
+    }
+
+    /**
+     * Gets the name of the hotel.
+     *
+     * @return the name of the hotel
+     */
+    public String getName() {
+        return name; // Return the hotel's name
+    }
+
+    /**
+     * Gets the total number of rooms in the hotel.
+     *
+     * @return the total number of rooms
+     */
+    public int getTotalRooms() {
+        readLock.lock();
+        try {
+            return rooms.size(); // Return the size of the rooms list
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the monthly earnings of the hotel.
+     *
+     * @return the monthly earnings
+     */
+    public double getMonthlyEarnings() {
+        // Simplified monthly earnings calculation
+        readLock.lock();
+        try {
+            return earnings.getTotalRevenue(); // Return total earnings
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the earnings of the nights stayed in one month.
+     *
+     * @param year the year
+     * @param month the month (1-12)
+     * @return the earnings of the month
+     */
+    public double getEarnings(int year, int month) {
+        readLock.lock();
+        try {
+            return earnings.getRevenue(EpochDay.monthIndex(year, month));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the earnings of the nights stayed in one month in rooms of one type.
+     *
+     * @param year the year
+     * @param month the month (1-12)
+     * @param roomType the room type (Standard, Deluxe, Executive)
+     * @return the earnings of the room type in the month
+     */
+    public double getEarnings(int year, int month, String roomType) {
+        readLock.lock();
+        try {
+            return earnings.getRevenue(EpochDay.monthIndex(year, month), roomType);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of room-nights sold in one month in rooms of one type.
+     *
+     * @param year the year
+     * @param month the month (1-12)
+     * @param roomType the room type (Standard, Deluxe, Executive)
+     * @return the room-nights of the room type in the month
+     */
+    public long getRoomNights(int year, int month, String roomType) {
+        readLock.lock();
+        try {
+            return earnings.getRoomNights(EpochDay.monthIndex(year, month), roomType);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets information about a room by its name.
+     *
+     * @param roomName the name of the room
+     * @return the room, or null if not found
+     */
+    public Room getRoomInfo(String roomName) {
+        if (roomName == null) {
+            return null; // No room can match a missing name
+        }
+        readLock.lock();
+        try {
+            return roomsByName.get(nameKey(roomName)); // Look up the room by name (case insensitive)
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Finds the first reservation made under a guest name.
+     *
+     * @param guestName the name of the guest (case insensitive)
+     * @return the earliest reservation for the guest, or null if none is found
+     */
+    public Reservation findReservationByGuestName(String guestName) {
+        if (guestName == null) {
+            return null; // No reservation can match a missing name
+        }
+        materializeAll(); // Load reservations still waiting in the snapshot
+        readLock.lock();
+        try {
+            List<Reservation> guestReservations = reservationsByGuest.get(nameKey(guestName));
+            return guestReservations == null ? null : guestReservations.get(0); // Reservations are kept in booking order
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets every reservation made under a guest name.
+     *
+     * @param guestName the name of the guest (case insensitive)
+     * @return a read-only snapshot of the guest's reservations in booking order
+     */
+    public List<Reservation> getReservationsByGuestName(String guestName) {
+        if (guestName == null) {
+            return Collections.emptyList(); // No reservation can match a missing name
+        }
+        materializeAll(); // Load reservations still waiting in the snapshot
+        readLock.lock();
+        try {
+            List<Reservation> guestReservations = reservationsByGuest.get(nameKey(guestName));
+            return guestReservations == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(guestReservations));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Finds a reservation by its ID.
+     *
+     * @param id the ID of the reservation
+     * @return the reservation, or null if no reservation in this hotel has the ID
+     */
+    public Reservation getReservationById(int id) {
+        Room waiting;
+        readLock.lock();
+        try {
+            Reservation reservation = reservationsById.get(id); // Look up the reservation by ID
+            if (reservation != null || restoredIds == null) {
+                return reservation;
+            }
+            waiting = restoredRoom(id);
+        } finally {
+            readLock.unlock();
+        }
+        if (waiting == null) {
+            return null; // Not in the snapshot either
+        }
+        waiting.materialize(); // Load only the room holding the reservation
+        readLock.lock();
+        try {
+            return reservationsById.get(id);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Finds the room of a reservation still waiting in the snapshot.
+     * Must be called while holding the hotel lock.
+     *
+     * @param id the ID of the reservation
+     * @return the room, or null if the snapshot has no reservation with the ID
+     */
+    private Room restoredRoom(int id) {
+        int position = Arrays.binarySearch(restoredIds, (long) id << 32); // Room indexes sort after the bare ID
+        if (position < 0) {
+            position = -position - 1;
+        }
+        if (position == restoredIds.length || (int) (restoredIds[position] >>> 32) != id) {
+            return null;
+        }
+        return restoredRooms[(int) restoredIds[position]];
+    }
+
+    /**
+     * Gets the reservations whose objects have been created, without loading any from the snapshot.
+     * Used when writing a snapshot, together with the rows each room still has waiting.
+     *
+     * @return a read-only snapshot of the loaded reservations
+     */
+    public List<Reservation> getLoadedReservations() {
+        readLock.lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(reservations));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Passes every reservation of the hotel to a visitor while holding the read lock.
+     * Reservations still waiting in the snapshot are read from its columns without being loaded.
+     *
+     * @param visitor the visitor receiving each stay
+     */
+    public void forEachStay(StayVisitor visitor) {
+        readLock.lock();
+        try {
+            for (Reservation reservation : reservations) {
+                visitor.visit(reservation.getCheckInDay(), reservation.getCheckOutDay(), reservation.getFinalPrice(), reservation.getRoom());
+            }
+            // Loading a room's reservations takes the write lock, so its rows cannot change while we read them
+            for (Room room : rooms) {
+                int[] rows = room.getRestoredRows();
+                if (rows != null) {
+                    SnapshotReservations source = room.getRestoredSource();
+                    for (int row : rows) {
+                        visitor.visit(source.getCheckInDay(row), source.getCheckOutDay(row), source.getFinalPrice(row), room);
+                    }
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Restores the reservations of a snapshot without creating their objects.
+     * The occupancy bitmap and each room's interval index are filled from the day columns,
+     * so availability queries are answered right away.
+     *
+     * @param restored the snapshot reservations of this hotel, whose room indexes follow the room list
+     */
+    public void restoreReservations(SnapshotReservations restored) {
+        List<Room> roomList = getRooms();
+        int[] counts = new int[roomList.size()];
+        long[] ids = new long[restored.size()];
+        int maxId = 0;
+        for (int row = 0; row < restored.size(); row++) {
+            counts[restored.getRoomIndex(row)]++;
+            maxId = Math.max(maxId, restored.getId(row));
+            ids[row] = (long) restored.getId(row) << 32 | restored.getRoomIndex(row);
+        }
+        Reservation.reserveId(maxId); // New bookings must not reuse a restored ID
+        Arrays.sort(ids); // Lets a reservation be found by ID without loading every room
+
+        // Group the rows by room
+        int[][] rowsByRoom = new int[counts.length][];
+        for (int i = 0; i < counts.length; i++) {
+            rowsByRoom[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int row = 0; row < restored.size(); row++) {
+            int room = restored.getRoomIndex(row);
+            rowsByRoom[room][counts[room]++] = row;
+        }
+
+        writeLock.lock();
+        try {
+            restoredIds = ids;
+            restoredRooms = roomList.toArray(new Room[0]);
+            for (int i = 0; i < rowsByRoom.length; i++) {
+                int slot = roomList.get(i).getSlot();
+                String roomType = roomList.get(i).getRoomType();
+                for (int row : rowsByRoom[i]) {
+                    occupancy.markStay(slot, restored.getCheckInDay(row), restored.getCheckOutDay(row));
+                    inventory.addStay(roomType, restored.getCheckInDay(row), restored.getCheckOutDay(row));
+                    earnings.addStay(restored.getCheckInDay(row), restored.getCheckOutDay(row), roomType, restored.getFinalPrice(row));
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        for (int i = 0; i < rowsByRoom.length; i++) {
+            if (rowsByRoom[i].length > 0) {
+                roomList.get(i).restoreStays(this, restored, rowsByRoom[i]);
+            }
+        }
+    }
+
+    /**
+     * Registers reservations a room has just loaded from the snapshot.
+     * Called by the room while it holds its own lock.
+     *
+     * @param room the room that loaded the reservations
+     * @param restored the loaded reservations
+     */
+    public void registerRestored(Room room, List<Reservation> restored) {
+        writeLock.lock();
+        try {
+            room.finishRestore(restored); // Switch the room over while the hotel is locked
+            for (Reservation reservation : restored) {
+                reservations.add(reservation);
+                reservationsById.put(reservation.getId(), reservation);
+                reservationsByGuest.computeIfAbsent(nameKey(reservation.getGuestName()), k -> new ArrayList<>()).add(reservation);
+            }
+            restoredOutOfOrder = true; // Sorted back into booking order by materializeAll
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Loads every reservation still waiting in the snapshot and restores booking order.
+     * Must be called without holding the hotel lock, since each room is locked before the hotel.
+     */
+    private void materializeAll() {
+        for (Room room : getRooms()) {
+            if (room.getRestoredRows() != null) {
+                room.materialize();
+            }
+        }
+        if (restoredOutOfOrder || restoredIds != null) {
+            writeLock.lock();
+            try {
+                restoredIds = null; // Every reservation is loaded, so IDs are found in reservationsById
+                restoredRooms = null;
+                // IDs are handed out in booking order
+                Comparator<Reservation> byId = Comparator.comparingInt(Reservation::getId);
+                reservations.sort(byId);
+                for (List<Reservation> guestReservations : reservationsByGuest.values()) {
+                    guestReservations.sort(byId);
+                }
+                restoredOutOfOrder = false;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Sets the final price of a reservation and moves the hotel's earnings by the difference.
+     * Called by Reservation.setFinalPrice, so the price and the ledger change under the same lock.
+     *
+     * @param reservation the reservation whose price changes
+     * @param finalPrice the new final price
+     */
+    public void updateFinalPrice(Reservation reservation, double finalPrice) {
+        writeLock.lock();
+        try {
+            double previous = reservation.getFinalPrice();
+            reservation.storeFinalPrice(finalPrice);
+            if (reservationsById.get(reservation.getId()) == reservation) { // Only booked reservations count towards earnings
+                earnings.adjustStay(reservation.getCheckInDay(), reservation.getCheckOutDay(), reservation.getRoom().getRoomType(), finalPrice - previous);
+                if (journal != null) {
+                    journal.updateReservation(name, reservation);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        syncJournal();
+    }
+
+    /**
+     * Records a new discount code of one of the hotel's reservations.
+     *
+     * @param reservation the reservation that changed
+     */
+    public void reservationUpdated(Reservation reservation) {
+        writeLock.lock();
+        try {
+            if (journal != null && reservationsById.get(reservation.getId()) == reservation) {
+                journal.updateReservation(name, reservation);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        syncJournal();
+    }
+
+    /**
+     * Attaches a journal that records every later change to the hotel.
+     *
+     * @param journal the journal, or null to stop recording changes
+     */
+    public void setJournal(BookingJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Gives the store rows of every reservation back once the hotel itself has been removed.
+     * The reservations keep their fields on the heap, so the removed hotel can still be read.
+     */
+    void releaseReservations() {
+        writeLock.lock();
+        try {
+            for (Reservation reservation : reservations) {
+                reservation.release();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks every change to the hotel until unlockAfterSnapshot is called, so a snapshot copies a consistent state.
+     */
+    public void lockForSnapshot() {
+        writeLock.lock();
+    }
+
+    /**
+     * Allows changes to the hotel again after a snapshot.
+     */
+    public void unlockAfterSnapshot() {
+        writeLock.unlock();
+    }
+
+    /**
+     * Waits until the changes recorded so far have reached the disk, if a journal is attached.
+     * Called after all locks are released so the wait does not hold up other bookings.
+     */
+    private void syncJournal() {
+        BookingJournal current = journal;
+        if (current != null) {
+            current.sync();
+        }
+    }
+
+    /**
+     * Removes a room from the name index, falling back to another room with the same name if one exists.
+     *
+     * @param room the room that was removed
+     */
+    private void unindexRoom(Room room) {
+        String key = nameKey(room.getName());
+        if (roomsByName.get(key) != room) {
+            return; // The index points at a different room with the same name
+        }
+        roomsByName.remove(key);
+        for (Room other : rooms) {
+            if (nameKey(other.getName()).equals(key)) {
+                roomsByName.put(key, other); // Keep the next room with the same name reachable
+                return;
+            }
+        }
+    }
+
+    /**
+     * Converts a name to the case-folded key used by the lookup indexes.
+     *
+     * @param name the name to convert
+     * @return the lower-case form of the name
+     */
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets a list of all rooms in the hotel.
+     *
+     * @return a read-only snapshot of the list of rooms
+     */
+    public List<Room> getRooms() {
+        readLock.lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(rooms)); // Return a copy of the rooms
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
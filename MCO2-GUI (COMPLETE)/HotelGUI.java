@@ -2,11 +2,12 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Scanner;
-import java.util.Calendar;
 import java.util.Date;
 
 
@@ -16,17 +17,47 @@ import java.util.Date;
  */
 public class HotelGUI {
     private SystemController controller; //controller to manage hotel operations
+    private HotelService service; // service that applies every hotel, room and booking rule
     private JTextArea textArea; // component for displaying messages and updates to the user
     private Reservation reservation; //object to hold information about a specific reservation
 
     /**
-     * Constructs a HotelGUI instance and initializes the graphical user interface.
+     * Constructs a HotelGUI instance that keeps its hotels in memory only.
      */
     public HotelGUI() {
-        this.controller = new SystemController(); // Initiliaze the SystemController to handle hotel-related operations
+        this(null);
+    }
+
+    /**
+     * Constructs a HotelGUI instance and initializes the graphical user interface.
+     *
+     * @param dataDirectory the directory to restore hotels from and save every change to, or null to not save them
+     */
+    public HotelGUI(Path dataDirectory) {
+        this.service = new HotelService(); // Initialize the service that holds the hotels
+        this.controller = new SystemController(service); // Initiliaze the SystemController to handle hotel-related operations
+        if (dataDirectory != null) {
+            try {
+                controller.openJournal(dataDirectory); // Restore saved hotels and save every later change
+                Runtime.getRuntime().addShutdownHook(new Thread(this::closeJournal)); // Save a snapshot on exit
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(null, "Could not load saved hotels: " + e.getMessage() + "\nChanges will not be saved.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
         createAndShowGUI(); // Set up and display the GUI components
     }
 
+    /**
+     * Saves a final snapshot on exit, reporting a failure on the console since the window is gone.
+     */
+    private void closeJournal() {
+        controller.closeJournal();
+        IOException failure = service.getLastSaveFailure();
+        if (failure != null) {
+            System.err.println("Could not save the hotels: " + failure.getMessage()); // Changes are still in the journal
+        }
+    }
+
     /**
      * Creates and displays the main GUI frame and its components.
      */
@@ -141,41 +172,15 @@ public class HotelGUI {
                             // Prompt user for any discount codes
                             String discountCode = JOptionPane.showInputDialog("Enter discount code (leave blank if N/A):");
         
-                            // Create the booking
-                            Reservation reservation = new Reservation(guestName, checkInDate, checkOutDate, selectedRoom, hotel);
-                            controller.addReservation(hotel, selectedRoom, reservation); // Add the reservation to the controller
-        
-                            // Apply discount codes if applicable
-                            double finalPrice = reservation.getTotalPrice(); // Total price with modifiers and discounts
-                            if (discountCode != null && !discountCode.trim().isEmpty()) {
-                                switch (discountCode) {
-                                    case "I_WORK_HERE":
-                                        finalPrice *= 0.9; // Example: 10% discount
-                                        break;
-                                    case "STAY4_GET1":
-                                        long nightsStayed = (checkOutDate.getTime() - checkInDate.getTime()) / (1000 * 60 * 60 * 24);
-                                        if (nightsStayed >= 5) {
-                                            finalPrice *= 0.8; // Example: 20% discount
-                                        }
-                                        break;
-                                    case "PAYDAY":
-                                        Calendar calendar = Calendar.getInstance();
-                                        calendar.setTime(checkInDate);
-                                        int dayOfMonth = calendar.get(Calendar.DAY_OF_MONTH);
-                                        if (dayOfMonth == 15 || dayOfMonth == 30) {
-                                            finalPrice *= 0.85; // Example: 15% discount
-                                        }
-                                        break;
-                                    default:
-                                        JOptionPane.showMessageDialog(null, "Invalid discount code.");
-                                }
+                            // Create the booking; the service checks the room is still free and applies the discount code
+                            ServiceResult<Reservation> result = service.book(hotel, guestName, EpochDay.of(checkInDate), EpochDay.of(checkOutDate), selectedRoomName, discountCode);
+                            if (result.isSuccess()) {
+                                reservation = result.getValue();
+                                // Show confirmation
+                                JOptionPane.showMessageDialog(null, result.getMessage() + "\n" + reservation.getDetails());
+                            } else {
+                                JOptionPane.showMessageDialog(null, result.getMessage(), "Booking Failed", JOptionPane.ERROR_MESSAGE);
                             }
-        
-                            reservation.setDiscountCode(discountCode); // Set discount code in reservation
-                            reservation.setFinalPrice(finalPrice); // Set final price in reservation
-        
-                            // Show confirmation
-                            JOptionPane.showMessageDialog(null, "Booking confirmed for room '" + selectedRoomName + "'.\n" + reservation.getDetails());
                         }
                     }
                 }
@@ -208,10 +213,12 @@ public class HotelGUI {
     private void createHotel() {
         String name = JOptionPane.showInputDialog("Enter hotel name:"); // Prompt the user to enter a hotel name
         if (name != null && !name.trim().isEmpty()) { // Check if the entered name is not null and not empty
-            Hotel createdHotel = controller.createHotel(name); // Create a new hotel using the provided name
-            if (createdHotel != null) { // Check if the hotel was successfully created
+            ServiceResult<Hotel> result = service.createHotel(name); // Create a new hotel using the provided name
+            if (result.isSuccess()) { // Check if the hotel was successfully created
                 updateTextArea("Hotel '" + name + "' created."); // Update the text area with a success message
-                JOptionPane.showMessageDialog(null, "Hotel '" + name + "' created successfully."); // Display a confirmation dialog to the user
+                JOptionPane.showMessageDialog(null, result.getMessage()); // Display a confirmation dialog to the user
+            } else {
+                JOptionPane.showMessageDialog(null, result.getMessage(), "Invalid Hotel Name", JOptionPane.ERROR_MESSAGE);
             }
         }
     }
@@ -357,16 +364,13 @@ public class HotelGUI {
      * @return The parsed Date object, or null if parsing fails.
      */
     private Date parseDate(String dateStr) {
+        if (dateStr == null) {
+            return null; // Nothing was entered
+        }
         try {
-            // Create a SimpleDateFormat object to define the date format
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            
-            // Parse the date string into a Date object and return it
-            return sdf.parse(dateStr);
-        } catch (ParseException e) {
-            // Print the stack trace if parsing fails, indicating an error
-            e.printStackTrace();
-            
+            // Parse the date string into an epoch day and convert it to a Date at the boundary
+            return EpochDay.toDate(EpochDay.parse(dateStr));
+        } catch (DateTimeParseException e) {
             // Return null to indicate that the parsing was unsuccessful
             return null;
         }
@@ -426,10 +430,10 @@ public class HotelGUI {
             int month = Integer.parseInt(JOptionPane.showInputDialog("Choose a month (1-12):"));
     
             // Retrieve the availability of the room for the specified year and month
-            List<String> availability = room.getAvailabilityForMonth(year, month);
+            MonthAvailability availability = room.getMonthAvailability(year, month);
             // Append the room's availability information to the message
             message += "\nRoom Availability for " + month + "/" + year + ":\n" +
-                       String.join("\n", availability); // List availability details
+                       availability; // Formatted from the bitmask only when the message is built
     
             // Display the constructed message in a dialog box
             JOptionPane.showMessageDialog(null, message);
@@ -521,11 +525,13 @@ private void manageHotel() {
                     String newName = JOptionPane.showInputDialog("Enter new hotel name:");
                     if (newName != null && !newName.trim().isEmpty()) {
                         // Attempt to change the hotel name
-                        boolean isChanged = controller.changeHotelName(hotel, newName);
-                        if (isChanged) {
+                        ServiceResult<Hotel> result = service.renameHotel(hotel, newName);
+                        if (result.isSuccess()) {
                             updateTextArea("Hotel name changed to '" + newName + "'.");
-                            JOptionPane.showMessageDialog(null, "Hotel name changed to '" + newName + "' successfully.");
+                            JOptionPane.showMessageDialog(null, result.getMessage());
                             dialog.dispose(); // Close the dialog after successful name change
+                        } else {
+                            JOptionPane.showMessageDialog(null, result.getMessage(), "Invalid Hotel Name", JOptionPane.ERROR_MESSAGE);
                         }
                     }
                 }
@@ -540,9 +546,14 @@ private void manageHotel() {
                         try {
                             double newPrice = Double.parseDouble(newPriceStr);
                             // Update the hotel's base price
-                            controller.updateHotelBasePrice(hotel, newPrice);
-                            updateTextArea("Hotel base price updated to '" + newPrice + "'.");
-                            dialog.dispose(); // Close the dialog after successful price update
+                            ServiceResult<Hotel> result = service.updateBasePrice(hotel, newPrice);
+                            if (result.isSuccess()) {
+                                updateTextArea("Hotel base price updated to '" + newPrice + "'.");
+                                JOptionPane.showMessageDialog(null, result.getMessage(), "Update Successful", JOptionPane.INFORMATION_MESSAGE);
+                                dialog.dispose(); // Close the dialog after successful price update
+                            } else {
+                                JOptionPane.showMessageDialog(null, result.getMessage(), "Update Failed", JOptionPane.ERROR_MESSAGE);
+                            }
                         } catch (NumberFormatException ex) {
                             JOptionPane.showMessageDialog(null, "Invalid price. Please enter a valid number.");
                         }
@@ -562,10 +573,12 @@ private void manageHotel() {
                                 "Room Type", JOptionPane.QUESTION_MESSAGE, null, roomTypes, roomTypes[0]);
                         if (roomType != null) {
                             // Add the new room to the hotel
-                            boolean roomAdded = controller.addRoomToHotel(hotel, roomName, roomBasePrice, roomType);
-                            if (roomAdded) {
+                            ServiceResult<Room> result = service.addRoom(hotel, roomName, roomBasePrice, roomType);
+                            if (result.isSuccess()) {
                                 updateTextArea("Room '" + roomName + "' added to " + hotel.getName());
-                                JOptionPane.showMessageDialog(null, "Room '" + roomName + "' added to " + hotel.getName(), "Success", JOptionPane.INFORMATION_MESSAGE);
+                                JOptionPane.showMessageDialog(null, result.getMessage(), "Success", JOptionPane.INFORMATION_MESSAGE);
+                            } else {
+                                JOptionPane.showMessageDialog(null, result.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
                             }
                         }
                     }
@@ -599,9 +612,13 @@ private void manageHotel() {
                         Room selectedRoom = (Room) roomComboBox.getSelectedItem();
                         if (selectedRoom != null) {
                             // Remove the selected room from the hotel
-                            controller.removeRoomFromHotel(hotel, selectedRoom);
-                            updateTextArea("Room '" + selectedRoom.getName() + "' removed from " + hotel.getName());
-                            JOptionPane.showMessageDialog(null, "Room '" + selectedRoom.getName() + "' removed from " + hotel.getName(), "Success", JOptionPane.INFORMATION_MESSAGE);
+                            ServiceResult<Room> result = service.removeRoom(hotel, selectedRoom);
+                            if (result.isSuccess()) {
+                                updateTextArea("Room '" + selectedRoom.getName() + "' removed from " + hotel.getName());
+                                JOptionPane.showMessageDialog(null, result.getMessage(), "Success", JOptionPane.INFORMATION_MESSAGE);
+                            } else {
+                                JOptionPane.showMessageDialog(null, result.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                            }
                         }
                     }
                 }
@@ -615,13 +632,13 @@ private void manageHotel() {
                     if (guestName != null && !guestName.trim().isEmpty()) {
                         // Find and remove the reservation for the guest
                         Reservation reservationToRemove = controller.findReservationByGuestName(hotel, guestName);
-                        if (reservationToRemove != null) {
-                            Room roomOfReservationToRemove = reservationToRemove.getRoom();
-                            controller.removeReservationFromRoom(hotel, roomOfReservationToRemove, reservationToRemove);
+                        ServiceResult<Reservation> result = service.cancel(hotel, reservationToRemove);
+                        if (result.isSuccess()) {
                             updateTextArea("Reservation for guest '" + guestName + "' removed.");
+                            JOptionPane.showMessageDialog(null, result.getMessage(), "Reservation Removed", JOptionPane.INFORMATION_MESSAGE);
                             dialog.dispose(); // Close the dialog after successful removal
                         } else {
-                            JOptionPane.showMessageDialog(null, "Reservation not found.");
+                            JOptionPane.showMessageDialog(null, result.getMessage());
                         }
                     }
                 }
@@ -635,9 +652,14 @@ private void manageHotel() {
                             "Confirm Removal", JOptionPane.YES_NO_OPTION);
                     if (confirm == JOptionPane.YES_OPTION) {
                         // Remove the hotel from the system
-                        controller.removeHotel(hotel);
-                        updateTextArea("Hotel '" + hotel.getName() + "' removed.");
-                        dialog.dispose(); // Close the dialog after successful removal
+                        ServiceResult<Hotel> result = service.removeHotel(hotel);
+                        if (result.isSuccess()) {
+                            updateTextArea("Hotel '" + hotel.getName() + "' removed.");
+                            JOptionPane.showMessageDialog(null, result.getMessage(), "Success", JOptionPane.INFORMATION_MESSAGE);
+                            dialog.dispose(); // Close the dialog after successful removal
+                        } else {
+                            JOptionPane.showMessageDialog(null, result.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                        }
                     }
                 }
             });
@@ -655,16 +677,19 @@ private void manageHotel() {
                             Date startDate = parseDate(startDateStr);
                             Date endDate = parseDate(endDateStr);
                             double modifier = Double.parseDouble(modifierStr);
+                            if (startDate == null || endDate == null) {
+                                JOptionPane.showMessageDialog(null, "Invalid date format. Please use yyyy-MM-dd.");
+                                return;
+                            }
 
-                            // Validate the modifier value
-                            if (modifier >= 0.5 && modifier <= 1.5) {
-                                DatePriceModifier datePriceModifier = new DatePriceModifier(startDate, endDate, modifier);
-                                hotel.addDatePriceModifier(datePriceModifier);
+                            // The service validates the modifier value and rejects overlapping dates
+                            ServiceResult<DatePriceModifier> result = service.addDatePriceModifier(hotel, EpochDay.of(startDate), EpochDay.of(endDate), modifier);
+                            if (result.isSuccess()) {
                                 updateTextArea("Date price modifier added.");
-                                JOptionPane.showMessageDialog(null, "Date price modifier added successfully.");
+                                JOptionPane.showMessageDialog(null, result.getMessage());
                                 dialog.dispose(); // Close the dialog after successful addition
                             } else {
-                                JOptionPane.showMessageDialog(null, "Price modifier must be between 0.50 and 1.50.", "Invalid Modifier", JOptionPane.ERROR_MESSAGE);
+                                JOptionPane.showMessageDialog(null, result.getMessage(), "Invalid Modifier", JOptionPane.ERROR_MESSAGE);
                             }
                         } catch (NumberFormatException ex) {
                             JOptionPane.showMessageDialog(null, "Invalid input. Please enter valid data.");
@@ -745,10 +770,11 @@ private void manageHotel() {
     /**
      * The main method to start the application.
      * 
-     * @param args Command-line arguments (not used).
+     * @param args Command-line arguments: the directory to save hotels in, if they should be saved.
      */
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> new HotelGUI());
+        Path dataDirectory = args.length > 0 ? Paths.get(args[0]) : null; // Hotels are only saved when a directory is given
+        SwingUtilities.invokeLater(() -> new HotelGUI(dataDirectory));
     }
 }
     
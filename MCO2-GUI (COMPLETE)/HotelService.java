@@ -0,0 +1,968 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manages hotels, rooms and reservations without any user interface.
+ * Every operation checks its input, makes the change and returns a ServiceResult instead of
+ * showing a dialog or reading from the console, so the same rules serve the Swing GUI, the
+ * console menus, a server or a benchmark. Operations never wait for user input and are safe to
+ * call from many threads.
+ */
+public class HotelService {
+    public static final int MAX_ROOMS = 50; // Maximum number of rooms in a hotel
+    public static final double MIN_BASE_PRICE = 100.0; // Lowest allowed base price
+    public static final double MIN_PRICE_MODIFIER = 0.5; // Lowest allowed date price modifier
+    public static final double MAX_PRICE_MODIFIER = 1.5; // Highest allowed date price modifier
+
+    private final List<Hotel> hotels; // Hotels in the order they were created
+    private final Map<String, Hotel> hotelsByName; // Hotels keyed by lower-case hotel name
+    private volatile BookingJournal journal; // Journal that saves every change, or null if changes are not saved
+    private ScheduledExecutorService snapshotTimer; // Takes snapshots once the journal grows large
+    private volatile IOException lastSaveFailure; // Last snapshot or close that failed, or null
+    private final Object checkpointLock = new Object(); // Lets one snapshot run at a time; taken before the service lock
+    private final Map<Hotel, CalendarDefragmenter> defragmenters = new ConcurrentHashMap<>(); // Defragmenter of each hotel, kept between runs
+    private ScheduledExecutorService defragmentTimer; // Runs the defragmenters in the background, or null
+
+    /**
+     * Constructs a new HotelService with no hotels.
+     */
+    public HotelService() {
+        this.hotels = new CopyOnWriteArrayList<>(); // Hotels change rarely and are read from many threads
+        this.hotelsByName = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates a new hotel with the specified name if the name is unique.
+     *
+     * @param name the name of the new hotel
+     * @return the result holding the new hotel
+     */
+    public ServiceResult<Hotel> createHotel(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return ServiceResult.failure("Please enter a hotel name.");
+        }
+        Hotel newHotel = new Hotel(name); // Adding an instantiation of a hotel with the chosen name
+
+        synchronized (this) { // Keep snapshots from running between the list change and its journal record
+            // Claim the name in the index; this fails if the name is already in use (case insensitive)
+            if (hotelsByName.putIfAbsent(nameKey(name), newHotel) != null) {
+                return ServiceResult.failure("Hotel with name '" + name + "' already exists. Please choose a different name.");
+            }
+            hotels.add(newHotel); // Adding hotel to the list of hotels
+            if (journal != null) {
+                journal.createHotel(name);
+                newHotel.setJournal(journal); // Record every later change to the hotel
+            }
+        }
+        syncJournal();
+        return ServiceResult.success(newHotel, "Hotel '" + name + "' created successfully.");
+    }
+
+    /**
+     * Adds a hotel restored from saved data without recording it again.
+     *
+     * @param hotel the restored hotel
+     */
+    public void restoreHotel(Hotel hotel) {
+        synchronized (this) {
+            if (hotelsByName.putIfAbsent(nameKey(hotel.getName()), hotel) == null) {
+                hotels.add(hotel);
+                hotel.setJournal(journal);
+            }
+        }
+    }
+
+    /**
+     * Restores the hotels saved in a directory and saves every later change there.
+     * Must be called before any hotel is created.
+     *
+     * @param directory the directory holding the saved data
+     * @throws IOException if the saved data cannot be read or the journal cannot be opened
+     */
+    public synchronized void openJournal(Path directory) throws IOException {
+        if (journal != null || !hotels.isEmpty()) {
+            throw new IllegalStateException("The journal must be opened once, before any hotel is created.");
+        }
+        BookingJournal opened = BookingJournal.open(directory, this); // Restores the saved hotels
+        journal = opened;
+        for (Hotel hotel : hotels) {
+            hotel.setJournal(opened); // Record every later change to the restored hotels
+        }
+
+        // Check now and then whether the journal has grown enough to take a snapshot
+        snapshotTimer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotTimer.scheduleWithFixedDelay(() -> {
+            try {
+                if (opened.needsSnapshot()) {
+                    checkpoint();
+                }
+            } catch (IOException e) {
+                lastSaveFailure = e; // Kept for getLastSaveFailure; the journal still holds every change
+            }
+        }, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Gets the last failure to save a snapshot in the background or to close the journal.
+     * Background snapshots have no caller to report to, so the failure is kept here instead.
+     * Changes are still in the journal after a failed snapshot, so nothing is lost by it.
+     *
+     * @return the failure, or null if saving has not failed
+     */
+    public IOException getLastSaveFailure() {
+        return lastSaveFailure;
+    }
+
+    /**
+     * Saves a snapshot of every hotel and starts a new journal.
+     * Every hotel is locked only while its state is copied, so the copy is consistent; the
+     * snapshot file is written afterwards while bookings carry on.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            BookingJournal current;
+            BookingJournal.PendingSnapshot snapshot;
+            synchronized (this) { // Keep hotels from being created or removed while the state is copied
+                current = journal;
+                if (current == null) {
+                    return; // Changes are not being saved
+                }
+                List<Hotel> snapshotHotels = new ArrayList<>(hotels);
+                int locked = 0;
+                try {
+                    for (Hotel hotel : snapshotHotels) {
+                        hotel.lockForSnapshot();
+                        locked++;
+                    }
+                    snapshot = current.beginSnapshot(snapshotHotels);
+                } finally {
+                    for (int i = locked - 1; i >= 0; i--) {
+                        snapshotHotels.get(i).unlockAfterSnapshot();
+                    }
+                }
+            }
+            current.finishSnapshot(snapshot); // Nothing is locked while the file is written
+        }
+    }
+
+    /**
+     * Saves a final snapshot and closes the journal. Later changes are no longer saved.
+     * A snapshot or close that fails is kept for getLastSaveFailure.
+     */
+    public void closeJournal() {
+        synchronized (checkpointLock) { // No snapshot can start while the journal closes
+            synchronized (this) {
+                if (journal == null) {
+                    return; // Nothing to close
+                }
+                snapshotTimer.shutdownNow();
+            }
+            try {
+                checkpoint(); // Start quickly next time
+            } catch (IOException e) {
+                lastSaveFailure = e; // The journal is still closed below and replays on the next start
+            }
+            synchronized (this) {
+                for (Hotel hotel : hotels) {
+                    hotel.setJournal(null);
+                }
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    lastSaveFailure = e;
+                }
+                journal = null;
+            }
+        }
+    }
+
+    /**
+     * Runs the calendar defragmenter of every hotel now and then in the background, each run
+     * stopping after a time budget so bookings barely notice it.
+     * Calling it again replaces the earlier schedule.
+     *
+     * @param periodMillis the time between runs, in milliseconds
+     * @param budgetMillis the time each hotel's run may take, in milliseconds
+     */
+    public synchronized void startDefragmenter(long periodMillis, long budgetMillis) {
+        stopDefragmenter();
+        defragmentTimer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "calendar-defragmenter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        defragmentTimer.scheduleWithFixedDelay(() -> {
+            for (Hotel hotel : hotels) {
+                defragmenterOf(hotel).run(EpochDay.today(), TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops running the calendar defragmenters in the background.
+     */
+    public synchronized void stopDefragmenter() {
+        if (defragmentTimer != null) {
+            defragmentTimer.shutdownNow();
+            defragmentTimer = null;
+        }
+    }
+
+    /**
+     * Waits until the changes recorded so far have reached the disk, if changes are being saved.
+     */
+    private void syncJournal() {
+        BookingJournal current = journal;
+        if (current != null) {
+            current.sync();
+        }
+    }
+
+    /**
+     * Changes the name of a hotel, ensuring uniqueness among existing hotels.
+     *
+     * @param hotel the hotel whose name is to be changed
+     * @param newName the new name to be assigned to the hotel
+     * @return the result holding the renamed hotel
+     */
+    public ServiceResult<Hotel> renameHotel(Hotel hotel, String newName) {
+        if (newName == null || newName.trim().isEmpty()) {
+            return ServiceResult.failure("Please enter a hotel name.");
+        }
+        synchronized (this) { // Check and rename under the lock that removes and renames hotels
+            if (!isManaged(hotel)) {
+                return ServiceResult.failure("Hotel not found."); // Removed, or never added
+            }
+            // Claim the new name in the index; this fails if another hotel already uses it (case insensitive)
+            Hotel owner = hotelsByName.putIfAbsent(nameKey(newName), hotel);
+            if (owner != null && owner != hotel) {
+                return ServiceResult.failure("Hotel with name '" + newName + "' already exists. Please choose a different name.");
+            }
+            // Release the old name unless only its case changed
+            if (!nameKey(newName).equals(nameKey(hotel.getName()))) {
+                hotelsByName.remove(nameKey(hotel.getName()), hotel);
+            }
+            hotel.changeName(newName);
+        }
+        return ServiceResult.success(hotel, "Hotel name changed to '" + newName + "' successfully.");
+    }
+
+    /**
+     * Removes a hotel and everything in it.
+     *
+     * @param hotel the hotel to remove
+     * @return the result holding the removed hotel
+     */
+    public ServiceResult<Hotel> removeHotel(Hotel hotel) {
+        if (hotel == null) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        synchronized (this) { // Keep snapshots from running between the list change and its journal record
+            // Check if the hotel exists in the list of hotels
+            if (!hotelsByName.remove(nameKey(hotel.getName()), hotel)) {
+                return ServiceResult.failure("Hotel not found.");
+            }
+            // Remove the hotel from the list now that it is out of the name index
+            hotels.remove(hotel);
+            if (journal != null) {
+                journal.removeHotel(hotel.getName());
+            }
+            hotel.setJournal(null); // Changes to a removed hotel are no longer saved
+            defragmenters.remove(hotel);
+        }
+        hotel.releaseReservations(); // Nothing books into the hotel any more, so its store rows can be reused
+        syncJournal();
+        return ServiceResult.success(hotel, "Hotel '" + hotel.getName() + "' has been removed successfully.");
+    }
+
+    /**
+     * Updates the base price of every room in a hotel.
+     * The price can only change while the hotel has no active reservations.
+     *
+     * @param hotel the hotel whose base price is to be updated
+     * @param newPrice the new base price
+     * @return the result holding the hotel
+     */
+    public ServiceResult<Hotel> updateBasePrice(Hotel hotel, double newPrice) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        if (hasActiveReservations(hotel.getRooms())) {
+            return ServiceResult.failure("Cannot update base price. There are active reservations in the hotel.");
+        }
+        if (!(newPrice >= MIN_BASE_PRICE)) { // Also rejects NaN
+            return ServiceResult.failure("New base price must be >= " + MIN_BASE_PRICE + ".");
+        }
+        hotel.updateBasePrice(newPrice); // Call the method in Hotel class to update base price
+        return ServiceResult.success(hotel, "Base price updated successfully to " + newPrice + ".");
+    }
+
+    /**
+     * Adds a room to a hotel.
+     *
+     * @param hotel the hotel to which the room is to be added
+     * @param roomName the name of the room
+     * @param basePrice the base price of the room
+     * @param roomType the type of the room (Standard, Deluxe, Executive)
+     * @return the result holding the new room
+     */
+    public ServiceResult<Room> addRoom(Hotel hotel, String roomName, double basePrice, String roomType) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        if (roomName == null || roomName.trim().isEmpty()) {
+            return ServiceResult.failure("Please enter a room name.");
+        }
+        if (Room.typeIndex(roomType) < 0) {
+            return ServiceResult.failure("Invalid room type.");
+        }
+        Room room;
+        synchronized (hotel) { // Check the limit and the name together with the insert
+            // Check if the hotel already has the maximum number of rooms
+            if (hotel.getTotalRooms() >= MAX_ROOMS) {
+                return ServiceResult.failure("Cannot add room. Hotel '" + hotel.getName() + "' already has the maximum number of rooms (" + MAX_ROOMS + ").");
+            }
+            // Validate room name uniqueness within the hotel
+            if (hotel.getRoomInfo(roomName) != null) {
+                return ServiceResult.failure("Room with name '" + roomName + "' already exists in hotel '" + hotel.getName() + "'.");
+            }
+            room = hotel.addRoom(roomName, basePrice, roomType); // Call the method in Hotel class to add room
+        }
+        return ServiceResult.success(room, "Room '" + roomName + "' added to " + hotel.getName() + ".");
+    }
+
+    /**
+     * Removes a room, found by name, from a hotel.
+     *
+     * @param hotel the hotel from which the room is to be removed
+     * @param roomName the name of the room
+     * @return the result holding the removed room
+     */
+    public ServiceResult<Room> removeRoom(Hotel hotel, String roomName) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        Room room = hotel.getRoomInfo(roomName);
+        if (room == null) {
+            return ServiceResult.failure("Room not found.");
+        }
+        return removeRoom(hotel, room);
+    }
+
+    /**
+     * Removes a room from a hotel. A room with reservations cannot be removed, and neither can a
+     * room that a hold waiting for a room needs because no other room of its type is free.
+     *
+     * @param hotel the hotel from which the room is to be removed
+     * @param room the room to remove
+     * @return the result holding the removed room
+     */
+    public ServiceResult<Room> removeRoom(Hotel hotel, Room room) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        if (room == null || !hotel.getRooms().contains(room)) {
+            return ServiceResult.failure("Room not found.");
+        }
+        if (hasActiveReservations(Arrays.asList(room))) {
+            return ServiceResult.failure("Cannot remove room '" + room.getName() + "' because it has active reservations.");
+        }
+        if (!hotel.removeRoom(room)) { // Call the method in Hotel class to remove the room
+            if (!room.isAvailable((Date) null)) {
+                return ServiceResult.failure("Cannot remove room '" + room.getName() + "' because it has reservations.");
+            }
+            if (!hotel.getRooms().contains(room)) {
+                return ServiceResult.failure("Room not found.");
+            }
+            return ServiceResult.failure("Cannot remove room '" + room.getName() + "' because bookings waiting for a room of its type have no other room.");
+        }
+        return ServiceResult.success(room, "Room '" + room.getName() + "' has been removed successfully.");
+    }
+
+    /**
+     * Checks if any of the rooms has a reservation that has not checked out yet.
+     *
+     * @param rooms the rooms to check
+     * @return true if there are active reservations, false otherwise
+     */
+    private static boolean hasActiveReservations(List<Room> rooms) {
+        int today = EpochDay.today(); // Get the current date
+        for (Room room : rooms) {
+            for (Reservation reservation : room.getReservations()) {
+                // Check if the reservation's check-out date is after today's date
+                if (reservation.getCheckOutDay() > today) {
+                    return true; // Found an active reservation
+                }
+            }
+        }
+        return false; // No active reservations found
+    }
+
+    /**
+     * Books a stay for a guest and applies a discount code.
+     *
+     * @param hotel the hotel to book in
+     * @param guestName the name of the guest
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param roomName the room to book, or null for any free room
+     * @param discountCode the discount code to apply, or null or blank for none
+     * @return the result holding the new reservation
+     */
+    public ServiceResult<Reservation> book(Hotel hotel, String guestName, int checkInDay, int checkOutDay, String roomName, String discountCode) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        if (guestName == null || guestName.trim().isEmpty()) {
+            return ServiceResult.failure("Please enter a guest name.");
+        }
+        if (checkOutDay <= checkInDay) {
+            return ServiceResult.failure("Check-out date must be after the check-in date.");
+        }
+        if (!isValidDiscountCode(discountCode)) {
+            return ServiceResult.failure("Invalid discount code.");
+        }
+
+        Room room;
+        if (roomName == null) {
+            room = hotel.selectRoomForBooking(checkInDay, checkOutDay); // Any free room will do
+            if (room == null) {
+                return ServiceResult.failure("No rooms available for the selected dates.");
+            }
+        } else {
+            room = hotel.getRoomInfo(roomName);
+            if (room == null) {
+                return ServiceResult.failure("Room not found.");
+            }
+        }
+
+        Reservation reservation = hotel.bookRoom(guestName, checkInDay, checkOutDay, room, discountCode);
+        if (reservation == null) {
+            return ServiceResult.failure("Room '" + room.getName() + "' is not available for the selected dates.");
+        }
+        return ServiceResult.success(reservation, "Booking confirmed for room '" + room.getName() + "'.");
+    }
+
+    /**
+     * Books a batch of room requests, such as a group or tour block, in one call.
+     * Requests are grouped by hotel and each hotel chooses rooms for its whole group in one pass
+     * over its availability data instead of scanning every room per request.
+     * An all-or-nothing batch is checked in every hotel, with all of them locked, before any of it
+     * is booked, so it is never seen half booked.
+     *
+     * @param requests the requests to book
+     * @param allOrNothing true to book nothing unless every request can be booked, false to book as many as possible
+     * @return one result per request, in the order of the requests
+     */
+    public List<BookingResult> bookBatch(List<BookingRequest> requests, boolean allOrNothing) {
+        BookingResult[] results = new BookingResult[requests.size()];
+        Map<Hotel, List<Integer>> positionsByHotel = new LinkedHashMap<>(); // Positions of each hotel's requests
+        boolean complete = true; // Whether every request is for a managed hotel
+
+        for (int i = 0; i < requests.size(); i++) {
+            Hotel hotel = requests.get(i).getHotel();
+            if (!isManaged(hotel)) {
+                results[i] = new BookingResult(requests.get(i), "Hotel not found.");
+                complete = false;
+            } else {
+                positionsByHotel.computeIfAbsent(hotel, h -> new ArrayList<>()).add(i);
+            }
+        }
+        if (allOrNothing && !complete) {
+            return rejectBatch(requests, results);
+        }
+
+        // Take the hotels in the service's order so two batches always lock them in the same order
+        List<Hotel> batchHotels = new ArrayList<>(positionsByHotel.keySet());
+        batchHotels.sort(Comparator.comparingInt(hotels::indexOf));
+        if (allOrNothing) {
+            // Each hotel checks its part and, still locked, lets the next hotel check its own, so nothing is booked unless every part fits
+            if (!bookLocked(batchHotels, 0, positionsByHotel, requests, results)) {
+                rejectBatch(requests, results);
+            }
+        } else {
+            for (Hotel hotel : batchHotels) {
+                List<Integer> positions = positionsByHotel.get(hotel);
+                List<BookingResult> hotelResults = hotel.bookBatch(requestsAt(requests, positions), false, () -> true);
+                for (int j = 0; j < hotelResults.size(); j++) {
+                    results[positions.get(j)] = hotelResults.get(j);
+                }
+            }
+        }
+        syncJournal(); // Wait for the journal once every hotel is unlocked
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Books the all-or-nothing batches of the hotels from a position on. Each hotel locks and
+     * checks its batch, then books it only if the hotels after it booked theirs.
+     *
+     * @param batchHotels the hotels of the batch, in the service's order
+     * @param from the position of the hotel to book
+     * @param positionsByHotel the positions of each hotel's requests
+     * @param requests the requests of the batch
+     * @param results receives the result of each request booked or rejected by a hotel
+     * @return true if the batches of this hotel and the ones after it were booked
+     */
+    private boolean bookLocked(List<Hotel> batchHotels, int from, Map<Hotel, List<Integer>> positionsByHotel,
+                               List<BookingRequest> requests, BookingResult[] results) {
+        if (from == batchHotels.size()) {
+            return true; // Every hotel has checked its part
+        }
+        Hotel hotel = batchHotels.get(from);
+        List<Integer> positions = positionsByHotel.get(hotel);
+        List<BookingResult> hotelResults = hotel.bookBatch(requestsAt(requests, positions), true,
+                () -> bookLocked(batchHotels, from + 1, positionsByHotel, requests, results));
+        boolean booked = true;
+        for (int j = 0; j < hotelResults.size(); j++) {
+            results[positions.get(j)] = hotelResults.get(j);
+            booked &= hotelResults.get(j).isBooked();
+        }
+        return booked;
+    }
+
+    /**
+     * Picks the requests at some positions of a batch.
+     *
+     * @param requests the requests of the batch
+     * @param positions the positions to pick
+     * @return the requests at those positions, in order
+     */
+    private static List<BookingRequest> requestsAt(List<BookingRequest> requests, List<Integer> positions) {
+        List<BookingRequest> picked = new ArrayList<>();
+        for (int position : positions) {
+            picked.add(requests.get(position));
+        }
+        return picked;
+    }
+
+    /**
+     * Marks every request of a batch that was not already rejected as not booked.
+     *
+     * @param requests the requests of the batch
+     * @param results the results so far, with null for requests that were not rejected
+     * @return one result per request, in the order of the requests
+     */
+    private static List<BookingResult> rejectBatch(List<BookingRequest> requests, BookingResult[] results) {
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = new BookingResult(requests.get(i), "Batch not booked because another request could not be booked.");
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Cancels a reservation, found by ID.
+     *
+     * @param hotel the hotel holding the reservation
+     * @param reservationId the ID of the reservation
+     * @return the result holding the cancelled reservation
+     */
+    public ServiceResult<Reservation> cancel(Hotel hotel, int reservationId) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        return cancel(hotel, hotel.getReservationById(reservationId));
+    }
+
+    /**
+     * Cancels a reservation, freeing its room and taking its price out of the earnings.
+     *
+     * @param hotel the hotel holding the reservation
+     * @param reservation the reservation to cancel
+     * @return the result holding the cancelled reservation
+     */
+    public ServiceResult<Reservation> cancel(Hotel hotel, Reservation reservation) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        // Remove the reservation from the hotel, its room and the occupancy bitmap
+        if (reservation == null || !hotel.removeReservation(reservation)) {
+            return ServiceResult.failure("Reservation not found.");
+        }
+        return ServiceResult.success(reservation, "Reservation for " + reservation.getGuestName() + " removed from room '" + reservation.getRoom().getName() + "'.");
+    }
+
+    /**
+     * Sells a stay against a room type and leaves the choice of room for later.
+     * Only the type's booked counts are checked, so no room is scanned; assignRooms gives the
+     * stay a room before the guest arrives.
+     *
+     * @param hotel the hotel to book in
+     * @param guestName the name of the guest
+     * @param roomType the room type (Standard, Deluxe, Executive)
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param discountCode the discount code to apply, or null or blank for none
+     * @return the result holding the new hold
+     */
+    public ServiceResult<RoomTypeHold> holdRoomType(Hotel hotel, String guestName, String roomType, int checkInDay, int checkOutDay, String discountCode) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        if (guestName == null || guestName.trim().isEmpty()) {
+            return ServiceResult.failure("Please enter a guest name.");
+        }
+        if (Room.typeIndex(roomType) < 0) {
+            return ServiceResult.failure("Invalid room type.");
+        }
+        if (checkOutDay <= checkInDay) {
+            return ServiceResult.failure("Check-out date must be after the check-in date.");
+        }
+        if (!isValidDiscountCode(discountCode)) {
+            return ServiceResult.failure("Invalid discount code.");
+        }
+        if (checkInDay <= hotel.getAssignedThroughDay()) {
+            return ServiceResult.failure("Rooms for this check-in date are already assigned. Please book a room instead.");
+        }
+
+        RoomTypeHold hold = hotel.holdRoomType(guestName, roomType, checkInDay, checkOutDay, blankToNull(discountCode));
+        if (hold == null) {
+            return ServiceResult.failure("No " + roomType + " rooms available for the selected dates.");
+        }
+        return ServiceResult.success(hold, "Booking confirmed for a " + roomType + " room. The room is assigned before arrival.");
+    }
+
+    /**
+     * Cancels a hold that has not been given a room yet, found by ID.
+     *
+     * @param hotel the hotel holding the hold
+     * @param holdId the ID of the hold
+     * @return the result holding the cancelled hold
+     */
+    public ServiceResult<RoomTypeHold> cancelHold(Hotel hotel, int holdId) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        RoomTypeHold hold = hotel.getHoldById(holdId);
+        if (hold == null || !hotel.cancelHold(hold)) {
+            return ServiceResult.failure("Reservation not found.");
+        }
+        return ServiceResult.success(hold, "Reservation for " + hold.getGuestName() + " cancelled.");
+    }
+
+    /**
+     * Gives rooms to the holds of a hotel that check in on or before a day.
+     *
+     * @param hotel the hotel whose holds get rooms
+     * @param throughDay the last check-in epoch day to assign
+     * @return the result holding the reservations made
+     */
+    public ServiceResult<List<Reservation>> assignRooms(Hotel hotel, int throughDay) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        List<Reservation> assigned = hotel.assignHolds(throughDay);
+        return ServiceResult.success(assigned, assigned.size() + " bookings were given rooms.");
+    }
+
+    /**
+     * Moves future reservations of a hotel between rooms of the same type for a while, so that
+     * its free nights join into runs long enough to sell as week-long stays.
+     * The run carries on from where the previous run of the hotel stopped.
+     *
+     * @param hotel the hotel to rearrange
+     * @param today the current epoch day; only guests arriving after it are moved
+     * @param budgetMillis the time the run may take, in milliseconds
+     * @return the result holding what the run did
+     */
+    public ServiceResult<DefragmentReport> defragment(Hotel hotel, int today, long budgetMillis) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        if (budgetMillis <= 0) {
+            return ServiceResult.failure("The time budget must be positive.");
+        }
+        DefragmentReport report = defragmenterOf(hotel).run(today, TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+        return ServiceResult.success(report, report.toString());
+    }
+
+    /**
+     * Gets what every defragmenter run of a hotel did together, in the background or on request.
+     *
+     * @param hotel the hotel
+     * @return the result holding the combined report
+     */
+    public ServiceResult<DefragmentReport> getDefragmentTotal(Hotel hotel) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        DefragmentReport total = defragmenterOf(hotel).getTotal();
+        return ServiceResult.success(total, total.toString());
+    }
+
+    /**
+     * Gets the defragmenter of a hotel, creating it on first use.
+     *
+     * @param hotel the hotel
+     * @return the hotel's defragmenter
+     */
+    private CalendarDefragmenter defragmenterOf(Hotel hotel) {
+        return defragmenters.computeIfAbsent(hotel, CalendarDefragmenter::new);
+    }
+
+    /**
+     * Prices a stay in the cheapest room of a type, without booking it.
+     *
+     * @param hotel the hotel to quote
+     * @param roomType the room type (Standard, Deluxe, Executive)
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param discountCode the discount code to apply, or null or blank for none
+     * @return the result holding the price of the stay after the discount
+     */
+    public ServiceResult<Double> quote(Hotel hotel, String roomType, int checkInDay, int checkOutDay, String discountCode) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        if (Room.typeIndex(roomType) < 0) {
+            return ServiceResult.failure("Invalid room type.");
+        }
+        if (checkOutDay <= checkInDay) {
+            return ServiceResult.failure("Check-out date must be after the check-in date.");
+        }
+        if (!isValidDiscountCode(discountCode)) {
+            return ServiceResult.failure("Invalid discount code.");
+        }
+        double price = hotel.getQuote(roomType, checkInDay, checkOutDay, blankToNull(discountCode));
+        if (Double.isNaN(price)) {
+            return ServiceResult.failure("Hotel '" + hotel.getName() + "' has no " + roomType + " rooms.");
+        }
+        return ServiceResult.success(price, "Price for " + (checkOutDay - checkInDay) + " nights: PHP " + price);
+    }
+
+    /**
+     * Finds the rooms of a hotel that are free for every night of a stay.
+     *
+     * @param hotel the hotel to check
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return the result holding the free rooms, in the order of the hotel's rooms
+     */
+    public ServiceResult<List<Room>> getAvailableRooms(Hotel hotel, int checkInDay, int checkOutDay) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        if (checkOutDay <= checkInDay) {
+            return ServiceResult.failure("Check-out date must be after the check-in date.");
+        }
+        List<Room> availableRooms = new ArrayList<>(); // Initialize a list to store available rooms
+        for (Room room : hotel.getRooms()) { // Iterate through each room in the hotel's room list
+            if (room.isAvailable(checkInDay, checkOutDay)) { // Ask the room's reservation index
+                availableRooms.add(room); // Add the available room to the list
+            }
+        }
+        if (availableRooms.isEmpty()) {
+            return ServiceResult.success(availableRooms, "No rooms available for the selected dates.");
+        }
+        return ServiceResult.success(availableRooms, availableRooms.size() + " rooms available.");
+    }
+
+    /**
+     * Counts the rooms of a type that are free on every night of a stay.
+     *
+     * @param hotel the hotel to check
+     * @param roomType the room type (Standard, Deluxe, Executive)
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return the result holding the number of rooms of the type that can still be sold for the stay
+     */
+    public ServiceResult<Integer> getFreeRoomCount(Hotel hotel, String roomType, int checkInDay, int checkOutDay) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        if (Room.typeIndex(roomType) < 0) {
+            return ServiceResult.failure("Invalid room type.");
+        }
+        if (checkOutDay <= checkInDay) {
+            return ServiceResult.failure("Check-out date must be after the check-in date.");
+        }
+        int free = hotel.getFreeRoomCount(roomType, checkInDay, checkOutDay); // Read from the type's booked-count tree
+        return ServiceResult.success(free, free + " " + roomType + " rooms available.");
+    }
+
+    /**
+     * Finds the earliest days on or after a day on which a room of a type is free for a number of
+     * nights, looking up to two years ahead.
+     *
+     * @param hotel the hotel to search
+     * @param roomType the room type (Standard, Deluxe, Executive)
+     * @param fromDay the first epoch day the stay may start on
+     * @param nights the number of nights of the stay
+     * @param count the most windows to return
+     * @return the result holding the windows in check-in order, one room for each day
+     */
+    public ServiceResult<List<StayWindow>> findWindows(Hotel hotel, String roomType, int fromDay, int nights, int count) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        if (Room.typeIndex(roomType) < 0) {
+            return ServiceResult.failure("Invalid room type.");
+        }
+        if (nights <= 0 || nights > Hotel.WINDOW_SEARCH_DAYS) {
+            return ServiceResult.failure("Number of nights must be between 1 and " + Hotel.WINDOW_SEARCH_DAYS + ".");
+        }
+        if (count <= 0) {
+            return ServiceResult.failure("Number of windows must be at least 1.");
+        }
+        List<StayWindow> windows = hotel.findEarliestWindows(roomType, fromDay, nights, count, Hotel.WINDOW_SEARCH_DAYS);
+        if (windows.isEmpty()) {
+            return ServiceResult.success(windows, "No " + roomType + " room is free for " + nights + " nights in the next two years.");
+        }
+        return ServiceResult.success(windows, "Earliest " + roomType + " stay starts " + LocalDate.ofEpochDay(windows.get(0).getCheckInDay()) + ".");
+    }
+
+    /**
+     * Adds a date price modifier to a hotel.
+     *
+     * @param hotel the hotel to which the modifier is to be added
+     * @param startDay the first epoch day of the modifier
+     * @param endDay the last epoch day of the modifier, inclusive
+     * @param modifier the price modifier, between 0.5 and 1.5
+     * @return the result holding the new modifier
+     */
+    public ServiceResult<DatePriceModifier> addDatePriceModifier(Hotel hotel, int startDay, int endDay, double modifier) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        if (!(modifier >= MIN_PRICE_MODIFIER && modifier <= MAX_PRICE_MODIFIER)) { // Also rejects NaN
+            return ServiceResult.failure("Price modifier must be between 0.50 and 1.50.");
+        }
+        DatePriceModifier datePriceModifier = new DatePriceModifier(startDay, endDay, modifier);
+        // The hotel refuses ranges that end before they start or overlap an existing modifier
+        if (!hotel.addDatePriceModifier(datePriceModifier)) {
+            return ServiceResult.failure("The dates are invalid or overlap an existing date price modifier.");
+        }
+        return ServiceResult.success(datePriceModifier, "Date price modifier set successfully.");
+    }
+
+    /**
+     * Removes the date price modifier that starts on a given day.
+     *
+     * @param hotel the hotel from which the modifier is to be removed
+     * @param startDay the first epoch day of the modifier
+     * @return the result holding the removed modifier
+     */
+    public ServiceResult<DatePriceModifier> removeDatePriceModifier(Hotel hotel, int startDay) {
+        if (!isManaged(hotel)) {
+            return ServiceResult.failure("Hotel not found.");
+        }
+        DatePriceModifier modifier = hotel.getDatePriceModifier(startDay);
+        // Check if the modifier's start date matches the given day
+        if (modifier == null || modifier.getStartDay() != startDay) {
+            return ServiceResult.failure("No date price modifier found for the given start date.");
+        }
+        hotel.removeDatePriceModifier(modifier);
+        return ServiceResult.success(modifier, "Date price modifier removed successfully.");
+    }
+
+    /**
+     * Computes daily occupancy, ADR and RevPAR for every hotel over a year.
+     * Each hotel is analyzed in a single pass over its reservations, with the hotels split across threads.
+     *
+     * @param year the year to report on
+     * @return one report per hotel, in the order of the hotels
+     */
+    public List<OccupancyReport> getOccupancyReports(int year) {
+        int firstDay = EpochDay.firstDayOfMonth(EpochDay.monthIndex(year, 1));
+        return RevenueAnalytics.analyze(hotels, firstDay, EpochDay.firstDayOfMonth(EpochDay.monthIndex(year + 1, 1)));
+    }
+
+    /**
+     * Retrieves the hotels managed by the service.
+     *
+     * @return a read-only copy of the list of hotels, in the order they were created
+     */
+    public List<Hotel> getHotels() {
+        return List.copyOf(hotels); // Hotels are added and removed through the service, so callers get a copy
+    }
+
+    /**
+     * Gets the names of all hotels.
+     *
+     * @return a list of hotel names
+     */
+    public List<String> getHotelNames() {
+        List<String> hotelNames = new ArrayList<>(); // Initialize a list to store hotel names
+        for (Hotel hotel : hotels) { // Iterate through each hotel in the list
+            hotelNames.add(hotel.getName()); // Add the name of the current hotel to the list
+        }
+        return hotelNames; // Return the list of hotel names
+    }
+
+    /**
+     * Finds a hotel by its exact name.
+     *
+     * @param name the name of the hotel to find
+     * @return the hotel with the specified name, or null if not found
+     */
+    public Hotel getHotelByName(String name) {
+        if (name == null) {
+            return null; // No hotel can match a missing name
+        }
+        Hotel hotel = hotelsByName.get(nameKey(name)); // Look up the hotel in the name index
+        // The index is case insensitive, but this lookup matches the exact name
+        return hotel != null && hotel.getName().equals(name) ? hotel : null;
+    }
+
+    /**
+     * Checks if a hotel is one of the hotels managed by the service.
+     *
+     * @param hotel the hotel to check
+     * @return true if the hotel has not been removed, false otherwise
+     */
+    private boolean isManaged(Hotel hotel) {
+        return hotel != null && hotelsByName.get(nameKey(hotel.getName())) == hotel;
+    }
+
+    /**
+     * Checks if a discount code is blank or names a known discount rule.
+     *
+     * @param discountCode the discount code to check
+     * @return true if the code can be applied, false otherwise
+     */
+    private static boolean isValidDiscountCode(String discountCode) {
+        return blankToNull(discountCode) == null || DiscountRules.getDefault().get(discountCode) != null;
+    }
+
+    /**
+     * Treats a blank discount code as no code.
+     *
+     * @param discountCode the discount code entered
+     * @return the code, or null if it is null or blank
+     */
+    private static String blankToNull(String discountCode) {
+        return discountCode == null || discountCode.trim().isEmpty() ? null : discountCode;
+    }
+
+    /**
+     * Converts a name to the case-folded key used by the hotel name index.
+     *
+     * @param name the name to convert
+     * @return the lower-case form of the name
+     */
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,230 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the throughput and latency of the HTTP booking API on one machine.
+ * It starts a BookingServer on a free local port over a generated hotel, then runs closed-loop
+ * clients that each send a mix of availability, quote, booking and cancellation requests and
+ * wait for every answer before sending the next. After a warm-up, every request's latency is
+ * recorded, and the report shows requests per second and the latency percentiles.
+ *
+ * Run with: java LoadGenerator [clients] [seconds]
+ */
+public class LoadGenerator {
+    private static final long WARMUP_NANOS = 3_000_000_000L; // Time spent warming up before measuring
+    private static final int FIRST_DAY = EpochDay.parse("2024-01-01"); // First day used for generated stays
+    private static final String[] ROOM_TYPES = Room.ROOM_TYPES; // Room types to quote
+    private static final String[] DISCOUNT_CODES = {null, "I_WORK_HERE", "STAY4_GET1", "PAYDAY"}; // Codes to quote with
+
+    /**
+     * Latencies recorded by one client.
+     */
+    private static class Recorder {
+        private long[] latencies = new long[1 << 16]; // Latency of each measured request, in nanoseconds
+        private int count; // Number of latencies recorded
+        private long errors; // Requests answered with a server error or not answered at all
+
+        /**
+         * Records the latency of one request.
+         *
+         * @param nanos the latency in nanoseconds
+         */
+        void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    /**
+     * Starts the server, runs the clients and prints the report.
+     *
+     * @param args the optional number of clients and seconds to measure
+     * @throws Exception if the server cannot start or a client is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 4 * Runtime.getRuntime().availableProcessors();
+        long measureNanos = (args.length > 1 ? Long.parseLong(args[1]) : 10) * 1_000_000_000L;
+
+        HotelService service = new HotelService(); // Not journaled, so the disk is not measured
+        Hotel hotel = service.createHotel("Load").getValue();
+        for (int i = 0; i < HotelService.MAX_ROOMS; i++) {
+            service.addRoom(hotel, "R" + i, 1299.0, ROOM_TYPES[i % ROOM_TYPES.length]);
+        }
+        BookingServer server = new BookingServer(service, 0);
+        server.start();
+        String base = "http://127.0.0.1:" + server.getPort();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        List<Recorder> recorders = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch ready = new CountDownLatch(clients);
+        long start = System.nanoTime() + 100_000_000L; // Let every client thread start first
+        long measureFrom = start + WARMUP_NANOS;
+        long end = measureFrom + measureNanos;
+        for (int c = 0; c < clients; c++) {
+            Recorder recorder = new Recorder();
+            recorders.add(recorder);
+            int seed = c;
+            Thread thread = new Thread(() -> {
+                ready.countDown();
+                runClient(client, base, new Random(seed), recorder, measureFrom, end);
+            }, "load-client-" + c);
+            threads.add(thread);
+            thread.start();
+        }
+        ready.await();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        server.stop(0);
+
+        report(clients, measureNanos, server.usesVirtualThreads(), recorders);
+    }
+
+    /**
+     * Sends requests in a closed loop until the end time, recording the ones sent after the warm-up.
+     * Out of every ten requests, six check availability, two quote, one books any free room and
+     * one cancels the client's last booking, which keeps the hotel from filling up.
+     *
+     * @param client the HTTP client
+     * @param base the base URL of the server
+     * @param random the source of stays and discount codes
+     * @param recorder where latencies are recorded
+     * @param measureFrom the time at which measuring starts, from System.nanoTime
+     * @param end the time at which the client stops, from System.nanoTime
+     */
+    private static void runClient(HttpClient client, String base, Random random, Recorder recorder, long measureFrom, long end) {
+        long lastBooking = -1; // ID of the client's last booking, or -1 if it has none
+        for (int i = 0; ; i++) {
+            int checkIn = FIRST_DAY + random.nextInt(365);
+            String stay = "&checkIn=" + LocalDate.ofEpochDay(checkIn) + "&checkOut=" + LocalDate.ofEpochDay(checkIn + 1 + random.nextInt(4));
+            HttpRequest request;
+            switch (i % 10) {
+                case 6:
+                case 7:
+                    String code = DISCOUNT_CODES[random.nextInt(DISCOUNT_CODES.length)];
+                    request = get(base + "/quote?hotel=Load&roomType=" + ROOM_TYPES[random.nextInt(ROOM_TYPES.length)] + stay
+                            + (code == null ? "" : "&discountCode=" + code));
+                    break;
+                case 8:
+                    request = HttpRequest.newBuilder(URI.create(base + "/bookings"))
+                            .header("Content-Type", "application/x-www-form-urlencoded")
+                            .POST(HttpRequest.BodyPublishers.ofString("hotel=Load&guestName=Guest" + i + stay)).build();
+                    break;
+                case 9:
+                    if (lastBooking < 0) {
+                        continue; // Nothing to cancel
+                    }
+                    request = HttpRequest.newBuilder(URI.create(base + "/bookings?hotel=Load&id=" + lastBooking)).DELETE().build();
+                    lastBooking = -1;
+                    break;
+                default:
+                    request = get(base + "/availability?hotel=Load" + stay);
+            }
+
+            long sent = System.nanoTime();
+            if (sent >= end) {
+                return; // Time is up
+            }
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                long latency = System.nanoTime() - sent;
+                if (response.statusCode() == 201) {
+                    lastBooking = bookingId(response.body());
+                }
+                if (sent >= measureFrom) {
+                    recorder.record(latency);
+                    if (response.statusCode() >= 500) {
+                        recorder.errors++;
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                if (sent >= measureFrom) {
+                    recorder.errors++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds a GET request.
+     *
+     * @param url the URL to get
+     * @return the request
+     */
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    /**
+     * Reads the booking ID from a booking response.
+     *
+     * @param body the JSON body of the response
+     * @return the booking ID
+     */
+    private static long bookingId(String body) {
+        int from = body.indexOf("\"id\":") + 5;
+        int to = from;
+        while (to < body.length() && Character.isDigit(body.charAt(to))) {
+            to++;
+        }
+        return Long.parseLong(body.substring(from, to));
+    }
+
+    /**
+     * Prints the throughput and latency percentiles of every measured request.
+     *
+     * @param clients the number of clients
+     * @param measureNanos the time spent measuring
+     * @param virtualThreads whether the server ran requests on virtual threads
+     * @param recorders the latencies recorded by each client
+     */
+    private static void report(int clients, long measureNanos, boolean virtualThreads, List<Recorder> recorders) {
+        int total = 0;
+        long errors = 0;
+        for (Recorder recorder : recorders) {
+            total += recorder.count;
+            errors += recorder.errors;
+        }
+        long[] all = new long[total];
+        int position = 0;
+        for (Recorder recorder : recorders) {
+            System.arraycopy(recorder.latencies, 0, all, position, recorder.count);
+            position += recorder.count;
+        }
+        Arrays.sort(all);
+
+        System.out.printf("%-10s %-10s %12s %10s %10s %10s %10s %10s%n",
+                "clients", "threads", "requests/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors");
+        System.out.printf("%-10d %-10s %12.0f %10.3f %10.3f %10.3f %10.3f %10d%n",
+                clients, virtualThreads ? "virtual" : "platform", total * 1e9 / measureNanos,
+                percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99),
+                total == 0 ? 0.0 : all[total - 1] / 1e6, errors);
+    }
+
+    /**
+     * Gets a percentile of sorted latencies.
+     *
+     * @param sorted the latencies in nanoseconds, in ascending order
+     * @param fraction the percentile as a fraction, such as 0.99
+     * @return the latency at the percentile in milliseconds, or 0 if there are none
+     */
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1; // Nearest-rank percentile
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,107 @@
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The availability of a room for each day of one month, held as a bitmask.
+ * Bit d - 1 is set when day d of the month is booked. The text form is only built when the
+ * availability is appended or printed.
+ */
+public class MonthAvailability {
+    private final YearMonth yearMonth; // The month described
+    private final long bookedMask; // Bit d - 1 is set if day d is booked
+
+    /**
+     * Constructs the availability of a month.
+     *
+     * @param yearMonth the month described
+     * @param bookedMask the mask of booked days
+     */
+    public MonthAvailability(YearMonth yearMonth, long bookedMask) {
+        this.yearMonth = yearMonth;
+        this.bookedMask = bookedMask;
+    }
+
+    /**
+     * Gets the month described.
+     *
+     * @return the year and month
+     */
+    public YearMonth getYearMonth() {
+        return yearMonth;
+    }
+
+    /**
+     * Gets the number of days in the month.
+     *
+     * @return the number of days
+     */
+    public int getDaysInMonth() {
+        return yearMonth.lengthOfMonth();
+    }
+
+    /**
+     * Gets the mask of booked days.
+     *
+     * @return a mask with bit d - 1 set if day d is booked
+     */
+    public long getBookedMask() {
+        return bookedMask;
+    }
+
+    /**
+     * Checks if a day of the month is booked.
+     *
+     * @param dayOfMonth the day of the month (1-31)
+     * @return true if the day is booked, false otherwise
+     */
+    public boolean isBooked(int dayOfMonth) {
+        return (bookedMask >>> (dayOfMonth - 1) & 1L) != 0;
+    }
+
+    /**
+     * Gets the number of days in the month that are still available.
+     *
+     * @return the number of available days
+     */
+    public int getAvailableDays() {
+        return getDaysInMonth() - Long.bitCount(bookedMask);
+    }
+
+    /**
+     * Appends one line per day, such as "12: Booked", to a builder.
+     *
+     * @param out the builder to append to
+     * @return the builder
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        int days = getDaysInMonth();
+        for (int day = 1; day <= days; day++) {
+            out.append(day).append(isBooked(day) ? ": Booked\n" : ": Available\n");
+        }
+        return out;
+    }
+
+    /**
+     * Gets one line per day, such as "12: Booked".
+     *
+     * @return the availability lines
+     */
+    public List<String> toLines() {
+        List<String> lines = new ArrayList<>(getDaysInMonth());
+        for (int day = 1; day <= getDaysInMonth(); day++) {
+            lines.add(day + (isBooked(day) ? ": Booked" : ": Available"));
+        }
+        return lines;
+    }
+
+    /**
+     * Gets the availability as text with one line per day.
+     *
+     * @return the availability text
+     */
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(getDaysInMonth() * 14)).toString();
+    }
+}
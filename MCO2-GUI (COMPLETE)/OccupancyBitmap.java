@@ -0,0 +1,152 @@
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tracks which rooms of a hotel are occupied on each calendar day.
+ * Each day keeps a bit set with one bit per room slot, so availability over a date range
+ * is answered by combining a few bit sets instead of checking every room and reservation.
+ */
+public class OccupancyBitmap {
+    private Map<Integer, BitSet> nights; // Rooms with a guest staying the night, keyed by epoch day
+    private Map<Integer, BitSet> departures; // Rooms with a guest checking out, keyed by epoch day
+    private BitSet rooms; // Slots that currently hold a room
+
+    /**
+     * Constructs an empty occupancy bitmap.
+     */
+    public OccupancyBitmap() {
+        this.nights = new HashMap<>();
+        this.departures = new HashMap<>();
+        this.rooms = new BitSet();
+    }
+
+    /**
+     * Reserves the lowest free slot for a new room.
+     *
+     * @return the slot assigned to the room
+     */
+    public int allocateSlot() {
+        int slot = rooms.nextClearBit(0); // Reuse slots freed by removed rooms first
+        rooms.set(slot);
+        return slot;
+    }
+
+    /**
+     * Frees the slot of a removed room.
+     *
+     * @param slot the slot to free
+     */
+    public void releaseSlot(int slot) {
+        rooms.clear(slot);
+    }
+
+    /**
+     * Marks a room as occupied for a stay.
+     *
+     * @param slot the slot of the room
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     */
+    public void markStay(int slot, int checkInDay, int checkOutDay) {
+        for (int day = checkInDay; day < checkOutDay; day++) {
+            nights.computeIfAbsent(day, d -> new BitSet()).set(slot);
+        }
+        departures.computeIfAbsent(checkOutDay, d -> new BitSet()).set(slot);
+    }
+
+    /**
+     * Marks a room as free for a stay that has been cancelled.
+     *
+     * @param slot the slot of the room
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     */
+    public void clearStay(int slot, int checkInDay, int checkOutDay) {
+        for (int day = checkInDay; day < checkOutDay; day++) {
+            clear(nights, day, slot);
+        }
+        clear(departures, checkOutDay, slot);
+    }
+
+    /**
+     * Marks a room as occupied on the days of a range that its stays still cover.
+     * A covered day without a night is the check-out day of a stay.
+     *
+     * @param slot the slot of the room
+     * @param fromDay the first epoch day of the range
+     * @param nightsBooked a set with bit i set if a guest stays the night of day fromDay + i
+     * @param daysBooked a set with bit i set if day fromDay + i is covered, counting check-out days
+     */
+    public void markDays(int slot, int fromDay, BitSet nightsBooked, BitSet daysBooked) {
+        for (int i = daysBooked.nextSetBit(0); i >= 0; i = daysBooked.nextSetBit(i + 1)) {
+            Map<Integer, BitSet> days = nightsBooked.get(i) ? nights : departures;
+            days.computeIfAbsent(fromDay + i, d -> new BitSet()).set(slot);
+        }
+    }
+
+    /**
+     * Gets the slots of all rooms that are free for every night of a stay.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return a new bit set of the free room slots
+     */
+    public BitSet freeRooms(int checkInDay, int checkOutDay) {
+        BitSet free = (BitSet) rooms.clone();
+        removeOccupied(free, checkInDay, checkOutDay);
+        return free;
+    }
+
+    /**
+     * Clears from a set of room slots every room that is occupied on any night of a stay.
+     *
+     * @param slots the room slots to filter, updated in place
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     */
+    public void removeOccupied(BitSet slots, int checkInDay, int checkOutDay) {
+        for (int day = checkInDay; day < checkOutDay && !slots.isEmpty(); day++) {
+            BitSet occupied = nights.get(day);
+            if (occupied != null) {
+                slots.andNot(occupied); // Remove rooms taken on this night
+            }
+        }
+    }
+
+    /**
+     * Gets the slots of all rooms that are free on a single day, counting check-out days as occupied.
+     *
+     * @param day the epoch day to check
+     * @return a new bit set of the free room slots
+     */
+    public BitSet freeRoomsOn(int day) {
+        BitSet free = (BitSet) rooms.clone();
+        BitSet occupied = nights.get(day);
+        if (occupied != null) {
+            free.andNot(occupied);
+        }
+        BitSet leaving = departures.get(day);
+        if (leaving != null) {
+            free.andNot(leaving);
+        }
+        return free;
+    }
+
+    /**
+     * Clears a slot from the bit set of a day, dropping the bit set once it is empty.
+     *
+     * @param days the bit sets keyed by epoch day
+     * @param day the epoch day to update
+     * @param slot the slot to clear
+     */
+    private static void clear(Map<Integer, BitSet> days, int day, int slot) {
+        BitSet bits = days.get(day);
+        if (bits != null) {
+            bits.clear(slot);
+            if (bits.isEmpty()) {
+                days.remove(day); // Keep the map limited to days that still have bookings
+            }
+        }
+    }
+}
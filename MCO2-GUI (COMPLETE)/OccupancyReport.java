@@ -0,0 +1,172 @@
+/**
+ * Daily occupancy and revenue of one hotel over a range of days.
+ * Occupancy is the share of rooms sold, ADR (average daily rate) is the revenue per room sold,
+ * and RevPAR is the revenue per available room.
+ */
+public class OccupancyReport {
+    private final String hotelName; // Name of the hotel reported on
+    private final int firstDay; // Epoch day of the first entry
+    private final int roomCount; // Rooms available each day
+    private final int[] roomsSold; // Rooms sold on each day
+    private final double[] revenue; // Revenue earned on each day
+
+    /**
+     * Constructs a report from per-day totals.
+     *
+     * @param hotelName the name of the hotel
+     * @param firstDay the epoch day of the first entry
+     * @param roomCount the number of rooms available each day
+     * @param roomsSold the rooms sold on each day
+     * @param revenue the revenue earned on each day
+     */
+    public OccupancyReport(String hotelName, int firstDay, int roomCount, int[] roomsSold, double[] revenue) {
+        this.hotelName = hotelName;
+        this.firstDay = firstDay;
+        this.roomCount = roomCount;
+        this.roomsSold = roomsSold;
+        this.revenue = revenue;
+    }
+
+    /**
+     * Gets the name of the hotel reported on.
+     *
+     * @return the hotel name
+     */
+    public String getHotelName() {
+        return hotelName;
+    }
+
+    /**
+     * Gets the first day of the report.
+     *
+     * @return the epoch day of the first entry
+     */
+    public int getFirstDay() {
+        return firstDay;
+    }
+
+    /**
+     * Gets the number of days in the report.
+     *
+     * @return the number of days
+     */
+    public int getDays() {
+        return roomsSold.length;
+    }
+
+    /**
+     * Gets the number of rooms available each day.
+     *
+     * @return the room count
+     */
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    /**
+     * Gets the rooms sold on a day.
+     *
+     * @param day the epoch day, within the report
+     * @return the rooms sold
+     */
+    public int getRoomsSold(int day) {
+        return roomsSold[day - firstDay];
+    }
+
+    /**
+     * Gets the revenue earned on a day.
+     *
+     * @param day the epoch day, within the report
+     * @return the revenue of the day
+     */
+    public double getRevenue(int day) {
+        return revenue[day - firstDay];
+    }
+
+    /**
+     * Gets the occupancy rate of a day.
+     *
+     * @param day the epoch day, within the report
+     * @return the share of rooms sold, from 0 to 1
+     */
+    public double getOccupancyRate(int day) {
+        return roomCount == 0 ? 0 : (double) getRoomsSold(day) / roomCount;
+    }
+
+    /**
+     * Gets the average daily rate of a day.
+     *
+     * @param day the epoch day, within the report
+     * @return the revenue per room sold, or 0 if no room was sold
+     */
+    public double getAverageDailyRate(int day) {
+        int sold = getRoomsSold(day);
+        return sold == 0 ? 0 : getRevenue(day) / sold;
+    }
+
+    /**
+     * Gets the revenue per available room of a day.
+     *
+     * @param day the epoch day, within the report
+     * @return the revenue per available room
+     */
+    public double getRevPar(int day) {
+        return roomCount == 0 ? 0 : getRevenue(day) / roomCount;
+    }
+
+    /**
+     * Gets the rooms sold over the whole report.
+     *
+     * @return the room-nights sold
+     */
+    public long getTotalRoomsSold() {
+        long total = 0;
+        for (int sold : roomsSold) {
+            total += sold;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the revenue over the whole report.
+     *
+     * @return the total revenue
+     */
+    public double getTotalRevenue() {
+        double total = 0;
+        for (double earned : revenue) {
+            total += earned;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the occupancy rate over the whole report.
+     *
+     * @return the share of room-nights sold, from 0 to 1
+     */
+    public double getOccupancyRate() {
+        long available = (long) roomCount * getDays();
+        return available == 0 ? 0 : (double) getTotalRoomsSold() / available;
+    }
+
+    /**
+     * Gets the average daily rate over the whole report.
+     *
+     * @return the revenue per room-night sold, or 0 if none was sold
+     */
+    public double getAverageDailyRate() {
+        long sold = getTotalRoomsSold();
+        return sold == 0 ? 0 : getTotalRevenue() / sold;
+    }
+
+    /**
+     * Gets the revenue per available room over the whole report.
+     *
+     * @return the revenue per available room-night
+     */
+    public double getRevPar() {
+        long available = (long) roomCount * getDays();
+        return available == 0 ? 0 : getTotalRevenue() / available;
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * A discount that takes a fixed percentage off every stay.
+ */
+public class PercentDiscount implements DiscountRule {
+    private final double factor; // Share of the price that is kept
+
+    /**
+     * Constructs a percentage discount.
+     *
+     * @param percentOff the percentage taken off, from 0 to 100
+     */
+    public PercentDiscount(double percentOff) {
+        this.factor = 1 - percentOff / 100; // Precompute the multiplier
+    }
+
+    /**
+     * Checks if the rule gives a discount for a stay.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return always true
+     */
+    @Override
+    public boolean appliesTo(int checkInDay, int checkOutDay) {
+        return true; // Every stay qualifies
+    }
+
+    /**
+     * Applies the discount to the total price of a stay.
+     *
+     * @param totalPrice the total price before the discount
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param roomPrice the nightly price of the booked room
+     * @return the discounted price
+     */
+    @Override
+    public double apply(double totalPrice, int checkInDay, int checkOutDay, double roomPrice) {
+        return totalPrice * factor;
+    }
+}
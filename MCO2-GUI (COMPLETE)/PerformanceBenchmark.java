@@ -0,0 +1,582 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micro-benchmarks for the availability, pricing and booking hot paths.
+ * Each benchmark is warmed up first and then measured, reporting operations per second
+ * and the bytes allocated per operation, so regressions in these paths are visible.
+ *
+ * Run with: java PerformanceBenchmark [name-filter]
+ */
+public class PerformanceBenchmark {
+    private static final long WARMUP_NANOS = 1_000_000_000L; // Time spent warming up each benchmark
+    private static final long MEASURE_NANOS = 2_000_000_000L; // Time spent measuring each benchmark
+    private static final int BATCH = 1_000; // Operations run between clock checks
+    private static final int FIRST_DAY = EpochDay.parse("2024-01-01"); // First day used for generated stays
+
+    private static final PrintStream REPORT = System.out; // Where results are printed
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean(); // Source of allocation counters
+
+    private static final String[] STRATEGY_NAMES = {"first-fit", "best-fit", "type-preferring"}; // Names of the compared assignment strategies
+    private static final RoomAssignmentStrategy[] STRATEGIES = {
+            new FirstFitAssignment(), new BestFitAssignment(), new TypePreferringAssignment()}; // Compared assignment strategies
+
+    private static final double DEMAND = 1.5; // Requested room-nights per night of capacity in the sell-through comparison
+
+    private static volatile Object sink; // Keeps results alive so the JIT cannot drop the work
+    private static long checksum; // Keeps primitive results alive for the same reason
+
+    /**
+     * An operation whose throughput is measured.
+     */
+    private interface Operation {
+        /**
+         * Runs the operation once.
+         *
+         * @param i the index of the call, used to vary the input
+         */
+        void run(int i);
+    }
+
+    /**
+     * Runs all benchmarks whose name contains the optional filter.
+     *
+     * @param args an optional name filter
+     */
+    public static void main(String[] args) throws Exception {
+        String filter = args.length > 0 ? args[0] : "";
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Silence messages printed by the domain classes
+
+        REPORT.printf("%-45s %15s %15s %12s%n", "Benchmark", "ops/s", "bytes/op", "MB/s alloc");
+        for (int reservations : new int[] {10, 1_000, 100_000}) {
+            run(filter, "Room.isAvailable/reservations=" + reservations, roomIsAvailable(reservations));
+        }
+        for (int reservations : new int[] {10, 1_000, 100_000}) {
+            run(filter, "Room.getMonthAvailability/reservations=" + reservations, roomMonthAvailability(reservations));
+        }
+        for (int rooms : new int[] {50, 5_000}) {
+            run(filter, "Hotel.getAvailableRoomNames/rooms=" + rooms, hotelAvailableRoomNames(rooms));
+        }
+        for (int rooms : new int[] {50, 5_000}) {
+            run(filter, "Hotel.getFreeRoomCount/rooms=" + rooms, hotelFreeRoomCount(rooms));
+        }
+        for (int modifiers : new int[] {0, 100, 10_000}) {
+            run(filter, "Reservation.getTotalPrice/modifiers=" + modifiers, reservationTotalPrice(modifiers));
+        }
+        for (int modifiers : new int[] {0, 100, 10_000}) {
+            run(filter, "Hotel.quote/stays=1024,modifiers=" + modifiers, hotelQuote(modifiers));
+        }
+        run(filter, "Hotel.getQuote/cached", hotelCachedQuote());
+        for (int modifiers : new int[] {100, 10_000}) {
+            run(filter, "Hotel.getDatePriceModifier/modifiers=" + modifiers, hotelDatePriceModifier(modifiers));
+        }
+        for (String code : new String[] {"I_WORK_HERE", "STAY4_GET1", "PAYDAY"}) {
+            run(filter, "Reservation.applyDiscount/code=" + code, reservationApplyDiscount(code));
+        }
+        for (int s = 0; s < STRATEGY_NAMES.length; s++) {
+            run(filter, "Hotel.selectRoomForBooking/strategy=" + STRATEGY_NAMES[s], hotelSelectRoom(STRATEGIES[s]));
+        }
+        run(filter, "Hotel.findEarliestWindows/rooms=50,days=730", hotelFindEarliestWindows(false));
+        run(filter, "Hotel.getAvailableRoomNames/probe-each-day,rooms=50,days=730", hotelFindEarliestWindows(true));
+        run(filter, "Hotel.bookRoom/selected", hotelBookSelected());
+        run(filter, "Hotel.holdRoomType", hotelHoldRoomType());
+        for (int threads : new int[] {1, 4, Runtime.getRuntime().availableProcessors()}) {
+            String name = "Hotel.simulateBooking/threads=" + threads;
+            if (name.contains(filter)) {
+                contendedBooking(name, threads);
+            }
+        }
+
+        String sellThroughName = "Sell-through/rooms=30,days=120";
+        if (sellThroughName.contains(filter)) {
+            sellThrough(sellThroughName, 30, 120);
+        }
+
+        System.setOut(REPORT);
+        sink = checksum; // Use the checksum so it is not optimized away
+    }
+
+    /**
+     * Builds a room with back-to-back three-night reservations and probes random stays.
+     *
+     * @param reservations the number of reservations in the room
+     * @return the operation to measure
+     */
+    private static Operation roomIsAvailable(int reservations) {
+        Hotel hotel = new Hotel("Benchmark");
+        hotel.addRoom("R1", 1299.0, "Standard");
+        Room room = hotel.getRooms().get(0);
+        for (int i = 0; i < reservations; i++) {
+            int checkIn = FIRST_DAY + i * 4; // Leave one free night between stays
+            room.addReservation(new Reservation("Guest" + i, checkIn, checkIn + 3, room, hotel));
+        }
+
+        int[] probes = randomDays(reservations * 4);
+        return i -> {
+            int checkIn = probes[i & (probes.length - 1)];
+            checksum += room.isAvailable(checkIn, checkIn + 1) ? 1 : 0;
+        };
+    }
+
+    /**
+     * Builds a room with back-to-back three-night reservations and reads the availability of random months.
+     *
+     * @param reservations the number of reservations in the room
+     * @return the operation to measure
+     */
+    private static Operation roomMonthAvailability(int reservations) {
+        Hotel hotel = new Hotel("Benchmark");
+        hotel.addRoom("R1", 1299.0, "Standard");
+        Room room = hotel.getRooms().get(0);
+        for (int i = 0; i < reservations; i++) {
+            int checkIn = FIRST_DAY + i * 4; // Leave one free night between stays
+            room.addReservation(new Reservation("Guest" + i, checkIn, checkIn + 3, room, hotel));
+        }
+
+        int[] probes = randomDays(reservations * 4);
+        return i -> {
+            LocalDate date = LocalDate.ofEpochDay(probes[i & (probes.length - 1)]);
+            checksum += room.getMonthAvailability(date.getYear(), date.getMonthValue()).getAvailableDays();
+        };
+    }
+
+    /**
+     * Builds a hotel where every other room is booked and lists the free rooms for random stays.
+     *
+     * @param rooms the number of rooms in the hotel
+     * @return the operation to measure
+     */
+    private static Operation hotelAvailableRoomNames(int rooms) {
+        Hotel hotel = new Hotel("Benchmark");
+        for (int i = 0; i < rooms; i++) {
+            hotel.addRoom("R" + i, 1299.0, "Standard");
+        }
+        List<Room> roomList = hotel.getRooms();
+        for (int i = 0; i < rooms; i += 2) {
+            Room room = roomList.get(i);
+            for (int day = 0; day < 365; day += 7) {
+                hotel.simulateBooking("Guest", FIRST_DAY + day, FIRST_DAY + day + 3, room, hotel);
+            }
+        }
+
+        Date[] checkIns = new Date[256];
+        Date[] checkOuts = new Date[256];
+        int[] days = randomDays(360);
+        for (int i = 0; i < checkIns.length; i++) {
+            checkIns[i] = EpochDay.toDate(days[i]);
+            checkOuts[i] = EpochDay.toDate(days[i] + 3);
+        }
+        return i -> sink = hotel.getAvailableRoomNames(checkIns[i & 255], checkOuts[i & 255]);
+    }
+
+    /**
+     * Builds a hotel of mixed room types booked in scattered three-night stays and counts the
+     * free rooms of one type for random stays.
+     *
+     * @param rooms the number of rooms in the hotel
+     * @return the operation to measure
+     */
+    private static Operation hotelFreeRoomCount(int rooms) {
+        Hotel hotel = new Hotel("Benchmark");
+        for (int i = 0; i < rooms; i++) {
+            hotel.addRoom("R" + i, 1299.0, Room.ROOM_TYPES[i % Room.ROOM_TYPES.length]);
+        }
+        List<Room> roomList = hotel.getRooms();
+        for (int i = 0; i < rooms; i++) {
+            for (int day = i % 7; day < 365; day += 7) {
+                hotel.simulateBooking("Guest", FIRST_DAY + day, FIRST_DAY + day + 3, roomList.get(i), hotel);
+            }
+        }
+
+        int[] days = randomDays(360);
+        return i -> checksum += hotel.getFreeRoomCount("Deluxe", days[i & 1023], days[i & 1023] + 1 + (i & 7));
+    }
+
+    /**
+     * Builds a hotel with one-day price modifiers and prices a 30-night stay.
+     *
+     * @param modifiers the number of price modifiers in the hotel
+     * @return the operation to measure
+     */
+    private static Operation reservationTotalPrice(int modifiers) {
+        Hotel hotel = new Hotel("Benchmark");
+        hotel.addRoom("R1", 1299.0, "Deluxe");
+        for (int i = 0; i < modifiers; i++) {
+            int day = FIRST_DAY + i * 2;
+            hotel.addDatePriceModifier(new DatePriceModifier(day, day, 1.10));
+        }
+        Room room = hotel.getRooms().get(0);
+        Reservation reservation = new Reservation("Guest", FIRST_DAY + 10, FIRST_DAY + 40, room, hotel);
+        return i -> checksum += (long) reservation.getTotalPrice(); // Primitive sink, so the result is not boxed
+    }
+
+    /**
+     * Builds a hotel with one room of each type and one-day price modifiers, and quotes a batch
+     * of 1024 random stays in every room type.
+     *
+     * @param modifiers the number of price modifiers in the hotel
+     * @return the operation to measure, where one operation is a whole batch
+     */
+    private static Operation hotelQuote(int modifiers) {
+        Hotel hotel = new Hotel("Benchmark");
+        hotel.addRoom("S1", 1299.0, "Standard");
+        hotel.addRoom("D1", 1299.0, "Deluxe");
+        hotel.addRoom("E1", 1299.0, "Executive");
+        for (int i = 0; i < modifiers; i++) {
+            int day = FIRST_DAY + i * 2;
+            hotel.addDatePriceModifier(new DatePriceModifier(day, day, 1.10));
+        }
+        int[] checkInDays = randomDays(365);
+        int[] nights = new int[checkInDays.length];
+        for (int i = 0; i < nights.length; i++) {
+            nights[i] = 1 + (checkInDays[i] & 7); // One to eight nights
+        }
+        return i -> checksum += (long) hotel.quote(checkInDays, nights).getPrice(i & (checkInDays.length - 1), "Deluxe");
+    }
+
+    /**
+     * Builds a hotel with one-day price modifiers on every other day and looks up the modifier
+     * for random days, half of which have none.
+     *
+     * @param modifiers the number of price modifiers in the hotel
+     * @return the operation to measure
+     */
+    private static Operation hotelDatePriceModifier(int modifiers) {
+        Hotel hotel = new Hotel("Benchmark");
+        for (int i = 0; i < modifiers; i++) {
+            int day = FIRST_DAY + i * 2;
+            hotel.addDatePriceModifier(new DatePriceModifier(day, day, 1.10));
+        }
+        int[] days = randomDays(modifiers * 2);
+        return i -> checksum += hotel.getDatePriceModifier(days[i & (days.length - 1)]) != null ? 1 : 0;
+    }
+
+    /**
+     * Quotes a repeating set of 256 stays with a discount code, so nearly every lookup hits the cache.
+     *
+     * @return the operation to measure
+     */
+    private static Operation hotelCachedQuote() {
+        Hotel hotel = new Hotel("Benchmark");
+        hotel.addRoom("D1", 1299.0, "Deluxe");
+        int[] checkInDays = randomDays(365);
+        return i -> {
+            int checkIn = checkInDays[i & 255];
+            checksum += (long) hotel.getQuote("Deluxe", checkIn, checkIn + 5, "PAYDAY");
+        };
+    }
+
+    /**
+     * Applies a discount code to a five-night stay that covers a payday.
+     *
+     * @param code the discount code to apply
+     * @return the operation to measure
+     */
+    private static Operation reservationApplyDiscount(String code) {
+        Hotel hotel = new Hotel("Benchmark");
+        hotel.addRoom("R1", 1299.0, "Standard");
+        Room room = hotel.getRooms().get(0);
+        int checkIn = EpochDay.parse("2024-01-11");
+        Reservation reservation = new Reservation("Guest", checkIn, checkIn + 5, room, hotel);
+        reservation.setDiscountCode(code);
+        return i -> checksum += (long) reservation.applyDiscount(6495.0); // Primitive sink, so the result is not boxed
+    }
+
+    /**
+     * Builds a hotel whose rooms are booked in scattered three-night stays and chooses a room for random stays.
+     *
+     * @param strategy the assignment strategy of the hotel
+     * @return the operation to measure
+     */
+    private static Operation hotelSelectRoom(RoomAssignmentStrategy strategy) {
+        Hotel hotel = new Hotel("Benchmark");
+        for (int i = 0; i < 50; i++) {
+            hotel.addRoom("R" + i, 1299.0, Room.ROOM_TYPES[i % Room.ROOM_TYPES.length]);
+        }
+        List<Room> roomList = hotel.getRooms();
+        for (int i = 0; i < roomList.size(); i++) {
+            for (int day = i % 7; day < 365; day += 7) {
+                hotel.simulateBooking("Guest", FIRST_DAY + day, FIRST_DAY + day + 3, roomList.get(i), hotel);
+            }
+        }
+        hotel.setAssignmentStrategy(strategy);
+
+        int[] days = randomDays(360);
+        return i -> {
+            int checkIn = days[i & 1023];
+            sink = hotel.selectRoomForBooking(checkIn, checkIn + 1 + (i & 3));
+        };
+    }
+
+    /**
+     * Builds a 50-room hotel whose Executive rooms are booked three nights in every six for almost
+     * two years, and looks for the first five-night Executive stay, which only exists at the end.
+     * Probing asks for the free rooms of each day in turn, the way a guest's question was answered
+     * before the window search.
+     *
+     * @param probe whether to probe day by day instead of searching the gaps
+     * @return the operation to measure
+     */
+    private static Operation hotelFindEarliestWindows(boolean probe) {
+        Hotel hotel = new Hotel("Benchmark");
+        for (int i = 0; i < 50; i++) {
+            hotel.addRoom("R" + i, 1299.0, Room.ROOM_TYPES[i % Room.ROOM_TYPES.length]);
+        }
+        List<Room> roomList = hotel.getRooms();
+        for (int i = 0; i < roomList.size(); i++) {
+            for (int day = i % 6; day < 700; day += 6) {
+                hotel.simulateBooking("Guest", FIRST_DAY + day, FIRST_DAY + day + 3, roomList.get(i), hotel);
+            }
+        }
+        if (!probe) {
+            return i -> sink = hotel.findEarliestWindows("Executive", FIRST_DAY, 5, 1, Hotel.WINDOW_SEARCH_DAYS);
+        }
+        return i -> {
+            for (int day = FIRST_DAY; day + 5 <= FIRST_DAY + Hotel.WINDOW_SEARCH_DAYS; day++) {
+                boolean found = false;
+                for (String name : hotel.getAvailableRoomNames(day, day + 5)) {
+                    found |= hotel.getRoomInfo(name).getRoomType().equals("Executive");
+                }
+                if (found) {
+                    checksum += day;
+                    break;
+                }
+            }
+        };
+    }
+
+    /**
+     * Builds a hotel of 50 Deluxe rooms and books random stays by choosing a free room and booking it,
+     * cancelling the stay booked 256 operations earlier so the hotel stays equally full.
+     *
+     * @return the operation to measure, where one operation is a booking and a cancellation
+     */
+    private static Operation hotelBookSelected() {
+        Hotel hotel = new Hotel("Benchmark");
+        for (int i = 0; i < 50; i++) {
+            hotel.addRoom("R" + i, 1299.0, "Deluxe");
+        }
+        Reservation[] booked = new Reservation[256];
+        int[] days = randomDays(360);
+        return i -> {
+            Reservation earlier = booked[i & 255];
+            if (earlier != null) {
+                hotel.removeReservation(earlier);
+            }
+            int checkIn = days[i & 1023];
+            int checkOut = checkIn + 1 + (i & 3);
+            Room room = hotel.selectRoomForBooking(checkIn, checkOut); // Best-fit over every free room
+            booked[i & 255] = room == null ? null : hotel.bookRoom("Guest", checkIn, checkOut, room);
+        };
+    }
+
+    /**
+     * Builds a hotel of 50 Deluxe rooms and sells random stays by room type, cancelling the hold made
+     * 256 operations earlier so the hotel stays equally full.
+     *
+     * @return the operation to measure, where one operation is a hold and a cancellation
+     */
+    private static Operation hotelHoldRoomType() {
+        Hotel hotel = new Hotel("Benchmark");
+        for (int i = 0; i < 50; i++) {
+            hotel.addRoom("R" + i, 1299.0, "Deluxe");
+        }
+        RoomTypeHold[] held = new RoomTypeHold[256];
+        int[] days = randomDays(360);
+        return i -> {
+            RoomTypeHold earlier = held[i & 255];
+            if (earlier != null) {
+                hotel.cancelHold(earlier);
+            }
+            int checkIn = days[i & 1023];
+            held[i & 255] = hotel.holdRoomType("Guest", "Deluxe", checkIn, checkIn + 1 + (i & 3), null);
+        };
+    }
+
+    /**
+     * Compares how much of a season each assignment strategy manages to sell.
+     * The same requests, one to seven nights long and worth one and a half times the hotel's capacity,
+     * arrive in random order and are each booked into the room the strategy chooses, or turned
+     * away when no room is free for the whole stay.
+     *
+     * @param name the name of the benchmark
+     * @param rooms the number of rooms in the hotel
+     * @param season the number of days in the season
+     */
+    private static void sellThrough(String name, int rooms, int season) {
+        Random random = new Random(42);
+        List<int[]> requests = new ArrayList<>();
+        for (long nights = 0; nights < DEMAND * rooms * season; ) {
+            int checkIn = FIRST_DAY + random.nextInt(season);
+            int checkOut = Math.min(checkIn + 1 + random.nextInt(7), FIRST_DAY + season);
+            requests.add(new int[] {checkIn, checkOut});
+            nights += checkOut - checkIn;
+        }
+
+        REPORT.println();
+        REPORT.printf("%-45s %10s %10s %12s %12s%n", name,
+                "booked", "rejected", "room-nights", "sold");
+        for (int s = 0; s < STRATEGIES.length; s++) {
+            Hotel hotel = new Hotel("Benchmark");
+            for (int i = 0; i < rooms; i++) {
+                hotel.addRoom("R" + i, 1299.0, Room.ROOM_TYPES[i % Room.ROOM_TYPES.length]);
+            }
+            hotel.setAssignmentStrategy(STRATEGIES[s]);
+
+            int booked = 0;
+            long soldNights = 0;
+            for (int[] request : requests) {
+                Room room = hotel.selectRoomForBooking(request[0], request[1]);
+                if (room != null && hotel.bookRoom("Guest", request[0], request[1], room) != null) {
+                    booked++;
+                    soldNights += request[1] - request[0];
+                }
+            }
+            REPORT.printf("%-45s %10d %10d %12d %11.1f%%%n", "strategy=" + STRATEGY_NAMES[s], booked,
+                    requests.size() - booked, soldNights, 100.0 * soldNights / ((long) rooms * season));
+        }
+    }
+
+    /**
+     * Measures booking throughput with several threads booking random one-night stays in one hotel.
+     *
+     * @param name the name of the benchmark
+     * @param threads the number of booking threads
+     */
+    private static void contendedBooking(String name, int threads) throws InterruptedException {
+        contendedBookingRound(threads, WARMUP_NANOS); // Warm up on a throwaway hotel
+        long[] result = contendedBookingRound(threads, MEASURE_NANOS);
+        report(name, result[0], MEASURE_NANOS, result[1]);
+    }
+
+    /**
+     * Runs one timed round of contended bookings against a fresh hotel.
+     *
+     * @param threads the number of booking threads
+     * @param nanos how long the round lasts
+     * @return the number of booking attempts and the bytes allocated by the booking threads
+     */
+    private static long[] contendedBookingRound(int threads, long nanos) throws InterruptedException {
+        Hotel hotel = new Hotel("Benchmark");
+        for (int i = 0; i < 50; i++) {
+            hotel.addRoom("R" + i, 1299.0, "Standard");
+        }
+        List<Room> rooms = hotel.getRooms();
+
+        AtomicLong attempts = new AtomicLong();
+        AtomicLong allocated = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            Thread worker = new Thread(() -> {
+                Random random = new Random(seed);
+                long before = THREADS.getCurrentThreadAllocatedBytes();
+                long count = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return; // Stop if interrupted before the round starts
+                }
+                long deadline = System.nanoTime() + nanos;
+                while (System.nanoTime() < deadline) {
+                    for (int i = 0; i < BATCH; i++) {
+                        Room room = rooms.get(random.nextInt(rooms.size()));
+                        int checkIn = FIRST_DAY + random.nextInt(3650);
+                        sink = hotel.simulateBooking("Guest", checkIn, checkIn + 1, room, hotel);
+                    }
+                    count += BATCH;
+                }
+                attempts.addAndGet(count);
+                allocated.addAndGet(THREADS.getCurrentThreadAllocatedBytes() - before);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        start.countDown(); // Release all threads at once
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return new long[] {attempts.get(), allocated.get()};
+    }
+
+    /**
+     * Warms up and measures a single-threaded operation if its name matches the filter.
+     *
+     * @param filter the name filter
+     * @param name the name of the benchmark
+     * @param operation the operation to measure
+     */
+    private static void run(String filter, String name, Operation operation) {
+        if (!name.contains(filter)) {
+            return; // Skip benchmarks that were not asked for
+        }
+        loop(operation, WARMUP_NANOS); // Let the JIT compile the hot path first
+
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long ops = loop(operation, MEASURE_NANOS);
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        report(name, ops, elapsed, allocated);
+    }
+
+    /**
+     * Runs an operation in batches until the given time has passed.
+     *
+     * @param operation the operation to run
+     * @param nanos how long to keep running
+     * @return the number of operations run
+     */
+    private static long loop(Operation operation, long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long ops = 0;
+        int i = 0;
+        while (System.nanoTime() < deadline) {
+            for (int j = 0; j < BATCH; j++) {
+                operation.run(i++);
+            }
+            ops += BATCH;
+        }
+        return ops;
+    }
+
+    /**
+     * Prints one result line.
+     *
+     * @param name the name of the benchmark
+     * @param ops the number of operations run
+     * @param nanos the time taken
+     * @param allocatedBytes the bytes allocated while running
+     */
+    private static void report(String name, long ops, long nanos, long allocatedBytes) {
+        double seconds = nanos / 1e9;
+        REPORT.printf("%-45s %15.0f %15.1f %12.1f%n", name, ops / seconds,
+                (double) allocatedBytes / ops, allocatedBytes / seconds / (1024 * 1024));
+    }
+
+    /**
+     * Generates a power-of-two sized array of random days after the first benchmark day.
+     *
+     * @param range the number of days to draw from
+     * @return the random days
+     */
+    private static int[] randomDays(int range) {
+        Random random = new Random(42);
+        int[] days = new int[1024];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = FIRST_DAY + random.nextInt(Math.max(1, range));
+        }
+        return days;
+    }
+}
@@ -0,0 +1,235 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A bounded least-recently-used cache of stay quotes for one hotel.
+ * Entries are keyed by room type, stay and discount code. When a price input changes, the hotel
+ * drops exactly the entries it affects: the stays overlapping a changed modifier's days, or the
+ * quotes of a room type whose room prices changed.
+ * Every invalidation bumps a stamp, and a quote computed under an older stamp is not stored,
+ * so a quote worked out while a price was changing never outlives the change.
+ */
+public class QuoteCache {
+    private final int capacity; // Largest number of entries kept
+    private final LinkedHashMap<Key, Double> entries; // Entries in least-recently-used order
+    private long stamp; // Number of invalidations so far
+    private long hits; // Lookups answered from the cache
+    private long misses; // Lookups that had to be computed
+    private long evictions; // Entries dropped to stay within the capacity
+    private long invalidations; // Entries dropped because a price changed
+
+    /**
+     * The room type, stay and discount code a quote is for.
+     */
+    private static final class Key {
+        final int roomType; // Position of the room type in Room.ROOM_TYPES
+        final int checkInDay; // Check-in epoch day
+        final int checkOutDay; // Check-out epoch day
+        final String discountCode; // Discount code, or null for none
+
+        /**
+         * Constructs a key.
+         *
+         * @param roomType the position of the room type
+         * @param checkInDay the check-in epoch day
+         * @param checkOutDay the check-out epoch day
+         * @param discountCode the discount code, or null for none
+         */
+        Key(int roomType, int checkInDay, int checkOutDay, String discountCode) {
+            this.roomType = roomType;
+            this.checkInDay = checkInDay;
+            this.checkOutDay = checkOutDay;
+            this.discountCode = discountCode;
+        }
+
+        /**
+         * Checks if another key is for the same quote.
+         *
+         * @param other the object to compare with
+         * @return true if the keys are equal, false otherwise
+         */
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return roomType == key.roomType && checkInDay == key.checkInDay && checkOutDay == key.checkOutDay
+                    && Objects.equals(discountCode, key.discountCode);
+        }
+
+        /**
+         * Gets the hash code of the key.
+         *
+         * @return the hash code
+         */
+        @Override
+        public int hashCode() {
+            int hash = roomType;
+            hash = 31 * hash + checkInDay;
+            hash = 31 * hash + checkOutDay;
+            return 31 * hash + Objects.hashCode(discountCode);
+        }
+    }
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param capacity the largest number of entries kept
+     */
+    public QuoteCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) { // Access order gives least-recently-used eviction
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+                if (size() > QuoteCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the current invalidation stamp, to be passed back to put with the computed quote.
+     *
+     * @return the stamp
+     */
+    public synchronized long getStamp() {
+        return stamp;
+    }
+
+    /**
+     * Looks up a quote.
+     *
+     * @param roomType the position of the room type in Room.ROOM_TYPES
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param discountCode the discount code, or null for none
+     * @return the cached quote, or NaN if it is not cached
+     */
+    public synchronized double get(int roomType, int checkInDay, int checkOutDay, String discountCode) {
+        Double price = entries.get(new Key(roomType, checkInDay, checkOutDay, discountCode));
+        if (price == null) {
+            misses++;
+            return Double.NaN;
+        }
+        hits++;
+        return price;
+    }
+
+    /**
+     * Stores a quote unless a price changed since the stamp was taken.
+     *
+     * @param roomType the position of the room type in Room.ROOM_TYPES
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param discountCode the discount code, or null for none
+     * @param quoteStamp the stamp taken before the quote was computed
+     * @param price the computed quote
+     */
+    public synchronized void put(int roomType, int checkInDay, int checkOutDay, String discountCode, long quoteStamp, double price) {
+        if (quoteStamp == stamp && !Double.isNaN(price)) {
+            entries.put(new Key(roomType, checkInDay, checkOutDay, discountCode), price);
+        }
+    }
+
+    /**
+     * Drops the quotes of every stay with a night between two days.
+     *
+     * @param firstDay the first changed epoch day
+     * @param lastDay the last changed epoch day, inclusive
+     */
+    public synchronized void invalidateNights(int firstDay, int lastDay) {
+        stamp++;
+        for (Iterator<Key> keys = entries.keySet().iterator(); keys.hasNext(); ) {
+            Key key = keys.next();
+            if (key.checkInDay <= lastDay && key.checkOutDay > firstDay) { // The stay has a night in the range
+                keys.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Drops the quotes of one room type.
+     *
+     * @param roomType the position of the room type in Room.ROOM_TYPES
+     */
+    public synchronized void invalidateRoomType(int roomType) {
+        stamp++;
+        for (Iterator<Key> keys = entries.keySet().iterator(); keys.hasNext(); ) {
+            if (keys.next().roomType == roomType) {
+                keys.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Drops every quote.
+     */
+    public synchronized void invalidateAll() {
+        stamp++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of cached quotes.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     *
+     * @return the hit count
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to be computed.
+     *
+     * @return the miss count
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the share of lookups answered from the cache.
+     *
+     * @return the hit rate, from 0 to 1
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Gets the number of entries dropped to stay within the capacity.
+     *
+     * @return the eviction count
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the number of entries dropped because a price changed.
+     *
+     * @return the invalidation count
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A dense calendar of nightly price modifiers indexed by epoch day.
+ * Alongside the modifiers it keeps prefix sums, so the combined modifier of any stay
+ * is read with two array lookups instead of checking each night against every modifier.
+ * A calendar never changes once built, so it can be shared between threads without locking.
+ */
+public class RateCalendar {
+    private final int firstDay; // Epoch day stored at index 0 of the arrays
+    private final double[] modifiers; // Modifier for each day from the first day onwards
+    private final double[] prefixExtra; // prefixExtra[i] is the sum of (modifier - 1.0) for the first i days
+
+    /**
+     * Constructs a rate calendar in which every night has a modifier of 1.0.
+     */
+    public RateCalendar() {
+        this.firstDay = 0;
+        this.modifiers = new double[0];
+        this.prefixExtra = new double[1];
+    }
+
+    /**
+     * Constructs a rate calendar from a list of date price modifiers.
+     * Hotels no longer accept overlapping modifiers, but if the list has any, the one that appears first wins.
+     *
+     * @param datePriceModifiers the modifiers to build the calendar from
+     */
+    public RateCalendar(List<DatePriceModifier> datePriceModifiers) {
+        if (datePriceModifiers.isEmpty()) {
+            this.firstDay = 0;
+            this.modifiers = new double[0];
+            this.prefixExtra = new double[1];
+            return; // No modifiers means every night is at the base price
+        }
+
+        // Find the range of days covered by any modifier
+        int start = Integer.MAX_VALUE;
+        int end = Integer.MIN_VALUE;
+        for (DatePriceModifier modifier : datePriceModifiers) {
+            start = Math.min(start, modifier.getStartDay());
+            end = Math.max(end, modifier.getEndDay());
+        }
+
+        double[] days = new double[Math.max(0, end - start + 1)];
+        Arrays.fill(days, 1.0); // Days without a modifier keep the base price
+
+        // Apply modifiers from last to first so earlier modifiers overwrite later ones
+        for (int i = datePriceModifiers.size() - 1; i >= 0; i--) {
+            DatePriceModifier modifier = datePriceModifiers.get(i);
+            int from = modifier.getStartDay() - start;
+            int to = modifier.getEndDay() - start; // End date is inclusive
+            for (int day = from; day <= to; day++) {
+                days[day] = modifier.getModifier();
+            }
+        }
+
+        double[] prefix = new double[days.length + 1];
+        for (int i = 0; i < days.length; i++) {
+            prefix[i + 1] = prefix[i] + (days[i] - 1.0);
+        }
+
+        this.firstDay = start;
+        this.modifiers = days;
+        this.prefixExtra = prefix;
+    }
+
+    /**
+     * Gets the modifier for a single night.
+     *
+     * @param day the epoch day of the night
+     * @return the modifier for the night, or 1.0 if no modifier applies
+     */
+    public double modifierOn(int day) {
+        int index = day - firstDay;
+        return index >= 0 && index < modifiers.length ? modifiers[index] : 1.0;
+    }
+
+    /**
+     * Gets the sum of the modifiers for every night of a stay.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day, which is not charged
+     * @return the sum of the nightly modifiers
+     */
+    public double sumModifiers(int checkInDay, int checkOutDay) {
+        if (checkOutDay <= checkInDay) {
+            return 0.0; // A stay without nights costs nothing
+        }
+        // Only the part of the stay inside the calendar differs from 1.0 per night
+        int from = clamp(checkInDay - firstDay);
+        int to = clamp(checkOutDay - firstDay);
+        return (checkOutDay - checkInDay) + (prefixExtra[to] - prefixExtra[from]);
+    }
+
+    /**
+     * Clamps an offset from the first day into the range of the prefix sums.
+     *
+     * @param offset the offset to clamp
+     * @return the offset limited to 0..number of days
+     */
+    private int clamp(int offset) {
+        return Math.max(0, Math.min(modifiers.length, offset));
+    }
+}
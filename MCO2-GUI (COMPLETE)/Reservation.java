@@ -1,23 +1,23 @@
 import java.util.Date;
-import java.util.Calendar;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
  * Represents a reservation in a hotel.
+ * The fields of a reservation live in an off-heap ReservationStore row, so the object itself is
+ * a lightweight view holding only the row and its room and hotel. When the hotel drops the
+ * reservation its fields are copied onto the heap and the row is given back to the store, so a
+ * cancelled reservation can still be read while its row goes to a later booking. Reads take no
+ * lock, so a thread reading a reservation while another thread cancels it must order the two itself.
  */
 public class Reservation {
-    private static int nextId = 1; // Static variable to generate unique reservation IDs
-
-    private int id; // Unique identifier for the reservation
-    private String guestName; // Name of the guest making the reservation
-    private Date checkInDate; // Check-in date for the reservation
-    private Date checkOutDate; // Check-out date for the reservation
-    private Room room; // Room associated with the reservation
-    private String discountCode; // Discount code applied to the reservation
-    private Hotel hotel; // Hotel where the reservation is made
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(1); // Generates unique reservation IDs across threads
+    private static final ReservationStore STORE = new ReservationStore(); // Off-heap columns holding every reservation's fields
 
-    private double finalPrice; // To store the final price
+    private final int row; // Row holding this reservation's fields in the store until it is released
+    private volatile Released released; // Fields copied off the store once the row was released, or null
+    private volatile Room room; // Room associated with the reservation
+    private Hotel hotel; // Hotel where the reservation is made
 
     /**
      * Constructs a new reservation with the specified details.
@@ -28,11 +28,7 @@ public class Reservation {
      * @param room the room for the reservation
      */
     public Reservation(String guestName, Date checkInDate, Date checkOutDate, Room room) {
-        this.id = nextId++; // Assign a unique ID and increment the counter
-        this.guestName = guestName; // Set the guest name
-        this.checkInDate = checkInDate; // Set the check-in date
-        this.checkOutDate = checkOutDate; // Set the check-out date
-        this.room = room; // Set the room for the reservation
+        this(guestName, EpochDay.of(checkInDate), EpochDay.of(checkOutDate), room, null); // Convert the dates to epoch days
     }
 
     /**
@@ -45,14 +41,68 @@ public class Reservation {
      * @param hotel the hotel where the reservation is made
      */
     public Reservation(String guestName, Date checkInDate, Date checkOutDate, Room room, Hotel hotel) {
-        this.id = nextId++; // Assign a unique ID and increment the counter
-        this.guestName = guestName; // Set the guest name
-        this.checkInDate = checkInDate; // Set the check-in date
-        this.checkOutDate = checkOutDate; // Set the check-out date
+        this(guestName, EpochDay.of(checkInDate), EpochDay.of(checkOutDate), room, hotel); // Convert the dates to epoch days
+    }
+
+    /**
+     * Constructs a new reservation from check-in and check-out epoch days.
+     *
+     * @param guestName the name of the guest
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param room the room for the reservation
+     * @param hotel the hotel where the reservation is made
+     */
+    public Reservation(String guestName, int checkInDay, int checkOutDay, Room room, Hotel hotel) {
+        this(NEXT_ID.getAndIncrement(), guestName, checkInDay, checkOutDay, room, hotel); // Assign a unique ID and increment the counter
+    }
+
+    /**
+     * Constructs a reservation with a known ID, such as one restored from the booking journal.
+     * Reservations created afterwards get IDs above this one.
+     *
+     * @param id the ID of the reservation
+     * @param guestName the name of the guest
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param room the room for the reservation
+     * @param hotel the hotel where the reservation is made
+     */
+    public Reservation(int id, String guestName, int checkInDay, int checkOutDay, Room room, Hotel hotel) {
+        reserveId(id); // Never hand out this ID again
+        this.row = STORE.add(id, guestName, checkInDay, checkOutDay); // Store the fields off the heap
         this.room = room; // Set the room for the reservation
         this.hotel = hotel; // Initialize hotel information
     }
 
+    /**
+     * Makes sure an ID that already belongs to a saved reservation is never handed out again.
+     *
+     * @param id the ID in use
+     */
+    public static void reserveId(int id) {
+        NEXT_ID.accumulateAndGet(id + 1, Math::max); // Later IDs start above the given one
+    }
+
+    /**
+     * Hands out a new reservation ID without creating a reservation, for a booking whose room is
+     * chosen later and whose reservation is then created with this ID.
+     *
+     * @return the new ID
+     */
+    static int nextId() {
+        return NEXT_ID.getAndIncrement();
+    }
+
+    /**
+     * Gets the store holding the fields of every reservation.
+     *
+     * @return the reservation store
+     */
+    public static ReservationStore getStore() {
+        return STORE;
+    }
+
     /**
      * Constructs a new reservation with the specified details but without specifying a room.
      *
@@ -72,8 +122,19 @@ public class Reservation {
      * @return true if the reservation overlaps with the specified dates, false otherwise
      */
     public boolean overlaps(Date checkInDate, Date checkOutDate) {
-        // Check if the reservation period overlaps with the given dates
-        return (this.checkInDate.before(checkOutDate) && this.checkOutDate.after(checkInDate));
+        return overlaps(EpochDay.of(checkInDate), EpochDay.of(checkOutDate));
+    }
+
+    /**
+     * Checks if the reservation overlaps with the specified check-in and check-out epoch days.
+     *
+     * @param checkInDay the check-in epoch day to check
+     * @param checkOutDay the check-out epoch day to check
+     * @return true if the reservation overlaps with the specified days, false otherwise
+     */
+    public boolean overlaps(int checkInDay, int checkOutDay) {
+        // Check if the reservation period overlaps with the given days
+        return getCheckInDay() < checkOutDay && getCheckOutDay() > checkInDay;
     }
 
     /**
@@ -82,7 +143,8 @@ public class Reservation {
      * @return the ID of the reservation
      */
     public int getId() {
-        return id; // Return the unique ID of the reservation
+        Released copy = released;
+        return copy != null ? copy.id : STORE.getId(row); // Read the unique ID of the reservation
     }
 
     /**
@@ -91,7 +153,8 @@ public class Reservation {
      * @return the name of the guest
      */
     public String getGuestName() {
-        return guestName; // Return the guest's name
+        Released copy = released;
+        return copy != null ? copy.guestName : STORE.getGuestName(row); // Read the guest's name
     }
 
     /**
@@ -100,7 +163,17 @@ public class Reservation {
      * @return the check-in date
      */
     public Date getCheckInDate() {
-        return checkInDate; // Return the check-in date
+        return EpochDay.toDate(getCheckInDay()); // Return the check-in date
+    }
+
+    /**
+     * Gets the check-in epoch day of the reservation.
+     *
+     * @return the check-in epoch day
+     */
+    public int getCheckInDay() {
+        Released copy = released;
+        return copy != null ? copy.checkInDay : STORE.getCheckInDay(row); // Read the check-in day
     }
 
     /**
@@ -109,7 +182,26 @@ public class Reservation {
      * @return the check-out date
      */
     public Date getCheckOutDate() {
-        return checkOutDate; // Return the check-out date
+        return EpochDay.toDate(getCheckOutDay()); // Return the check-out date
+    }
+
+    /**
+     * Gets the check-out epoch day of the reservation.
+     *
+     * @return the check-out epoch day
+     */
+    public int getCheckOutDay() {
+        Released copy = released;
+        return copy != null ? copy.checkOutDay : STORE.getCheckOutDay(row); // Read the check-out day
+    }
+
+    /**
+     * Gets the number of nights of the stay.
+     *
+     * @return the number of nights between check-in and check-out
+     */
+    public int getNights() {
+        return getCheckOutDay() - getCheckInDay(); // Whole days, unaffected by daylight saving changes
     }
 
     /**
@@ -136,22 +228,9 @@ public class Reservation {
      * @return the total price for the reservation
      */
     public double getTotalPrice() {
-        double totalPrice = 0.0; // Initialize total price
-        long duration = checkOutDate.getTime() - checkInDate.getTime(); // Calculate the duration in milliseconds
-        int nights = (int) (duration / (1000 * 60 * 60 * 24)); // Convert duration to number of nights
-
-        Calendar calendar = Calendar.getInstance(); // Create a calendar instance
-        calendar.setTime(checkInDate); // Set the calendar to the check-in date
-
-        // Iterate over each night of the stay
-        for (int i = 0; i < nights; i++) {
-            Date currentDate = calendar.getTime(); // Get the current date
-            double modifier = hotel.getModifierForDate(currentDate); // Get price modifier for the current date
-            totalPrice += room.getBasePrice() * modifier; // Add to total price
-            calendar.add(Calendar.DATE, 1); // Move to the next date
-        }
-
-        return totalPrice; // Return the total price before discount
+        // Every night costs the base price times that night's modifier, so sum the modifiers once
+        double modifierSum = hotel.getModifierSum(getCheckInDay(), getCheckOutDay());
+        return room.getBasePrice() * modifierSum; // Return the total price before discount
     }
 
     /**
@@ -160,7 +239,26 @@ public class Reservation {
     * @param finalPrice the final price to set
     */
     public void setFinalPrice(double finalPrice) {
-        this.finalPrice = finalPrice; // Set the final price after applying discounts
+        if (hotel != null) {
+            hotel.updateFinalPrice(this, finalPrice); // The hotel stores the price and moves its earnings to match
+        } else {
+            storeFinalPrice(finalPrice); // Set the final price after applying discounts
+        }
+    }
+
+    /**
+     * Stores the final price without telling the hotel, for a reservation it does not hold yet
+     * or while the hotel itself is recording the change.
+     *
+     * @param finalPrice the final price to store
+     */
+    synchronized void storeFinalPrice(double finalPrice) {
+        Released copy = released;
+        if (copy != null) {
+            copy.finalPrice = finalPrice; // The row belongs to another reservation now
+        } else {
+            STORE.setFinalPrice(row, finalPrice);
+        }
     }
 
     /**
@@ -169,7 +267,8 @@ public class Reservation {
     * @return the final price
     */
     public double getFinalPrice() {
-        return finalPrice; // Get the final price
+        Released copy = released;
+        return copy != null ? copy.finalPrice : STORE.getFinalPrice(row); // Read the final price
     }
 
     /**
@@ -178,13 +277,10 @@ public class Reservation {
      * @return the details of the reservation
      */
     public String getDetails() {
-        long durationOfStay = checkOutDate.getTime() - checkInDate.getTime(); // Calculate the duration in milliseconds
-        int nights = (int) (durationOfStay / (1000 * 60 * 60 * 24)); // Convert duration to number of nights
-
         // Return formatted reservation details
-        return "Reservation ID: " + id + "\nGuest Name: " + guestName + 
-               "\nCheck-in Date: " + checkInDate + "\nCheck-out Date: " + checkOutDate + 
-               "\nNumber of nights: " + nights + "\nRoom Name: " + room.getName() + 
+        return "Reservation ID: " + getId() + "\nGuest Name: " + getGuestName() + 
+               "\nCheck-in Date: " + getCheckInDate() + "\nCheck-out Date: " + getCheckOutDate() + 
+               "\nNumber of nights: " + getNights() + "\nRoom Name: " + room.getName() + 
                "\nRoom Type: " + room.getRoomType() + "\nDiscount code applied: " + getDiscountCode() + 
                "\nRoom Price: PHP " + room.getBasePrice() + "\nTotal Price: PHP " + getFinalPrice();
     }
@@ -197,8 +293,18 @@ public class Reservation {
      * @return true if the reservation conflicts with the specified date, false otherwise
      */
     public boolean conflictsWith(Date date) {
-        // Check if the date falls within the reservation period
-        return !date.before(checkInDate) && !date.after(checkOutDate);
+        return conflictsWith(EpochDay.of(date));
+    }
+
+    /**
+     * Checks if the reservation conflicts with the specified epoch day.
+     *
+     * @param day the epoch day to check
+     * @return true if the day falls within the reservation period, including the check-out day
+     */
+    public boolean conflictsWith(int day) {
+        // Check if the day falls within the reservation period
+        return day >= getCheckInDay() && day <= getCheckOutDay();
     }
 
     /**
@@ -207,7 +313,33 @@ public class Reservation {
      * @param discountCode the discount code to set
      */
     public void setDiscountCode(String discountCode) {
-        this.discountCode = discountCode; // Update the discount code
+        storeDiscountCode(discountCode); // Update the discount code
+        if (hotel != null) {
+            hotel.reservationUpdated(this); // Let the hotel record the new discount code
+        }
+    }
+
+    /**
+     * Stores the discount code without telling the hotel, for a reservation it does not hold yet.
+     *
+     * @param discountCode the discount code to store
+     */
+    synchronized void storeDiscountCode(String discountCode) {
+        Released copy = released;
+        if (copy != null) {
+            copy.discountCode = discountCode; // The row belongs to another reservation now
+        } else {
+            STORE.setDiscountCode(row, discountCode);
+        }
+    }
+
+    /**
+     * Checks if a discount code has been set for the reservation.
+     *
+     * @return true if a discount code is set, false otherwise
+     */
+    public boolean hasDiscountCode() {
+        return discountCode() != null;
     }
 
     /**
@@ -217,71 +349,76 @@ public class Reservation {
      */
     public String getDiscountCode() {
         // Return the discount code or "N/A" if not set
+        String discountCode = discountCode();
         return discountCode != null ? discountCode : "N/A";
     }
 
     /**
      * Applies the discount based on the discount code to the given total price.
+     * The code is looked up in the discount rules loaded from discounts.properties.
      *
      * @param totalPrice the initial total price
-     * @return the discounted total price
+     * @return the discounted total price, or the initial price if the code is unknown or the stay does not qualify
      */
     public double applyDiscount(double totalPrice) {
-        // Check if a discount code is set
-        if (discountCode == null) {
+        DiscountRule rule = DiscountRules.getDefault().get(discountCode());
+        if (rule == null) {
             return totalPrice; // No discount applied
         }
+        return rule.apply(totalPrice, getCheckInDay(), getCheckOutDay(), room.getBasePrice());
+    }
 
-        // Apply discount based on the provided discount code
-        switch (discountCode) {
-            case "I_WORK_HERE":
-                totalPrice *= 0.90; // Apply a flat 10% discount
-                System.out.println("Discount code applied!"); // Notify the user
-                break;
-
-            case "STAY4_GET1":
-                long durationOfStay = checkOutDate.getTime() - checkInDate.getTime(); // Calculate stay duration
-                int nights = (int) (durationOfStay / (1000 * 60 * 60 * 24)); // Convert duration to number of nights
-                if (nights >= 5) {
-                    totalPrice -= room.getBasePrice(); // Apply discount for 5 nights or more
-                    System.out.println("Discount code applied!"); // Notify the user
-                } else {
-                    System.out.println("Your stay does not exceed or reach 5 nights."); // Notify the user
-                }
-                break;
-
-            case "PAYDAY":
-                Calendar checkIn = Calendar.getInstance(); // Create a calendar instance for check-in
-                checkIn.setTime(checkInDate); // Set to check-in date
-                Calendar checkOut = Calendar.getInstance(); // Create a calendar instance for check-out
-                checkOut.setTime(checkOutDate); // Set to check-out date
-
-                boolean itCoversPayDay = false; // Flag to check for payday
-                // Iterate over each day of the stay period
-                while (checkIn.before(checkOut)) {
-                    int day = checkIn.get(Calendar.DAY_OF_MONTH); // Get the current day of the month
-                    // Check if the current day is a payday (15th or 30th)
-                    if (day == 15 || day == 30) {
-                        itCoversPayDay = true; // Set flag to true if payday is covered
-                        break; // Exit the loop if a payday is found
-                    }
-                    checkIn.add(Calendar.DAY_OF_MONTH, 1); // Move to the next day
-                }
-
-                // Apply a 7% discount on payday if covered
-                if (itCoversPayDay) {
-                    totalPrice *= 0.93; // Apply a 7% discount
-                    System.out.println("Discount code applied!"); // Notify the user
-                } else {
-                    System.out.println("Your check-in date does not land on any payday."); // Notify the user
-                }
-                break;
-
-            default:
-                System.out.println("Invalid discount code."); // Notify if discount code is invalid
-                break;
+    /**
+     * Gets the discount code from the row, or from the heap copy once the row was released.
+     *
+     * @return the discount code, or null if none is set
+     */
+    private String discountCode() {
+        Released copy = released;
+        return copy != null ? copy.discountCode : STORE.getDiscountCode(row);
+    }
+
+    /**
+     * Gives the row back to the store once the hotel no longer holds the reservation, keeping a
+     * copy of the fields on the heap for anyone still reading the reservation.
+     * Called by the hotel with its lock held; releasing twice does nothing.
+     */
+    synchronized void release() {
+        if (released == null) {
+            released = new Released(STORE.getId(row), STORE.getGuestName(row), STORE.getCheckInDay(row),
+                    STORE.getCheckOutDay(row), STORE.getDiscountCode(row), STORE.getFinalPrice(row));
+            STORE.release(row); // After the copy is published, so later reads find the copy
         }
+    }
 
-        return totalPrice; // Return the final discounted price
+    /**
+     * The fields of a reservation whose row went back to the store.
+     */
+    private static final class Released {
+        private final int id; // Reservation ID
+        private final String guestName; // Name of the guest
+        private final int checkInDay; // Check-in epoch day
+        private final int checkOutDay; // Check-out epoch day
+        private volatile String discountCode; // Discount code, or null
+        private volatile double finalPrice; // Final price
+
+        /**
+         * Constructs the copied fields.
+         *
+         * @param id the reservation ID
+         * @param guestName the name of the guest
+         * @param checkInDay the check-in epoch day
+         * @param checkOutDay the check-out epoch day
+         * @param discountCode the discount code, or null
+         * @param finalPrice the final price
+         */
+        private Released(int id, String guestName, int checkInDay, int checkOutDay, String discountCode, double finalPrice) {
+            this.id = id;
+            this.guestName = guestName;
+            this.checkInDay = checkInDay;
+            this.checkOutDay = checkOutDay;
+            this.discountCode = discountCode;
+            this.finalPrice = finalPrice;
+        }
     }
 }
@@ -0,0 +1,340 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A sorted interval index over the reservations of a single room.
+ * Reservations are kept ordered by check-in epoch day together with a running maximum
+ * of check-out days, so overlap checks are answered with a binary search.
+ * A stay restored from a snapshot can be indexed before its Reservation object exists; such
+ * placeholder entries take part in every query and are swapped for real reservations later.
+ */
+public class ReservationIndex {
+    private static final int INITIAL_CAPACITY = 8; // Starting size of the backing arrays
+
+    private Reservation[] reservations; // Reservations ordered by check-in day
+    private int[] checkInDays; // Check-in epoch day of each reservation
+    private int[] checkOutDays; // Check-out epoch day of each reservation
+    private int[] maxCheckOutDays; // Latest check-out day among reservations 0..i
+    private int size; // Number of reservations in the index
+
+    /**
+     * Constructs an empty reservation index.
+     */
+    public ReservationIndex() {
+        this.reservations = new Reservation[INITIAL_CAPACITY];
+        this.checkInDays = new int[INITIAL_CAPACITY];
+        this.checkOutDays = new int[INITIAL_CAPACITY];
+        this.maxCheckOutDays = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds a reservation to the index.
+     *
+     * @param reservation the reservation to add
+     */
+    public void add(Reservation reservation) {
+        insert(reservation, reservation.getCheckInDay(), reservation.getCheckOutDay());
+    }
+
+    /**
+     * Adds a stay whose reservation has not been created yet.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     */
+    public void addPlaceholder(int checkInDay, int checkOutDay) {
+        insert(null, checkInDay, checkOutDay);
+    }
+
+    /**
+     * Removes every placeholder stay from the index.
+     */
+    public void removePlaceholders() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (reservations[i] != null) { // Keep real reservations in their order
+                reservations[kept] = reservations[i];
+                checkInDays[kept] = checkInDays[i];
+                checkOutDays[kept] = checkOutDays[i];
+                kept++;
+            }
+        }
+        Arrays.fill(reservations, kept, size, null); // Let dropped entries be garbage collected
+        size = kept;
+        refreshMaxCheckOut(0);
+    }
+
+    /**
+     * Inserts a stay in check-in order.
+     *
+     * @param reservation the reservation, or null for a placeholder
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     */
+    private void insert(Reservation reservation, int checkInDay, int checkOutDay) {
+        ensureCapacity(size + 1); // Make room for one more entry
+        int position = upperBound(checkInDay); // Insert after any reservation with the same check-in day
+
+        // Shift the tail one slot to the right to open a gap at the insert position
+        System.arraycopy(reservations, position, reservations, position + 1, size - position);
+        System.arraycopy(checkInDays, position, checkInDays, position + 1, size - position);
+        System.arraycopy(checkOutDays, position, checkOutDays, position + 1, size - position);
+
+        reservations[position] = reservation;
+        checkInDays[position] = checkInDay;
+        checkOutDays[position] = checkOutDay;
+        size++;
+
+        refreshMaxCheckOut(position); // Running maximum changes from the insert position onwards
+    }
+
+    /**
+     * Removes a reservation from the index.
+     *
+     * @param reservation the reservation to remove
+     * @return true if the reservation was found and removed, false otherwise
+     */
+    public boolean remove(Reservation reservation) {
+        int position = indexOf(reservation);
+        if (position < 0) {
+            return false; // Reservation is not in this index
+        }
+
+        // Close the gap left by the removed entry
+        System.arraycopy(reservations, position + 1, reservations, position, size - position - 1);
+        System.arraycopy(checkInDays, position + 1, checkInDays, position, size - position - 1);
+        System.arraycopy(checkOutDays, position + 1, checkOutDays, position, size - position - 1);
+        size--;
+        reservations[size] = null; // Let the removed reservation be garbage collected
+
+        refreshMaxCheckOut(position); // Running maximum changes from the removed position onwards
+        return true;
+    }
+
+    /**
+     * Checks if any reservation overlaps the stay from the check-in day up to, but not including, the check-out day.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return true if an overlapping reservation exists, false otherwise
+     */
+    public boolean overlaps(int checkInDay, int checkOutDay) {
+        int last = lowerBound(checkOutDay) - 1; // Last reservation that starts before the stay ends
+        return last >= 0 && maxCheckOutDays[last] > checkInDay;
+    }
+
+    /**
+     * Checks if any reservation covers the given day, counting both the check-in and check-out days.
+     *
+     * @param day the epoch day to check
+     * @return true if a reservation covers the day, false otherwise
+     */
+    public boolean covers(int day) {
+        int last = upperBound(day) - 1; // Last reservation that starts on or before the day
+        return last >= 0 && maxCheckOutDays[last] >= day;
+    }
+
+    /**
+     * Gets the latest check-out day among the reservations that start before the given day.
+     *
+     * @param day the epoch day to search before
+     * @return the latest check-out day, or Integer.MIN_VALUE if no reservation starts before the day
+     */
+    public int previousCheckOut(int day) {
+        int last = lowerBound(day) - 1; // Last reservation that starts before the day
+        return last >= 0 ? maxCheckOutDays[last] : Integer.MIN_VALUE;
+    }
+
+    /**
+     * Gets the earliest check-in day among the reservations that start on or after the given day.
+     *
+     * @param day the epoch day to search from
+     * @return the earliest check-in day, or Integer.MAX_VALUE if no reservation starts on or after the day
+     */
+    public int nextCheckIn(int day) {
+        int next = lowerBound(day); // First reservation that starts on or after the day
+        return next < size ? checkInDays[next] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Finds the earliest day on or after a given day from which the room is free for a number of nights.
+     * Walks the gaps between reservations in check-in order, starting at the first reservation
+     * that can reach the day, and stops at the first gap long enough, so only the gaps that are
+     * too short are visited.
+     *
+     * @param fromDay the first epoch day the stay may start on
+     * @param nights the number of nights of the stay
+     * @return the earliest check-in day of a free stay, which may lie after every reservation
+     */
+    public int earliestFree(int fromDay, int nights) {
+        int day = fromDay;
+        int next = lowerBound(fromDay); // First reservation that starts on or after the day
+        if (next > 0 && maxCheckOutDays[next - 1] > day) {
+            day = maxCheckOutDays[next - 1]; // An earlier reservation runs into the day
+        }
+        while (next < size && checkInDays[next] < (long) day + nights) {
+            // The gap before this reservation is too short, so try the one after it
+            day = Math.max(day, maxCheckOutDays[next]);
+            next++;
+        }
+        return day;
+    }
+
+    /**
+     * Marks every day in a range that a reservation covers, counting both the check-in and check-out days.
+     * Only the reservations that can reach the range are visited, in one pass in check-in order.
+     *
+     * @param fromDay the first epoch day of the range
+     * @param toDay the epoch day after the last day of the range
+     * @return a set with bit i set if day fromDay + i is booked
+     */
+    public BitSet bookedDays(int fromDay, int toDay) {
+        return booked(fromDay, toDay, 1); // The check-out day counts as booked
+    }
+
+    /**
+     * Marks every night in a range on which a guest stays, so the check-out day is not counted.
+     *
+     * @param fromDay the first epoch day of the range
+     * @param toDay the epoch day after the last day of the range
+     * @return a set with bit i set if a guest stays the night of day fromDay + i
+     */
+    public BitSet bookedNights(int fromDay, int toDay) {
+        return booked(fromDay, toDay, 0);
+    }
+
+    /**
+     * Marks the days in a range that a reservation covers.
+     * Only the reservations that can reach the range are visited, in one pass in check-in order.
+     *
+     * @param fromDay the first epoch day of the range
+     * @param toDay the epoch day after the last day of the range
+     * @param afterCheckOut the days after the last night that also count, 1 for the check-out day or 0
+     * @return a set with bit i set if day fromDay + i is covered
+     */
+    private BitSet booked(int fromDay, int toDay, int afterCheckOut) {
+        BitSet booked = new BitSet(Math.max(0, toDay - fromDay));
+        // The running maximum never decreases, so skip every reservation that ends before the range
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (maxCheckOutDays[mid] < fromDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < size && checkInDays[i] < toDay; i++) {
+            int start = Math.max(checkInDays[i], fromDay);
+            int end = Math.min(checkOutDays[i] + afterCheckOut, toDay);
+            if (start < end) {
+                booked.set(start - fromDay, end - fromDay);
+            }
+        }
+        return booked;
+    }
+
+    /**
+     * Checks if the index contains no reservations.
+     *
+     * @return true if the index is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the number of reservations in the index.
+     *
+     * @return the number of reservations
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the position of a reservation in the index.
+     *
+     * @param reservation the reservation to find
+     * @return the position of the reservation, or -1 if it is not indexed
+     */
+    private int indexOf(Reservation reservation) {
+        int checkInDay = reservation.getCheckInDay();
+        // Only reservations sharing the same check-in day need to be compared
+        for (int i = lowerBound(checkInDay); i < size && checkInDays[i] == checkInDay; i++) {
+            if (reservations[i] == reservation) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first position whose check-in day is not less than the given day.
+     *
+     * @param day the epoch day to search for
+     * @return the first position with a check-in day of at least the given day
+     */
+    private int lowerBound(int day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (checkInDays[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first position whose check-in day is greater than the given day.
+     *
+     * @param day the epoch day to search for
+     * @return the first position with a check-in day after the given day
+     */
+    private int upperBound(int day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (checkInDays[mid] <= day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Recomputes the running maximum of check-out days starting at the given position.
+     *
+     * @param from the first position to recompute
+     */
+    private void refreshMaxCheckOut(int from) {
+        int max = from > 0 ? maxCheckOutDays[from - 1] : Integer.MIN_VALUE;
+        for (int i = from; i < size; i++) {
+            max = Math.max(max, checkOutDays[i]);
+            maxCheckOutDays[i] = max;
+        }
+    }
+
+    /**
+     * Grows the backing arrays so they can hold at least the given number of reservations.
+     *
+     * @param capacity the required capacity
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > reservations.length) {
+            int newCapacity = Math.max(capacity, reservations.length * 2);
+            reservations = Arrays.copyOf(reservations, newCapacity);
+            checkInDays = Arrays.copyOf(checkInDays, newCapacity);
+            checkOutDays = Arrays.copyOf(checkOutDays, newCapacity);
+            maxCheckOutDays = Arrays.copyOf(maxCheckOutDays, newCapacity);
+        }
+    }
+}
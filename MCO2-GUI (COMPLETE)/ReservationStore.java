@@ -0,0 +1,291 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Off-heap column storage for the fields of every reservation.
+ * Each field is a column of primitive values in direct byte buffers outside the Java heap, and
+ * guest names and discount codes are interned and stored as small integers, so a Reservation
+ * object only has to carry its row number and references. This keeps tens of millions of
+ * bookings from filling the heap with objects the garbage collector has to trace.
+ *
+ * Rows are allocated in fixed-size chunks so the store can grow without copying. A row is
+ * released when the hotel drops its reservation, and released rows are handed out again before
+ * the store grows. Interned strings are counted by the rows using them and dropped when the last
+ * one is released.
+ * A missing guest name is stored as NO_STRING rather than interned.
+ */
+public class ReservationStore {
+    private static final int CHUNK_BITS = 16; // Rows per chunk, as a power of two
+    private static final int CHUNK_ROWS = 1 << CHUNK_BITS;
+    private static final int ROW_MASK = CHUNK_ROWS - 1;
+    private static final int NO_STRING = -1; // String ID stored for a missing guest name
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder()); // Volatile int access
+    private static final VarHandle DOUBLE = MethodHandles.byteBufferViewVarHandle(double[].class, ByteOrder.nativeOrder()); // Volatile double access
+
+    private volatile Chunk[] chunks = new Chunk[0]; // Allocated chunks, replaced as a whole when the store grows
+    private int size; // Number of allocated rows, in use or free
+    private int[] freeRows = new int[64]; // Released rows waiting to be reused
+    private int freeRowCount; // Number of released rows
+    private final Map<String, Integer> stringIds = new HashMap<>(); // Interned string IDs
+    private volatile String[] strings = new String[64]; // Interned strings by ID, read without locking
+    private int[] stringUses = new int[64]; // Rows using each interned string
+    private int[] freeStrings = new int[64]; // String IDs no row uses any more
+    private int freeStringCount; // Number of free string IDs
+    private int stringCount; // Number of string IDs handed out, in use or free
+
+    /**
+     * The columns of one block of rows.
+     */
+    private static class Chunk {
+        final ByteBuffer ids = column(4); // Reservation IDs
+        final ByteBuffer checkInDays = column(4); // Check-in epoch days
+        final ByteBuffer checkOutDays = column(4); // Check-out epoch days
+        final ByteBuffer guestNames = column(4); // Interned guest name IDs, or NO_STRING
+        final ByteBuffer discountCodes = column(4); // Interned discount code IDs plus one, or 0 for none
+        final ByteBuffer finalPrices = column(8); // Final prices
+
+        /**
+         * Allocates one off-heap column, aligned so every value can be read and written atomically.
+         *
+         * @param width the size of one value in bytes
+         * @return the column buffer
+         */
+        private static ByteBuffer column(int width) {
+            return ByteBuffer.allocateDirect(CHUNK_ROWS * width + 8).alignedSlice(8).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Adds a reservation's fields as a new row, reusing a released row if there is one.
+     *
+     * @param id the reservation ID
+     * @param guestName the name of the guest, or null if it is missing
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return the row of the reservation
+     */
+    public synchronized int add(int id, String guestName, int checkInDay, int checkOutDay) {
+        int row = allocateRow();
+        Chunk chunk = chunks[row >>> CHUNK_BITS];
+        int offset = row & ROW_MASK;
+        chunk.ids.putInt(offset * 4, id);
+        chunk.checkInDays.putInt(offset * 4, checkInDay);
+        chunk.checkOutDays.putInt(offset * 4, checkOutDay);
+        chunk.guestNames.putInt(offset * 4, guestName == null ? NO_STRING : intern(guestName));
+        INT.setVolatile(chunk.discountCodes, offset * 4, 0); // A reused row may still hold its old code and price
+        DOUBLE.setVolatile(chunk.finalPrices, offset * 8, 0.0);
+        return row;
+    }
+
+    /**
+     * Releases a row whose reservation can no longer be read, so the row can be reused.
+     * The row must not be read again.
+     *
+     * @param row the row to release
+     */
+    public synchronized void release(int row) {
+        Chunk chunk = chunks[row >>> CHUNK_BITS];
+        int offset = row & ROW_MASK;
+        int guestName = chunk.guestNames.getInt(offset * 4);
+        if (guestName != NO_STRING) {
+            unintern(guestName);
+        }
+        int code = (int) INT.getVolatile(chunk.discountCodes, offset * 4);
+        if (code != 0) {
+            unintern(code - 1);
+        }
+        INT.setVolatile(chunk.discountCodes, offset * 4, 0);
+        if (freeRowCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeRows.length * 2);
+        }
+        freeRows[freeRowCount++] = row;
+    }
+
+    /**
+     * Gets the reservation ID of a row.
+     *
+     * @param row the row
+     * @return the reservation ID
+     */
+    public int getId(int row) {
+        return chunks[row >>> CHUNK_BITS].ids.getInt((row & ROW_MASK) * 4);
+    }
+
+    /**
+     * Gets the check-in epoch day of a row.
+     *
+     * @param row the row
+     * @return the check-in epoch day
+     */
+    public int getCheckInDay(int row) {
+        return chunks[row >>> CHUNK_BITS].checkInDays.getInt((row & ROW_MASK) * 4);
+    }
+
+    /**
+     * Gets the check-out epoch day of a row.
+     *
+     * @param row the row
+     * @return the check-out epoch day
+     */
+    public int getCheckOutDay(int row) {
+        return chunks[row >>> CHUNK_BITS].checkOutDays.getInt((row & ROW_MASK) * 4);
+    }
+
+    /**
+     * Gets the guest name of a row.
+     *
+     * @param row the row
+     * @return the guest name, or null if it is missing
+     */
+    public String getGuestName(int row) {
+        int name = chunks[row >>> CHUNK_BITS].guestNames.getInt((row & ROW_MASK) * 4);
+        return name == NO_STRING ? null : strings[name];
+    }
+
+    /**
+     * Gets the discount code of a row.
+     *
+     * @param row the row
+     * @return the discount code, or null if none is set
+     */
+    public String getDiscountCode(int row) {
+        int code = (int) INT.getVolatile(chunks[row >>> CHUNK_BITS].discountCodes, (row & ROW_MASK) * 4);
+        return code == 0 ? null : strings[code - 1];
+    }
+
+    /**
+     * Sets the discount code of a row.
+     *
+     * @param row the row
+     * @param discountCode the discount code, or null for none
+     */
+    public synchronized void setDiscountCode(int row, String discountCode) {
+        ByteBuffer column = chunks[row >>> CHUNK_BITS].discountCodes;
+        int offset = (row & ROW_MASK) * 4;
+        int old = (int) INT.getVolatile(column, offset);
+        int code = discountCode == null ? 0 : intern(discountCode) + 1;
+        INT.setVolatile(column, offset, code);
+        if (old != 0) {
+            unintern(old - 1); // After the new code is counted, so setting the same code keeps it
+        }
+    }
+
+    /**
+     * Gets the final price of a row.
+     *
+     * @param row the row
+     * @return the final price
+     */
+    public double getFinalPrice(int row) {
+        return (double) DOUBLE.getVolatile(chunks[row >>> CHUNK_BITS].finalPrices, (row & ROW_MASK) * 8);
+    }
+
+    /**
+     * Sets the final price of a row.
+     *
+     * @param row the row
+     * @param finalPrice the final price
+     */
+    public void setFinalPrice(int row, double finalPrice) {
+        DOUBLE.setVolatile(chunks[row >>> CHUNK_BITS].finalPrices, (row & ROW_MASK) * 8, finalPrice);
+    }
+
+    /**
+     * Gets the number of rows in use.
+     *
+     * @return the number of rows not yet released
+     */
+    public synchronized int size() {
+        return size - freeRowCount;
+    }
+
+    /**
+     * Gets the number of interned strings in use.
+     *
+     * @return the number of guest names and discount codes some row still uses
+     */
+    public synchronized int getStringCount() {
+        return stringIds.size();
+    }
+
+    /**
+     * Gets the off-heap memory used by the store.
+     * Released rows are reused rather than returned, so this never shrinks.
+     *
+     * @return the allocated column memory in bytes
+     */
+    public long getOffHeapBytes() {
+        return (long) chunks.length * CHUNK_ROWS * 28; // Five int columns and one double column per row
+    }
+
+    /**
+     * Takes a released row, or the next new row when none is free, adding a chunk when the last one is full.
+     * Must be called while holding the store lock.
+     *
+     * @return the row
+     */
+    private int allocateRow() {
+        if (freeRowCount > 0) {
+            return freeRows[--freeRowCount];
+        }
+        int row = size++;
+        int chunk = row >>> CHUNK_BITS;
+        if (chunk == chunks.length) {
+            Chunk[] grown = Arrays.copyOf(chunks, chunk + 1);
+            grown[chunk] = new Chunk();
+            chunks = grown; // Publish the new chunk to readers
+        }
+        return row;
+    }
+
+    /**
+     * Gets the ID of a string for one more row, adding it to the string table if needed.
+     * Must be called while holding the store lock.
+     *
+     * @param value the string to intern
+     * @return the ID of the string
+     */
+    private int intern(String value) {
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            if (freeStringCount > 0) {
+                id = freeStrings[--freeStringCount]; // Reuse the ID of a dropped string
+            } else {
+                id = stringCount++;
+            }
+            String[] table = strings;
+            if (id >= table.length) {
+                table = Arrays.copyOf(table, table.length * 2);
+                stringUses = Arrays.copyOf(stringUses, table.length);
+            }
+            table[id] = value;
+            strings = table; // Publish the string before its ID
+            stringIds.put(value, id);
+        }
+        stringUses[id]++;
+        return id;
+    }
+
+    /**
+     * Drops one row's use of a string, removing the string once no row uses it.
+     * Must be called while holding the store lock.
+     *
+     * @param id the ID of the string
+     */
+    private void unintern(int id) {
+        if (--stringUses[id] > 0) {
+            return; // Other rows still use the string
+        }
+        stringIds.remove(strings[id]);
+        strings[id] = null;
+        if (freeStringCount == freeStrings.length) {
+            freeStrings = Arrays.copyOf(freeStrings, freeStrings.length * 2);
+        }
+        freeStrings[freeStringCount++] = id;
+    }
+}
@@ -0,0 +1,71 @@
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Computes per-day occupancy and revenue reports for hotels.
+ * Each hotel is read in one pass over its stays: every stay adds its nights and its nightly
+ * share of the final price to difference arrays, which a running sum then turns into per-day
+ * totals. Different hotels are analyzed in parallel on the common fork-join pool.
+ */
+public class RevenueAnalytics {
+
+    /**
+     * Prevents instantiation; the analytics are static.
+     */
+    private RevenueAnalytics() {
+    }
+
+    /**
+     * Analyzes several hotels in parallel.
+     *
+     * @param hotels the hotels to analyze
+     * @param firstDay the first epoch day of the report
+     * @param endDay the epoch day after the last day of the report
+     * @return one report per hotel, in the order of the hotels
+     */
+    public static List<OccupancyReport> analyze(List<Hotel> hotels, int firstDay, int endDay) {
+        return hotels.parallelStream()
+                .map(hotel -> analyze(hotel, firstDay, endDay))
+                .collect(Collectors.toList()); // Keeps the order of the hotels
+    }
+
+    /**
+     * Analyzes one hotel.
+     *
+     * @param hotel the hotel to analyze
+     * @param firstDay the first epoch day of the report
+     * @param endDay the epoch day after the last day of the report
+     * @return the report of the hotel
+     */
+    public static OccupancyReport analyze(Hotel hotel, int firstDay, int endDay) {
+        int days = Math.max(0, endDay - firstDay);
+        int[] soldChanges = new int[days + 1]; // Change in rooms sold at the start of each day
+        double[] revenueChanges = new double[days + 1]; // Change in nightly revenue at the start of each day
+
+        hotel.forEachStay((checkInDay, checkOutDay, finalPrice, room) -> {
+            int start = Math.max(checkInDay, firstDay);
+            int end = Math.min(checkOutDay, endDay);
+            if (start >= end) {
+                return; // Stay lies outside the report
+            }
+            double nightly = finalPrice / (checkOutDay - checkInDay); // Spread the price evenly over the nights
+            soldChanges[start - firstDay]++;
+            soldChanges[end - firstDay]--;
+            revenueChanges[start - firstDay] += nightly;
+            revenueChanges[end - firstDay] -= nightly;
+        });
+
+        // Turn the changes into per-day totals
+        int[] roomsSold = new int[days];
+        double[] revenue = new double[days];
+        int sold = 0;
+        double nightlyRevenue = 0;
+        for (int day = 0; day < days; day++) {
+            sold += soldChanges[day];
+            nightlyRevenue += revenueChanges[day];
+            roomsSold[day] = sold;
+            revenue[day] = sold == 0 ? 0 : nightlyRevenue; // Drop rounding left over when no stay is open
+        }
+        return new OccupancyReport(hotel.getName(), firstDay, hotel.getTotalRooms(), roomsSold, revenue);
+    }
+}
@@ -1,15 +1,27 @@
+import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
     /**
     * Represents a room in a hotel, with a name, base price, and a list of reservations.
+    * The room's own monitor guards its reservations, so each room acts as its own booking lock.
+    * Reservations restored from a snapshot are only turned into objects the first time they are listed.
     */
     public abstract class Room {
+        static final String[] ROOM_TYPES = {"Standard", "Deluxe", "Executive"}; // Room types in a fixed order, for per-type arrays
+
         private String name; // The name of the room
-        private double basePrice; // The base price of the room
+        private volatile double basePrice; // The base price of the room
         private List<Reservation> reservations; // List of reservations for the room
+        private ReservationIndex reservationIndex; // Sorted interval index over the reservations
+        private volatile int slot = -1; // Position of the room in its hotel's occupancy bitmap
+        private volatile SnapshotReservations restoredSource; // Snapshot holding reservations not yet loaded, or null
+        private volatile int[] restoredRows; // Snapshot rows of this room not yet loaded, or null
+        private Hotel restoredHotel; // Hotel the restored reservations belong to
+        private volatile Hotel hotel; // Hotel the room belongs to, told when the price changes
 
     /**
      * Constructs a Room with the given name and base price.
@@ -21,6 +33,7 @@ import java.util.List;
         this.name = name; // Initialize the room's name
         this.basePrice = basePrice; // Initialize the room's base price
         this.reservations = new ArrayList<>(); // Initialize an empty list of reservations
+        this.reservationIndex = new ReservationIndex(); // Initialize an empty reservation index
     }
 
     /**
@@ -29,15 +42,23 @@ import java.util.List;
      * @param date the date to check availability
      * @return true if the room is available, false otherwise
      */
-    public boolean isAvailable(Date date) {
-        // Loop through the list of reservations
-        for (Reservation reservation : reservations) {
-            // Check if the reservation conflicts with the given date
-            if (reservation.conflictsWith(date)) { // Assuming Reservation class has a conflictsWith method
-                return false; // Room is not available
-            }
+    public synchronized boolean isAvailable(Date date) {
+        if (date == null) {
+            return reservationIndex.isEmpty(); // Without a date, the room is available only if it has no reservations
         }
-        return true; // Room is available
+        return isAvailable(EpochDay.of(date));
+    }
+
+    /**
+     * Checks if the room is available on a specific epoch day.
+     * The check-out day of a reservation counts as booked.
+     *
+     * @param day the epoch day to check availability
+     * @return true if the room is available, false otherwise
+     */
+    public synchronized boolean isAvailable(int day) {
+        // Look up the day in the index instead of checking every reservation
+        return !reservationIndex.covers(day);
     }
 
     /**
@@ -48,14 +69,67 @@ import java.util.List;
      * @return true if the room is available, false otherwise
      */
     public boolean isAvailable(Date checkInDate, Date checkOutDate) {
-        // Loop through the list of reservations
-        for (Reservation reservation : reservations) {
-            // Check if the reservation overlaps with the given check-in and check-out dates
-            if (reservation.overlaps(checkInDate, checkOutDate)) {
-                return false; // Room is not available
-            }
-        }
-        return true; // Room is available
+        return isAvailable(EpochDay.of(checkInDate), EpochDay.of(checkOutDate));
+    }
+
+    /**
+     * Checks if the room is available between the check-in and check-out epoch days.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return true if the room is available, false otherwise
+     */
+    public synchronized boolean isAvailable(int checkInDay, int checkOutDay) {
+        // Look up the day range in the index instead of checking every reservation
+        return !reservationIndex.overlaps(checkInDay, checkOutDay);
+    }
+
+    /**
+     * Gets the length of the free run of nights around a stay, from the check-out day of the
+     * reservation before it to the check-in day of the reservation after it.
+     * The shorter the run, the less of it is left unsold once the stay is booked.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return the number of nights in the free run, which is very large when nothing is booked on a side
+     */
+    public synchronized long getFreeGap(int checkInDay, int checkOutDay) {
+        // Two binary searches in the index find the neighbouring reservations
+        long previousCheckOut = reservationIndex.previousCheckOut(checkInDay);
+        long nextCheckIn = reservationIndex.nextCheckIn(checkInDay);
+        return nextCheckIn - previousCheckOut;
+    }
+
+    /**
+     * Gets the day the free nights before a day start, which is the latest check-out day among
+     * the reservations that check in before it.
+     *
+     * @param day the epoch day to search before
+     * @return the latest earlier check-out day, or Integer.MIN_VALUE if nothing is booked before the day
+     */
+    public synchronized int getPreviousCheckOut(int day) {
+        return reservationIndex.previousCheckOut(day);
+    }
+
+    /**
+     * Gets the day the free nights from a day end, which is the earliest check-in day on or after it.
+     *
+     * @param day the epoch day to search from
+     * @return the earliest check-in day, or Integer.MAX_VALUE if nothing is booked from the day on
+     */
+    public synchronized int getNextCheckIn(int day) {
+        return reservationIndex.nextCheckIn(day);
+    }
+
+    /**
+     * Gets the earliest day on or after a given day from which the room is free for a number of nights.
+     *
+     * @param fromDay the first epoch day the stay may start on
+     * @param nights the number of nights of the stay
+     * @return the earliest check-in epoch day of a free stay
+     */
+    public synchronized int getEarliestFreeDay(int fromDay, int nights) {
+        return reservationIndex.earliestFree(fromDay, nights); // Walks the gaps instead of trying each day
     }
 
     /**
@@ -63,8 +137,9 @@ import java.util.List;
      *
      * @param reservation the reservation to add
      */
-    public void addReservation(Reservation reservation) {
+    public synchronized void addReservation(Reservation reservation) {
         reservations.add(reservation); // Add the reservation to the list
+        reservationIndex.add(reservation); // Keep the index in sync with the list
     }
 
     /**
@@ -72,8 +147,10 @@ import java.util.List;
      *
      * @param reservation the reservation to remove
      */
-    public void removeReservation(Reservation reservation) {
-        reservations.remove(reservation); // Remove the specified reservation from the list
+    public synchronized void removeReservation(Reservation reservation) {
+        if (reservations.remove(reservation)) { // Remove the specified reservation from the list
+            reservationIndex.remove(reservation); // Keep the index in sync with the list
+        }
     }
 
     /**
@@ -116,15 +193,130 @@ import java.util.List;
      */
     public void setBasePrice(double basePrice) {
         this.basePrice = basePrice; // Update the base price of the room
+        Hotel owner = hotel;
+        if (owner != null) {
+            owner.roomPriceChanged(this); // Drop quotes that used the old price
+        }
+    }
+
+    /**
+     * Sets the hotel the room belongs to.
+     *
+     * @param hotel the hotel, or null once the room is removed
+     */
+    void setHotel(Hotel hotel) {
+        this.hotel = hotel;
     }
 
     /**
      * Gets the list of reservations for the room.
      *
-     * @return the list of reservations
+     * @return a read-only snapshot of the list of reservations
+     */
+    public synchronized List<Reservation> getReservations() {
+        materialize(); // Load any reservations still waiting in the snapshot
+        // Changes must go through addReservation and removeReservation
+        return Collections.unmodifiableList(new ArrayList<>(reservations));
+    }
+
+    /**
+     * Indexes reservations from a snapshot without creating their objects yet.
+     *
+     * @param hotel the hotel the reservations belong to
+     * @param source the snapshot holding the reservations
+     * @param rows the snapshot rows that belong to this room
+     */
+    public synchronized void restoreStays(Hotel hotel, SnapshotReservations source, int[] rows) {
+        for (int row : rows) {
+            reservationIndex.addPlaceholder(source.getCheckInDay(row), source.getCheckOutDay(row)); // Availability works right away
+        }
+        this.restoredHotel = hotel;
+        this.restoredSource = source;
+        this.restoredRows = rows;
+    }
+
+    /**
+     * Creates the objects of any reservations still waiting in the snapshot and registers them with the hotel.
+     */
+    public synchronized void materialize() {
+        int[] rows = restoredRows;
+        if (rows == null) {
+            return; // Nothing left to load
+        }
+        List<Reservation> restored = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            restored.add(restoredSource.materialize(row, this, restoredHotel));
+        }
+        restoredHotel.registerRestored(this, restored); // Calls finishRestore while holding the hotel lock
+    }
+
+    /**
+     * Swaps the placeholder stays for the loaded reservations.
+     * Called by the hotel while it holds both this room's lock and its own write lock, so a
+     * snapshot never sees the reservations both in the hotel and still waiting in the room.
+     *
+     * @param restored the loaded reservations
      */
-    public List<Reservation> getReservations() {
-        return reservations; // Return the list of reservations
+    void finishRestore(List<Reservation> restored) {
+        reservationIndex.removePlaceholders();
+        for (Reservation reservation : restored) {
+            reservationIndex.add(reservation);
+        }
+        reservations.addAll(0, restored); // Restored reservations were booked before any newer ones
+        restoredRows = null;
+        restoredSource = null;
+        restoredHotel = null;
+    }
+
+    /**
+     * Gets the snapshot rows of this room whose reservations have not been loaded yet.
+     *
+     * @return the snapshot rows, or null if every reservation is loaded
+     */
+    public int[] getRestoredRows() {
+        return restoredRows;
+    }
+
+    /**
+     * Gets the snapshot holding the reservations that have not been loaded yet.
+     *
+     * @return the snapshot view, or null if every reservation is loaded
+     */
+    public SnapshotReservations getRestoredSource() {
+        return restoredSource;
+    }
+
+    /**
+     * Gets the position of a room type in ROOM_TYPES.
+     *
+     * @param roomType the room type
+     * @return the position of the room type, or -1 if it is unknown
+     */
+    static int typeIndex(String roomType) {
+        for (int type = 0; type < ROOM_TYPES.length; type++) {
+            if (ROOM_TYPES[type].equals(roomType)) {
+                return type;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the slot of the room in its hotel's occupancy bitmap.
+     *
+     * @return the slot of the room, or -1 if the room does not belong to a hotel
+     */
+    int getSlot() {
+        return slot; // Return the occupancy slot of the room
+    }
+
+    /**
+     * Sets the slot of the room in its hotel's occupancy bitmap.
+     *
+     * @param slot the slot assigned by the hotel
+     */
+    void setSlot(int slot) {
+        this.slot = slot; // Update the occupancy slot of the room
     }
 
     /**
@@ -146,6 +338,45 @@ import java.util.List;
         return this.name; // Return the name of the room, ignoring the parameter
     }
 
+    /**
+     * Gets the days in a range on which the room is booked.
+     * The check-out day of a reservation counts as booked, as in isAvailable(int).
+     *
+     * @param fromDay the first epoch day of the range
+     * @param toDay the epoch day after the last day of the range
+     * @return a set with bit i set if day fromDay + i is booked
+     */
+    public synchronized BitSet getBookedDays(int fromDay, int toDay) {
+        return reservationIndex.bookedDays(fromDay, toDay); // One sweep over the sorted reservations
+    }
+
+    /**
+     * Gets the nights in a range on which a guest stays in the room.
+     * Unlike getBookedDays, the check-out day of a reservation is free unless another stay starts on it.
+     *
+     * @param fromDay the first epoch day of the range
+     * @param toDay the epoch day after the last day of the range
+     * @return a set with bit i set if the night of day fromDay + i is booked
+     */
+    public synchronized BitSet getBookedNights(int fromDay, int toDay) {
+        return reservationIndex.bookedNights(fromDay, toDay);
+    }
+
+    /**
+     * Gets the availability of the room for a specific month as a bitmask.
+     *
+     * @param year the year
+     * @param month the month (1-12)
+     * @return the availability of each day of the month
+     */
+    public MonthAvailability getMonthAvailability(int year, int month) {
+        YearMonth yearMonth = YearMonth.of(year, month); // The requested month
+        int firstDay = EpochDay.of(yearMonth.atDay(1)); // Epoch day of the first day of the month
+        BitSet booked = getBookedDays(firstDay, firstDay + yearMonth.lengthOfMonth());
+        long mask = booked.isEmpty() ? 0L : booked.toLongArray()[0]; // A month always fits in one long
+        return new MonthAvailability(yearMonth, mask);
+    }
+
     /**
      * Gets the availability of the room for a specific month.
      *
@@ -154,19 +385,7 @@ import java.util.List;
      * @return a list of strings indicating the availability for each day of the month
      */
     public List<String> getAvailabilityForMonth(int year, int month) {
-        List<String> availability = new ArrayList<>(); // List to hold availability information
-        Calendar calendar = Calendar.getInstance(); // Create a Calendar instance
-        calendar.set(year, month - 1, 1); // Set the calendar to the first day of the specified month
-        int daysInMonth = calendar.getActualMaximum(Calendar.DAY_OF_MONTH); // Get the total days in the month
-
-        // Loop through each day of the month
-        for (int day = 1; day <= daysInMonth; day++) {
-            calendar.set(year, month - 1, day); // Set the calendar to the current day
-            Date date = calendar.getTime(); // Get the Date object for the current day
-            // Add availability status to the list (Available or Booked)
-            availability.add(day + ": " + (isAvailable(date) ? "Available" : "Booked"));
-        }
-        return availability; // Return the list of availability information
+        return getMonthAvailability(year, month).toLines();
     }
 }
 
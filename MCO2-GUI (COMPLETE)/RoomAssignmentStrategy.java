@@ -0,0 +1,19 @@
+import java.util.List;
+
+/**
+ * Decides which of the free rooms of a hotel a new stay is booked into.
+ * A hotel asks its strategy only after it has found the rooms that are free for the whole stay,
+ * so a strategy never has to check availability itself and only ranks the candidates.
+ */
+public interface RoomAssignmentStrategy {
+
+    /**
+     * Chooses a room for a stay.
+     *
+     * @param freeRooms the rooms free for the whole stay, in the order they were added to the hotel
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return the chosen room, or null if the list is empty
+     */
+    Room choose(List<Room> freeRooms, int checkInDay, int checkOutDay);
+}
@@ -0,0 +1,130 @@
+/**
+ * A booking sold against a room type whose room has not been chosen yet.
+ * The hold counts against the type's inventory from the moment it is made, so the nights are
+ * promised to the guest, and the hotel turns it into a Reservation in a concrete room when it
+ * assigns rooms before the guest arrives. The reservation keeps the hold's ID and price.
+ */
+public class RoomTypeHold {
+    private final int id; // ID of the hold, kept by the reservation it becomes
+    private final String guestName; // Name of the guest
+    private final String roomType; // Type of room sold
+    private final int checkInDay; // Check-in epoch day
+    private final int checkOutDay; // Check-out epoch day
+    private final double price; // Price quoted when the hold was made
+    private final String discountCode; // Discount code applied to the price, or null
+    private Room plannedRoom; // Room the hotel has set aside for the hold, or null; guarded by the hotel lock
+
+    /**
+     * Constructs a hold.
+     *
+     * @param id the ID of the hold
+     * @param guestName the name of the guest
+     * @param roomType the type of room sold
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @param price the price of the stay
+     * @param discountCode the discount code applied to the price, or null
+     */
+    public RoomTypeHold(int id, String guestName, String roomType, int checkInDay, int checkOutDay, double price, String discountCode) {
+        this.id = id;
+        this.guestName = guestName;
+        this.roomType = roomType;
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
+        this.price = price;
+        this.discountCode = discountCode;
+    }
+
+    /**
+     * Gets the ID of the hold.
+     *
+     * @return the hold ID
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the name of the guest.
+     *
+     * @return the guest name
+     */
+    public String getGuestName() {
+        return guestName;
+    }
+
+    /**
+     * Gets the type of room sold.
+     *
+     * @return the room type
+     */
+    public String getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Gets the check-in day.
+     *
+     * @return the check-in epoch day
+     */
+    public int getCheckInDay() {
+        return checkInDay;
+    }
+
+    /**
+     * Gets the check-out day.
+     *
+     * @return the check-out epoch day
+     */
+    public int getCheckOutDay() {
+        return checkOutDay;
+    }
+
+    /**
+     * Gets the price of the stay.
+     *
+     * @return the price quoted when the hold was made
+     */
+    public double getPrice() {
+        return price;
+    }
+
+    /**
+     * Gets the discount code applied to the price.
+     *
+     * @return the discount code, or null if none was applied
+     */
+    public String getDiscountCode() {
+        return discountCode;
+    }
+
+    /**
+     * Gets the room the hotel has set aside for the hold.
+     * The hotel may give the hold another room of its type until it assigns rooms.
+     *
+     * @return the planned room, or null if none is set aside
+     */
+    Room getPlannedRoom() {
+        return plannedRoom;
+    }
+
+    /**
+     * Sets the room the hotel has set aside for the hold.
+     *
+     * @param plannedRoom the planned room, or null
+     */
+    void setPlannedRoom(Room plannedRoom) {
+        this.plannedRoom = plannedRoom;
+    }
+
+    /**
+     * Checks if the hold overlaps a stay from the check-in day up to, but not including, the check-out day.
+     *
+     * @param otherCheckInDay the check-in epoch day of the other stay
+     * @param otherCheckOutDay the check-out epoch day of the other stay
+     * @return true if the stays share a night, false otherwise
+     */
+    public boolean overlaps(int otherCheckInDay, int otherCheckOutDay) {
+        return checkInDay < otherCheckOutDay && otherCheckInDay < checkOutDay;
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Counts how many rooms of each type a hotel has and how many of them are booked on each night.
+ * Each room type keeps a BookedCountTree, so the number of rooms of a type that are free on every
+ * night of a stay is the type's room count minus the busiest night, read in O(log days).
+ * That number says how many stays of the type can still be sold for those nights if rooms may be
+ * assigned later; a single room free for the whole stay may not exist when the free nights are
+ * spread over different rooms.
+ * The inventory is not thread-safe; the hotel only touches it while holding its own lock.
+ */
+public class RoomTypeInventory {
+    private final int[] roomCounts = new int[Room.ROOM_TYPES.length]; // Rooms of each type
+    private final BookedCountTree[] booked = new BookedCountTree[Room.ROOM_TYPES.length]; // Booked rooms per night of each type
+
+    /**
+     * Constructs an inventory without rooms.
+     */
+    public RoomTypeInventory() {
+        for (int type = 0; type < booked.length; type++) {
+            booked[type] = new BookedCountTree();
+        }
+    }
+
+    /**
+     * Counts a new room.
+     *
+     * @param roomType the type of the room
+     */
+    public void addRoom(String roomType) {
+        int type = Room.typeIndex(roomType);
+        if (type >= 0) {
+            roomCounts[type]++;
+        }
+    }
+
+    /**
+     * Stops counting a removed room.
+     *
+     * @param roomType the type of the room
+     */
+    public void removeRoom(String roomType) {
+        int type = Room.typeIndex(roomType);
+        if (type >= 0) {
+            roomCounts[type]--;
+        }
+    }
+
+    /**
+     * Counts a booked stay.
+     *
+     * @param roomType the type of the booked room
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     */
+    public void addStay(String roomType, int checkInDay, int checkOutDay) {
+        int type = Room.typeIndex(roomType);
+        if (type >= 0) {
+            booked[type].add(checkInDay, checkOutDay, 1);
+        }
+    }
+
+    /**
+     * Stops counting a cancelled stay.
+     *
+     * @param roomType the type of the booked room
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     */
+    public void removeStay(String roomType, int checkInDay, int checkOutDay) {
+        int type = Room.typeIndex(roomType);
+        if (type >= 0) {
+            booked[type].add(checkInDay, checkOutDay, -1);
+        }
+    }
+
+    /**
+     * Gets the number of rooms of a type that are free on every night of a stay.
+     *
+     * @param roomType the room type
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return the lowest number of free rooms of the type on any night, or 0 for an unknown type
+     */
+    public int getFreeCount(String roomType, int checkInDay, int checkOutDay) {
+        int type = Room.typeIndex(roomType);
+        if (type < 0) {
+            return 0;
+        }
+        return Math.max(0, roomCounts[type] - booked[type].max(checkInDay, checkOutDay));
+    }
+
+    /**
+     * Gets the number of rooms of a type.
+     *
+     * @param roomType the room type
+     * @return the number of rooms of the type, or 0 for an unknown type
+     */
+    public int getRoomCount(String roomType) {
+        int type = Room.typeIndex(roomType);
+        return type < 0 ? 0 : roomCounts[type];
+    }
+}
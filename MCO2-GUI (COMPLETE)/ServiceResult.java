@@ -0,0 +1,75 @@
+/**
+ * Represents the outcome of one HotelService operation.
+ * A result carries the object the operation produced, or the reason it failed, so callers can
+ * show the message in a dialog, print it to the console or send it over the network.
+ *
+ * @param <T> the type of the value produced by the operation
+ */
+public class ServiceResult<T> {
+    private final boolean success; // Whether the operation succeeded
+    private final T value; // The object produced by the operation, or null if it failed
+    private final String message; // Explanation of the outcome
+
+    /**
+     * Constructs a result.
+     *
+     * @param success whether the operation succeeded
+     * @param value the object produced by the operation
+     * @param message explanation of the outcome
+     */
+    private ServiceResult(boolean success, T value, String message) {
+        this.success = success;
+        this.value = value;
+        this.message = message;
+    }
+
+    /**
+     * Creates the result of an operation that succeeded.
+     *
+     * @param value the object produced by the operation
+     * @param message explanation of the outcome
+     * @param <T> the type of the value
+     * @return the result
+     */
+    public static <T> ServiceResult<T> success(T value, String message) {
+        return new ServiceResult<>(true, value, message);
+    }
+
+    /**
+     * Creates the result of an operation that failed.
+     *
+     * @param message the reason the operation failed
+     * @param <T> the type of the value the operation would have produced
+     * @return the result
+     */
+    public static <T> ServiceResult<T> failure(String message) {
+        return new ServiceResult<>(false, null, message);
+    }
+
+    /**
+     * Checks if the operation succeeded.
+     *
+     * @return true if the operation succeeded, false otherwise
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * Gets the object produced by the operation.
+     *
+     * @return the value, or null if the operation failed
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the explanation of the outcome.
+     *
+     * @return the result message
+     */
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,147 @@
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only view of one hotel's reservations inside a memory-mapped snapshot.
+ * Each field is stored as its own fixed-width column, so a row is read with a few absolute
+ * buffer reads and no Reservation object is needed until one is asked for.
+ */
+public class SnapshotReservations {
+    private final ColumnarSnapshot snapshot; // Snapshot holding the string table
+    private final ByteBuffer buffer; // Mapped snapshot file
+    private final int count; // Number of rows
+    private final int ids; // Position of the reservation ID column
+    private final int roomIndexes; // Position of the room index column
+    private final int checkInDays; // Position of the check-in day column
+    private final int checkOutDays; // Position of the check-out day column
+    private final int finalPrices; // Position of the final price column
+    private final int discountCodes; // Position of the discount code ordinal column
+    private final int guestNames; // Position of the guest name string column
+
+    /**
+     * Constructs a view over the reservation columns of one hotel.
+     *
+     * @param snapshot the snapshot holding the string table
+     * @param buffer the mapped snapshot file
+     * @param position the position of the first column
+     * @param count the number of rows
+     */
+    public SnapshotReservations(ColumnarSnapshot snapshot, ByteBuffer buffer, int position, int count) {
+        this.snapshot = snapshot;
+        this.buffer = buffer;
+        this.count = count;
+        this.ids = position;
+        this.roomIndexes = ids + 4 * count;
+        this.checkInDays = roomIndexes + 4 * count;
+        this.checkOutDays = checkInDays + 4 * count;
+        this.finalPrices = checkOutDays + 4 * count;
+        this.discountCodes = finalPrices + 8 * count;
+        this.guestNames = discountCodes + 4 * count;
+    }
+
+    /**
+     * Gets the number of reservations in the view.
+     *
+     * @return the number of rows
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the total size of the columns in bytes.
+     *
+     * @param count the number of rows
+     * @return the size of the columns
+     */
+    public static int columnsSize(int count) {
+        return 32 * count; // Six int columns and one double column
+    }
+
+    /**
+     * Gets the ID of a reservation.
+     *
+     * @param row the row of the reservation
+     * @return the reservation ID
+     */
+    public int getId(int row) {
+        return buffer.getInt(ids + 4 * row);
+    }
+
+    /**
+     * Gets the position of a reservation's room in the hotel's room list.
+     *
+     * @param row the row of the reservation
+     * @return the room index
+     */
+    public int getRoomIndex(int row) {
+        return buffer.getInt(roomIndexes + 4 * row);
+    }
+
+    /**
+     * Gets the check-in epoch day of a reservation.
+     *
+     * @param row the row of the reservation
+     * @return the check-in epoch day
+     */
+    public int getCheckInDay(int row) {
+        return buffer.getInt(checkInDays + 4 * row);
+    }
+
+    /**
+     * Gets the check-out epoch day of a reservation.
+     *
+     * @param row the row of the reservation
+     * @return the check-out epoch day
+     */
+    public int getCheckOutDay(int row) {
+        return buffer.getInt(checkOutDays + 4 * row);
+    }
+
+    /**
+     * Gets the final price of a reservation.
+     *
+     * @param row the row of the reservation
+     * @return the final price
+     */
+    public double getFinalPrice(int row) {
+        return buffer.getDouble(finalPrices + 8 * row);
+    }
+
+    /**
+     * Gets the discount code of a reservation.
+     *
+     * @param row the row of the reservation
+     * @return the discount code, or null if none was applied
+     */
+    public String getDiscountCode(int row) {
+        return snapshot.getDiscountCode(buffer.getInt(discountCodes + 4 * row));
+    }
+
+    /**
+     * Gets the guest name of a reservation.
+     *
+     * @param row the row of the reservation
+     * @return the guest name
+     */
+    public String getGuestName(int row) {
+        return snapshot.getString(buffer.getInt(guestNames + 4 * row));
+    }
+
+    /**
+     * Creates the Reservation object for a row.
+     *
+     * @param row the row of the reservation
+     * @param room the room of the reservation
+     * @param hotel the hotel of the reservation
+     * @return the reservation
+     */
+    public Reservation materialize(int row, Room room, Hotel hotel) {
+        Reservation reservation = new Reservation(getId(row), getGuestName(row), getCheckInDay(row), getCheckOutDay(row), room, hotel);
+        String discountCode = getDiscountCode(row);
+        if (discountCode != null) {
+            reservation.storeDiscountCode(discountCode); // The hotel does not hold the reservation yet
+        }
+        reservation.storeFinalPrice(getFinalPrice(row)); // Already counted in the hotel's earnings
+        return reservation;
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * The prices of a batch of stays in every room type, as returned by Hotel.quote.
+ * Prices are held in one flat array with a row per stay and a column per room type.
+ */
+public class StayQuotes {
+    private final double[] prices; // Price of stay i in room type t at i * number of types + t
+
+    /**
+     * Constructs the quotes from a flat price array.
+     *
+     * @param prices the prices, one row per stay and one column per room type
+     */
+    public StayQuotes(double[] prices) {
+        this.prices = prices;
+    }
+
+    /**
+     * Gets the number of stays quoted.
+     *
+     * @return the number of stays
+     */
+    public int size() {
+        return prices.length / Room.ROOM_TYPES.length;
+    }
+
+    /**
+     * Gets the price of a stay in a room type.
+     *
+     * @param stay the position of the stay in the batch
+     * @param roomType the room type (Standard, Deluxe, Executive)
+     * @return the total price before discounts, or NaN if the hotel has no room of that type
+     * @throws IllegalArgumentException if the room type is unknown
+     */
+    public double getPrice(int stay, String roomType) {
+        int type = Room.typeIndex(roomType);
+        if (type < 0) {
+            throw new IllegalArgumentException("Unknown room type: " + roomType);
+        }
+        return prices[stay * Room.ROOM_TYPES.length + type];
+    }
+
+    /**
+     * Checks if a room type could be quoted.
+     *
+     * @param roomType the room type
+     * @return true if the hotel has a room of that type, false otherwise
+     */
+    public boolean isQuoted(String roomType) {
+        int type = Room.typeIndex(roomType);
+        return type >= 0 && prices.length > 0 && !Double.isNaN(prices[type]);
+    }
+}
@@ -0,0 +1,79 @@
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * A run of consecutive nights in one room that is free to book, as found by a window search.
+ */
+public class StayWindow {
+    private final Room room; // Room that is free
+    private final int checkInDay; // Check-in epoch day
+    private final int checkOutDay; // Check-out epoch day
+
+    /**
+     * Constructs a window.
+     *
+     * @param room the room that is free
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     */
+    public StayWindow(Room room, int checkInDay, int checkOutDay) {
+        this.room = room;
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
+    }
+
+    /**
+     * Gets the room that is free.
+     *
+     * @return the room
+     */
+    public Room getRoom() {
+        return room;
+    }
+
+    /**
+     * Gets the check-in day.
+     *
+     * @return the check-in epoch day
+     */
+    public int getCheckInDay() {
+        return checkInDay;
+    }
+
+    /**
+     * Gets the check-out day.
+     *
+     * @return the check-out epoch day
+     */
+    public int getCheckOutDay() {
+        return checkOutDay;
+    }
+
+    /**
+     * Gets the check-in date.
+     *
+     * @return the check-in date
+     */
+    public Date getCheckInDate() {
+        return EpochDay.toDate(checkInDay);
+    }
+
+    /**
+     * Gets the check-out date.
+     *
+     * @return the check-out date
+     */
+    public Date getCheckOutDate() {
+        return EpochDay.toDate(checkOutDay);
+    }
+
+    /**
+     * Describes the window in one line.
+     *
+     * @return the description
+     */
+    @Override
+    public String toString() {
+        return room.getName() + " from " + LocalDate.ofEpochDay(checkInDay) + " to " + LocalDate.ofEpochDay(checkOutDay);
+    }
+}
@@ -1,6 +1,7 @@
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.List;
 
@@ -16,15 +17,26 @@ import java.awt.event.ActionListener;
 
 /**
  * The SystemController class is responsible for managing hotels, rooms, and reservations.
+ * It is the dialog and console front end of a HotelService: it asks the user for input, calls the
+ * service and shows the result, while every rule lives in the service.
  */
 public class SystemController {
-    private List<Hotel> hotels;
+    private final HotelService service; // Service that holds the hotels and applies every rule
 
     /**
      * Constructs a new SystemController with an empty list of hotels.
      */
     public SystemController() {
-        this.hotels = new ArrayList<>();
+        this(new HotelService());
+    }
+
+    /**
+     * Constructs a new SystemController over an existing service.
+     *
+     * @param service the service holding the hotels
+     */
+    public SystemController(HotelService service) {
+        this.service = service;
     }
 
     /*public SystemController(Hotel hotel, Scanner scanner){
@@ -32,6 +44,15 @@ public class SystemController {
         this.scanner = scanner;
     }*/
 
+    /**
+     * Gets the service behind the controller.
+     *
+     * @return the hotel service
+     */
+    public HotelService getService() {
+        return service;
+    }
+
     /**
      * Creates a new hotel with the specified name if the name is unique.
      *
@@ -39,20 +60,39 @@ public class SystemController {
      * @return the newly created Hotel object, or null if the name is not unique
      */
     public Hotel createHotel(String name) {
-        // Check if the hotel name is already in use
-        for (Hotel existingHotel : hotels) {
-            // Compare existing hotel names (case insensitive) with the new name
-            if (existingHotel.getName().equalsIgnoreCase(name)) {
-                // Show a popup message if the hotel name already exists
-                JOptionPane.showMessageDialog(null, "Hotel with name '" + name + "' already exists. Please choose a different name.", "Invalid Hotel Name", JOptionPane.ERROR_MESSAGE);
-                return null; // Return null if the hotel name is not unique
-            }
+        ServiceResult<Hotel> result = service.createHotel(name);
+        if (!result.isSuccess()) {
+            // Show a popup message if the hotel name already exists
+            JOptionPane.showMessageDialog(null, result.getMessage(), "Invalid Hotel Name", JOptionPane.ERROR_MESSAGE);
         }
+        return result.getValue(); // Return the newly created hotel, or null
+    }
 
-        // Create a new hotel and add it to the list
-        Hotel newHotel = new Hotel(name); // Adding an instantiation of a hotel with the chosen name
-        hotels.add(newHotel); // Adding hotel to the list of hotels
-        return newHotel; // Return the newly created hotel
+    /**
+     * Restores the hotels saved in a directory and saves every later change there.
+     * Must be called before any hotel is created.
+     *
+     * @param directory the directory holding the saved data
+     * @throws IOException if the saved data cannot be read or the journal cannot be opened
+     */
+    public void openJournal(Path directory) throws IOException {
+        service.openJournal(directory);
+    }
+
+    /**
+     * Saves a snapshot of every hotel and starts a new, empty journal.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void checkpoint() throws IOException {
+        service.checkpoint();
+    }
+
+    /**
+     * Saves a final snapshot and closes the journal. Later changes are no longer saved.
+     */
+    public void closeJournal() {
+        service.closeJournal();
     }
 
     /**
@@ -61,15 +101,13 @@ public class SystemController {
      * @param hotel the hotel to remove
      */
     public void removeHotel(Hotel hotel) {
-        // Check if the hotel is not null and exists in the list of hotels
-        if (hotel != null && hotels.contains(hotel)) {
-            // Remove the hotel from the list
-            hotels.remove(hotel);
+        ServiceResult<Hotel> result = service.removeHotel(hotel);
+        if (result.isSuccess()) {
             // Show a confirmation message indicating the hotel has been removed
-            JOptionPane.showMessageDialog(null, "Hotel '" + hotel.getName() + "' has been removed successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+            JOptionPane.showMessageDialog(null, result.getMessage(), "Success", JOptionPane.INFORMATION_MESSAGE);
         } else {
             // Show a message indicating that the hotel was not found
-            JOptionPane.showMessageDialog(null, "Hotel not found.", "Error", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(null, result.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
     
@@ -103,6 +141,17 @@ public class SystemController {
         return room.getRoomInfo(); // Returns the Room Info
     }
 
+    /**
+     * Computes daily occupancy, ADR and RevPAR for every hotel over a year.
+     * Each hotel is analyzed in a single pass over its reservations, with the hotels split across threads.
+     *
+     * @param year the year to report on
+     * @return one report per hotel, in the order of the hotels
+     */
+    public List<OccupancyReport> getOccupancyReports(int year) {
+        return service.getOccupancyReports(year);
+    }
+
     /**
      * Gets information about the specified reservation.
      *
@@ -249,16 +298,13 @@ public class SystemController {
      * @return the parsed Date object, or null if parsing fails
      */
     private Date parseDate(String dateStr) {
+        if (dateStr == null) {
+            return null; // Nothing was entered
+        }
         try {
-            // Create a SimpleDateFormat object to define the date format
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            
-            // Parse the date string into a Date object and return it
-            return sdf.parse(dateStr);
-        } catch (ParseException e) {
-            // Print the stack trace if parsing fails, indicating an error
-            e.printStackTrace();
-            
+            // Parse the date string into an epoch day and convert it to a Date at the boundary
+            return EpochDay.toDate(EpochDay.parse(dateStr));
+        } catch (DateTimeParseException e) {
             // Return null to indicate that the parsing was unsuccessful
             return null;
         }
@@ -289,11 +335,9 @@ public class SystemController {
                     int year = Integer.parseInt(yearStr);
                     int month = Integer.parseInt(monthStr);
     
-                    List<String> availability = room.getAvailabilityForMonth(year, month);
+                    MonthAvailability availability = room.getMonthAvailability(year, month);
                     message.append("Room Availability for ").append(month).append("/").append(year).append(":\n");
-                    for (String dayAvailability : availability) {
-                        message.append(dayAvailability).append("\n");
-                    }
+                    availability.appendTo(message); // Formats each day straight from the bitmask
     
                     JOptionPane.showMessageDialog(null, message.toString(), "Room Details", JOptionPane.INFORMATION_MESSAGE);
                 } catch (NumberFormatException e) {
@@ -468,21 +512,22 @@ public class SystemController {
     
         // Prompt the user for the price modifier
         String modifierStr = JOptionPane.showInputDialog("Enter price modifier (0.50 to 1.50):");
-        double modifier = Double.parseDouble(modifierStr); // Parse the price modifier
-    
-        // Check if the modifier is within the valid range
-        if (modifier >= 0.5 && modifier <= 1.5) {
-            // Create a new DatePriceModifier object with the specified dates and modifier
-            DatePriceModifier datePriceModifier = new DatePriceModifier(startDate, endDate, modifier);
-            
-            // Add the date price modifier to the hotel
-            hotel.addDatePriceModifier(datePriceModifier);
-            
-            // Inform the user that the date price modifier was set successfully
-            JOptionPane.showMessageDialog(null, "Date price modifier set successfully.");
-        } else {
-            // Inform the user that the modifier is out of the valid range
-            JOptionPane.showMessageDialog(null, "Price modifier must be between 0.50 and 1.50.", "Invalid Modifier", JOptionPane.ERROR_MESSAGE);
+        if (startDate == null || endDate == null || modifierStr == null) {
+            JOptionPane.showMessageDialog(null, "Invalid date format. Please use yyyy-MM-dd.", "Error", JOptionPane.ERROR_MESSAGE);
+            return; // Exit if a date could not be parsed
+        }
+        try {
+            double modifier = Double.parseDouble(modifierStr); // Parse the price modifier
+            // The service checks the modifier range and refuses dates that overlap an existing modifier
+            ServiceResult<DatePriceModifier> result = service.addDatePriceModifier(hotel, EpochDay.of(startDate), EpochDay.of(endDate), modifier);
+            if (result.isSuccess()) {
+                // Inform the user that the date price modifier was set successfully
+                JOptionPane.showMessageDialog(null, result.getMessage());
+            } else {
+                JOptionPane.showMessageDialog(null, result.getMessage(), "Invalid Modifier", JOptionPane.ERROR_MESSAGE);
+            }
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(null, "Invalid input. Please enter valid data.", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
     
@@ -501,30 +546,29 @@ public class SystemController {
         }
         
         Date startDate = parseDate(startDateStr); // Parse the start date
-    
-        // Iterate through the list of date price modifiers for the hotel
-        for (DatePriceModifier modifier : hotel.getDatePriceModifiers()) {
-            // Check if the current modifier's start date matches the user-provided date
-            if (modifier.getStartDate().equals(startDate)) {
-                int confirm = JOptionPane.showConfirmDialog(null, "Are you sure you want to remove the date price modifier for " + startDateStr + "?",
-                        "Confirm Removal", JOptionPane.YES_NO_OPTION);
-    
-                if (confirm == JOptionPane.YES_OPTION) {
-                    // Remove the matching date price modifier from the hotel
-                    hotel.removeDatePriceModifier(modifier);
-                    // Inform the user that the date price modifier was removed successfully
-                    JOptionPane.showMessageDialog(null, "Date price modifier removed successfully.");
-                    return; // Exit the method after successful removal
-                } else {
-                    // Inform the user that the removal was canceled
-                    JOptionPane.showMessageDialog(null, "Date price modifier removal canceled.");
-                    return; // Exit the method as the user canceled
-                }
-            }
+        if (startDate == null) {
+            JOptionPane.showMessageDialog(null, "Invalid date format. Please use yyyy-MM-dd.", "Error", JOptionPane.ERROR_MESSAGE);
+            return; // Exit if the date could not be parsed
+        }
+        int startDay = EpochDay.of(startDate);
+    
+        // Check that a modifier starts on the given date before asking for confirmation
+        DatePriceModifier modifier = hotel.getDatePriceModifier(startDay);
+        if (modifier == null || modifier.getStartDay() != startDay) {
+            // Inform the user if no date price modifier was found for the given start date
+            JOptionPane.showMessageDialog(null, "No date price modifier found for the given start date.");
+            return;
+        }
+        int confirm = JOptionPane.showConfirmDialog(null, "Are you sure you want to remove the date price modifier for " + startDateStr + "?",
+                "Confirm Removal", JOptionPane.YES_NO_OPTION);
+        if (confirm == JOptionPane.YES_OPTION) {
+            // Remove the matching date price modifier from the hotel
+            ServiceResult<DatePriceModifier> result = service.removeDatePriceModifier(hotel, startDay);
+            JOptionPane.showMessageDialog(null, result.getMessage());
+        } else {
+            // Inform the user that the removal was canceled
+            JOptionPane.showMessageDialog(null, "Date price modifier removal canceled.");
         }
-    
-        // Inform the user if no date price modifier was found for the given start date
-        JOptionPane.showMessageDialog(null, "No date price modifier found for the given start date.");
     }
     
 
@@ -558,13 +602,7 @@ public class SystemController {
      * @return the Reservation object if found, or null if no reservation matches the guest name
      */
     public Reservation findReservationByGuestName(Hotel hotel, String guestName) {
-    // Iterate through each room in the hotel
-    for (Reservation reservation : hotel.getReservations()) {
-        if (reservation.getGuestName().equalsIgnoreCase(guestName)) {
-            return reservation; // Return the matching reservation
-        }
-    }
-    return null; // Return null if no matching reservation is found
+        return hotel.findReservationByGuestName(guestName); // Look up the guest in the hotel's index
     }
 
 
@@ -575,6 +613,7 @@ public class SystemController {
      * @return the selected Hotel object, or null if no hotels are available or an invalid selection is made
      */
     public Hotel selectHotel() {
+        List<Hotel> hotels = new ArrayList<>(service.getHotels()); // Fixed copy, so the indexes stay valid
         // Check if there are any hotels available
         if (hotels.isEmpty()) {
             return null; // Return null if there are no hotels
@@ -616,18 +655,12 @@ public class SystemController {
      * @param newName the new name to be assigned to the hotel
      */
     public boolean changeHotelName(Hotel hotel, String newName) {
-        // Check if the new hotel name is already in use
-        for (Hotel existingHotel : hotels) {
-            // Compare existing hotel names (case insensitive) with the new name
-            if (existingHotel.getName().equalsIgnoreCase(newName)) {
-                // Show a popup message if the hotel name already exists
-                JOptionPane.showMessageDialog(null, "Hotel with name '" + newName + "' already exists. Please choose a different name.", "Invalid Hotel Name", JOptionPane.ERROR_MESSAGE);
-                return false; // Indicate that the name change was not successful
-            }
+        ServiceResult<Hotel> result = service.renameHotel(hotel, newName);
+        if (!result.isSuccess()) {
+            // Show a popup message if the hotel name already exists
+            JOptionPane.showMessageDialog(null, result.getMessage(), "Invalid Hotel Name", JOptionPane.ERROR_MESSAGE);
         }
-        // Update the hotel name since it is unique
-        hotel.changeName(newName);
-        return true; // Indicate that the name change was successful
+        return result.isSuccess(); // Indicate whether the name change was successful
     }
     
     
@@ -642,40 +675,16 @@ public class SystemController {
      * @param newPrice the new base price to be assigned to the hotel
      */
     public void updateHotelBasePrice(Hotel hotel, double newPrice) {
-    // Check if there are any active reservations in the hotel
-    if (hotelHasActiveReservations(hotel)) {
-        JOptionPane.showMessageDialog(null, "Cannot update base price. There are active reservations in the hotel.", "Update Failed", JOptionPane.ERROR_MESSAGE);
-    } else if (newPrice < 100.0) {
-        JOptionPane.showMessageDialog(null, "New base price must be >= 100.0.", "Invalid Price", JOptionPane.WARNING_MESSAGE);
-    } else {
-        // Update the base price since conditions are met
-        hotel.updateBasePrice(newPrice); // Call the method in Hotel class to update base price
-        JOptionPane.showMessageDialog(null, "Base price updated successfully to " + newPrice + ".", "Update Successful", JOptionPane.INFORMATION_MESSAGE);
+        ServiceResult<Hotel> result = service.updateBasePrice(hotel, newPrice);
+        if (result.isSuccess()) {
+            JOptionPane.showMessageDialog(null, result.getMessage(), "Update Successful", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(null, result.getMessage(), "Update Failed", JOptionPane.ERROR_MESSAGE);
+        }
     }
-}
 
 
 
-    /**
-     * Checks if the specified hotel has any active reservations.
-     *
-     * @param hotel the hotel to check for active reservations
-     * @return true if there are active reservations, false otherwise
-     */
-    private boolean hotelHasActiveReservations(Hotel hotel) {
-        // Iterate through each room in the hotel
-        for (Room room : hotel.getRooms()) {
-            // Iterate through each reservation in the current room
-            for (Reservation reservation : room.getReservations()) {
-                Date today = new Date(); // Get the current date
-                // Check if the reservation's check-out date is after today's date
-                if (reservation.getCheckOutDate().after(today)) {
-                    return true; // Found an active reservation
-                }
-            }
-        }
-        return false; // No active reservations found
-    }
 
 
    /**
@@ -686,26 +695,12 @@ public class SystemController {
      * @param basePrice the base price of the room to be added
      */
     public boolean addRoomToHotel(Hotel hotel, String roomName, double basePrice, String roomType) {
-        // Check if the hotel already has the maximum number of rooms (50)
-        if (hotel.getRooms().size() >= 50) {
-            // Show an error message if the hotel has reached the maximum number of rooms
-            JOptionPane.showMessageDialog(null, "Cannot add room. Hotel '" + hotel.getName() + "' already has the maximum number of rooms (50).", "Error", JOptionPane.ERROR_MESSAGE);
-            return false; // Indicate that the room could not be added
-        }
-    
-        // Validate room name uniqueness within the hotel
-        for (Room room : hotel.getRooms()) {
-            if (room.getName().equalsIgnoreCase(roomName)) {
-                // Show an error message if room name is not unique
-                JOptionPane.showMessageDialog(null, "Room with name '" + roomName + "' already exists in hotel '" + hotel.getName() + "'.", "Error", JOptionPane.ERROR_MESSAGE);
-                return false; // Indicate that the room could not be added
-            }
+        ServiceResult<Room> result = service.addRoom(hotel, roomName, basePrice, roomType);
+        if (!result.isSuccess()) {
+            // Show an error message if the hotel is full or the room name is taken
+            JOptionPane.showMessageDialog(null, result.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
-    
-        // Add room to the hotel
-        hotel.addRoom(roomName, basePrice, roomType); // Call the method in Hotel class to add room
-    
-        return true; // Indicate that the room was added successfully
+        return result.isSuccess(); // Indicate whether the room was added
     }
     
     
@@ -719,42 +714,20 @@ public class SystemController {
      * @param room  the room to be removed from the hotel
      */
     public boolean removeRoomFromHotel(Hotel hotel, Room room) {
-        // Check if the room has any active reservations
-        if (roomHasActiveReservations(room)) {
-            // Show an error message if the room has active reservations
-            JOptionPane.showMessageDialog(null, "Cannot remove room '" + room.getName() + "' because it has active reservations.", "Error", JOptionPane.ERROR_MESSAGE);
-            return false; // Indicate failure
-        } else {
-            // Remove the room from the hotel
-            hotel.removeRoom(room); // Call the method in Hotel class to remove the room
-            
+        ServiceResult<Room> result = service.removeRoom(hotel, room);
+        if (result.isSuccess()) {
             // Show a success message if the room is removed
-            JOptionPane.showMessageDialog(null, "Room '" + room.getName() + "' has been removed successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-            return true; // Indicate success
+            JOptionPane.showMessageDialog(null, result.getMessage(), "Success", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            // Show an error message if the room has active reservations
+            JOptionPane.showMessageDialog(null, result.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
+        return result.isSuccess(); // Indicate whether the room was removed
     }
     
     
 
 
-    /**
-     * Checks if the specified room has any active reservations.
-     *
-     * @param room the room to check for active reservations
-     * @return true if there are active reservations, false otherwise
-     */
-    private boolean roomHasActiveReservations(Room room) {
-        Date today = new Date(); // Get the current date
-
-        // Iterate through each reservation in the room
-        for (Reservation reservation : room.getReservations()) {
-            // Check if the reservation's check-out date is after today's date
-            if (reservation.getCheckOutDate().after(today)) {
-                return true; // Found an active reservation
-            }
-        }
-        return false; // No active reservations found
-    }
 
     /**
      * Removes a reservation from a specific room in the hotel.
@@ -764,14 +737,13 @@ public class SystemController {
      * @param reservation the reservation to be removed
      */
     public void removeReservationFromRoom(Hotel hotel, Room room, Reservation reservation) {
-        // Check if both room and reservation are not null
-        if (room != null && reservation != null) {
-            room.removeReservation(reservation); // Call the method in Room class to remove reservation from the room
+        ServiceResult<Reservation> result = service.cancel(hotel, reservation);
+        if (result.isSuccess()) {
             // Display a popup message indicating the reservation has been removed
-            JOptionPane.showMessageDialog(null, "Reservation for " + reservation.getGuestName() + " removed from room '" + room.getName() + "'", "Reservation Removed", JOptionPane.INFORMATION_MESSAGE);
+            JOptionPane.showMessageDialog(null, result.getMessage(), "Reservation Removed", JOptionPane.INFORMATION_MESSAGE);
         } else {
             // Display a popup message indicating the failure to remove the reservation
-            JOptionPane.showMessageDialog(null, "Failed to remove reservation. Please ensure the room and reservation are valid.", "Error", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(null, "Failed to remove reservation. " + result.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
     
@@ -803,6 +775,10 @@ public class SystemController {
             // Convert check-in and check-out date strings to Date objects
             Date checkInDate = parseDate(checkInStr);
             Date checkOutDate = parseDate(checkOutStr);
+            if (checkInDate == null || checkOutDate == null) {
+                System.out.println("Invalid date format. Please use yyyy-MM-dd.");
+                return; // Exit method if a date could not be parsed
+            }
     
             // Display available room names for user to choose from
             List<String> availableRoomNames = hotel.getAvailableRoomNames(checkInDate, checkOutDate);
@@ -827,54 +803,20 @@ public class SystemController {
             // Check if the selected room number is valid
             if (roomNumber > 0 && roomNumber <= availableRoomNames.size()) {
                 String selectedRoomName = availableRoomNames.get(roomNumber - 1); // Get the selected room name
-                Room selectedRoom = hotel.getRoomInfo(selectedRoomName); // Retrieve the Room object
-                
-                // Check if the selected room exists in the hotel
-                if (selectedRoom != null) {
-                    // Prompt user for any discount codes to apply
-                    System.out.print("Any discount codes that you want to apply? (leave blank if N/A): ");
-                    String discountCode = scanner.nextLine();
-    
-                    // Create the booking
-                    Reservation reservation = hotel.simulateBooking(guestName, checkInDate, checkOutDate, selectedRoom, hotel);
-                    
-                    // Handle discount codes
-                    double finalPrice = reservation.getTotalPrice(); // Total price with modifiers and discounts
-                    if (discountCode != null && !discountCode.trim().isEmpty()) {
-                        switch (discountCode) {
-                            case "I_WORK_HERE":
-                                finalPrice *= 0.9; // Example: 10% discount
-                                break;
-                            case "STAY4_GET1":
-                                long nightsStayed = (checkOutDate.getTime() - checkInDate.getTime()) / (1000 * 60 * 60 * 24);
-                                if (nightsStayed >= 5) {
-                                    finalPrice *= 0.8; // Example: 20% discount
-                                }
-                                break;
-                            case "PAYDAY":
-                                Calendar calendar = Calendar.getInstance();
-                                calendar.setTime(checkInDate);
-                                int dayOfMonth = calendar.get(Calendar.DAY_OF_MONTH);
-                                if (dayOfMonth == 15 || dayOfMonth == 30) {
-                                    finalPrice *= 0.85; // Example: 15% discount
-                                }
-                                break;
-                            default:
-                                System.out.println("Invalid discount code.");
-                        }
-                    }
-    
-                    // Update reservation with final price and discount code
-                    reservation.setDiscountCode(discountCode); // Set the discount code for the reservation
-                    reservation.setFinalPrice(finalPrice); // Set the final price for the reservation after applying the discount
-                    selectedRoom.addReservation(reservation); // Add the reservation to the selected room
-    
+
+                // Prompt user for any discount codes to apply
+                System.out.print("Any discount codes that you want to apply? (leave blank if N/A): ");
+                String discountCode = scanner.nextLine();
+
+                // Book the room; the service checks the dates, the room and the discount code
+                ServiceResult<Reservation> result = service.book(hotel, guestName, EpochDay.of(checkInDate), EpochDay.of(checkOutDate), selectedRoomName, discountCode);
+                if (result.isSuccess()) {
                     // Display reservation details
                     System.out.println("Booking simulated successfully for " + guestName + ".\n");
                     System.out.println("Here are your reservation details:");
-                    System.out.println(reservation.getDetails());
+                    System.out.println(result.getValue().getDetails());
                 } else {
-                    System.out.println("Selected room not found in the hotel."); // Inform user if the room is not found
+                    System.out.println(result.getMessage()); // Explain why the booking failed
                 }
             } else {
                 System.out.println("Invalid room number."); // Inform user if the room number is invalid
@@ -886,6 +828,19 @@ public class SystemController {
 
 
 
+    /**
+     * Books a batch of room requests, such as a group or tour block, in one call.
+     * Requests are grouped by hotel and each hotel chooses rooms for its whole group in one pass
+     * over its availability data instead of scanning every room per request.
+     *
+     * @param requests the requests to book
+     * @param allOrNothing true to book nothing unless every request can be booked, false to book as many as possible
+     * @return one result per request, in the order of the requests
+     */
+    public List<BookingResult> bookBatch(List<BookingRequest> requests, boolean allOrNothing) {
+        return service.bookBatch(requests, allOrNothing);
+    }
+
     /**
      * Displays the main menu options for the hotel management system.
      */
@@ -906,7 +861,7 @@ public class SystemController {
      * @return the list of hotels
      */
     public List<Hotel> getHotels() {
-        return hotels; // Return the list of hotels
+        return service.getHotels(); // Return the list of hotels
     }
 
 
@@ -972,13 +927,7 @@ public class SystemController {
     * @return a list of hotel names
     */
     public List<String> getHotelNames() {
-        List<String> hotelNames = new ArrayList<>(); // Initialize a list to store hotel names
-
-        for (Hotel hotel : hotels) { // Iterate through each hotel in the list
-        hotelNames.add(hotel.getName()); // Add the name of the current hotel to the list
-    }
-
-    return hotelNames; // Return the list of hotel names
+        return service.getHotelNames(); // Return the list of hotel names
     }
 
     
@@ -989,14 +938,10 @@ public class SystemController {
     * @return the hotel with the specified name, or null if not found
     */
     public Hotel getHotelByName(String name) {
-        for (Hotel hotel : hotels) { // Iterate through each hotel in the list
-            if (hotel.getName().equals(name)) { // Check if the hotel's name matches the specified name
-                return hotel; // Return the matching hotel
-        }
-    }
-    return null; // Return null if no hotel matches the name
+        return service.getHotelByName(name); // Look up the hotel in the service's name index
     }
 
+
     /**
     * Retrieves a list of available rooms in the specified hotel for the given date range.
     *
@@ -1006,45 +951,7 @@ public class SystemController {
     * @return a list of available rooms for the specified date range
     */
     public List<Room> getAvailableRooms(Hotel hotel, Date checkInDate, Date checkOutDate) {
-        List<Room> availableRooms = new ArrayList<>(); // Initialize a list to store available rooms
-        for (Room room : hotel.getRooms()) { // Iterate through each room in the hotel's room list
-            if (isRoomAvailable(room, checkInDate, checkOutDate)) { // Check if the room is available for the date range
-                availableRooms.add(room); // Add the available room to the list
-            }
-        }
-        return availableRooms; // Return the list of available rooms
+        ServiceResult<List<Room>> result = service.getAvailableRooms(hotel, EpochDay.of(checkInDate), EpochDay.of(checkOutDate));
+        return result.isSuccess() ? result.getValue() : new ArrayList<>(); // No rooms for an unknown hotel or empty stay
     }
-    
-    /**
- * Checks if a room is available for a given date range.
- *
- * @param room the room to check
- * @param checkInDate the check-in date
- * @param checkOutDate the check-out date
- * @return true if the room is available, false otherwise
- */
-private boolean isRoomAvailable(Room room, Date checkInDate, Date checkOutDate) {
-    for (Reservation reservation : room.getReservations()) { // Iterate through each reservation for the room
-        // Check if the reservation dates overlap with the requested date range
-        if (reservation.getCheckOutDate().after(checkInDate) && reservation.getCheckInDate().before(checkOutDate)) {
-            return false; // Return false if there is an overlapping reservation
-        }
-    }
-    return true; // Return true if no overlapping reservations are found
-}
-
-/**
- * Adds a reservation to both the specified room and hotel.
- *
- * @param hotel the hotel to which the reservation will be added
- * @param room the room to which the reservation will be added
- * @param reservation the reservation to be added
- */
-public void addReservation(Hotel hotel, Room room, Reservation reservation) {
-    room.addReservation(reservation); // Add the reservation to the room's list of reservations
-    hotel.addReservation(reservation); // Add the reservation to the hotel's list of reservations
-}
-
-    
-    
 }
@@ -0,0 +1,55 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An assignment strategy that books a room of the first type in a preference order that has a
+ * free room, and leaves the choice between rooms of that type to another strategy.
+ * By default the cheapest types are filled first, keeping the better rooms for guests who ask for them.
+ */
+public class TypePreferringAssignment implements RoomAssignmentStrategy {
+    private final String[] typeOrder; // Room types from most to least preferred
+    private final RoomAssignmentStrategy within; // Strategy that chooses between rooms of one type
+
+    /**
+     * Constructs a strategy that fills the room types from the cheapest up, using best-fit within a type.
+     */
+    public TypePreferringAssignment() {
+        this(Room.ROOM_TYPES, new BestFitAssignment());
+    }
+
+    /**
+     * Constructs a strategy with a custom type order.
+     *
+     * @param typeOrder the room types from most to least preferred
+     * @param within the strategy that chooses between free rooms of the same type
+     */
+    public TypePreferringAssignment(String[] typeOrder, RoomAssignmentStrategy within) {
+        this.typeOrder = typeOrder.clone();
+        this.within = within;
+    }
+
+    /**
+     * Chooses a room of the most preferred type that has a free room.
+     * Rooms of types missing from the order are only used when no listed type is free.
+     *
+     * @param freeRooms the rooms free for the whole stay, in the order they were added to the hotel
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return the chosen room, or null if the list is empty
+     */
+    @Override
+    public Room choose(List<Room> freeRooms, int checkInDay, int checkOutDay) {
+        List<Room> candidates = new ArrayList<>();
+        for (String type : typeOrder) {
+            for (Room room : freeRooms) {
+                if (room.getRoomType().equals(type)) {
+                    candidates.add(room);
+                }
+            }
+            if (!candidates.isEmpty()) {
+                return within.choose(candidates, checkInDay, checkOutDay);
+            }
+        }
+        return within.choose(freeRooms, checkInDay, checkOutDay); // Only unlisted types are free
+    }
+}
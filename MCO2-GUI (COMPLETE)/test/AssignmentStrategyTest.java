@@ -0,0 +1,138 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests the room assignment strategies and how a hotel uses them.
+ */
+public class AssignmentStrategyTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        bestFitTakesTheTightestGap();
+        bestFitMatchesScanningTheReservations();
+        firstFitAndTypePreference();
+        hotelBooksWithItsStrategy();
+    }
+
+    /**
+     * A stay goes into the room whose free nights it fills most closely, leaving long runs whole.
+     */
+    private static void bestFitTakesTheTightestGap() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("Open", 1000.0, "Standard");
+        hotel.addRoom("Gap", 1000.0, "Standard");
+        Room open = hotel.getRoomInfo("Open");
+        Room gap = hotel.getRoomInfo("Gap");
+        hotel.bookRoom("Guest", 0, 10, gap);
+        hotel.bookRoom("Guest", 14, 20, gap); // Leaves nights 10 to 13 free
+
+        RoomAssignmentStrategy bestFit = new BestFitAssignment();
+        Check.equal(gap, bestFit.choose(List.of(open, gap), 10, 14), "exact fit");
+        Check.equal(gap, bestFit.choose(List.of(open, gap), 11, 13), "tighter gap");
+        Check.equal(open, bestFit.choose(List.of(open), 11, 13), "only room");
+        Check.isTrue(bestFit.choose(new ArrayList<>(), 11, 13) == null, "no free room");
+
+        hotel.addRoom("Open2", 1000.0, "Standard");
+        Room open2 = hotel.getRoomInfo("Open2");
+        Check.equal(open, bestFit.choose(List.of(open, open2), 30, 32), "earliest added on ties");
+    }
+
+    /**
+     * On random calendars the chosen room is the first one with the smallest free run around the
+     * stay, as found by scanning every reservation.
+     */
+    private static void bestFitMatchesScanningTheReservations() {
+        Random random = new Random(21);
+        RoomAssignmentStrategy bestFit = new BestFitAssignment();
+        for (int round = 0; round < 50; round++) {
+            Hotel hotel = new Hotel("Test");
+            for (int r = 0; r < 6; r++) {
+                hotel.addRoom("R" + r, 1000.0, "Standard");
+            }
+            for (int i = 0; i < 60; i++) {
+                int checkIn = random.nextInt(100);
+                hotel.bookRoom("Guest", checkIn, checkIn + 1 + random.nextInt(5), hotel.getRooms().get(random.nextInt(6)));
+            }
+            for (int q = 0; q < 20; q++) {
+                int checkIn = random.nextInt(100);
+                int checkOut = checkIn + 1 + random.nextInt(4);
+                List<Room> free = new ArrayList<>();
+                Room expected = null;
+                long expectedGap = Long.MAX_VALUE;
+                for (Room room : hotel.getRooms()) {
+                    if (!room.isAvailable(checkIn, checkOut)) {
+                        continue;
+                    }
+                    free.add(room);
+                    long previousCheckOut = Integer.MIN_VALUE;
+                    long nextCheckIn = Integer.MAX_VALUE;
+                    for (Reservation reservation : room.getReservations()) {
+                        if (reservation.getCheckInDay() < checkIn) {
+                            previousCheckOut = Math.max(previousCheckOut, reservation.getCheckOutDay());
+                        } else {
+                            nextCheckIn = Math.min(nextCheckIn, reservation.getCheckInDay());
+                        }
+                    }
+                    if (nextCheckIn - previousCheckOut < expectedGap) {
+                        expected = room;
+                        expectedGap = nextCheckIn - previousCheckOut;
+                    }
+                }
+                Check.equal(expected, bestFit.choose(free, checkIn, checkOut), "best fit for " + checkIn + "-" + checkOut);
+            }
+        }
+    }
+
+    /**
+     * First-fit takes the first free room, and type preference fills the preferred type first and
+     * leaves the choice within the type to the other strategy.
+     */
+    private static void firstFitAndTypePreference() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("E1", 1000.0, "Executive");
+        hotel.addRoom("D1", 1000.0, "Deluxe");
+        hotel.addRoom("S1", 1000.0, "Standard");
+        hotel.addRoom("S2", 1000.0, "Standard");
+        List<Room> all = hotel.getRooms();
+        Room e1 = hotel.getRoomInfo("E1");
+        Room d1 = hotel.getRoomInfo("D1");
+        Room s1 = hotel.getRoomInfo("S1");
+        Room s2 = hotel.getRoomInfo("S2");
+
+        Check.equal(e1, new FirstFitAssignment().choose(all, 1, 2), "first free room");
+        Check.isTrue(new FirstFitAssignment().choose(new ArrayList<>(), 1, 2) == null, "no free room");
+
+        Check.equal(s1, new TypePreferringAssignment().choose(all, 1, 2), "cheapest type first");
+        Check.equal(d1, new TypePreferringAssignment().choose(List.of(e1, d1), 1, 2), "next type up");
+
+        RoomAssignmentStrategy lastStandard = (rooms, in, out) -> rooms.get(rooms.size() - 1);
+        Check.equal(s2, new TypePreferringAssignment(Room.ROOM_TYPES, lastStandard).choose(all, 1, 2), "choice within the type");
+        RoomAssignmentStrategy deluxeOnly = new TypePreferringAssignment(new String[] {"Deluxe"}, new FirstFitAssignment());
+        Check.equal(d1, deluxeOnly.choose(all, 1, 2), "custom order");
+        Check.equal(e1, deluxeOnly.choose(List.of(e1, s1), 1, 2), "unlisted types when no listed type is free");
+    }
+
+    /**
+     * A hotel chooses among its free rooms with best-fit unless another strategy is set.
+     */
+    private static void hotelBooksWithItsStrategy() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1000.0, "Standard");
+        hotel.addRoom("B", 1000.0, "Standard");
+        hotel.bookRoom("Guest", 0, 5, hotel.getRoomInfo("B"));
+        hotel.bookRoom("Guest", 7, 9, hotel.getRoomInfo("B"));
+        Check.isTrue(hotel.getAssignmentStrategy() instanceof BestFitAssignment, "best-fit by default");
+        Check.equal("B", hotel.selectRoomForBooking(5, 7).getName(), "best fit fills the gap");
+
+        hotel.setAssignmentStrategy(new FirstFitAssignment());
+        Check.equal("A", hotel.selectRoomForBooking(5, 7).getName(), "first fit takes the first room");
+        hotel.bookRoom("Guest", 5, 7, hotel.getRoomInfo("A"));
+        Check.equal("B", hotel.selectRoomForBooking(5, 7).getName(), "only free room");
+        hotel.bookRoom("Guest", 5, 7, hotel.getRoomInfo("B"));
+        Check.isTrue(hotel.selectRoomForBooking(5, 7) == null, "nothing free");
+    }
+}
@@ -0,0 +1,114 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests the booked-count tree against a plain array of counts, and the free counts per room type
+ * a hotel answers from it.
+ */
+public class BookedCountTreeTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        treeMatchesAnArray();
+        treeCoversEveryEpochDay();
+        hotelFreeCountsMatchItsReservations();
+    }
+
+    /**
+     * Random additions and removals give the same highest count over random ranges as an array.
+     */
+    private static void treeMatchesAnArray() {
+        Random random = new Random(22);
+        BookedCountTree tree = new BookedCountTree();
+        int[] counts = new int[400];
+        int offset = 200; // Days from -200 to 199
+        for (int step = 0; step < 5000; step++) {
+            int from = random.nextInt(counts.length) - offset;
+            int to = from + random.nextInt(30);
+            int delta = random.nextInt(3) - 1;
+            tree.add(from, to, delta);
+            for (int day = from; day < to && day + offset < counts.length; day++) {
+                counts[day + offset] += delta;
+            }
+
+            int checkIn = random.nextInt(counts.length) - offset;
+            int checkOut = Math.min(checkIn + random.nextInt(40), counts.length - offset);
+            int expected = checkOut > checkIn ? Integer.MIN_VALUE : 0;
+            for (int day = checkIn; day < checkOut; day++) {
+                expected = Math.max(expected, counts[day + offset]);
+            }
+            Check.equal(expected, tree.max(checkIn, checkOut), "max over " + checkIn + "-" + checkOut + " at step " + step);
+        }
+    }
+
+    /**
+     * Stays at the far ends of the epoch day range are counted, and days nobody booked count 0.
+     */
+    private static void treeCoversEveryEpochDay() {
+        BookedCountTree tree = new BookedCountTree();
+        tree.add(Integer.MIN_VALUE, Integer.MIN_VALUE + 3, 2);
+        tree.add(Integer.MAX_VALUE - 3, Integer.MAX_VALUE, 1);
+        Check.equal(2, tree.max(Integer.MIN_VALUE, Integer.MIN_VALUE + 1), "first day");
+        Check.equal(1, tree.max(Integer.MAX_VALUE - 1, Integer.MAX_VALUE), "last day counted");
+        Check.equal(0, tree.max(-1000, 1000), "untouched days");
+        Check.equal(2, tree.max(Integer.MIN_VALUE, Integer.MAX_VALUE), "whole range");
+        Check.equal(0, tree.max(5, 5), "stay without nights");
+        tree.add(10, 10, 5);
+        Check.equal(0, tree.max(9, 12), "adding no nights changes nothing");
+    }
+
+    /**
+     * After random bookings, cancellations and room changes, the free rooms of each type for a stay
+     * are the rooms of the type less the most booked on any night of it.
+     */
+    private static void hotelFreeCountsMatchItsReservations() {
+        Random random = new Random(222);
+        Hotel hotel = new Hotel("Test");
+        int rooms = 0;
+        for (; rooms < 9; rooms++) {
+            hotel.addRoom("R" + rooms, 1000.0, Room.ROOM_TYPES[rooms % 3]);
+        }
+        List<Reservation> booked = new ArrayList<>();
+        for (int step = 0; step < 2000; step++) {
+            int action = random.nextInt(10);
+            if (action < 6) {
+                int checkIn = random.nextInt(60);
+                Room room = hotel.getRooms().get(random.nextInt(hotel.getRooms().size()));
+                Reservation reservation = hotel.bookRoom("Guest", checkIn, checkIn + 1 + random.nextInt(5), room);
+                if (reservation != null) {
+                    booked.add(reservation);
+                }
+            } else if (action < 9 && !booked.isEmpty()) {
+                hotel.removeReservation(booked.remove(random.nextInt(booked.size())));
+            } else if (random.nextBoolean()) {
+                hotel.addRoom("R" + rooms++, 1000.0, Room.ROOM_TYPES[random.nextInt(3)]);
+            } else {
+                hotel.removeRoom(hotel.getRooms().get(random.nextInt(hotel.getRooms().size()))); // Refused while it has reservations
+            }
+
+            String roomType = Room.ROOM_TYPES[random.nextInt(3)];
+            int checkIn = random.nextInt(60);
+            int checkOut = checkIn + 1 + random.nextInt(7);
+            int roomsOfType = 0;
+            for (Room room : hotel.getRooms()) {
+                roomsOfType += room.getRoomType().equals(roomType) ? 1 : 0;
+            }
+            int busiest = 0;
+            for (int night = checkIn; night < checkOut; night++) {
+                int taken = 0;
+                for (Reservation reservation : hotel.getReservations()) {
+                    if (reservation.getRoom().getRoomType().equals(roomType)
+                            && reservation.getCheckInDay() <= night && night < reservation.getCheckOutDay()) {
+                        taken++;
+                    }
+                }
+                busiest = Math.max(busiest, taken);
+            }
+            Check.equal(roomsOfType - busiest, hotel.getFreeRoomCount(roomType, checkIn, checkOut), roomType + " free at step " + step);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests booking batches of requests, in particular that an all-or-nothing batch that does not
+ * fit leaves no reservations, journal records or used-up reservation IDs behind.
+ */
+public class BookingBatchTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     * @throws Exception if the journal files cannot be used or a thread is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        batchGetsDistinctRoomsWithDiscounts();
+        partialBatchBooksWhatFits();
+        rejectedBatchLeavesNothingBehind();
+        rejectedBatchAcrossHotelsLeavesNothingBehind();
+        batchKeepsRoomsForHolds();
+        racingBatchesAreWholeOrNothing();
+    }
+
+    /**
+     * Every request of a batch that fits gets its own room, of its type where possible, with the
+     * discount code applied.
+     */
+    private static void batchGetsDistinctRoomsWithDiscounts() {
+        Hotel hotel = hotelWithRooms("Test", 3);
+        List<BookingResult> results = hotel.bookBatch(Arrays.asList(
+                new BookingRequest(hotel, "A", 10, 13, "Deluxe", "I_WORK_HERE"),
+                new BookingRequest(hotel, "B", 10, 13, "Standard", null),
+                new BookingRequest(hotel, "C", 11, 12, "Standard", null)), true);
+        Check.isTrue(results.get(0).isBooked() && results.get(1).isBooked() && results.get(2).isBooked(), "all booked");
+        Check.equal("Deluxe", results.get(0).getReservation().getRoom().getRoomType(), "preferred type");
+        Check.near(results.get(0).getReservation().getTotalPrice() * 0.9, results.get(0).getReservation().getFinalPrice(), "discount applied");
+        Check.isTrue(results.get(1).getReservation().getRoom() != results.get(2).getReservation().getRoom(), "overlapping stays in different rooms");
+        Check.equal(3, hotel.getReservations().size(), "three reservations");
+    }
+
+    /**
+     * Without all-or-nothing, the requests that fit are booked and the rest say why not.
+     */
+    private static void partialBatchBooksWhatFits() {
+        Hotel hotel = hotelWithRooms("Test", 2);
+        List<BookingResult> results = hotel.bookBatch(Arrays.asList(
+                new BookingRequest(hotel, "A", 10, 12, "Standard", null),
+                new BookingRequest(hotel, "B", 10, 12, "Standard", null),
+                new BookingRequest(hotel, "C", 10, 12, "Standard", null),
+                new BookingRequest(hotel, "D", 12, 10, "Standard", null)), false);
+        Check.isTrue(results.get(0).isBooked() && results.get(1).isBooked(), "first two booked");
+        Check.equal("No rooms available for the selected dates.", results.get(2).getMessage(), "third has no room");
+        Check.isTrue(!results.get(3).isBooked(), "empty stay refused");
+        Check.equal(2, hotel.getReservations().size(), "two reservations");
+    }
+
+    /**
+     * An all-or-nothing batch that does not fit books nothing, journals nothing and uses no IDs.
+     *
+     * @throws Exception if the journal files cannot be used
+     */
+    private static void rejectedBatchLeavesNothingBehind() throws Exception {
+        Path directory = Files.createTempDirectory("batch-journal");
+        try {
+            HotelService service = new HotelService();
+            service.openJournal(directory);
+            Hotel hotel = service.createHotel("Test").getValue();
+            service.addRoom(hotel, "R1", 1000.0, "Standard");
+            service.addRoom(hotel, "R2", 1000.0, "Standard");
+            int before = service.book(hotel, "First", 1, 2, null, null).getValue().getId();
+            int records = JournalFiles.recordTypes(directory).size();
+
+            List<BookingResult> results = service.bookBatch(Arrays.asList(
+                    new BookingRequest(hotel, "A", 10, 12, "Standard", null),
+                    new BookingRequest(hotel, "B", 10, 12, "Standard", null),
+                    new BookingRequest(hotel, "C", 11, 13, "Standard", null)), true);
+            for (BookingResult result : results) {
+                Check.isTrue(!result.isBooked(), "request not booked");
+            }
+            Check.equal(1, hotel.getReservations().size(), "only the earlier booking");
+            Check.equal(2, hotel.getAvailableRoomNames(10, 13).size(), "rooms still free");
+            Check.equal(records, JournalFiles.recordTypes(directory).size(), "nothing journaled");
+
+            int after = service.book(hotel, "Next", 1, 2, null, null).getValue().getId();
+            Check.equal(before + 1, after, "no reservation IDs used up");
+            service.closeJournal();
+        } finally {
+            JournalFiles.delete(directory);
+        }
+    }
+
+    /**
+     * When one hotel's part of an all-or-nothing batch does not fit, the other hotels book nothing.
+     */
+    private static void rejectedBatchAcrossHotelsLeavesNothingBehind() {
+        HotelService service = new HotelService();
+        Hotel first = service.createHotel("First").getValue();
+        Hotel second = service.createHotel("Second").getValue();
+        service.addRoom(first, "R1", 1000.0, "Standard");
+        service.addRoom(second, "R1", 1000.0, "Standard");
+
+        // Listed second hotel first, so the hotel that does not fit is checked after the one that does
+        List<BookingResult> results = service.bookBatch(Arrays.asList(
+                new BookingRequest(second, "A", 10, 12, "Standard", null),
+                new BookingRequest(first, "B", 10, 12, "Standard", null),
+                new BookingRequest(second, "C", 10, 12, "Standard", null)), true);
+        for (BookingResult result : results) {
+            Check.isTrue(!result.isBooked(), "request not booked");
+        }
+        Check.isTrue(first.getReservations().isEmpty(), "first hotel untouched");
+        Check.isTrue(second.getReservations().isEmpty(), "second hotel untouched");
+
+        List<BookingResult> fits = service.bookBatch(Arrays.asList(
+                new BookingRequest(second, "A", 10, 12, "Standard", null),
+                new BookingRequest(first, "B", 10, 12, "Standard", null)), true);
+        Check.isTrue(fits.get(0).isBooked() && fits.get(1).isBooked(), "batch that fits is booked");
+        Check.equal(1, first.getReservations().size(), "first hotel booked");
+        Check.equal(1, second.getReservations().size(), "second hotel booked");
+    }
+
+    /**
+     * The stays of a batch are checked together against the holds of their room type, so a batch
+     * cannot take the room a hold was promised even when each stay alone would fit.
+     */
+    private static void batchKeepsRoomsForHolds() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("D1", 2000.0, "Deluxe");
+        hotel.addRoom("D2", 2000.0, "Deluxe");
+        hotel.addRoom("D3", 2000.0, "Deluxe");
+        Check.isTrue(hotel.holdRoomType("Held", "Deluxe", 100, 103, null) != null, "hold made");
+
+        List<BookingResult> tooMany = hotel.bookBatch(Arrays.asList(
+                new BookingRequest(hotel, "A", 100, 102, "Deluxe", null),
+                new BookingRequest(hotel, "B", 100, 102, "Deluxe", null),
+                new BookingRequest(hotel, "C", 101, 104, "Deluxe", null)), true);
+        Check.isTrue(!tooMany.get(0).isBooked(), "batch would leave the hold without a room");
+        Check.isTrue(hotel.getReservations().isEmpty(), "nothing booked");
+
+        List<BookingResult> fits = hotel.bookBatch(Arrays.asList(
+                new BookingRequest(hotel, "A", 100, 102, "Deluxe", null),
+                new BookingRequest(hotel, "C", 101, 104, "Deluxe", null)), true);
+        Check.isTrue(fits.get(0).isBooked() && fits.get(1).isBooked(), "batch leaving a room for the hold");
+        List<Reservation> assigned = hotel.assignHolds(200);
+        Check.equal(1, assigned.size(), "hold still gets a room");
+    }
+
+    /**
+     * Threads racing all-or-nothing batches for the same nights each book a whole batch or nothing.
+     *
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    private static void racingBatchesAreWholeOrNothing() throws InterruptedException {
+        for (int round = 0; round < 10; round++) {
+            Hotel hotel = hotelWithRooms("Race", 5);
+            AtomicInteger whole = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 6; t++) {
+                String guest = "Group " + t;
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    List<BookingResult> results = hotel.bookBatch(Arrays.asList(
+                            new BookingRequest(hotel, guest, 10, 12, "Standard", null),
+                            new BookingRequest(hotel, guest, 10, 12, "Standard", null)), true);
+                    Check.isTrue(results.get(0).isBooked() == results.get(1).isBooked(), "batch half booked");
+                    if (results.get(0).isBooked()) {
+                        whole.incrementAndGet();
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            Check.equal(2, whole.get(), "two batches fit in five rooms");
+            Check.equal(4, hotel.getReservations().size(), "reservations of the booked batches");
+        }
+    }
+
+    /**
+     * Creates a hotel with one Deluxe room and the rest Standard rooms.
+     *
+     * @param name the name of the hotel
+     * @param roomCount the number of rooms
+     * @return the hotel
+     */
+    private static Hotel hotelWithRooms(String name, int roomCount) {
+        Hotel hotel = new Hotel(name);
+        hotel.addRoom("D1", 2000.0, "Deluxe");
+        for (int i = 1; i < roomCount; i++) {
+            hotel.addRoom("S" + i, 1000.0, "Standard");
+        }
+        return hotel;
+    }
+}
@@ -0,0 +1,314 @@
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests that the journal and its snapshots bring the hotels back as they were, including after a
+ * crash that cut a record short or interrupted a snapshot.
+ */
+public class BookingJournalTest {
+    private static final byte HOLD = 14; // Record type, as in BookingJournal
+    private static final List<Path> crashCopies = new ArrayList<>(); // Copies deleted once the tests end
+
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     * @throws Exception if the journal files cannot be used
+     */
+    public static void main(String[] args) throws Exception {
+        try {
+            replayRestoresEveryChange();
+            damagedLastRecordIsDropped();
+            checkpointKeepsChangesMadeWhileWriting();
+            checkpointCarriesHoldsOver();
+            crashBetweenSnapshotAndJournalIsRecovered();
+            crashBeforeSnapshotKeepsOldJournal();
+            failedSnapshotOnCloseIsKept();
+        } finally {
+            for (Path copy : crashCopies) {
+                JournalFiles.delete(copy);
+            }
+        }
+    }
+
+    /**
+     * A snapshot that cannot be written while the journal closes is kept for the caller rather
+     * than printed, and the journal still closes.
+     *
+     * @throws Exception if the journal files cannot be used
+     */
+    private static void failedSnapshotOnCloseIsKept() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            HotelService service = new HotelService();
+            service.openJournal(directory);
+            Hotel hotel = service.createHotel("Seaside").getValue();
+            service.addRoom(hotel, "A", 1000.0, "Standard");
+            Check.isTrue(service.getLastSaveFailure() == null, "nothing failed yet");
+            JournalFiles.delete(directory); // The snapshot has nowhere to go
+            service.closeJournal();
+            Check.isTrue(service.getLastSaveFailure() != null, "failure kept");
+            Check.isTrue(service.createHotel("After").isSuccess(), "service still works without the journal");
+        } finally {
+            if (Files.exists(directory)) {
+                JournalFiles.delete(directory);
+            }
+        }
+    }
+
+    /**
+     * Hotels, rooms, bookings, cancellations and modifiers come back from the journal alone.
+     *
+     * @throws Exception if the journal files cannot be used
+     */
+    private static void replayRestoresEveryChange() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            HotelService service = new HotelService();
+            service.openJournal(directory);
+            Hotel hotel = service.createHotel("Seaside").getValue();
+            service.addRoom(hotel, "A", 1000.0, "Standard");
+            service.addRoom(hotel, "B", 2000.0, "Deluxe");
+            service.addDatePriceModifier(hotel, 20, 21, 1.5);
+            Reservation kept = service.book(hotel, "Ana", 20, 23, "A", null).getValue();
+            Reservation cancelled = service.book(hotel, "Ben", 20, 23, "B", null).getValue();
+            service.cancel(hotel, cancelled);
+            service.renameHotel(hotel, "Bayside");
+
+            Hotel restored = reopen(directory).getHotelByName("Bayside");
+            Check.isTrue(restored != null, "renamed hotel restored");
+            Check.equal(2, restored.getRooms().size(), "rooms restored");
+            Check.equal(1, restored.getDatePriceModifiers().size(), "modifier restored");
+            Check.equal(1, restored.getReservations().size(), "cancellation replayed");
+            Reservation replayed = restored.getReservationById(kept.getId());
+            Check.equal("Ana", replayed.getGuestName(), "guest");
+            Check.equal("A", replayed.getRoom().getName(), "room");
+            Check.near(kept.getFinalPrice(), replayed.getFinalPrice(), "price");
+            Check.isTrue(!restored.getRoomInfo("A").isAvailable(21, 22), "nights booked again");
+            Check.isTrue(restored.getRoomInfo("B").isAvailable(20, 23), "cancelled nights free");
+            service.closeJournal();
+        } finally {
+            JournalFiles.delete(directory);
+        }
+    }
+
+    /**
+     * A last record with a bad checksum or cut off part way is dropped, and the records before it are kept.
+     *
+     * @throws Exception if the journal files cannot be used
+     */
+    private static void damagedLastRecordIsDropped() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            HotelService service = new HotelService();
+            service.openJournal(directory);
+            Hotel hotel = service.createHotel("Test").getValue();
+            service.addRoom(hotel, "A", 1000.0, "Standard");
+            service.book(hotel, "First", 10, 12, "A", null);
+            service.book(hotel, "Second", 20, 22, "A", null);
+
+            // Flip a bit in the checksum at the very end of the file
+            Path flipped = crashCopy(directory);
+            try (RandomAccessFile file = new RandomAccessFile(flipped.resolve("hotels.journal").toFile(), "rw")) {
+                file.seek(file.length() - 1);
+                int last = file.read();
+                file.seek(file.length() - 1);
+                file.write(last ^ 1);
+            }
+            checkGuests(reopen(flipped).getHotelByName("Test"), "First");
+            Check.equal(3, JournalFiles.recordTypes(flipped).size(), "bad record cut from the file");
+
+            // Cut the last record off part way through
+            Path torn = crashCopy(directory);
+            try (RandomAccessFile file = new RandomAccessFile(torn.resolve("hotels.journal").toFile(), "rw")) {
+                file.setLength(file.length() - 5);
+            }
+            HotelService tornService = reopen(torn);
+            checkGuests(tornService.getHotelByName("Test"), "First");
+
+            // The journal carries on after the dropped record
+            tornService.book(tornService.getHotelByName("Test"), "Third", 30, 32, "A", null);
+            checkGuests(reopen(crashCopy(torn)).getHotelByName("Test"), "First", "Third");
+            service.closeJournal();
+        } finally {
+            JournalFiles.delete(directory);
+        }
+    }
+
+    /**
+     * Bookings made on other threads while a snapshot is taken end up in the snapshot or in the
+     * new journal, and the new journal holds only what came after the snapshot.
+     *
+     * @throws Exception if the journal files cannot be used
+     */
+    private static void checkpointKeepsChangesMadeWhileWriting() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            HotelService service = new HotelService();
+            service.openJournal(directory);
+            Hotel hotel = service.createHotel("Test").getValue();
+            for (int i = 0; i < 20; i++) {
+                service.addRoom(hotel, "R" + i, 1000.0, "Standard");
+            }
+            long generation = JournalFiles.generation(directory);
+
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int first = t * 5;
+                Thread thread = new Thread(() -> {
+                    for (int day = 0; day < 100; day++) {
+                        for (int room = first; room < first + 5; room++) {
+                            service.book(hotel, "Guest", day, day + 1, "R" + room, null);
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (int i = 0; i < 5; i++) {
+                service.checkpoint();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            Check.equal(generation + 5, JournalFiles.generation(directory), "five snapshots taken");
+            Check.isTrue(JournalFiles.recordTypes(directory).size() < 2000, "journal restarted");
+
+            Hotel restored = reopen(crashCopy(directory)).getHotelByName("Test");
+            Check.equal(2000, restored.getReservations().size(), "every booking restored");
+            service.checkpoint();
+            Check.equal(0, JournalFiles.recordTypes(directory).size(), "nothing left after a quiet snapshot");
+            service.closeJournal();
+        } finally {
+            JournalFiles.delete(directory);
+        }
+    }
+
+    /**
+     * Holds are not in the snapshot, so they start the new journal.
+     *
+     * @throws Exception if the journal files cannot be used
+     */
+    private static void checkpointCarriesHoldsOver() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            HotelService service = new HotelService();
+            service.openJournal(directory);
+            Hotel hotel = service.createHotel("Test").getValue();
+            service.addRoom(hotel, "D1", 2000.0, "Deluxe");
+            RoomTypeHold hold = service.holdRoomType(hotel, "Held", "Deluxe", 100, 103, null).getValue();
+            service.checkpoint();
+            Check.isTrue(JournalFiles.recordTypes(directory).contains((int) HOLD), "hold carried over");
+
+            Hotel restored = reopen(crashCopy(directory)).getHotelByName("Test");
+            Check.isTrue(restored.getHoldById(hold.getId()) != null, "hold restored");
+            Check.equal("D1", restored.getHoldById(hold.getId()).getPlannedRoom().getName(), "room set aside restored");
+            Check.isTrue(restored.getRoomInfo("D1") != null, "room restored");
+            service.closeJournal();
+        } finally {
+            JournalFiles.delete(directory);
+        }
+    }
+
+    /**
+     * A crash after the new snapshot was renamed into place but before its journal was leaves the
+     * finished new journal beside the old one, and it is used on startup.
+     *
+     * @throws Exception if the journal files cannot be used
+     */
+    private static void crashBetweenSnapshotAndJournalIsRecovered() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            HotelService service = new HotelService();
+            service.openJournal(directory);
+            Hotel hotel = service.createHotel("Test").getValue();
+            service.addRoom(hotel, "A", 1000.0, "Standard");
+            service.book(hotel, "Before", 10, 12, "A", null);
+            Path oldJournal = Files.createTempFile("old", ".journal");
+            Files.copy(directory.resolve("hotels.journal"), oldJournal, StandardCopyOption.REPLACE_EXISTING);
+            service.checkpoint();
+            service.book(hotel, "After", 20, 22, "A", null);
+
+            Path crashed = crashCopy(directory);
+            Files.move(crashed.resolve("hotels.journal"), crashed.resolve("hotels.journal.next"));
+            Files.move(oldJournal, crashed.resolve("hotels.journal"));
+            checkGuests(reopen(crashed).getHotelByName("Test"), "Before", "After");
+            Check.isTrue(!Files.exists(crashed.resolve("hotels.journal.next")), "new journal moved into place");
+            service.closeJournal();
+        } finally {
+            JournalFiles.delete(directory);
+        }
+    }
+
+    /**
+     * A crash before the new snapshot was renamed into place leaves a new journal whose snapshot
+     * does not exist; it is deleted and the old snapshot and journal are used.
+     *
+     * @throws Exception if the journal files cannot be used
+     */
+    private static void crashBeforeSnapshotKeepsOldJournal() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            HotelService service = new HotelService();
+            service.openJournal(directory);
+            Hotel hotel = service.createHotel("Test").getValue();
+            service.addRoom(hotel, "A", 1000.0, "Standard");
+            service.book(hotel, "Kept", 10, 12, "A", null);
+
+            Path crashed = crashCopy(directory);
+            try (RandomAccessFile file = new RandomAccessFile(crashed.resolve("hotels.journal.next").toFile(), "rw")) {
+                file.writeInt(0x484A524E); // Journal magic number
+                file.writeLong(JournalFiles.generation(directory) + 1);
+            }
+            checkGuests(reopen(crashed).getHotelByName("Test"), "Kept");
+            Check.isTrue(!Files.exists(crashed.resolve("hotels.journal.next")), "unfinished journal deleted");
+            service.closeJournal();
+        } finally {
+            JournalFiles.delete(directory);
+        }
+    }
+
+    /**
+     * Copies a journal directory as a crash would leave it.
+     *
+     * @param directory the journal directory
+     * @return the copy, deleted once the tests end
+     * @throws Exception if the files cannot be copied
+     */
+    private static Path crashCopy(Path directory) throws Exception {
+        Path copy = JournalFiles.copy(directory);
+        crashCopies.add(copy);
+        return copy;
+    }
+
+    /**
+     * Opens a saved directory in a new service.
+     *
+     * @param directory the journal directory
+     * @return the service holding the restored hotels
+     * @throws Exception if the journal files cannot be used
+     */
+    private static HotelService reopen(Path directory) throws Exception {
+        HotelService service = new HotelService();
+        service.openJournal(directory);
+        return service;
+    }
+
+    /**
+     * Checks the guests of a hotel's reservations, in booking order.
+     *
+     * @param hotel the hotel
+     * @param guests the expected guest names
+     */
+    private static void checkGuests(Hotel hotel, String... guests) {
+        List<String> names = new ArrayList<>();
+        for (Reservation reservation : hotel.getReservations()) {
+            names.add(reservation.getGuestName());
+        }
+        Check.equal(List.of(guests), names, "guests");
+    }
+}
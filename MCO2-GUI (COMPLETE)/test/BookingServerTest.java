@@ -0,0 +1,177 @@
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tests the HTTP booking API end to end over a local port.
+ */
+public class BookingServerTest {
+    private static HttpClient client; // Client shared by the requests
+    private static String base; // Address of the server under test
+
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     * @throws Exception if a request cannot be sent
+     */
+    public static void main(String[] args) throws Exception {
+        HotelService service = new HotelService();
+        Hotel hotel = service.createHotel("Seaside").getValue();
+        service.addRoom(hotel, "A", 1000.0, "Standard");
+        service.addRoom(hotel, "B", 1000.0, "Standard");
+        BookingServer server = new BookingServer(service, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+        base = "http://localhost:" + server.getPort();
+        try {
+            endpointsAnswerWithJson();
+            badRequestsAreRefused();
+            racingBookingsGetTheRoomOnce();
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Listing, checking, quoting, booking and cancelling work and answer with the expected JSON.
+     *
+     * @throws Exception if a request cannot be sent
+     */
+    private static void endpointsAnswerWithJson() throws Exception {
+        check(send("GET", "/hotels", null), 200, "{\"hotels\":[\"Seaside\"]}");
+
+        HttpResponse<String> free = send("GET", "/availability?hotel=Seaside&checkIn=2030-01-10&checkOut=2030-01-12", null);
+        check(free, 200, "\"freeByType\":{\"Standard\":2,\"Deluxe\":0,\"Executive\":0}");
+
+        check(send("GET", "/quote?hotel=Seaside&roomType=Standard&checkIn=2030-01-10&checkOut=2030-01-13&discountCode=I_WORK_HERE", null),
+                200, "\"price\":2700.0");
+
+        HttpResponse<String> booked = send("POST", "/bookings",
+                form("hotel", "Seaside", "guestName", "Ana \"Q\" Cruz", "checkIn", "2030-01-10", "checkOut", "2030-01-12", "room", "A"));
+        check(booked, 201, "\"guestName\":\"Ana \\\"Q\\\" Cruz\"");
+        check(booked, 201, "\"room\":\"A\"");
+        check(send("POST", "/bookings",
+                form("hotel", "Seaside", "guestName", "Ben", "checkIn", "2030-01-11", "checkOut", "2030-01-12", "room", "A")), 409, "\"error\":");
+
+        String id = field(booked.body(), "id");
+        check(send("GET", "/availability?hotel=Seaside&checkIn=2030-01-10&checkOut=2030-01-12", null), 200, "\"Standard\":1");
+        check(send("DELETE", "/bookings?hotel=Seaside&id=" + id, null), 200, "\"id\":" + id);
+        check(send("DELETE", "/bookings?hotel=Seaside&id=" + id, null), 404, "\"error\":");
+        check(send("GET", "/availability?hotel=Seaside&checkIn=2030-01-10&checkOut=2030-01-12", null), 200, "\"Standard\":2");
+    }
+
+    /**
+     * Unknown hotels, missing or malformed parameters and unsupported methods get error answers.
+     *
+     * @throws Exception if a request cannot be sent
+     */
+    private static void badRequestsAreRefused() throws Exception {
+        check(send("GET", "/availability?hotel=Nowhere&checkIn=2030-01-10&checkOut=2030-01-12", null), 404, "Hotel not found.");
+        check(send("GET", "/availability?hotel=Seaside&checkIn=2030-01-10", null), 400, "Missing parameter: checkOut");
+        check(send("GET", "/availability?hotel=Seaside&checkIn=January&checkOut=2030-01-12", null), 400, "\"error\":");
+        check(send("DELETE", "/bookings?hotel=Seaside&id=x", null), 400, "\"error\":");
+        check(send("GET", "/bookings", null), 405, "Method not allowed.");
+    }
+
+    /**
+     * Many clients booking the same nights of the same room at once get one booking between them.
+     *
+     * @throws Exception if a request cannot be sent
+     */
+    private static void racingBookingsGetTheRoomOnce() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            HttpRequest request = request("POST", "/bookings",
+                    form("hotel", "Seaside", "guestName", "Guest " + i, "checkIn", "2030-03-01", "checkOut", "2030-03-05", "room", "B"));
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        int created = 0;
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            int status = response.get().statusCode();
+            Check.isTrue(status == 201 || status == 409, "booked or refused, was " + status);
+            created += status == 201 ? 1 : 0;
+        }
+        Check.equal(1, created, "one booking");
+    }
+
+    /**
+     * Sends a request and waits for the answer.
+     *
+     * @param method the HTTP method
+     * @param path the path and query string
+     * @param body the form body, or null for none
+     * @return the response
+     * @throws Exception if the request cannot be sent
+     */
+    private static HttpResponse<String> send(String method, String path, String body) throws Exception {
+        return client.send(request(method, path, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Builds a request.
+     *
+     * @param method the HTTP method
+     * @param path the path and query string
+     * @param body the form body, or null for none
+     * @return the request
+     */
+    private static HttpRequest request(String method, String path, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + path));
+        if (body == null) {
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", "application/x-www-form-urlencoded")
+                .method(method, HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    /**
+     * Encodes name and value pairs as a form body.
+     *
+     * @param pairs the names and values, alternating
+     * @return the encoded body
+     */
+    private static String form(String... pairs) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            body.append(i > 0 ? "&" : "").append(URLEncoder.encode(pairs[i], StandardCharsets.UTF_8))
+                    .append('=').append(URLEncoder.encode(pairs[i + 1], StandardCharsets.UTF_8));
+        }
+        return body.toString();
+    }
+
+    /**
+     * Checks the status of a response and that its body contains some text.
+     *
+     * @param response the response
+     * @param status the expected status
+     * @param text the text the body must contain
+     */
+    private static void check(HttpResponse<String> response, int status, String text) {
+        Check.equal(status, response.statusCode(), "status of " + response.uri() + ": " + response.body());
+        Check.isTrue(response.body().contains(text), response.uri() + " answered " + response.body() + ", missing " + text);
+        Check.isTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/json"), "JSON content type");
+    }
+
+    /**
+     * Reads a number field from a flat JSON object.
+     *
+     * @param json the JSON object
+     * @param name the name of the field
+     * @return the text of the field's value
+     */
+    private static String field(String json, String name) {
+        int start = json.indexOf("\"" + name + "\":") + name.length() + 3;
+        int end = start;
+        while (end < json.length() && Character.isDigit(json.charAt(end))) {
+            end++;
+        }
+        return json.substring(start, end);
+    }
+}
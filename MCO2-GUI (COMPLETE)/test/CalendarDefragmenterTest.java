@@ -0,0 +1,217 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests moving future reservations between rooms to join free nights.
+ */
+public class CalendarDefragmenterTest {
+    private static final long BUDGET = 1_000_000_000L; // Enough time for a run to settle
+
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        joinsTwoShortGapsIntoALongStay();
+        movesAroundWaitingHolds();
+        keepsTheNightsAHoldNeeds();
+        randomCalendarsKeepEveryStay();
+    }
+
+    /**
+     * Two three-night gaps in two rooms become one six-night gap once the later stay moves, and the
+     * guest who has already arrived and the rooms of another type or price are left alone.
+     */
+    private static void joinsTwoShortGapsIntoALongStay() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1000.0, "Standard");
+        hotel.addRoom("B", 1000.0, "Standard");
+        hotel.addRoom("C", 2000.0, "Standard");
+        hotel.addRoom("D", 1000.0, "Deluxe");
+        int today = 100;
+        Reservation arrivedA = hotel.bookRoom("Pat", 95, 101, hotel.getRoomInfo("A"));
+        Reservation later = hotel.bookRoom("Quinn", 104, 107, hotel.getRoomInfo("A"));
+        Reservation arrivedB = hotel.bookRoom("Ray", 95, 104, hotel.getRoomInfo("B"));
+        Check.isTrue(hotel.bookRoom("Sam", 95, 107, hotel.getRoomInfo("C")) != null, "C full");
+        Check.isTrue(hotel.bookRoom("Tam", 95, 107, hotel.getRoomInfo("D")) != null, "D full");
+        Check.equal(3, longestFreeRun(hotel, today, today + 7), "no room free for six nights");
+
+        CalendarDefragmenter defragmenter = new CalendarDefragmenter(hotel, 6, 7);
+        DefragmentReport report = defragmenter.run(today, BUDGET);
+        Check.equal(1, report.getMoved(), "one move");
+        Check.equal(1, report.getRecoveredLongStays(), "one long stay recovered");
+        Check.equal("B", later.getRoom().getName(), "later stay moved to the other room");
+        Check.equal("A", arrivedA.getRoom().getName(), "arrived guest stays");
+        Check.equal("B", arrivedB.getRoom().getName(), "arrived guest stays");
+        Check.equal(6, longestFreeRun(hotel, today, today + 7), "six free nights in one room");
+        Check.isTrue(hotel.bookRoom("Uma", 101, 107, hotel.getRoomInfo("A")) != null, "long stay sells");
+
+        DefragmentReport again = defragmenter.run(today, BUDGET);
+        Check.equal(0, again.getMoved(), "nothing left to move");
+        Check.equal(report.getMoved() + again.getMoved(), defragmenter.getTotal().getMoved(), "total moves");
+        Check.equal(report.getExamined() + again.getExamined(), defragmenter.getTotal().getExamined(), "total examined");
+    }
+
+    /**
+     * A hold of the type on other nights does not stop the rooms being rearranged.
+     */
+    private static void movesAroundWaitingHolds() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1000.0, "Standard");
+        hotel.addRoom("B", 1000.0, "Standard");
+        hotel.bookRoom("Pat", 95, 101, hotel.getRoomInfo("A"));
+        Reservation later = hotel.bookRoom("Quinn", 104, 107, hotel.getRoomInfo("A"));
+        hotel.bookRoom("Ray", 95, 104, hotel.getRoomInfo("B"));
+        RoomTypeHold hold = hotel.holdRoomType("Vic", "Standard", 200, 201, null);
+        Check.isTrue(hold != null, "hold");
+
+        DefragmentReport report = new CalendarDefragmenter(hotel, 6, 7).run(100, BUDGET);
+        Check.equal(1, report.getMoved(), "stay moved while the hold waits");
+        Check.equal("B", later.getRoom().getName(), "later stay moved to the other room");
+        Check.equal(1, hotel.assignHolds(200).size(), "hold still gets a room");
+    }
+
+    /**
+     * A move onto nights set aside for a hold is skipped when the hold has no other room to go to.
+     */
+    private static void keepsTheNightsAHoldNeeds() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1000.0, "Standard");
+        hotel.addRoom("B", 1000.0, "Standard");
+        hotel.bookRoom("Pat", 95, 101, hotel.getRoomInfo("A"));
+        Reservation later = hotel.bookRoom("Quinn", 104, 107, hotel.getRoomInfo("A"));
+        hotel.bookRoom("Ray", 95, 104, hotel.getRoomInfo("B"));
+        RoomTypeHold hold = hotel.holdRoomType("Vic", "Standard", 104, 106, null);
+        Check.isTrue(hold != null, "hold");
+        Check.equal("B", hold.getPlannedRoom().getName(), "hold set aside in the only free room");
+
+        DefragmentReport report = new CalendarDefragmenter(hotel, 6, 7).run(100, BUDGET);
+        Check.equal(0, report.getMoved(), "no move onto the hold's nights");
+        Check.equal("A", later.getRoom().getName(), "stay left in its room");
+        Check.equal("B", hold.getPlannedRoom().getName(), "hold keeps its room");
+    }
+
+    /**
+     * On random calendars the defragmenter keeps every reservation with its dates and price, moves
+     * none that has arrived or would end past the window, never books a room twice on a night,
+     * and recovers exactly as many long stays as a night-by-night count finds.
+     */
+    private static void randomCalendarsKeepEveryStay() {
+        Random random = new Random(24);
+        int today = 1000;
+        int horizon = 60;
+        int longStay = 5;
+        int movedInAllRounds = 0;
+        for (int round = 0; round < 30; round++) {
+            Hotel hotel = new Hotel("Test");
+            for (int r = 0; r < 6; r++) {
+                hotel.addRoom("R" + r, r == 5 ? 1500.0 : 1000.0, r < 4 || r == 5 ? "Standard" : "Deluxe");
+            }
+            for (int i = 0; i < 120; i++) {
+                int checkIn = today - 5 + random.nextInt(horizon + 10);
+                hotel.bookRoom("Guest", checkIn, checkIn + 1 + random.nextInt(4), hotel.getRooms().get(random.nextInt(6)));
+            }
+            Map<Integer, Room> roomBefore = new HashMap<>();
+            Map<Integer, Double> priceBefore = new HashMap<>();
+            Map<Integer, Integer> checkInBefore = new HashMap<>();
+            for (Reservation reservation : hotel.getReservations()) {
+                roomBefore.put(reservation.getId(), reservation.getRoom());
+                priceBefore.put(reservation.getId(), reservation.getFinalPrice());
+                checkInBefore.put(reservation.getId(), reservation.getCheckInDay());
+            }
+            long longStaysBefore = countLongStays(hotel, today, today + horizon, longStay);
+
+            CalendarDefragmenter defragmenter = new CalendarDefragmenter(hotel, longStay, horizon);
+            defragmenter.run(today, BUDGET);
+            defragmenter.run(today, BUDGET);
+            DefragmentReport total = defragmenter.getTotal();
+
+            List<Reservation> after = hotel.getReservations();
+            Check.equal(roomBefore.size(), after.size(), "reservation count in round " + round);
+            int moved = 0;
+            for (Reservation reservation : after) {
+                int id = reservation.getId();
+                Room from = roomBefore.get(id);
+                Room to = reservation.getRoom();
+                Check.isTrue(from != null, "known reservation");
+                Check.equal(checkInBefore.get(id), reservation.getCheckInDay(), "dates kept");
+                Check.near(priceBefore.get(id), reservation.getFinalPrice(), "price kept");
+                Check.isTrue(to.getReservations().contains(reservation), "room lists its reservation");
+                if (from != to) {
+                    moved++;
+                    Check.equal(from.getRoomType(), to.getRoomType(), "same type");
+                    Check.near(from.getBasePrice(), to.getBasePrice(), "same price");
+                    Check.isTrue(reservation.getCheckInDay() > today, "not yet arrived");
+                    Check.isTrue(reservation.getCheckOutDay() <= today + horizon, "within the window");
+                }
+            }
+            Check.isTrue(moved <= total.getMoved(), "moves reported");
+            movedInAllRounds += moved;
+            for (Room room : hotel.getRooms()) {
+                List<Reservation> stays = room.getReservations();
+                for (int i = 0; i < stays.size(); i++) {
+                    for (int j = i + 1; j < stays.size(); j++) {
+                        Reservation a = stays.get(i);
+                        Reservation b = stays.get(j);
+                        Check.isTrue(a.getCheckOutDay() <= b.getCheckInDay() || b.getCheckOutDay() <= a.getCheckInDay(),
+                                room.getName() + " booked twice in round " + round);
+                    }
+                }
+            }
+            long longStaysAfter = countLongStays(hotel, today, today + horizon, longStay);
+            Check.isTrue(longStaysAfter >= longStaysBefore, "no long stays lost in round " + round);
+            Check.equal(longStaysAfter - longStaysBefore, (long) total.getRecoveredLongStays(), "recovered count in round " + round);
+        }
+        Check.isTrue(movedInAllRounds > 0, "some calendars rearranged");
+    }
+
+    /**
+     * Counts night by night how many long stays fit one after another into the free runs of every
+     * room between two days.
+     *
+     * @param hotel the hotel
+     * @param from the first day counted
+     * @param to the day after the last day counted
+     * @param longStay the nights in a long stay
+     * @return the number of long stays
+     */
+    private static long countLongStays(Hotel hotel, int from, int to, int longStay) {
+        long count = 0;
+        for (Room room : hotel.getRooms()) {
+            int run = 0;
+            for (int day = from; day < to; day++) {
+                if (room.isAvailable(day, day + 1)) {
+                    run++;
+                } else {
+                    count += run / longStay;
+                    run = 0;
+                }
+            }
+            count += run / longStay;
+        }
+        return count;
+    }
+
+    /**
+     * Finds night by night the longest free run in any room between two days.
+     *
+     * @param hotel the hotel
+     * @param from the first day looked at
+     * @param to the day after the last day looked at
+     * @return the most free nights in a row in one room
+     */
+    private static int longestFreeRun(Hotel hotel, int from, int to) {
+        int longest = 0;
+        for (Room room : hotel.getRooms()) {
+            int run = 0;
+            for (int day = from; day < to; day++) {
+                run = room.isAvailable(day, day + 1) ? run + 1 : 0;
+                longest = Math.max(longest, run);
+            }
+        }
+        return longest;
+    }
+}
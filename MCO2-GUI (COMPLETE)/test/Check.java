@@ -0,0 +1,50 @@
+/**
+ * Assertions shared by the test programs in this directory.
+ * The project has no build tool, so every test class is a plain program whose main method runs
+ * its checks and throws an AssertionError at the first one that fails. RunAllTests runs them all:
+ *
+ *   javac -d out *.java test/*.java
+ *   java -cp out RunAllTests
+ */
+public final class Check {
+    private Check() {
+    }
+
+    /**
+     * Fails unless a condition holds.
+     *
+     * @param condition the condition
+     * @param what what the condition means, for the failure message
+     */
+    public static void isTrue(boolean condition, String what) {
+        if (!condition) {
+            throw new AssertionError(what);
+        }
+    }
+
+    /**
+     * Fails unless two values are equal.
+     *
+     * @param expected the expected value
+     * @param actual the actual value
+     * @param what what the value is, for the failure message
+     */
+    public static void equal(Object expected, Object actual, String what) {
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            throw new AssertionError(what + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    /**
+     * Fails unless two numbers are within a cent of each other.
+     *
+     * @param expected the expected amount
+     * @param actual the actual amount
+     * @param what what the amount is, for the failure message
+     */
+    public static void near(double expected, double actual, String what) {
+        if (Math.abs(expected - actual) > 0.005) {
+            throw new AssertionError(what + ": expected " + expected + " but was " + actual);
+        }
+    }
+}
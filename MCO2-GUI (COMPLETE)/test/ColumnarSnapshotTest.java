@@ -0,0 +1,128 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Tests that a snapshot brings the hotels back with their reservations left in the file, and that
+ * finding one reservation loads only the room that holds it.
+ */
+public class ColumnarSnapshotTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     * @throws Exception if the journal files cannot be used
+     */
+    public static void main(String[] args) throws Exception {
+        snapshotRestoresHotelsWithoutLoadingReservations();
+        replayAfterSnapshotLoadsOnlyTheRoomsItChanges();
+    }
+
+    /**
+     * Rooms, modifiers, earnings and availability come back from a snapshot, reservations are
+     * loaded one room at a time, and loading them writes nothing to the journal.
+     *
+     * @throws Exception if the journal files cannot be used
+     */
+    private static void snapshotRestoresHotelsWithoutLoadingReservations() throws Exception {
+        Path directory = Files.createTempDirectory("snapshot");
+        Path crashed = null;
+        try {
+            HotelService service = new HotelService();
+            service.openJournal(directory);
+            Hotel hotel = createHotel(service);
+            Reservation discounted = service.book(hotel, "Ana", 10, 13, "A", "I_WORK_HERE").getValue();
+            Reservation plain = service.book(hotel, "Ben", 19, 22, "B", null).getValue();
+            service.book(hotel, "Cy", 5, 7, "C", null);
+            service.checkpoint();
+            crashed = JournalFiles.copy(directory);
+            service.closeJournal();
+
+            HotelService reopened = new HotelService();
+            reopened.openJournal(crashed);
+            Hotel restored = reopened.getHotelByName("Test");
+            Check.equal(3, restored.getRooms().size(), "rooms");
+            Check.equal(1, restored.getDatePriceModifiers().size(), "modifier");
+            Check.near(hotel.getEarnings(1970, 1), restored.getEarnings(1970, 1), "earnings rebuilt from the reservations");
+            Check.isTrue(!restored.getRoomInfo("B").isAvailable(20, 21), "availability without loading");
+            for (Room room : restored.getRooms()) {
+                Check.isTrue(room.getRestoredRows() != null, "reservations left in the snapshot");
+            }
+
+            int records = JournalFiles.recordTypes(crashed).size();
+            Reservation found = restored.getReservationById(discounted.getId());
+            Check.equal("Ana", found.getGuestName(), "guest");
+            Check.equal("I_WORK_HERE", found.getDiscountCode(), "discount code");
+            Check.near(discounted.getFinalPrice(), found.getFinalPrice(), "price");
+            Check.isTrue(restored.getRoomInfo("A").getRestoredRows() == null, "room of the reservation loaded");
+            Check.isTrue(restored.getRoomInfo("B").getRestoredRows() != null, "other rooms left alone");
+            Check.isTrue(restored.getReservationById(9999) == null, "unknown ID");
+            Check.isTrue(restored.getRoomInfo("C").getRestoredRows() != null, "unknown ID loads nothing");
+
+            List<Reservation> all = restored.getReservations();
+            Check.equal(3, all.size(), "every reservation");
+            Check.equal(plain.getId(), all.get(1).getId(), "booking order");
+            Check.near(plain.getFinalPrice(), all.get(1).getFinalPrice(), "modified price kept");
+            Check.equal(records, JournalFiles.recordTypes(crashed).size(), "loading writes nothing");
+            reopened.closeJournal();
+        } finally {
+            JournalFiles.delete(directory);
+            if (crashed != null) {
+                JournalFiles.delete(crashed);
+            }
+        }
+    }
+
+    /**
+     * Journal records made after a snapshot find their reservations without loading the others.
+     *
+     * @throws Exception if the journal files cannot be used
+     */
+    private static void replayAfterSnapshotLoadsOnlyTheRoomsItChanges() throws Exception {
+        Path directory = Files.createTempDirectory("snapshot");
+        Path crashed = null;
+        try {
+            HotelService service = new HotelService();
+            service.openJournal(directory);
+            Hotel hotel = createHotel(service);
+            service.book(hotel, "Ana", 10, 13, "A", null);
+            Reservation cancelled = service.book(hotel, "Ben", 19, 22, "B", null).getValue();
+            service.book(hotel, "Cy", 5, 7, "C", null);
+            service.checkpoint();
+            service.cancel(hotel, cancelled.getId());
+            crashed = JournalFiles.copy(directory);
+            service.closeJournal();
+
+            HotelService reopened = new HotelService();
+            reopened.openJournal(crashed);
+            Hotel restored = reopened.getHotelByName("Test");
+            Check.isTrue(restored.getRoomInfo("A").getRestoredRows() != null, "room A left in the snapshot");
+            Check.isTrue(restored.getRoomInfo("C").getRestoredRows() != null, "room C left in the snapshot");
+            Check.isTrue(restored.getRoomInfo("B").isAvailable(19, 22), "cancellation replayed");
+            Check.isTrue(restored.getReservationById(cancelled.getId()) == null, "cancelled reservation gone");
+            Check.near(hotel.getEarnings(1970, 1), restored.getEarnings(1970, 1), "earnings after the cancellation");
+            Check.equal(2, restored.getReservations().size(), "other reservations kept");
+            reopened.closeJournal();
+        } finally {
+            JournalFiles.delete(directory);
+            if (crashed != null) {
+                JournalFiles.delete(crashed);
+            }
+        }
+    }
+
+    /**
+     * Creates a hotel with three rooms and a modifier through the service.
+     *
+     * @param service the service to create the hotel in
+     * @return the hotel
+     */
+    private static Hotel createHotel(HotelService service) {
+        Hotel hotel = service.createHotel("Test").getValue();
+        service.addRoom(hotel, "A", 1000.0, "Standard");
+        service.addRoom(hotel, "B", 1000.0, "Standard");
+        service.addRoom(hotel, "C", 2000.0, "Deluxe");
+        service.addDatePriceModifier(hotel, 20, 21, 1.5);
+        return hotel;
+    }
+}
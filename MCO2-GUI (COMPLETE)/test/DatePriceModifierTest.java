@@ -0,0 +1,64 @@
+/**
+ * Tests date price modifiers and how a hotel keeps them from overlapping.
+ */
+public class DatePriceModifierTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        rangeIncludesBothEnds();
+        hotelRejectsOverlappingModifiers();
+        modifiersPriceTheirNights();
+    }
+
+    /**
+     * The start and end days are both in the range.
+     */
+    private static void rangeIncludesBothEnds() {
+        DatePriceModifier modifier = new DatePriceModifier(10, 12, 1.5);
+        Check.isTrue(!modifier.isDayInRange(9), "day before");
+        Check.isTrue(modifier.isDayInRange(10), "start day");
+        Check.isTrue(modifier.isDayInRange(12), "end day");
+        Check.isTrue(!modifier.isDayInRange(13), "day after");
+        Check.equal(EpochDay.toDate(10), modifier.getStartDate(), "start date");
+        Check.equal(12, EpochDay.of(modifier.getEndDate()), "end date");
+    }
+
+    /**
+     * Overlapping and empty ranges are refused; touching ranges are fine.
+     */
+    private static void hotelRejectsOverlappingModifiers() {
+        Hotel hotel = new Hotel("Test");
+        DatePriceModifier first = new DatePriceModifier(10, 12, 1.5);
+        Check.isTrue(hotel.addDatePriceModifier(first), "first modifier");
+        Check.isTrue(!hotel.addDatePriceModifier(new DatePriceModifier(12, 14, 0.8)), "shares the end day");
+        Check.isTrue(!hotel.addDatePriceModifier(new DatePriceModifier(5, 10, 0.8)), "shares the start day");
+        Check.isTrue(!hotel.addDatePriceModifier(new DatePriceModifier(5, 20, 0.8)), "covers it");
+        Check.isTrue(!hotel.addDatePriceModifier(new DatePriceModifier(11, 11, 0.8)), "inside it");
+        Check.isTrue(!hotel.addDatePriceModifier(new DatePriceModifier(20, 19, 0.8)), "empty range");
+        Check.isTrue(hotel.addDatePriceModifier(new DatePriceModifier(13, 14, 0.8)), "next day");
+        Check.isTrue(hotel.addDatePriceModifier(new DatePriceModifier(7, 9, 1.2)), "day before");
+        Check.equal(3, hotel.getDatePriceModifiers().size(), "three modifiers");
+        Check.isTrue(hotel.getDatePriceModifier(12) == first, "lookup on the end day");
+        Check.isTrue(hotel.getDatePriceModifier(15) == null, "no modifier");
+
+        hotel.removeDatePriceModifier(first);
+        Check.isTrue(hotel.getDatePriceModifier(11) == null, "removed");
+        Check.isTrue(hotel.addDatePriceModifier(new DatePriceModifier(10, 12, 0.5)), "range free again");
+    }
+
+    /**
+     * Each night is priced with the modifier of its day, and the check-out day is not charged.
+     */
+    private static void modifiersPriceTheirNights() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1000.0, "Standard");
+        hotel.addDatePriceModifier(new DatePriceModifier(11, 12, 1.5));
+        Reservation reservation = hotel.bookRoom("Guest", 10, 13, hotel.getRoomInfo("A"));
+        Check.near(1000.0 + 1500.0 + 1500.0, reservation.getTotalPrice(), "modified nights");
+        Reservation checkout = hotel.bookRoom("Guest", 13, 14, hotel.getRoomInfo("A"));
+        Check.near(1000.0, checkout.getTotalPrice(), "night after the modifier");
+    }
+}
@@ -0,0 +1,82 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Tests that a booking made with a discount code is priced before it is added to the hotel, so
+ * the journal holds one record with the code and the discounted price.
+ */
+public class DiscountBookingTest {
+    private static final byte BOOK_PRICED = 13; // Record types, as in BookingJournal
+    private static final byte UPDATE_RESERVATION = 8;
+
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     * @throws Exception if the journal files cannot be used
+     */
+    public static void main(String[] args) throws Exception {
+        discountIsAppliedBeforeTheBookingIsAdded();
+        discountedBookingIsOneJournalRecord();
+    }
+
+    /**
+     * The reservation returned by a discounted booking already has its code and final price.
+     */
+    private static void discountIsAppliedBeforeTheBookingIsAdded() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1000.0, "Standard");
+        Room room = hotel.getRooms().get(0);
+
+        Reservation discounted = hotel.bookRoom("Guest", 10, 13, room, "I_WORK_HERE");
+        Check.equal("I_WORK_HERE", discounted.getDiscountCode(), "code stored");
+        Check.near(2700.0, discounted.getFinalPrice(), "ten percent off three nights");
+
+        Reservation plain = hotel.bookRoom("Guest", 20, 22, room, "  ");
+        Check.isTrue(!plain.hasDiscountCode(), "blank code ignored");
+        Check.near(2000.0, plain.getFinalPrice(), "full price");
+
+        Check.isTrue(hotel.bookRoom("Guest", 11, 12, room, "I_WORK_HERE") == null, "taken nights refused");
+    }
+
+    /**
+     * Booking through the service with a code appends a single record that restores the code
+     * and the discounted price on replay.
+     *
+     * @throws Exception if the journal files cannot be used
+     */
+    private static void discountedBookingIsOneJournalRecord() throws Exception {
+        Path directory = Files.createTempDirectory("discount-journal");
+        Path crashed = null;
+        try {
+            HotelService service = new HotelService();
+            service.openJournal(directory);
+            Hotel hotel = service.createHotel("Test").getValue();
+            service.addRoom(hotel, "A", 1000.0, "Standard");
+            int before = JournalFiles.recordTypes(directory).size();
+
+            Reservation reservation = service.book(hotel, "Guest", 10, 13, "A", "I_WORK_HERE").getValue();
+            List<Integer> types = JournalFiles.recordTypes(directory);
+            Check.equal(before + 1, types.size(), "one record per booking");
+            Check.equal((int) BOOK_PRICED, types.get(types.size() - 1), "booking record");
+            Check.isTrue(!types.contains((int) UPDATE_RESERVATION), "no separate discount record");
+
+            crashed = JournalFiles.copy(directory); // Replay the journal as a crash would leave it
+            service.closeJournal();
+
+            HotelService restored = new HotelService();
+            restored.openJournal(crashed);
+            Reservation replayed = restored.getHotelByName("Test").getReservationById(reservation.getId());
+            Check.equal("I_WORK_HERE", replayed.getDiscountCode(), "code replayed");
+            Check.near(2700.0, replayed.getFinalPrice(), "discounted price replayed");
+            Check.near(2700.0, restored.getHotelByName("Test").getEarnings(1970, 1), "earnings count the discounted price");
+            restored.closeJournal();
+        } finally {
+            JournalFiles.delete(directory);
+            if (crashed != null) {
+                JournalFiles.delete(crashed);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Tests reading discount codes from a file and the arithmetic of each rule.
+ */
+public class DiscountRulesTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     * @throws Exception if the codes file cannot be used
+     */
+    public static void main(String[] args) throws Exception {
+        codesAreReadFromAFile();
+        invalidRulesAreRejected();
+        rulesComputeTheirDiscounts();
+        dayOfMonthMatchesWalkingTheNights();
+    }
+
+    /**
+     * Every code in a file becomes a rule, and unknown or missing codes have none.
+     *
+     * @throws Exception if the codes file cannot be used
+     */
+    private static void codesAreReadFromAFile() throws Exception {
+        DiscountRules rules = load("# Test codes\nHALF = percent 50\nLONG_STAY = free-nights 7 2\nMIDMONTH = day-of-month 5 15\n");
+        Check.equal(Set.of("HALF", "LONG_STAY", "MIDMONTH"), rules.getCodes(), "codes");
+        Check.isTrue(rules.get("HALF") instanceof PercentDiscount, "percent rule");
+        Check.isTrue(rules.get("LONG_STAY") instanceof FreeNightDiscount, "free-nights rule");
+        Check.isTrue(rules.get("MIDMONTH") instanceof DayOfMonthDiscount, "day-of-month rule");
+        Check.isTrue(rules.get("half") == null, "codes are case sensitive");
+        Check.isTrue(rules.get(null) == null, "no code");
+
+        DiscountRules defaults = DiscountRules.getDefault();
+        Check.equal(Set.of("I_WORK_HERE", "STAY4_GET1", "PAYDAY"), defaults.getCodes(), "default codes");
+    }
+
+    /**
+     * A rule with an unknown name, the wrong number of arguments, a bad number or an impossible
+     * day is refused with a message naming its code.
+     *
+     * @throws Exception if the codes file cannot be used
+     */
+    private static void invalidRulesAreRejected() throws Exception {
+        String[] invalid = {
+            "BAD = coupon 10",
+            "BAD = percent",
+            "BAD = percent 10 20",
+            "BAD = free-nights 5",
+            "BAD = percent ten",
+            "BAD = day-of-month 7",
+            "BAD = day-of-month 7 32",
+            "BAD = day-of-month 7 0",
+        };
+        for (String line : invalid) {
+            try {
+                load(line + "\n");
+                Check.isTrue(false, "accepted " + line);
+            } catch (IllegalArgumentException expected) {
+                Check.isTrue(expected.getMessage().contains("BAD"), "message names the code: " + expected.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Each rule takes off what its definition says, and leaves stays that do not qualify alone.
+     */
+    private static void rulesComputeTheirDiscounts() {
+        Check.near(900.0, new PercentDiscount(10).apply(1000.0, 0, 3, 500.0), "percent");
+
+        FreeNightDiscount freeNight = new FreeNightDiscount(5, 1);
+        Check.isTrue(!freeNight.appliesTo(0, 4), "four nights too short");
+        Check.near(2000.0, freeNight.apply(2000.0, 0, 4, 500.0), "short stay pays in full");
+        Check.near(2000.0, freeNight.apply(2500.0, 0, 5, 500.0), "one night free from five");
+
+        int fifteenth = EpochDay.of(LocalDate.of(2024, 3, 15));
+        DayOfMonthDiscount payday = new DayOfMonthDiscount(7, 15, 30);
+        Check.near(930.0, payday.apply(1000.0, fifteenth, fifteenth + 1, 1000.0), "night of the 15th");
+        Check.near(1000.0, payday.apply(1000.0, fifteenth - 2, fifteenth, 1000.0), "check-out on the 15th is not a night");
+    }
+
+    /**
+     * Checking the chosen days of each month gives the same answer as walking every night, for
+     * days that some months do not have and stays that cross months and years.
+     */
+    private static void dayOfMonthMatchesWalkingTheNights() {
+        Random random = new Random(15);
+        int[][] dayChoices = {{15, 30}, {31}, {29}, {1}, {28, 29, 30, 31}};
+        int start = EpochDay.of(LocalDate.of(2023, 1, 1));
+        for (int[] days : dayChoices) {
+            DayOfMonthDiscount rule = new DayOfMonthDiscount(7, days);
+            for (int i = 0; i < 2000; i++) {
+                int checkIn = start + random.nextInt(800);
+                int checkOut = checkIn + 1 + random.nextInt(40);
+                boolean walked = false;
+                for (int night = checkIn; night < checkOut; night++) {
+                    int dayOfMonth = LocalDate.ofEpochDay(night).getDayOfMonth();
+                    for (int day : days) {
+                        walked |= day == dayOfMonth;
+                    }
+                }
+                Check.equal(walked, rule.appliesTo(checkIn, checkOut), LocalDate.ofEpochDay(checkIn) + " to " + LocalDate.ofEpochDay(checkOut));
+            }
+        }
+    }
+
+    /**
+     * Writes codes to a file and reads them back.
+     *
+     * @param text the contents of the codes file
+     * @return the registry read from the file
+     * @throws Exception if the file cannot be used
+     */
+    private static DiscountRules load(String text) throws Exception {
+        Path file = Files.createTempFile("discounts", ".properties");
+        try {
+            Files.writeString(file, text);
+            return DiscountRules.load(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests finding the earliest days a room of a type is free for a stay.
+ */
+public class EarliestWindowTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        earliestFreeDayMatchesADayByDayScan();
+        windowsMatchADayByDayScan();
+        windowsLeaveRoomForHolds();
+        windowsSkipRoomsSetAsideForHolds();
+        serviceChecksItsArguments();
+    }
+
+    /**
+     * A room's earliest free day for a stay is the first day a scan finds every night free.
+     */
+    private static void earliestFreeDayMatchesADayByDayScan() {
+        Random random = new Random(25);
+        for (int round = 0; round < 30; round++) {
+            Hotel hotel = new Hotel("Test");
+            hotel.addRoom("A", 1000.0, "Standard");
+            Room room = hotel.getRoomInfo("A");
+            for (int i = 0; i < 40; i++) {
+                int checkIn = random.nextInt(150);
+                hotel.bookRoom("Guest", checkIn, checkIn + 1 + random.nextInt(6), room);
+            }
+            for (int from = 0; from < 160; from += 3) {
+                for (int nights = 1; nights <= 8; nights++) {
+                    int expected = from;
+                    while (!room.isAvailable(expected, expected + nights)) {
+                        expected++;
+                    }
+                    Check.equal(expected, room.getEarliestFreeDay(from, nights), "earliest from " + from + " for " + nights + " nights");
+                }
+            }
+        }
+    }
+
+    /**
+     * The windows of a type are the first days some room of the type is free for the stay, in day
+     * order, each with the first such room in the hotel's room order, and none ending past the
+     * horizon.
+     */
+    private static void windowsMatchADayByDayScan() {
+        Random random = new Random(250);
+        for (int round = 0; round < 30; round++) {
+            Hotel hotel = new Hotel("Test");
+            for (int r = 0; r < 5; r++) {
+                hotel.addRoom("R" + r, 1000.0, r == 2 ? "Deluxe" : "Standard");
+            }
+            for (int i = 0; i < 150; i++) {
+                int checkIn = random.nextInt(100);
+                hotel.bookRoom("Guest", checkIn, checkIn + 1 + random.nextInt(6), hotel.getRooms().get(random.nextInt(5)));
+            }
+            int from = random.nextInt(20);
+            int nights = 1 + random.nextInt(6);
+            int count = 1 + random.nextInt(30);
+            int horizon = 40 + random.nextInt(80);
+            List<StayWindow> found = hotel.findEarliestWindows("Standard", from, nights, count, horizon);
+
+            List<String> expected = new ArrayList<>();
+            for (int day = from; day + nights <= from + horizon && expected.size() < count; day++) {
+                for (Room room : hotel.getRooms()) {
+                    if (room.getRoomType().equals("Standard") && room.isAvailable(day, day + nights)) {
+                        expected.add(room.getName() + "@" + day);
+                        break;
+                    }
+                }
+            }
+            List<String> actual = new ArrayList<>();
+            for (StayWindow window : found) {
+                Check.equal(window.getCheckInDay() + nights, window.getCheckOutDay(), "window length");
+                actual.add(window.getRoom().getName() + "@" + window.getCheckInDay());
+            }
+            Check.equal(expected, actual, "windows in round " + round);
+        }
+    }
+
+    /**
+     * While stays sold by type wait for a room, a free room is only offered on days the type's
+     * counts still leave a room for another stay.
+     */
+    private static void windowsLeaveRoomForHolds() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1000.0, "Standard");
+        hotel.addRoom("B", 1000.0, "Standard");
+        hotel.bookRoom("Ben", 10, 12, hotel.getRoomInfo("A"));
+        Check.isTrue(hotel.holdRoomType("Ana", "Standard", 10, 12, null) != null, "hold");
+        List<StayWindow> windows = hotel.findEarliestWindows("Standard", 9, 2, 3, 30);
+        List<Integer> days = new ArrayList<>();
+        for (StayWindow window : windows) {
+            days.add(window.getCheckInDay());
+        }
+        Check.equal(List.of(12, 13, 14), days, "days 9 to 11 would take the held room");
+    }
+
+    /**
+     * A room set aside for a hold is not offered for nights the hold cannot give up, even when the
+     * type's counts leave a room, and the window offered instead can be booked.
+     */
+    private static void windowsSkipRoomsSetAsideForHolds() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1000.0, "Standard");
+        hotel.addRoom("B", 1000.0, "Standard");
+        RoomTypeHold hold = hotel.holdRoomType("Ana", "Standard", 10, 12, null);
+        Check.isTrue(hold != null, "hold");
+        Check.equal("A", hold.getPlannedRoom().getName(), "hold set aside in A");
+        Check.isTrue(hotel.bookRoom("Ben", 11, 13, hotel.getRoomInfo("B")) != null, "B booked from night 11");
+        Check.equal(1, hotel.getFreeRoomCount("Standard", 9, 11), "counts leave a room on nights 9 and 10");
+
+        List<StayWindow> windows = hotel.findEarliestWindows("Standard", 9, 2, 1, 30);
+        Check.equal(1, windows.size(), "one window");
+        StayWindow window = windows.get(0);
+        Check.equal(9, window.getCheckInDay(), "earliest day");
+        Check.equal("B", window.getRoom().getName(), "room the hold does not need");
+        Check.isTrue(hotel.bookRoom("Cy", window.getCheckInDay(), window.getCheckOutDay(), window.getRoom()) != null, "window books");
+        Check.equal(1, hotel.assignHolds(10).size(), "hold still gets a room");
+    }
+
+    /**
+     * The service refuses searches it cannot run and says when nothing is free.
+     */
+    private static void serviceChecksItsArguments() {
+        HotelService service = new HotelService();
+        Hotel hotel = service.createHotel("Test").getValue();
+        hotel.addRoom("A", 1000.0, "Standard");
+        Check.isTrue(!service.findWindows(new Hotel("Other"), "Standard", 0, 1, 1).isSuccess(), "unknown hotel");
+        Check.isTrue(!service.findWindows(hotel, "Suite", 0, 1, 1).isSuccess(), "unknown type");
+        Check.isTrue(!service.findWindows(hotel, "Standard", 0, 0, 1).isSuccess(), "no nights");
+        Check.isTrue(!service.findWindows(hotel, "Standard", 0, 1, 0).isSuccess(), "no windows wanted");
+
+        hotel.bookRoom("Ben", 5, 8, hotel.getRoomInfo("A"));
+        ServiceResult<List<StayWindow>> result = service.findWindows(hotel, "Standard", 4, 3, 2);
+        Check.isTrue(result.isSuccess(), "search runs");
+        Check.equal(8, result.getValue().get(0).getCheckInDay(), "first window after the booking");
+        Check.equal(9, result.getValue().get(1).getCheckInDay(), "next window a day later");
+        Check.equal(0, service.findWindows(hotel, "Deluxe", 4, 3, 2).getValue().size(), "type without rooms");
+    }
+}
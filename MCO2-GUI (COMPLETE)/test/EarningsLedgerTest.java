@@ -0,0 +1,111 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests the earnings ledger on its own and against the reservations of a hotel.
+ */
+public class EarningsLedgerTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        staysAreSpreadOverTheMonthsTheyCover();
+        hotelEarningsMatchItsReservations();
+    }
+
+    /**
+     * A stay is split between months by nights, and removing or repricing it moves the same amounts back.
+     */
+    private static void staysAreSpreadOverTheMonthsTheyCover() {
+        EarningsLedger ledger = new EarningsLedger();
+        int january = EpochDay.monthIndex(2024, 1);
+        int checkIn = EpochDay.of(LocalDate.of(2024, 1, 30));
+        ledger.addStay(checkIn, checkIn + 3, "Deluxe", 300.0);
+        Check.near(200.0, ledger.getRevenue(january, "Deluxe"), "two nights in January");
+        Check.near(100.0, ledger.getRevenue(january + 1, "Deluxe"), "one night in February");
+        Check.equal(2L, ledger.getRoomNights(january), "January nights");
+        Check.near(0.0, ledger.getRevenue(january, "Standard"), "other type");
+
+        // Months far before and after the first stay make the ledger grow both ways
+        ledger.addStay(EpochDay.of(LocalDate.of(2010, 5, 1)), EpochDay.of(LocalDate.of(2010, 5, 3)), "Standard", 50.0);
+        ledger.addStay(EpochDay.of(LocalDate.of(2040, 5, 1)), EpochDay.of(LocalDate.of(2040, 5, 2)), "Executive", 70.0);
+        Check.near(50.0, ledger.getRevenue(EpochDay.monthIndex(2010, 5)), "early month");
+        Check.near(70.0, ledger.getRevenue(EpochDay.monthIndex(2040, 5)), "late month");
+        Check.near(200.0, ledger.getRevenue(january), "January kept while growing");
+        Check.near(420.0, ledger.getTotalRevenue(), "total");
+        Check.equal(6L, ledger.getTotalRoomNights(), "total nights");
+
+        ledger.adjustStay(checkIn, checkIn + 3, "Deluxe", -30.0);
+        Check.near(180.0, ledger.getRevenue(january), "repriced January");
+        Check.equal(2L, ledger.getRoomNights(january), "repricing keeps the nights");
+        ledger.removeStay(checkIn, checkIn + 3, "Deluxe", 270.0);
+        Check.near(0.0, ledger.getRevenue(january + 1), "removed from February");
+        Check.equal(3L, ledger.getTotalRoomNights(), "nights removed");
+        Check.near(120.0, ledger.getTotalRevenue(), "total after removal");
+
+        try {
+            ledger.addStay(checkIn, checkIn + 1, "Suite", 10.0);
+            Check.isTrue(false, "unknown room type accepted");
+        } catch (IllegalArgumentException expected) {
+            // Unknown room types have no column
+        }
+    }
+
+    /**
+     * After random bookings, cancellations and price changes, the hotel's earnings per month and
+     * room type equal those worked out from its remaining reservations.
+     */
+    private static void hotelEarningsMatchItsReservations() {
+        Random random = new Random(13);
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("S1", 1000.0, "Standard");
+        hotel.addRoom("D1", 1000.0, "Deluxe");
+        hotel.addRoom("E1", 1000.0, "Executive");
+        List<Room> rooms = hotel.getRooms();
+        int start = EpochDay.of(LocalDate.of(2024, 1, 1));
+        List<Reservation> booked = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            int checkIn = start + random.nextInt(360);
+            Reservation reservation = hotel.bookRoom("Guest", checkIn, checkIn + 1 + random.nextInt(10), rooms.get(random.nextInt(3)));
+            if (reservation != null) {
+                booked.add(reservation);
+            }
+            if (!booked.isEmpty() && random.nextInt(4) == 0) {
+                hotel.removeReservation(booked.remove(random.nextInt(booked.size())));
+            }
+            if (!booked.isEmpty() && random.nextInt(4) == 0) {
+                booked.get(random.nextInt(booked.size())).setFinalPrice(random.nextInt(5000));
+            }
+        }
+
+        double total = 0;
+        for (int month = 1; month <= 13; month++) {
+            int year = month == 13 ? 2025 : 2024;
+            int monthOfYear = month == 13 ? 1 : month;
+            int first = EpochDay.of(LocalDate.of(year, monthOfYear, 1));
+            int end = EpochDay.of(LocalDate.of(year, monthOfYear, 1).plusMonths(1));
+            for (String type : Room.ROOM_TYPES) {
+                double revenue = 0;
+                long nights = 0;
+                for (Reservation reservation : hotel.getReservations()) {
+                    if (!reservation.getRoom().getRoomType().equals(type)) {
+                        continue;
+                    }
+                    int overlap = Math.min(end, reservation.getCheckOutDay()) - Math.max(first, reservation.getCheckInDay());
+                    if (overlap > 0) {
+                        revenue += reservation.getFinalPrice() * overlap / reservation.getNights();
+                        nights += overlap;
+                    }
+                }
+                Check.near(revenue, hotel.getEarnings(year, monthOfYear, type), type + " " + year + "-" + monthOfYear);
+                Check.equal(nights, hotel.getRoomNights(year, monthOfYear, type), type + " nights " + year + "-" + monthOfYear);
+                total += revenue;
+            }
+        }
+        Check.near(total, hotel.getMonthlyEarnings(), "total earnings");
+    }
+}
@@ -0,0 +1,54 @@
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Tests EpochDay against java.time.
+ */
+public class EpochDayTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        calendarFieldsMatchJavaTime();
+        datesRoundTrip();
+        nightsIgnoreDaylightSaving();
+    }
+
+    /**
+     * Day of month and month index agree with LocalDate over four centuries around the epoch.
+     */
+    private static void calendarFieldsMatchJavaTime() {
+        for (int day = -80_000; day < 80_000; day += 7) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            Check.equal(date.getDayOfMonth(), EpochDay.dayOfMonth(day), "day of month of " + date);
+            Check.equal(date.getYear() * 12 + date.getMonthValue() - 1, EpochDay.monthIndex(day), "month index of " + date);
+        }
+        YearMonth leap = YearMonth.of(2024, 2);
+        Check.equal(EpochDay.of(leap.atDay(1)), EpochDay.firstDayOfMonth(EpochDay.monthIndex(2024, 2)), "first day of February 2024");
+        Check.equal(29, EpochDay.dayOfMonth(EpochDay.parse("2024-02-29")), "leap day");
+    }
+
+    /**
+     * A date in the system time zone converts to its epoch day and back.
+     */
+    private static void datesRoundTrip() {
+        int day = EpochDay.parse("2024-03-10");
+        Check.equal(LocalDate.of(2024, 3, 10).toEpochDay(), (long) day, "parsed day");
+        Date date = EpochDay.toDate(day);
+        Check.equal(day, EpochDay.of(date), "round trip through Date");
+        Check.equal(LocalDate.of(2024, 3, 10), date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate(), "date in the system zone");
+    }
+
+    /**
+     * A stay across a daylight saving change still counts whole nights.
+     */
+    private static void nightsIgnoreDaylightSaving() {
+        Reservation reservation = new Reservation("Guest", EpochDay.toDate(EpochDay.parse("2024-03-09")),
+                EpochDay.toDate(EpochDay.parse("2024-03-12")), null);
+        Check.equal(3, reservation.getNights(), "nights across a clock change");
+    }
+}
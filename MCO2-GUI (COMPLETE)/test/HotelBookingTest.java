@@ -0,0 +1,128 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests booking and cancelling through Hotel, including bookings raced from several threads.
+ */
+public class HotelBookingTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     * @throws InterruptedException if interrupted while waiting for the booking threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        removingReportsWhetherAnythingWasRemoved();
+        racingBookingsGetTheNightsOnce();
+        cancelsRacingMovesFinish();
+    }
+
+    /**
+     * Removing a reservation that has no room, belongs elsewhere or is already gone returns false.
+     */
+    private static void removingReportsWhetherAnythingWasRemoved() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1299.0, "Standard");
+        Room room = hotel.getRooms().get(0);
+        Check.isTrue(!hotel.removeReservation(new Reservation("Guest", 10, 12, null, hotel)), "reservation without a room");
+
+        Hotel other = new Hotel("Other");
+        other.addRoom("A", 1299.0, "Standard");
+        Reservation elsewhere = other.bookRoom("Guest", 10, 12, other.getRooms().get(0));
+        Check.isTrue(!hotel.removeReservation(elsewhere), "reservation of another hotel");
+
+        Reservation booked = hotel.bookRoom("Guest", 10, 12, room);
+        Check.isTrue(!room.isAvailable(10, 12), "room taken");
+        Check.isTrue(hotel.removeReservation(booked), "first removal");
+        Check.isTrue(!hotel.removeReservation(booked), "second removal");
+        Check.isTrue(room.isAvailable(10, 12), "room free again");
+        Check.equal(1, hotel.getAvailableRoomNames(10, 12).size(), "bitmap agrees");
+
+        HotelService service = new HotelService();
+        Hotel managed = service.createHotel("Managed").getValue();
+        Check.isTrue(!service.cancel(managed, new Reservation("Guest", 1, 2, null, null)).isSuccess(), "service cancel without a room");
+    }
+
+    /**
+     * Many threads booking the same nights of one room end with exactly one reservation.
+     *
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    private static void racingBookingsGetTheNightsOnce() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            Hotel hotel = new Hotel("Race");
+            hotel.addRoom("A", 1299.0, "Deluxe");
+            Room room = hotel.getRooms().get(0);
+            AtomicInteger booked = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int checkIn = 100 + t % 3; // Overlapping stays
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (hotel.bookRoom("Guest", checkIn, checkIn + 3, room) != null) {
+                        booked.incrementAndGet();
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            Check.equal(1, booked.get(), "bookings made");
+            Check.equal(1, hotel.getReservations().size(), "reservations held");
+        }
+    }
+
+    /**
+     * Cancelling a reservation while another thread keeps moving it between two rooms neither
+     * deadlocks nor leaves the stay behind in either room.
+     *
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    private static void cancelsRacingMovesFinish() throws InterruptedException {
+        Hotel hotel = new Hotel("Race");
+        hotel.addRoom("A", 1299.0, "Standard");
+        hotel.addRoom("B", 1299.0, "Standard");
+        Room a = hotel.getRoomInfo("A");
+        Room b = hotel.getRoomInfo("B");
+        for (int round = 0; round < 500; round++) {
+            Reservation reservation = hotel.bookRoom("Guest", 10, 12, round % 2 == 0 ? a : b);
+            AtomicInteger cancelled = new AtomicInteger();
+            int delay = round % 50; // Spins before cancelling, so the cancel meets the moves at different points
+            Thread mover = new Thread(() -> {
+                while (cancelled.get() == 0) {
+                    hotel.tryMoveReservation(reservation, reservation.getRoom() == a ? b : a, () -> true);
+                }
+            });
+            Thread canceller = new Thread(() -> {
+                for (int spin = 0; spin < delay; spin++) {
+                    Thread.onSpinWait();
+                }
+                if (hotel.removeReservation(reservation)) {
+                    cancelled.incrementAndGet();
+                }
+            });
+            mover.setDaemon(true); // Left behind if the two threads deadlock, so the failure below is seen
+            canceller.setDaemon(true);
+            mover.start();
+            canceller.start();
+            canceller.join(10_000);
+            Check.isTrue(!canceller.isAlive(), "cancel finished in round " + round);
+            mover.join(10_000);
+            Check.isTrue(!mover.isAlive(), "move finished in round " + round);
+            Check.equal(1, cancelled.get(), "cancelled in round " + round);
+            Check.isTrue(a.isAvailable(10, 12) && b.isAvailable(10, 12), "both rooms free in round " + round);
+            Check.equal(2, hotel.getAvailableRoomNames(10, 12).size(), "bitmap agrees in round " + round);
+            Check.equal(0, hotel.getReservations().size(), "nothing held in round " + round);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Tests the room name, guest name and reservation ID indexes of Hotel.
+ */
+public class HotelIndexTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        roomsAreFoundByNameIgnoringCase();
+        reservationsAreFoundByGuestAndId();
+    }
+
+    /**
+     * Room lookups ignore case, follow removals and keep names unique through the service.
+     */
+    private static void roomsAreFoundByNameIgnoringCase() {
+        HotelService service = new HotelService();
+        Hotel hotel = service.createHotel("Test").getValue();
+        Room room = service.addRoom(hotel, "Ocean 1", 1299.0, "Deluxe").getValue();
+        Check.isTrue(hotel.getRoomInfo("ocean 1") == room, "lookup in lower case");
+        Check.isTrue(hotel.getRoomInfo("OCEAN 1") == room, "lookup in upper case");
+        Check.isTrue(hotel.getRoomInfo(null) == null, "missing name");
+        Check.isTrue(!service.addRoom(hotel, "OCEAN 1", 1299.0, "Standard").isSuccess(), "duplicate name in another case");
+        service.removeRoom(hotel, "Ocean 1");
+        Check.isTrue(hotel.getRoomInfo("Ocean 1") == null, "removed room");
+    }
+
+    /**
+     * Guest lookups ignore case and keep booking order; ID lookups forget cancelled reservations.
+     */
+    private static void reservationsAreFoundByGuestAndId() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1299.0, "Standard");
+        Room room = hotel.getRooms().get(0);
+        Reservation first = hotel.bookRoom("Ana Cruz", 10, 12, room);
+        Reservation second = hotel.bookRoom("ana cruz", 20, 22, room);
+        Reservation other = hotel.bookRoom("Ben", 30, 31, room);
+
+        Check.isTrue(hotel.findReservationByGuestName("ANA CRUZ") == first, "first booking of the guest");
+        Check.equal(2, hotel.getReservationsByGuestName("Ana Cruz").size(), "bookings of the guest");
+        Check.isTrue(hotel.getReservationsByGuestName("Ana Cruz").get(1) == second, "booking order");
+        Check.isTrue(hotel.getReservationById(other.getId()) == other, "lookup by ID");
+
+        hotel.removeReservation(first);
+        Check.isTrue(hotel.findReservationByGuestName("Ana Cruz") == second, "next booking after a cancellation");
+        Check.isTrue(hotel.getReservationById(first.getId()) == null, "cancelled ID");
+        hotel.removeReservation(second);
+        Check.isTrue(hotel.getReservationsByGuestName("Ana Cruz").isEmpty(), "guest without bookings");
+        Check.isTrue(hotel.findReservationByGuestName("Nobody") == null, "unknown guest");
+    }
+}
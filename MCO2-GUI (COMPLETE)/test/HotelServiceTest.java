@@ -0,0 +1,112 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests that hotels only change through the service, including renames raced from several threads.
+ */
+public class HotelServiceTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     * @throws InterruptedException if interrupted while waiting for the rename threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        hotelListIsACopy();
+        addingARoomReturnsIt();
+        racingRenamesClaimANameOnce();
+        renamingARemovedHotelFails();
+    }
+
+    /**
+     * The list of hotels cannot be used to add or remove hotels behind the service's back.
+     */
+    private static void hotelListIsACopy() {
+        HotelService service = new HotelService();
+        Hotel first = service.createHotel("First").getValue();
+        List<Hotel> hotels = service.getHotels();
+        try {
+            hotels.add(new Hotel("Sneaked in"));
+            throw new AssertionError("hotel list accepted a hotel");
+        } catch (UnsupportedOperationException expected) {
+            // The list is read-only
+        }
+        service.createHotel("Second");
+        Check.equal(List.of(first), hotels, "earlier copy unchanged");
+        Check.equal(2, service.getHotels().size(), "new copy sees the new hotel");
+    }
+
+    /**
+     * Adding a room hands back the room that was added, and an unknown type adds nothing.
+     */
+    private static void addingARoomReturnsIt() {
+        Hotel hotel = new Hotel("Test");
+        Room room = hotel.addRoom("A", 1299.0, "Deluxe");
+        Check.isTrue(room != null && room.getName().equals("A") && room.getRoomType().equals("Deluxe"), "room returned");
+        Check.isTrue(hotel.addRoom("B", 1299.0, "Suite") == null, "unknown type refused");
+        Check.equal(1, hotel.getTotalRooms(), "nothing added for the unknown type");
+
+        HotelService service = new HotelService();
+        Hotel managed = service.createHotel("Managed").getValue();
+        ServiceResult<Room> added = service.addRoom(managed, "A", 1299.0, "Standard");
+        Check.isTrue(added.isSuccess(), "room added");
+        Check.isTrue(added.getValue() == managed.getRoomInfo("A"), "result holds the new room");
+    }
+
+    /**
+     * Hotels renamed to the same name at the same time end with exactly one of them holding it.
+     *
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    private static void racingRenamesClaimANameOnce() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            HotelService service = new HotelService();
+            List<Hotel> hotels = new ArrayList<>();
+            for (int h = 0; h < 6; h++) {
+                hotels.add(service.createHotel("Hotel " + h).getValue());
+            }
+            AtomicInteger renamed = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (Hotel hotel : hotels) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (service.renameHotel(hotel, "Grand").isSuccess()) {
+                        renamed.incrementAndGet();
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            Check.equal(1, renamed.get(), "renames that took the name in round " + round);
+            int named = 0;
+            for (Hotel hotel : service.getHotels()) {
+                named += hotel.getName().equals("Grand") ? 1 : 0;
+            }
+            Check.equal(1, named, "hotels with the name in round " + round);
+            Check.equal(6, service.getHotelNames().size(), "every hotel still listed in round " + round);
+        }
+    }
+
+    /**
+     * A hotel that was removed cannot be renamed back into the service.
+     */
+    private static void renamingARemovedHotelFails() {
+        HotelService service = new HotelService();
+        Hotel hotel = service.createHotel("Old").getValue();
+        Check.isTrue(service.removeHotel(hotel).isSuccess(), "removed");
+        Check.isTrue(!service.renameHotel(hotel, "New").isSuccess(), "rename refused");
+        Check.isTrue(service.getHotelByName("New") == null, "name not claimed");
+        Check.equal(0, service.getHotels().size(), "no hotels");
+    }
+}
@@ -0,0 +1,86 @@
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Helpers for tests that look at the files written by BookingJournal.
+ */
+public final class JournalFiles {
+    public static final int HEADER_SIZE = 12; // Magic number and generation, as in BookingJournal
+
+    private JournalFiles() {
+    }
+
+    /**
+     * Reads the type of every complete record in the journal of a directory.
+     *
+     * @param directory the journal directory
+     * @return the record types, in the order they were written
+     * @throws IOException if the journal cannot be read
+     */
+    public static List<Integer> recordTypes(Path directory) throws IOException {
+        List<Integer> types = new ArrayList<>();
+        byte[] file = Files.readAllBytes(directory.resolve("hotels.journal"));
+        int position = HEADER_SIZE;
+        while (position + 8 <= file.length) {
+            int length = ((file[position] & 0xFF) << 24) | ((file[position + 1] & 0xFF) << 16)
+                    | ((file[position + 2] & 0xFF) << 8) | (file[position + 3] & 0xFF);
+            if (length <= 0 || position + 8 + length > file.length) {
+                break; // Torn record
+            }
+            types.add((int) file[position + 4]);
+            position += 8 + length;
+        }
+        return types;
+    }
+
+    /**
+     * Reads the generation written in the journal header of a directory.
+     *
+     * @param directory the journal directory
+     * @return the generation
+     * @throws IOException if the journal cannot be read
+     */
+    public static long generation(Path directory) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(directory.resolve("hotels.journal")))) {
+            in.readInt();
+            return in.readLong();
+        }
+    }
+
+    /**
+     * Copies the files of a journal directory, as a crash would leave them, to a new directory.
+     *
+     * @param directory the journal directory
+     * @return the copy
+     * @throws IOException if the files cannot be copied
+     */
+    public static Path copy(Path directory) throws IOException {
+        Path copy = Files.createTempDirectory("journal-copy");
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.copy(file, copy.resolve(file.getFileName()));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Deletes a directory and its files.
+     *
+     * @param directory the directory to delete
+     * @throws IOException if a file cannot be deleted
+     */
+    public static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
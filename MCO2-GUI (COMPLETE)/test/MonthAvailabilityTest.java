@@ -0,0 +1,76 @@
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests the month availability of a room against a day-by-day check of its reservations.
+ */
+public class MonthAvailabilityTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        monthsMatchTheReservations();
+        textShowsEveryDay();
+    }
+
+    /**
+     * Random stays, including ones that cross into the next month, give the same booked days as
+     * checking every reservation for every day, in long and short months.
+     */
+    private static void monthsMatchTheReservations() {
+        Random random = new Random(12);
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1000.0, "Standard");
+        Room room = hotel.getRooms().get(0);
+        int start = EpochDay.of(LocalDate.of(2024, 1, 1));
+        for (int i = 0; i < 300; i++) {
+            int checkIn = start + random.nextInt(366);
+            hotel.bookRoom("Guest", checkIn, checkIn + 1 + random.nextInt(6), room); // Refused when the nights are taken
+        }
+        List<Reservation> reservations = room.getReservations();
+        Check.isTrue(reservations.size() > 20, "some stays booked");
+
+        for (int month = 1; month <= 12; month++) {
+            YearMonth yearMonth = YearMonth.of(2024, month);
+            MonthAvailability availability = room.getMonthAvailability(2024, month);
+            Check.equal(yearMonth.lengthOfMonth(), availability.getDaysInMonth(), "days in " + yearMonth);
+            int free = 0;
+            for (int day = 1; day <= yearMonth.lengthOfMonth(); day++) {
+                int epochDay = EpochDay.of(yearMonth.atDay(day));
+                boolean booked = false;
+                for (Reservation reservation : reservations) {
+                    booked |= reservation.conflictsWith(epochDay); // The check-out day counts as booked
+                }
+                Check.equal(booked, availability.isBooked(day), yearMonth + "-" + day);
+                free += booked ? 0 : 1;
+            }
+            Check.equal(free, availability.getAvailableDays(), "available days in " + yearMonth);
+            Check.equal(0L, availability.getBookedMask() >>> yearMonth.lengthOfMonth(), "no bits past the month");
+        }
+    }
+
+    /**
+     * The text form has one line per day and marks only the booked ones.
+     */
+    private static void textShowsEveryDay() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1000.0, "Standard");
+        Room room = hotel.getRooms().get(0);
+        hotel.bookRoom("Guest", EpochDay.of(LocalDate.of(2023, 2, 27)), EpochDay.of(LocalDate.of(2023, 3, 2)), room);
+
+        List<String> february = room.getAvailabilityForMonth(2023, 2);
+        Check.equal(28, february.size(), "February 2023");
+        Check.equal("26: Available", february.get(25), "day before the stay");
+        Check.equal("27: Booked", february.get(26), "check-in");
+        Check.equal("28: Booked", february.get(27), "last day of the month");
+
+        MonthAvailability march = room.getMonthAvailability(2023, 3);
+        Check.equal(0b11L, march.getBookedMask(), "stay into March, check-out day included");
+        Check.equal(String.join("\n", march.toLines()) + "\n", march.toString(), "text matches the lines");
+        Check.equal(30, room.getMonthAvailability(2023, 4).getAvailableDays(), "empty month");
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests OccupancyBitmap against the rooms' own reservations, and through Hotel.
+ */
+public class OccupancyBitmapTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        checkOutNightIsFreeButDepartureDayIsNot();
+        slotsOfRemovedRoomsAreReused();
+        hotelAvailabilityMatchesRooms();
+        cancellingOneOfTwoAdjacentStays();
+    }
+
+    /**
+     * A stay occupies its nights, and the check-out day only in the single-day view.
+     */
+    private static void checkOutNightIsFreeButDepartureDayIsNot() {
+        OccupancyBitmap bitmap = new OccupancyBitmap();
+        int a = bitmap.allocateSlot();
+        int b = bitmap.allocateSlot();
+        bitmap.markStay(a, 10, 13);
+        Check.equal(bits(b), bitmap.freeRooms(12, 14), "free for a stay sharing the last night");
+        Check.equal(bits(a, b), bitmap.freeRooms(13, 15), "free from the check-out day");
+        Check.equal(bits(b), bitmap.freeRoomsOn(13), "check-out day in the day view");
+        Check.equal(bits(a, b), bitmap.freeRoomsOn(14), "day after check-out");
+        bitmap.clearStay(a, 10, 13);
+        Check.equal(bits(a, b), bitmap.freeRooms(10, 13), "free after clearing");
+        Check.equal(bits(a, b), bitmap.freeRoomsOn(13), "check-out day after clearing");
+    }
+
+    /**
+     * A released slot is handed to the next room and is not free meanwhile.
+     */
+    private static void slotsOfRemovedRoomsAreReused() {
+        OccupancyBitmap bitmap = new OccupancyBitmap();
+        int a = bitmap.allocateSlot();
+        int b = bitmap.allocateSlot();
+        bitmap.releaseSlot(a);
+        Check.equal(bits(b), bitmap.freeRooms(1, 2), "released slot is not a free room");
+        Check.equal(a, bitmap.allocateSlot(), "released slot reused");
+    }
+
+    /**
+     * After random bookings and cancellations the hotel's bitmap answers match the rooms.
+     */
+    private static void hotelAvailabilityMatchesRooms() {
+        Random random = new Random(2);
+        Hotel hotel = new Hotel("Test");
+        for (int i = 0; i < 10; i++) {
+            hotel.addRoom("R" + i, 1299.0, Room.ROOM_TYPES[i % 3]);
+        }
+        List<Reservation> booked = new ArrayList<>();
+        for (int step = 0; step < 800; step++) {
+            if (!booked.isEmpty() && random.nextInt(3) == 0) {
+                hotel.removeReservation(booked.remove(random.nextInt(booked.size())));
+            } else {
+                int checkIn = 100 + random.nextInt(60);
+                Reservation reservation = hotel.bookRoom("Guest", checkIn, checkIn + 1 + random.nextInt(5),
+                        hotel.getRooms().get(random.nextInt(10)));
+                if (reservation != null) {
+                    booked.add(reservation);
+                }
+            }
+        }
+        for (int checkIn = 95; checkIn < 170; checkIn++) {
+            for (int nights = 1; nights <= 4; nights++) {
+                List<String> expected = new ArrayList<>();
+                for (Room room : hotel.getRooms()) {
+                    if (room.isAvailable(checkIn, checkIn + nights)) {
+                        expected.add(room.getName());
+                    }
+                }
+                Check.equal(expected, hotel.getAvailableRoomNames(checkIn, checkIn + nights), "free rooms " + checkIn + "+" + nights);
+            }
+            int freeOnDay = 0;
+            for (Room room : hotel.getRooms()) {
+                freeOnDay += room.isAvailable(checkIn) ? 1 : 0;
+            }
+            Check.equal(freeOnDay, hotel.getTotalAvailableRooms(checkIn), "rooms free on " + checkIn);
+        }
+    }
+
+    /**
+     * Cancelling either of two back-to-back stays in a room leaves the other one's nights and
+     * check-out day marked, in both the stay view and the single-day view.
+     */
+    private static void cancellingOneOfTwoAdjacentStays() {
+        for (int cancelled = 0; cancelled < 2; cancelled++) {
+            Hotel hotel = new Hotel("Test");
+            hotel.addRoom("A", 1299.0, "Standard");
+            Room room = hotel.getRoomInfo("A");
+            Reservation first = hotel.bookRoom("Ana", 10, 13, room);
+            Reservation second = hotel.bookRoom("Ben", 13, 15, room);
+            Check.isTrue(hotel.removeReservation(cancelled == 0 ? first : second), "cancelled");
+            for (int day = 8; day < 17; day++) {
+                Check.equal(room.isAvailable(day) ? 1 : 0, hotel.getTotalAvailableRooms(day), "day view on " + day + " after cancelling stay " + cancelled);
+                Check.equal(room.isAvailable(day, day + 1), hotel.getAvailableRoomNames(day, day + 1).contains("A"),
+                        "night of " + day + " after cancelling stay " + cancelled);
+            }
+        }
+    }
+
+    /**
+     * Builds a bit set.
+     *
+     * @param slots the bits to set
+     * @return the bit set
+     */
+    private static BitSet bits(int... slots) {
+        BitSet set = new BitSet();
+        for (int slot : slots) {
+            set.set(slot);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests that cached quotes are dropped exactly when their prices change.
+ */
+public class QuoteCacheTest {
+    private static final int STANDARD = 0; // Room type positions, as in Room.ROOM_TYPES
+    private static final int DELUXE = 1;
+
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        leastRecentlyUsedQuoteIsEvicted();
+        invalidationDropsOnlyAffectedQuotes();
+        quoteComputedDuringAChangeIsNotStored();
+        cachedQuotesFollowEveryPriceChange();
+    }
+
+    /**
+     * A full cache drops the quote that was used longest ago.
+     */
+    private static void leastRecentlyUsedQuoteIsEvicted() {
+        QuoteCache cache = new QuoteCache(2);
+        cache.put(STANDARD, 1, 2, null, cache.getStamp(), 100.0);
+        cache.put(STANDARD, 2, 3, null, cache.getStamp(), 200.0);
+        Check.near(100.0, cache.get(STANDARD, 1, 2, null), "hit");
+        cache.put(STANDARD, 3, 4, null, cache.getStamp(), 300.0);
+        Check.isTrue(Double.isNaN(cache.get(STANDARD, 2, 3, null)), "least recently used evicted");
+        Check.near(100.0, cache.get(STANDARD, 1, 2, null), "recently used kept");
+        Check.equal(1L, cache.getEvictions(), "evictions");
+        Check.equal(2L, cache.getHits(), "hits");
+        Check.equal(1L, cache.getMisses(), "misses");
+    }
+
+    /**
+     * A changed range of nights drops the stays with a night in it, and a changed room type drops
+     * only that type's quotes.
+     */
+    private static void invalidationDropsOnlyAffectedQuotes() {
+        QuoteCache cache = new QuoteCache(100);
+        cache.put(STANDARD, 5, 10, null, cache.getStamp(), 1.0); // Last night is day 9
+        cache.put(STANDARD, 10, 12, null, cache.getStamp(), 2.0); // First night is day 10
+        cache.put(STANDARD, 12, 14, "I_WORK_HERE", cache.getStamp(), 3.0);
+        cache.put(DELUXE, 8, 11, null, cache.getStamp(), 4.0);
+
+        cache.invalidateNights(10, 11);
+        Check.near(1.0, cache.get(STANDARD, 5, 10, null), "check-out on the first changed day kept");
+        Check.isTrue(Double.isNaN(cache.get(STANDARD, 10, 12, null)), "stay on the changed nights dropped");
+        Check.near(3.0, cache.get(STANDARD, 12, 14, "I_WORK_HERE"), "stay after the changed nights kept");
+        Check.isTrue(Double.isNaN(cache.get(DELUXE, 8, 11, null)), "stay across the changed nights dropped");
+        Check.equal(2L, cache.getInvalidations(), "invalidations");
+
+        cache.put(DELUXE, 8, 11, null, cache.getStamp(), 4.0);
+        cache.invalidateRoomType(STANDARD);
+        Check.equal(1, cache.size(), "only the other type left");
+        Check.near(4.0, cache.get(DELUXE, 8, 11, null), "other type kept");
+        cache.invalidateAll();
+        Check.equal(0, cache.size(), "everything dropped");
+    }
+
+    /**
+     * A quote worked out before a price change finished is not stored afterwards.
+     */
+    private static void quoteComputedDuringAChangeIsNotStored() {
+        QuoteCache cache = new QuoteCache(10);
+        long stamp = cache.getStamp();
+        cache.invalidateNights(100, 100); // A change that does not even touch the stay
+        cache.put(STANDARD, 1, 2, null, stamp, 100.0);
+        Check.equal(0, cache.size(), "stale quote not stored");
+        cache.put(STANDARD, 1, 2, null, cache.getStamp(), Double.NaN);
+        Check.equal(0, cache.size(), "missing price not stored");
+    }
+
+    /**
+     * After random modifier, room and price changes, every cached quote equals one worked out
+     * from scratch, and repeated quotes are answered from the cache.
+     */
+    private static void cachedQuotesFollowEveryPriceChange() {
+        Random random = new Random(17);
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("S1", 1000.0, "Standard");
+        hotel.addRoom("D1", 1000.0, "Deluxe");
+        String[] codes = {null, "I_WORK_HERE", "STAY4_GET1", "PAYDAY"};
+        List<DatePriceModifier> modifiers = new ArrayList<>();
+        int rooms = 2;
+
+        for (int step = 0; step < 3000; step++) {
+            switch (random.nextInt(6)) {
+                case 0: {
+                    int start = random.nextInt(60);
+                    DatePriceModifier modifier = new DatePriceModifier(start, start + random.nextInt(5), 0.5 + random.nextInt(10) / 10.0);
+                    if (hotel.addDatePriceModifier(modifier)) {
+                        modifiers.add(modifier);
+                    }
+                    break;
+                }
+                case 1:
+                    if (!modifiers.isEmpty()) {
+                        hotel.removeDatePriceModifier(modifiers.remove(random.nextInt(modifiers.size())));
+                    }
+                    break;
+                case 2:
+                    hotel.getRooms().get(random.nextInt(hotel.getRooms().size())).setBasePrice(500.0 + random.nextInt(20) * 50);
+                    break;
+                case 3:
+                    if (random.nextInt(10) == 0) {
+                        hotel.addRoom("R" + rooms++, 500.0 + random.nextInt(20) * 50, Room.ROOM_TYPES[random.nextInt(3)]);
+                    }
+                    break;
+                case 4:
+                    if (hotel.getRooms().size() > 2 && random.nextInt(5) == 0) {
+                        hotel.removeRoom(hotel.getRooms().get(hotel.getRooms().size() - 1));
+                    }
+                    break;
+                default:
+                    break;
+            }
+            for (int q = 0; q < 5; q++) {
+                String roomType = Room.ROOM_TYPES[random.nextInt(3)];
+                int checkIn = random.nextInt(70);
+                int checkOut = checkIn + 1 + random.nextInt(6);
+                String code = codes[random.nextInt(codes.length)];
+                double expected = freshQuote(hotel, roomType, checkIn, checkOut, code);
+                double quoted = hotel.getQuote(roomType, checkIn, checkOut, code);
+                if (Double.isNaN(expected)) {
+                    Check.isTrue(Double.isNaN(quoted), "no room of the type at step " + step);
+                } else {
+                    Check.near(expected, quoted, roomType + " " + checkIn + "-" + checkOut + " " + code + " at step " + step);
+                }
+            }
+        }
+        Check.isTrue(hotel.getQuoteCache().getHits() > 0, "quotes answered from the cache");
+        Check.isTrue(hotel.getQuoteCache().getInvalidations() > 0, "quotes dropped on changes");
+    }
+
+    /**
+     * Works out a quote without the cache.
+     *
+     * @param hotel the hotel
+     * @param roomType the room type
+     * @param checkIn the check-in epoch day
+     * @param checkOut the check-out epoch day
+     * @param code the discount code, or null for none
+     * @return the price after the discount, or NaN if the hotel has no room of the type
+     */
+    private static double freshQuote(Hotel hotel, String roomType, int checkIn, int checkOut, String code) {
+        double price = hotel.quote(new int[] {checkIn}, new int[] {checkOut - checkIn}).getPrice(0, roomType);
+        double nightly = Double.NaN;
+        for (Room room : hotel.getRooms()) {
+            if (room.getRoomType().equals(roomType) && (Double.isNaN(nightly) || room.getBasePrice() < nightly)) {
+                nightly = room.getBasePrice(); // Cheapest room of the type
+            }
+        }
+        DiscountRule rule = DiscountRules.getDefault().get(code);
+        return rule == null ? price : rule.apply(price, checkIn, checkOut, nightly);
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests that RateCalendar prices stays the same as adding up every night's modifier.
+ */
+public class RateCalendarTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        emptyCalendarChargesBasePrice();
+        prefixSumsMatchNightlySums();
+        reservationTotalUsesHotelModifiers();
+    }
+
+    /**
+     * Without modifiers every night costs 1.0 times the base price.
+     */
+    private static void emptyCalendarChargesBasePrice() {
+        RateCalendar calendar = new RateCalendar();
+        Check.near(5.0, calendar.sumModifiers(100, 105), "five nights");
+        Check.near(0.0, calendar.sumModifiers(105, 105), "no nights");
+        Check.near(1.0, calendar.modifierOn(12345), "any night");
+    }
+
+    /**
+     * The sum over any stay equals the sum of the nightly modifiers, with end dates inclusive.
+     */
+    private static void prefixSumsMatchNightlySums() {
+        Random random = new Random(3);
+        List<DatePriceModifier> modifiers = new ArrayList<>();
+        for (int start = 200; start < 400; start += 5 + random.nextInt(10)) {
+            int end = start + random.nextInt(4);
+            modifiers.add(new DatePriceModifier(start, end, 0.5 + random.nextInt(11) / 10.0));
+        }
+        RateCalendar calendar = new RateCalendar(modifiers);
+        for (int night = 190; night < 410; night++) {
+            double expected = 1.0;
+            for (DatePriceModifier modifier : modifiers) {
+                if (modifier.getStartDay() <= night && night <= modifier.getEndDay()) {
+                    expected = modifier.getModifier();
+                }
+            }
+            Check.near(expected, calendar.modifierOn(night), "modifier on " + night);
+        }
+        for (int i = 0; i < 2000; i++) {
+            int checkIn = 180 + random.nextInt(240);
+            int checkOut = checkIn + random.nextInt(30);
+            double expected = 0.0;
+            for (int night = checkIn; night < checkOut; night++) {
+                expected += calendar.modifierOn(night);
+            }
+            Check.near(expected, calendar.sumModifiers(checkIn, checkOut), "stay " + checkIn + "-" + checkOut);
+        }
+    }
+
+    /**
+     * A reservation is priced from its room and the hotel's modifiers, check-out night excluded.
+     */
+    private static void reservationTotalUsesHotelModifiers() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1000.0, "Standard");
+        Check.isTrue(hotel.addDatePriceModifier(new DatePriceModifier(102, 103, 1.5)), "modifier added");
+        Reservation reservation = hotel.bookRoom("Guest", 100, 104, hotel.getRooms().get(0));
+        Check.near(1000.0 * (1 + 1 + 1.5 + 1.5), reservation.getTotalPrice(), "total price");
+        Reservation afterModifier = hotel.bookRoom("Guest", 104, 106, hotel.getRooms().get(0));
+        Check.near(2000.0, afterModifier.getTotalPrice(), "stay after the modifier");
+    }
+}
@@ -0,0 +1,171 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests ReservationIndex against a plain scan over the same stays.
+ */
+public class ReservationIndexTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        staysAreHalfOpenForOverlaps();
+        checkOutDayCountsAsCovered();
+        matchesScanUnderRandomChanges();
+        placeholdersCountUntilRemoved();
+    }
+
+    /**
+     * A stay may start on the day another one ends, but not a night earlier.
+     */
+    private static void staysAreHalfOpenForOverlaps() {
+        ReservationIndex index = new ReservationIndex();
+        index.add(stay(10, 13));
+        Check.isTrue(!index.overlaps(13, 15), "stay starting on the check-out day");
+        Check.isTrue(!index.overlaps(7, 10), "stay ending on the check-in day");
+        Check.isTrue(index.overlaps(12, 14), "stay sharing the last night");
+        Check.isTrue(index.overlaps(9, 11), "stay sharing the first night");
+        Check.isTrue(index.overlaps(5, 20), "stay around the booking");
+    }
+
+    /**
+     * The day view counts both the check-in and the check-out day as booked.
+     */
+    private static void checkOutDayCountsAsCovered() {
+        ReservationIndex index = new ReservationIndex();
+        index.add(stay(10, 13));
+        Check.isTrue(index.covers(10) && index.covers(13), "check-in and check-out days");
+        Check.isTrue(!index.covers(9) && !index.covers(14), "days outside the stay");
+        BitSet booked = index.bookedDays(8, 16);
+        Check.equal("{2, 3, 4, 5}", booked.toString(), "booked days from day 8");
+    }
+
+    /**
+     * Every query agrees with a scan over the stays while stays come and go.
+     */
+    private static void matchesScanUnderRandomChanges() {
+        Random random = new Random(1);
+        ReservationIndex index = new ReservationIndex();
+        List<Reservation> stays = new ArrayList<>();
+        for (int step = 0; step < 3000; step++) {
+            if (!stays.isEmpty() && random.nextInt(3) == 0) {
+                Reservation removed = stays.remove(random.nextInt(stays.size()));
+                Check.isTrue(index.remove(removed), "removing an indexed stay");
+                Check.isTrue(!index.remove(removed), "removing it twice");
+            } else {
+                int checkIn = random.nextInt(200);
+                Reservation added = stay(checkIn, checkIn + 1 + random.nextInt(6));
+                stays.add(added);
+                index.add(added);
+            }
+            Check.equal(stays.size(), index.size(), "size");
+
+            int from = random.nextInt(210) - 5;
+            int to = from + 1 + random.nextInt(10);
+            Check.equal(scanOverlaps(stays, from, to), index.overlaps(from, to), "overlaps " + from + "-" + to);
+            Check.equal(scanCovers(stays, from), index.covers(from), "covers " + from);
+            Check.equal(scanPreviousCheckOut(stays, from), index.previousCheckOut(from), "previous check-out before " + from);
+            Check.equal(scanNextCheckIn(stays, from), index.nextCheckIn(from), "next check-in from " + from);
+            BitSet booked = index.bookedDays(from, to);
+            for (int day = from; day < to; day++) {
+                Check.equal(scanCovers(stays, day), booked.get(day - from), "booked day " + day);
+            }
+        }
+    }
+
+    /**
+     * Stays restored without their reservations block availability until they are swapped out.
+     */
+    private static void placeholdersCountUntilRemoved() {
+        ReservationIndex index = new ReservationIndex();
+        index.addPlaceholder(20, 25);
+        index.add(stay(30, 32));
+        Check.isTrue(index.overlaps(22, 23), "placeholder blocks its nights");
+        index.removePlaceholders();
+        Check.isTrue(!index.overlaps(22, 23), "placeholder gone");
+        Check.isTrue(index.overlaps(31, 33), "real stay kept");
+        Check.equal(1, index.size(), "size after removing placeholders");
+    }
+
+    /**
+     * Creates a reservation without a room or hotel.
+     *
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return the reservation
+     */
+    private static Reservation stay(int checkInDay, int checkOutDay) {
+        return new Reservation("Guest", checkInDay, checkOutDay, null, null);
+    }
+
+    /**
+     * Checks by scanning if any stay shares a night with a range.
+     *
+     * @param stays the stays
+     * @param checkInDay the check-in epoch day
+     * @param checkOutDay the check-out epoch day
+     * @return true if a stay overlaps the range
+     */
+    private static boolean scanOverlaps(List<Reservation> stays, int checkInDay, int checkOutDay) {
+        for (Reservation stay : stays) {
+            if (stay.getCheckInDay() < checkOutDay && stay.getCheckOutDay() > checkInDay) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks by scanning if any stay covers a day, check-out day included.
+     *
+     * @param stays the stays
+     * @param day the epoch day
+     * @return true if a stay covers the day
+     */
+    private static boolean scanCovers(List<Reservation> stays, int day) {
+        for (Reservation stay : stays) {
+            if (stay.getCheckInDay() <= day && day <= stay.getCheckOutDay()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds by scanning the latest check-out of the stays that start before a day.
+     *
+     * @param stays the stays
+     * @param day the epoch day
+     * @return the latest check-out day, or Integer.MIN_VALUE if none starts before the day
+     */
+    private static int scanPreviousCheckOut(List<Reservation> stays, int day) {
+        int latest = Integer.MIN_VALUE;
+        for (Reservation stay : stays) {
+            if (stay.getCheckInDay() < day) {
+                latest = Math.max(latest, stay.getCheckOutDay());
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Finds by scanning the earliest check-in on or after a day.
+     *
+     * @param stays the stays
+     * @param day the epoch day
+     * @return the earliest check-in day, or Integer.MAX_VALUE if none starts on or after the day
+     */
+    private static int scanNextCheckIn(List<Reservation> stays, int day) {
+        int earliest = Integer.MAX_VALUE;
+        for (Reservation stay : stays) {
+            if (stay.getCheckInDay() >= day) {
+                earliest = Math.min(earliest, stay.getCheckInDay());
+            }
+        }
+        return earliest;
+    }
+}
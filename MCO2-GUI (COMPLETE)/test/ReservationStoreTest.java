@@ -0,0 +1,146 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests that the reservation store reuses released rows, drops strings no row uses, and gets
+ * back the rows of reservations their hotel drops.
+ */
+public class ReservationStoreTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        releasedRowsAreReused();
+        unusedStringsAreDropped();
+        missingGuestNameIsStored();
+        cancelledReservationsReleaseTheirRows();
+        removedHotelReleasesItsRows();
+    }
+
+    /**
+     * A released row is handed out again before the store grows, without its old code or price.
+     */
+    private static void releasedRowsAreReused() {
+        ReservationStore store = new ReservationStore();
+        int first = store.add(1, "Ana", 10, 12);
+        int second = store.add(2, "Ben", 10, 12);
+        store.setDiscountCode(first, "I_WORK_HERE");
+        store.setFinalPrice(first, 1800.0);
+        store.release(first);
+        Check.equal(1, store.size(), "rows in use");
+
+        int reused = store.add(3, "Cy", 20, 25);
+        Check.equal(first, reused, "released row reused");
+        Check.isTrue(reused != second, "row in use kept");
+        Check.equal(3, store.getId(reused), "ID");
+        Check.equal("Cy", store.getGuestName(reused), "guest");
+        Check.equal(25, store.getCheckOutDay(reused), "check-out");
+        Check.isTrue(store.getDiscountCode(reused) == null, "old code cleared");
+        Check.near(0.0, store.getFinalPrice(reused), "old price cleared");
+        Check.equal("Ben", store.getGuestName(second), "other row untouched");
+        long bytes = store.getOffHeapBytes();
+        for (int i = 0; i < 1000; i++) {
+            store.release(store.add(i, "Guest", 1, 2));
+        }
+        Check.equal(bytes, store.getOffHeapBytes(), "store does not grow while rows are reused");
+    }
+
+    /**
+     * Guest names and discount codes are counted by the rows using them and dropped after the last one.
+     */
+    private static void unusedStringsAreDropped() {
+        ReservationStore store = new ReservationStore();
+        int ana = store.add(1, "Ana", 10, 12);
+        int anaAgain = store.add(2, "Ana", 20, 22);
+        int ben = store.add(3, "Ben", 10, 12);
+        Check.equal(2, store.getStringCount(), "names interned once");
+
+        store.release(ana);
+        Check.equal(2, store.getStringCount(), "name still used");
+        store.release(anaAgain);
+        Check.equal(1, store.getStringCount(), "name dropped with its last row");
+
+        store.setDiscountCode(ben, "I_WORK_HERE");
+        store.setDiscountCode(ben, "I_WORK_HERE");
+        Check.equal(2, store.getStringCount(), "code interned once");
+        store.setDiscountCode(ben, "STAY4_GET1");
+        Check.equal(2, store.getStringCount(), "replaced code dropped");
+        store.setDiscountCode(ben, null);
+        Check.equal(1, store.getStringCount(), "cleared code dropped");
+
+        int dee = store.add(4, "Dee", 1, 2); // Takes the ID of a dropped string
+        Check.equal("Dee", store.getGuestName(dee), "reused string ID");
+        Check.equal("Ben", store.getGuestName(ben), "kept string");
+        store.release(ben);
+        store.release(dee);
+        Check.equal(0, store.getStringCount(), "every string dropped");
+    }
+
+    /**
+     * A missing guest name is kept as null instead of failing.
+     */
+    private static void missingGuestNameIsStored() {
+        ReservationStore store = new ReservationStore();
+        int row = store.add(1, null, 10, 12);
+        Check.isTrue(store.getGuestName(row) == null, "missing name");
+        Check.equal(0, store.getStringCount(), "nothing interned");
+        store.release(row);
+        Check.equal(0, store.size(), "row released");
+    }
+
+    /**
+     * Cancelled reservations give their rows back straight away and can still be read after a
+     * later booking takes the row.
+     */
+    private static void cancelledReservationsReleaseTheirRows() {
+        ReservationStore store = Reservation.getStore();
+        int before = store.size();
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1000.0, "Standard");
+        Room room = hotel.getRoomInfo("A");
+        List<Reservation> cancelled = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            cancelled.add(hotel.bookRoom("Guest " + i, 10 + i * 2, 12 + i * 2, room, "I_WORK_HERE"));
+        }
+        Check.equal(before + 200, store.size(), "rows taken");
+        for (Reservation reservation : cancelled) {
+            Check.isTrue(hotel.removeReservation(reservation), "cancelled");
+        }
+        Check.equal(before, store.size(), "rows released on cancel");
+
+        for (int i = 0; i < 200; i++) {
+            hotel.bookRoom("Later " + i, 1000 + i, 1001 + i, room); // Takes the released rows
+        }
+        Check.equal(before + 200, store.size(), "released rows reused");
+        Reservation first = cancelled.get(0);
+        Check.equal("Guest 0", first.getGuestName(), "cancelled guest kept");
+        Check.equal(10, first.getCheckInDay(), "cancelled check-in kept");
+        Check.equal(12, first.getCheckOutDay(), "cancelled check-out kept");
+        Check.equal("I_WORK_HERE", first.getDiscountCode(), "cancelled code kept");
+        Check.near(1800.0, first.getFinalPrice(), "cancelled price kept");
+        first.setFinalPrice(1500.0);
+        Check.near(1500.0, first.getFinalPrice(), "cancelled price changes its own copy");
+        Check.equal(200, hotel.getReservations().size(), "later bookings untouched");
+    }
+
+    /**
+     * Removing a hotel gives back the rows of every reservation it held.
+     */
+    private static void removedHotelReleasesItsRows() {
+        ReservationStore store = Reservation.getStore();
+        int before = store.size();
+        HotelService service = new HotelService();
+        Hotel hotel = service.createHotel("Test").getValue();
+        hotel.addRoom("A", 1000.0, "Standard");
+        Reservation reservation = null;
+        for (int i = 0; i < 50; i++) {
+            reservation = hotel.bookRoom("Guest", 10 + i, 11 + i, hotel.getRoomInfo("A"));
+        }
+        Check.equal(before + 50, store.size(), "rows taken");
+        Check.isTrue(service.removeHotel(hotel).isSuccess(), "hotel removed");
+        Check.equal(before, store.size(), "rows released with the hotel");
+        Check.equal(59, reservation.getCheckInDay(), "reservation of the removed hotel still read");
+    }
+}
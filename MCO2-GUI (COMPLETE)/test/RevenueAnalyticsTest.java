@@ -0,0 +1,120 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests the occupancy and revenue reports against a day-by-day count of each hotel's stays.
+ */
+public class RevenueAnalyticsTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     * @throws Exception if the journal files cannot be used
+     */
+    public static void main(String[] args) throws Exception {
+        reportsMatchTheStays();
+        snapshotStaysAreCountedWithoutLoading();
+    }
+
+    /**
+     * Reports made in parallel for several hotels match counting every stay for every day, and
+     * the whole-report figures match the daily ones.
+     */
+    private static void reportsMatchTheStays() {
+        Random random = new Random(14);
+        List<Hotel> hotels = new ArrayList<>();
+        for (int h = 0; h < 6; h++) {
+            Hotel hotel = new Hotel("Hotel " + h);
+            for (int r = 0; r < 1 + h; r++) {
+                hotel.addRoom("R" + r, 1000.0 + 100 * r, Room.ROOM_TYPES[r % 3]);
+            }
+            for (int i = 0; i < 200; i++) {
+                int checkIn = random.nextInt(120);
+                hotel.bookRoom("Guest", checkIn, checkIn + 1 + random.nextInt(7), hotel.getRooms().get(random.nextInt(1 + h)));
+            }
+            hotels.add(hotel);
+        }
+        hotels.add(new Hotel("Empty")); // No rooms at all
+
+        int firstDay = 30;
+        int endDay = 90;
+        List<OccupancyReport> reports = RevenueAnalytics.analyze(hotels, firstDay, endDay);
+        Check.equal(hotels.size(), reports.size(), "one report per hotel");
+        for (int h = 0; h < hotels.size(); h++) {
+            Hotel hotel = hotels.get(h);
+            OccupancyReport report = reports.get(h);
+            Check.equal(hotel.getName(), report.getHotelName(), "report order");
+            Check.equal(endDay - firstDay, report.getDays(), "days");
+            long sold = 0;
+            double revenue = 0;
+            for (int day = firstDay; day < endDay; day++) {
+                int daySold = 0;
+                double dayRevenue = 0;
+                for (Reservation reservation : hotel.getReservations()) {
+                    if (reservation.getCheckInDay() <= day && day < reservation.getCheckOutDay()) {
+                        daySold++;
+                        dayRevenue += reservation.getFinalPrice() / reservation.getNights();
+                    }
+                }
+                Check.equal(daySold, report.getRoomsSold(day), hotel.getName() + " rooms sold on " + day);
+                Check.near(dayRevenue, report.getRevenue(day), hotel.getName() + " revenue on " + day);
+                if (daySold > 0) {
+                    Check.near(dayRevenue / daySold, report.getAverageDailyRate(day), "ADR on " + day);
+                    Check.near(dayRevenue / hotel.getTotalRooms(), report.getRevPar(day), "RevPAR on " + day);
+                }
+                sold += daySold;
+                revenue += dayRevenue;
+            }
+            Check.equal(sold, report.getTotalRoomsSold(), hotel.getName() + " total sold");
+            Check.near(revenue, report.getTotalRevenue(), hotel.getName() + " total revenue");
+            long available = (long) hotel.getTotalRooms() * (endDay - firstDay);
+            Check.near(available == 0 ? 0 : (double) sold / available, report.getOccupancyRate(), "occupancy");
+            Check.near(available == 0 ? 0 : revenue / available, report.getRevPar(), "RevPAR");
+        }
+        Check.equal(0, RevenueAnalytics.analyze(hotels.get(0), 50, 40).getDays(), "empty range");
+    }
+
+    /**
+     * Stays still waiting in a snapshot are counted from its columns, giving the same report as
+     * the hotel had before it was saved.
+     *
+     * @throws Exception if the journal files cannot be used
+     */
+    private static void snapshotStaysAreCountedWithoutLoading() throws Exception {
+        Path directory = Files.createTempDirectory("analytics");
+        Path crashed = null;
+        try {
+            HotelService service = new HotelService();
+            service.openJournal(directory);
+            Hotel hotel = service.createHotel("Test").getValue();
+            service.addRoom(hotel, "A", 1000.0, "Standard");
+            service.addRoom(hotel, "B", 2000.0, "Deluxe");
+            service.book(hotel, "Ana", 10, 14, "A", "I_WORK_HERE");
+            service.book(hotel, "Ben", 12, 15, "B", null);
+            service.checkpoint();
+            service.book(hotel, "Cy", 20, 22, "A", null); // Loaded from the journal rather than the snapshot
+            crashed = JournalFiles.copy(directory);
+            service.closeJournal();
+
+            HotelService reopened = new HotelService();
+            reopened.openJournal(crashed);
+            Hotel restored = reopened.getHotelByName("Test");
+            OccupancyReport before = RevenueAnalytics.analyze(hotel, 0, 30);
+            OccupancyReport after = RevenueAnalytics.analyze(restored, 0, 30);
+            for (int day = 0; day < 30; day++) {
+                Check.equal(before.getRoomsSold(day), after.getRoomsSold(day), "rooms sold on " + day);
+                Check.near(before.getRevenue(day), after.getRevenue(day), "revenue on " + day);
+            }
+            Check.isTrue(restored.getRoomInfo("B").getRestoredRows() != null, "snapshot stays not loaded");
+            reopened.closeJournal();
+        } finally {
+            JournalFiles.delete(directory);
+            if (crashed != null) {
+                JournalFiles.delete(crashed);
+            }
+        }
+    }
+}
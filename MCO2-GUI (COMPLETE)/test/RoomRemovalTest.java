@@ -0,0 +1,70 @@
+/**
+ * Tests that removing a room reports when the hotel keeps it.
+ */
+public class RoomRemovalTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        hotelReportsWhetherTheRoomWasRemoved();
+        serviceFailsWhenTheHotelKeepsTheRoom();
+    }
+
+    /**
+     * Hotel.removeRoom returns false for a booked room, a room a hold cannot do without and a room
+     * that is already gone. A hold set aside in a removed room moves to another room of its type.
+     */
+    private static void hotelReportsWhetherTheRoomWasRemoved() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1299.0, "Deluxe");
+        hotel.addRoom("B", 1299.0, "Deluxe");
+        hotel.addRoom("C", 1299.0, "Standard");
+        Room a = hotel.getRoomInfo("A");
+        Room b = hotel.getRoomInfo("B");
+        Room c = hotel.getRoomInfo("C");
+
+        Reservation reservation = hotel.bookRoom("Guest", 10, 12, a);
+        Check.isTrue(!hotel.removeRoom(a), "booked room kept");
+        Check.isTrue(hotel.getRooms().contains(a), "booked room still listed");
+
+        hotel.removeReservation(reservation);
+        RoomTypeHold hold = hotel.holdRoomType("Guest", "Deluxe", 20, 22, null);
+        Check.isTrue(hold != null, "hold made");
+        Check.equal(a, hold.getPlannedRoom(), "first free room set aside");
+        Check.isTrue(hotel.removeRoom(a), "room removed while another is free");
+        Check.equal(b, hold.getPlannedRoom(), "hold moved to the other room");
+        Check.isTrue(!hotel.removeRoom(b), "last room kept for the hold");
+        Check.isTrue(hotel.getRooms().contains(b), "held type still has a room");
+        Check.isTrue(hotel.removeRoom(c), "room of another type removed");
+        Check.isTrue(!hotel.removeRoom(c), "room already removed");
+
+        hotel.cancelHold(hold);
+        Check.isTrue(hotel.removeRoom(b), "room removed once the hold is gone");
+        Check.equal(0, hotel.getRooms().size(), "no rooms left");
+    }
+
+    /**
+     * The service turns a room the hotel keeps into a failure that says why.
+     */
+    private static void serviceFailsWhenTheHotelKeepsTheRoom() {
+        HotelService service = new HotelService();
+        Hotel hotel = service.createHotel("Test").getValue();
+        service.addRoom(hotel, "A", 1299.0, "Deluxe");
+        service.addRoom(hotel, "B", 1299.0, "Standard");
+        int today = EpochDay.today();
+
+        // A stay that has checked out passes the active check, but the hotel still keeps the room
+        service.book(hotel, "Guest", today - 5, today - 3, "A", null);
+        ServiceResult<Room> booked = service.removeRoom(hotel, "A");
+        Check.isTrue(!booked.isSuccess(), "room with a past stay kept");
+        Check.isTrue(booked.getMessage().contains("reservations"), "reason given: " + booked.getMessage());
+
+        service.holdRoomType(hotel, "Guest", "Standard", today + 10, today + 12, null);
+        ServiceResult<Room> held = service.removeRoom(hotel, "B");
+        Check.isTrue(!held.isSuccess(), "room needed by a hold kept");
+        Check.isTrue(held.getMessage().contains("waiting"), "reason given: " + held.getMessage());
+        Check.isTrue(hotel.getRoomInfo("B") != null, "room still in the hotel");
+    }
+}
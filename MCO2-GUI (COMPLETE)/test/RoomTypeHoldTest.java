@@ -0,0 +1,136 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests selling stays by room type and giving them rooms before arrival.
+ */
+public class RoomTypeHoldTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        holdsAreLimitedByTheRoomCount();
+        roomBookingsCannotStrandAHold();
+        everyAdmittedHoldGetsARoom();
+    }
+
+    /**
+     * A type sells as many stays per night as it has rooms, cancelling gives the night back, and
+     * assigning turns the due holds into reservations with the same ID and price.
+     */
+    private static void holdsAreLimitedByTheRoomCount() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("D1", 1000.0, "Deluxe");
+        hotel.addRoom("D2", 1000.0, "Deluxe");
+        hotel.addRoom("S1", 1000.0, "Standard");
+        RoomTypeHold first = hotel.holdRoomType("Ana", "Deluxe", 10, 13, "I_WORK_HERE");
+        RoomTypeHold second = hotel.holdRoomType("Ben", "Deluxe", 12, 14, null);
+        Check.isTrue(first != null && second != null, "two rooms, two holds");
+        Check.isTrue(hotel.holdRoomType("Cy", "Deluxe", 12, 13, null) == null, "third hold on night 12 refused");
+        Check.isTrue(hotel.holdRoomType("Cy", "Deluxe", 13, 14, null) != null, "night 13 has a room left");
+        Check.isTrue(hotel.holdRoomType("Dee", "Executive", 10, 11, null) == null, "type without rooms");
+        Check.isTrue(hotel.holdRoomType("Dee", "Deluxe", 11, 11, null) == null, "stay without nights");
+        Check.equal(0, hotel.getFreeRoomCount("Deluxe", 12, 13), "holds count against the type");
+        Check.isTrue(hotel.bookRoom("Eve", 12, 13, hotel.getRoomInfo("D1")) == null, "room booking cannot take a promised night");
+
+        Check.isTrue(hotel.cancelHold(second), "cancelled");
+        Check.isTrue(!hotel.cancelHold(second), "cancelled once");
+        Check.equal(1, hotel.getFreeRoomCount("Deluxe", 12, 13), "night given back");
+
+        List<Reservation> assigned = hotel.assignHolds(10);
+        Check.equal(1, assigned.size(), "only the hold checking in by day 10");
+        Reservation reservation = assigned.get(0);
+        Check.equal(first.getId(), reservation.getId(), "hold ID kept");
+        Check.near(first.getPrice(), reservation.getFinalPrice(), "hold price kept");
+        Check.near(3240.0, reservation.getFinalPrice(), "deluxe rate less the discount, fixed when sold");
+        Check.equal("Deluxe", reservation.getRoom().getRoomType(), "room of the type");
+        Check.isTrue(hotel.getHoldById(first.getId()) == null, "hold replaced");
+        Check.equal(1, hotel.getHolds().size(), "later hold still waiting");
+        Check.equal(10, hotel.getAssignedThroughDay(), "horizon moved");
+        Check.isTrue(hotel.holdRoomType("Fay", "Deluxe", 9, 12, null) == null, "no holds within the horizon");
+    }
+
+    /**
+     * A booking for a fixed room moves a hold out of the room set aside for it, and is refused when
+     * it would leave a promised stay without any one room free for all of its nights.
+     */
+    private static void roomBookingsCannotStrandAHold() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("A", 1000.0, "Standard");
+        hotel.addRoom("B", 1000.0, "Standard");
+        RoomTypeHold hold = hotel.holdRoomType("Ana", "Standard", 10, 12, null);
+        Check.isTrue(hold != null, "hold");
+        Check.equal("A", hold.getPlannedRoom().getName(), "first free room set aside");
+        Check.isTrue(hotel.bookRoom("Ben", 11, 13, hotel.getRoomInfo("A")) != null, "room B still fits the hold");
+        Check.equal("B", hold.getPlannedRoom().getName(), "hold moved out of the booked room");
+        Check.equal(0, hotel.getFreeRoomCount("Standard", 11, 12), "night 11 full");
+        Check.isTrue(hotel.bookRoom("Cy", 9, 11, hotel.getRoomInfo("B")) == null, "would split the hold between rooms");
+        Check.isTrue(hotel.bookRoom("Cy", 12, 14, hotel.getRoomInfo("B")) != null, "after the hold is fine");
+
+        List<Reservation> assigned = hotel.assignHolds(20);
+        Check.equal(1, assigned.size(), "hold assigned");
+        Check.equal("B", assigned.get(0).getRoom().getName(), "the room left whole for it");
+    }
+
+    /**
+     * With holds and fixed-room bookings mixed at random, every hold admitted gets a room on
+     * assignment and no room ends up booked twice on a night.
+     */
+    private static void everyAdmittedHoldGetsARoom() {
+        Random random = new Random(23);
+        for (int round = 0; round < 40; round++) {
+            Hotel hotel = new Hotel("Test");
+            for (int r = 0; r < 4; r++) {
+                hotel.addRoom("R" + r, 1000.0, r < 3 ? "Standard" : "Deluxe");
+            }
+            Map<Integer, RoomTypeHold> held = new HashMap<>();
+            List<RoomTypeHold> cancellable = new ArrayList<>();
+            int horizon = 0;
+            for (int step = 0; step < 80; step++) {
+                int checkIn = horizon + 1 + random.nextInt(40);
+                int checkOut = checkIn + 1 + random.nextInt(5);
+                int action = random.nextInt(10);
+                if (action < 5) {
+                    RoomTypeHold hold = hotel.holdRoomType("Guest", random.nextInt(4) == 0 ? "Deluxe" : "Standard", checkIn, checkOut, null);
+                    if (hold != null) {
+                        held.put(hold.getId(), hold);
+                        cancellable.add(hold);
+                    }
+                } else if (action < 8) {
+                    hotel.bookRoom("Guest", checkIn, checkOut, hotel.getRooms().get(random.nextInt(4)));
+                } else if (action == 8 && !cancellable.isEmpty()) {
+                    RoomTypeHold hold = cancellable.remove(random.nextInt(cancellable.size()));
+                    if (hotel.cancelHold(hold)) {
+                        held.remove(hold.getId());
+                    }
+                } else {
+                    horizon += random.nextInt(10);
+                    for (Reservation reservation : hotel.assignHolds(horizon)) {
+                        Check.isTrue(held.remove(reservation.getId()) != null, "assigned a known hold");
+                    }
+                }
+            }
+            for (Reservation reservation : hotel.assignHolds(Integer.MAX_VALUE - 1)) {
+                Check.isTrue(held.remove(reservation.getId()) != null, "assigned a known hold");
+            }
+            Check.equal(0, held.size(), "every hold got a room in round " + round);
+            Check.equal(0, hotel.getHolds().size(), "nothing left waiting");
+            for (Room room : hotel.getRooms()) {
+                List<Reservation> stays = room.getReservations();
+                for (int i = 0; i < stays.size(); i++) {
+                    for (int j = i + 1; j < stays.size(); j++) {
+                        Reservation a = stays.get(i);
+                        Reservation b = stays.get(j);
+                        Check.isTrue(a.getCheckOutDay() <= b.getCheckInDay() || b.getCheckOutDay() <= a.getCheckInDay(),
+                                room.getName() + " booked twice in round " + round);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import java.lang.reflect.Method;
+
+/**
+ * Runs every test program in this directory and reports which ones failed.
+ * Exits with status 1 if any test fails.
+ */
+public class RunAllTests {
+    private static final String[] TESTS = {
+        "ReservationIndexTest",
+        "OccupancyBitmapTest",
+        "RateCalendarTest",
+        "EpochDayTest",
+        "HotelIndexTest",
+        "HotelBookingTest",
+        "BookingBatchTest",
+        "BookingJournalTest",
+        "ColumnarSnapshotTest",
+        "ReservationStoreTest",
+        "MonthAvailabilityTest",
+        "EarningsLedgerTest",
+        "RevenueAnalyticsTest",
+        "DiscountRulesTest",
+        "StayQuotesTest",
+        "QuoteCacheTest",
+        "DatePriceModifierTest",
+        "DiscountBookingTest",
+        "RoomRemovalTest",
+        "HotelServiceTest",
+        "BookingServerTest",
+        "AssignmentStrategyTest",
+        "BookedCountTreeTest",
+        "RoomTypeHoldTest",
+        "CalendarDefragmenterTest",
+        "EarliestWindowTest",
+    };
+
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     * @throws Exception if a test class cannot be loaded
+     */
+    public static void main(String[] args) throws Exception {
+        int failed = 0;
+        for (String test : TESTS) {
+            Method main = Class.forName(test).getMethod("main", String[].class);
+            try {
+                main.invoke(null, (Object) new String[0]);
+                System.out.println("PASS " + test);
+            } catch (java.lang.reflect.InvocationTargetException e) {
+                failed++;
+                System.out.println("FAIL " + test + ": " + e.getCause());
+                e.getCause().printStackTrace(System.out);
+            }
+        }
+        System.out.println((TESTS.length - failed) + " of " + TESTS.length + " test programs passed.");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+}
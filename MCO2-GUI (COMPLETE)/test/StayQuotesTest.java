@@ -0,0 +1,81 @@
+import java.util.Random;
+
+/**
+ * Tests bulk quotes against pricing each stay night by night.
+ */
+public class StayQuotesTest {
+    /**
+     * Runs the tests.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        quotesMatchNightByNightPrices();
+        emptyAndMismatchedBatches();
+    }
+
+    /**
+     * Each stay in each room type costs the cheapest room of the type times the modifier of every
+     * night, and types the hotel does not have are not quoted.
+     */
+    private static void quotesMatchNightByNightPrices() {
+        Random random = new Random(16);
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("S1", 1500.0, "Standard");
+        hotel.addRoom("S2", 1200.0, "Standard");
+        hotel.addRoom("D1", 1000.0, "Deluxe");
+        hotel.addDatePriceModifier(new DatePriceModifier(10, 15, 1.5));
+        hotel.addDatePriceModifier(new DatePriceModifier(30, 31, 0.5));
+
+        int[] checkInDays = new int[500];
+        int[] nights = new int[checkInDays.length];
+        for (int i = 0; i < checkInDays.length; i++) {
+            checkInDays[i] = random.nextInt(50);
+            nights[i] = random.nextInt(10); // Includes stays without nights
+        }
+        StayQuotes quotes = hotel.quote(checkInDays, nights);
+        Check.equal(checkInDays.length, quotes.size(), "one row per stay");
+        Check.isTrue(quotes.isQuoted("Standard") && quotes.isQuoted("Deluxe"), "types with rooms");
+        Check.isTrue(!quotes.isQuoted("Executive"), "type without rooms");
+
+        double standard = hotel.getRoomInfo("S2").getBasePrice();
+        double deluxe = hotel.getRoomInfo("D1").getBasePrice();
+        for (int i = 0; i < checkInDays.length; i++) {
+            double modifiers = 0;
+            for (int night = checkInDays[i]; night < checkInDays[i] + nights[i]; night++) {
+                modifiers += hotel.getModifierForDate(EpochDay.toDate(night));
+            }
+            Check.near(standard * modifiers, quotes.getPrice(i, "Standard"), "standard stay " + i);
+            Check.near(deluxe * modifiers, quotes.getPrice(i, "Deluxe"), "deluxe stay " + i);
+            Check.isTrue(Double.isNaN(quotes.getPrice(i, "Executive")), "executive stay " + i);
+        }
+
+        // A booked reservation costs what the quote said
+        Reservation booked = hotel.bookRoom("Guest", checkInDays[0], checkInDays[0] + Math.max(1, nights[0]), hotel.getRoomInfo("D1"));
+        StayQuotes single = hotel.quote(new int[] {booked.getCheckInDay()}, new int[] {booked.getNights()});
+        Check.near(booked.getFinalPrice(), single.getPrice(0, "Deluxe"), "quote matches the booking");
+        try {
+            quotes.getPrice(0, "Suite");
+            Check.isTrue(false, "unknown type quoted");
+        } catch (IllegalArgumentException expected) {
+            // Only the three room types have columns
+        }
+    }
+
+    /**
+     * An empty batch gives no quotes, and stays without a matching number of nights are refused.
+     */
+    private static void emptyAndMismatchedBatches() {
+        Hotel hotel = new Hotel("Test");
+        hotel.addRoom("S1", 1500.0, "Standard");
+        StayQuotes empty = hotel.quote(new int[0], new int[0]);
+        Check.equal(0, empty.size(), "empty batch");
+        Check.isTrue(!empty.isQuoted("Standard"), "nothing quoted");
+        try {
+            hotel.quote(new int[] {1, 2}, new int[] {1});
+            Check.isTrue(false, "mismatched arrays accepted");
+        } catch (IllegalArgumentException expected) {
+            // Every stay needs its nights
+        }
+    }
+}